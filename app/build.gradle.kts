@@ -19,6 +19,13 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Room exports each database version's schema here on build, commit the generated files
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
     }
 
     buildTypes {
@@ -60,6 +67,7 @@ dependencies {
 
     // image loading
     implementation("com.github.bumptech.glide:glide:4.16.0")
+    annotationProcessor("com.github.bumptech.glide:compiler:4.16.0")
     implementation(libs.cardview)
     implementation(libs.recyclerview)
     implementation(libs.legacy.support.v4)
@@ -67,6 +75,11 @@ dependencies {
     // Room database for local caching
     implementation("androidx.room:room-runtime:2.6.1")
     annotationProcessor("androidx.room:room-compiler:2.6.1")
+    implementation("androidx.room:room-paging:2.6.1")
+
+    // Paging for the community feed, paged out of Room
+    implementation("androidx.paging:paging-runtime:3.3.6")
+    implementation("androidx.paging:paging-guava:3.3.6")
 
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
@@ -0,0 +1,118 @@
+package com.gitgud.citywatch.data.cache;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks that the hot DAO queries are answered from an index, so their cost stays logarithmic as the cache grows
+ * The SQL mirrors the DAO queries, keep both in sync
+ */
+@RunWith(AndroidJUnit4.class)
+public class DaoQueryPlanTest {
+    private AppDatabase db;
+
+    @Before
+    public void createDb() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void feedUsesIndex() {
+        assertIndexed("SELECT reports.*, IFNULL(report_votes.voteType, 0) AS userVote FROM reports " +
+                "LEFT JOIN report_votes ON report_votes.reportId = reports.documentId " +
+                "AND report_votes.userId = ? " +
+                "ORDER BY reports.createdAt DESC, reports.documentId DESC", "u1");
+    }
+
+    @Test
+    public void allReportsUseIndex() {
+        assertIndexed("SELECT * FROM reports ORDER BY createdAt DESC");
+    }
+
+    @Test
+    public void reportByIdUsesIndex() {
+        assertIndexed("SELECT * FROM reports WHERE documentId = ?", "r1");
+    }
+
+    @Test
+    public void userReportsUseIndex() {
+        assertIndexed("SELECT reports.*, IFNULL(report_votes.voteType, 0) AS userVote FROM reports " +
+                "LEFT JOIN report_votes ON report_votes.reportId = reports.documentId " +
+                "AND report_votes.userId = ? " +
+                "WHERE reports.userId = ? " +
+                "ORDER BY reports.createdAt DESC, reports.documentId DESC", "u1", "u1");
+    }
+
+    @Test
+    public void reportBucketUsesIndex() {
+        assertIndexed("SELECT createdAt, rowDigest FROM reports WHERE createdAt >= ?", 1000L);
+    }
+
+    @Test
+    public void commentsPagesUseIndex() {
+        assertIndexed("SELECT * FROM comments WHERE reportId = ? " +
+                "ORDER BY datetime DESC, commentId DESC LIMIT ?", "r1", 30);
+        assertIndexed("SELECT * FROM comments WHERE reportId = ? " +
+                "AND (datetime < ? OR (datetime = ? AND commentId < ?)) " +
+                "ORDER BY datetime DESC, commentId DESC LIMIT ?", "r1", 1000L, 1000L, "c1", 30);
+        assertIndexed("SELECT comments.*, IFNULL(comment_votes.voteType, 0) AS userVote FROM comments " +
+                "LEFT JOIN comment_votes ON comment_votes.commentId = comments.commentId " +
+                "AND comment_votes.userId = ? " +
+                "WHERE comments.reportId = ? " +
+                "ORDER BY comments.datetime DESC, comments.commentId DESC LIMIT ?", "u1", "r1", 30);
+    }
+
+    @Test
+    public void userVotesUseIndex() {
+        assertIndexed("SELECT * FROM report_votes WHERE userId = ?", "u1");
+        assertIndexed("SELECT * FROM comment_votes WHERE userId = ?", "u1");
+        assertIndexed("SELECT * FROM report_votes WHERE reportId = ? AND userId = ?", "r1", "u1");
+        assertIndexed("SELECT * FROM comment_votes WHERE commentId = ? AND userId = ?", "c1", "u1");
+    }
+
+    /**
+     * Fail if any step of the query's plan scans a whole table or sorts in a temporary b-tree
+     */
+    private void assertIndexed(String sql, Object... args) {
+        List<String> plan = queryPlan(sql, args);
+        for (String step : plan) {
+            boolean fullScan = step.startsWith("SCAN") && !step.contains(" USING ")
+                    && !step.contains("CONSTANT ROW");
+            assertFalse("Full table scan in " + plan + " for " + sql, fullScan);
+            assertFalse("Unindexed sort in " + plan + " for " + sql, step.contains("TEMP B-TREE"));
+        }
+    }
+
+    private List<String> queryPlan(String sql, Object... args) {
+        List<String> plan = new ArrayList<>();
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase()
+                .query(new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + sql, args))) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detail));
+            }
+        }
+        return plan;
+    }
+}
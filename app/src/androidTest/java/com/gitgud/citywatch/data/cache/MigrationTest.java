@@ -0,0 +1,154 @@
+package com.gitgud.citywatch.data.cache;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs Migrations from the only schema that shipped, version 1, and opens the result with Room
+ * Room validates the migrated tables against the compiled entities, so no exported schema file is involved
+ * Versions 2 to 8 never shipped, building them from the migrations under test would only check the chain
+ * against itself
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    private static final String TEST_DB = "migration-test";
+
+    // Tables as Room created them at version 1, from the entities of the first release
+    private static final String[] VERSION_1_SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS `reports` (`documentId` TEXT NOT NULL, `description` TEXT, " +
+                    "`hazardType` TEXT, `localGov` TEXT, `locationDetails` TEXT, `latitude` REAL NOT NULL, " +
+                    "`longitude` REAL NOT NULL, `status` TEXT, `photoUrl` TEXT, `profilePictureUrl` TEXT, " +
+                    "`userName` TEXT, `userId` TEXT, `votes` INTEGER NOT NULL, `createdAt` INTEGER NOT NULL, " +
+                    "`score` INTEGER NOT NULL, `comments` INTEGER NOT NULL, `cachedAt` INTEGER NOT NULL, " +
+                    "`userIsAdmin` INTEGER NOT NULL, PRIMARY KEY(`documentId`))",
+            "CREATE TABLE IF NOT EXISTS `comments` (`commentId` TEXT NOT NULL, `content` TEXT, " +
+                    "`datetime` INTEGER NOT NULL, `reportId` TEXT, `userId` TEXT, `userName` TEXT, " +
+                    "`profilePictureUrl` TEXT, `score` INTEGER NOT NULL, `cachedAt` INTEGER NOT NULL, " +
+                    "`userIsAdmin` INTEGER NOT NULL, PRIMARY KEY(`commentId`))",
+            "CREATE TABLE IF NOT EXISTS `user_profiles` (`userId` TEXT NOT NULL, `name` TEXT, `phone` TEXT, " +
+                    "`email` TEXT, `profilePictureUrl` TEXT, `cachedAt` INTEGER NOT NULL, PRIMARY KEY(`userId`))",
+            "CREATE TABLE IF NOT EXISTS `report_votes` (`reportId` TEXT NOT NULL, `userId` TEXT NOT NULL, " +
+                    "`voteType` INTEGER NOT NULL, `cachedAt` INTEGER NOT NULL, PRIMARY KEY(`reportId`, `userId`))",
+            "CREATE TABLE IF NOT EXISTS `comment_votes` (`commentId` TEXT NOT NULL, `userId` TEXT NOT NULL, " +
+                    "`voteType` INTEGER NOT NULL, `cachedAt` INTEGER NOT NULL, PRIMARY KEY(`commentId`, `userId`))",
+            "CREATE TABLE IF NOT EXISTS `cache_metadata` (`cacheKey` TEXT NOT NULL, `dataHash` TEXT, " +
+                    "`lastUpdated` INTEGER NOT NULL, `itemCount` INTEGER NOT NULL, PRIMARY KEY(`cacheKey`))"
+    };
+
+    private Context context;
+    private AppDatabase database;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @After
+    public void tearDown() {
+        if (database != null) {
+            database.close();
+        }
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void roomOpensVersion1() {
+        createVersion1().close();
+        openMigrated();
+    }
+
+    @Test
+    public void votesProfilesAndSettingsSurviveFromVersion1() {
+        SupportSQLiteDatabase db = createVersion1();
+        db.execSQL("INSERT INTO report_votes (reportId, userId, voteType, cachedAt) VALUES ('r1', 'u1', 1, 0)");
+        db.execSQL("INSERT INTO comment_votes (commentId, userId, voteType, cachedAt) VALUES ('c1', 'u1', -1, 0)");
+        db.execSQL("INSERT INTO user_profiles (userId, name, cachedAt) VALUES ('u1', 'Alice', 0)");
+        db.execSQL("INSERT INTO cache_metadata (cacheKey, dataHash, lastUpdated, itemCount) " +
+                "VALUES ('user_votes_u1', 'h1', 0, 2)");
+        db.close();
+
+        db = openMigrated();
+        assertEquals(1, count(db, "SELECT * FROM report_votes WHERE reportId = 'r1' AND voteType = 1"));
+        assertEquals(1, count(db, "SELECT * FROM comment_votes WHERE commentId = 'c1' AND voteType = -1"));
+        assertEquals(1, count(db, "SELECT * FROM user_profiles WHERE name = 'Alice'"));
+        assertEquals(1, count(db, "SELECT * FROM cache_metadata WHERE cacheKey = 'user_votes_u1' " +
+                "AND dataHash = 'h1' AND syncToken = 0 AND stale = 0"));
+    }
+
+    @Test
+    public void reportsAndCommentsSurviveFromVersion1() {
+        SupportSQLiteDatabase db = createVersion1();
+        db.execSQL("INSERT INTO reports (documentId, userId, latitude, longitude, photoUrl, votes, createdAt, " +
+                "score, comments, cachedAt, userIsAdmin) " +
+                "VALUES ('r1', 'u1', 1.5, 2.5, 'https://x/r1.jpg', 0, 1000, 3, 1, 0, 0)");
+        db.execSQL("INSERT INTO comments (commentId, reportId, datetime, content, profilePictureUrl, score, " +
+                "cachedAt, userIsAdmin) VALUES ('c1', 'r1', 2000, 'hi', 'https://x/u1.jpg', 2, 0, 0)");
+        db.execSQL("INSERT INTO cache_metadata (cacheKey, dataHash, lastUpdated, itemCount) " +
+                "VALUES ('all_reports', 'h1', 0, 1)");
+        db.close();
+
+        db = openMigrated();
+        assertEquals(1, count(db, "SELECT * FROM reports WHERE documentId = 'r1' AND latitude = 1.5 " +
+                "AND score = 3 AND photoVersion IS NULL AND updatedAt = 0 AND rowDigest = 0"));
+        assertEquals(1, count(db, "SELECT * FROM comments WHERE commentId = 'c1' AND content = 'hi' " +
+                "AND profilePictureVersion IS NULL"));
+        // The old hash cannot match the content-based one, so it is cleared rather than trusted
+        assertEquals(1, count(db, "SELECT * FROM cache_metadata WHERE cacheKey = 'all_reports' " +
+                "AND dataHash IS NULL"));
+    }
+
+    /**
+     * Create the test database with the version 1 tables, as the first release left it on devices
+     */
+    private SupportSQLiteDatabase createVersion1() {
+        SupportSQLiteOpenHelper.Configuration configuration = SupportSQLiteOpenHelper.Configuration
+                .builder(context)
+                .name(TEST_DB)
+                .callback(new SupportSQLiteOpenHelper.Callback(1) {
+                    @Override
+                    public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                        for (String sql : VERSION_1_SCHEMA) {
+                            db.execSQL(sql);
+                        }
+                    }
+
+                    @Override
+                    public void onUpgrade(@NonNull SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+                    }
+                })
+                .build();
+        return new FrameworkSQLiteOpenHelperFactory().create(configuration).getWritableDatabase();
+    }
+
+    /**
+     * Open the test database with Room, running every migration and validating the result against the entities
+     */
+    private SupportSQLiteDatabase openMigrated() {
+        database = Room.databaseBuilder(context, AppDatabase.class, TEST_DB)
+                .addMigrations(Migrations.ALL)
+                .build();
+        return database.getOpenHelper().getWritableDatabase();
+    }
+
+    private static int count(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            return cursor.getCount();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.gitgud.citywatch.data.repository;
+
+import android.content.Context;
+
+import androidx.annotation.OptIn;
+import androidx.paging.ExperimentalPagingApi;
+import androidx.paging.LoadType;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingSource;
+import androidx.paging.PagingState;
+import androidx.paging.RemoteMediator;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.gitgud.citywatch.data.cache.AppDatabase;
+import com.gitgud.citywatch.data.cache.CacheManager;
+import com.gitgud.citywatch.data.cache.dao.ReportDao;
+import com.gitgud.citywatch.data.cache.entity.CachedReport;
+import com.gitgud.citywatch.model.HazardCard;
+import com.gitgud.citywatch.util.ApiClient;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that feed appends resume from the stored remote key, not from the oldest cached row
+ * The server is a fixed list of reports paged the way getReportsPage pages them
+ */
+@OptIn(markerClass = ExperimentalPagingApi.class)
+@RunWith(AndroidJUnit4.class)
+public class FeedRemoteMediatorTest {
+    private static final int PAGE_SIZE = 10;
+    private static final int SERVER_REPORTS = 30;
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private AppDatabase db;
+    private CacheManager cacheManager;
+    private FeedRemoteMediator mediator;
+    private final List<HazardCard> server = new ArrayList<>();
+    private final List<String> fetchedCursors = new ArrayList<>();
+
+    @Before
+    public void createDb() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+        cacheManager = new CacheManager(db);
+        mediator = new FeedRemoteMediator(cacheManager::getFeedRemoteKey, this::fetchPage);
+        for (int i = 0; i < SERVER_REPORTS; i++) {
+            server.add(report(i));
+        }
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void appendAfterDeltaFetchesReportsBetweenPagedRangeAndOldRow() throws Exception {
+        load(LoadType.REFRESH);
+
+        // A delta sync caches an old report the paged range has not reached
+        HazardCard edited = new HazardCard(server.get(25));
+        edited.setUpdatedAt(edited.getUpdatedAt() + 1);
+        CountDownLatch applied = new CountDownLatch(1);
+        cacheManager.applyReportsDelta(Collections.singletonList(edited), Collections.emptyList(),
+                edited.getUpdatedAt(), ok -> applied.countDown());
+        assertTrue(applied.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        RemoteMediator.MediatorResult result = load(LoadType.APPEND);
+
+        assertTrue(result instanceof RemoteMediator.MediatorResult.Success);
+        assertFalse(((RemoteMediator.MediatorResult.Success) result).endOfPaginationReached());
+        assertEquals(id(PAGE_SIZE - 1), fetchedCursors.get(fetchedCursors.size() - 1));
+        for (int i = PAGE_SIZE; i < 2 * PAGE_SIZE; i++) {
+            assertNotNull(id(i) + " was skipped", db.reportDao().getReportById(id(i)));
+        }
+    }
+
+    @Test
+    public void appendStopsAfterLastPage() throws Exception {
+        load(LoadType.REFRESH);
+        load(LoadType.APPEND);
+
+        RemoteMediator.MediatorResult last = load(LoadType.APPEND);
+        assertTrue(((RemoteMediator.MediatorResult.Success) last).endOfPaginationReached());
+        assertEquals(SERVER_REPORTS, db.reportDao().getReportCount());
+
+        int fetches = fetchedCursors.size();
+        RemoteMediator.MediatorResult afterEnd = load(LoadType.APPEND);
+        assertTrue(((RemoteMediator.MediatorResult.Success) afterEnd).endOfPaginationReached());
+        assertEquals(fetches, fetchedCursors.size());
+    }
+
+    /**
+     * Run one mediator load with the rows currently cached as the paging state, oldest row last
+     */
+    private RemoteMediator.MediatorResult load(LoadType loadType) throws Exception {
+        List<ReportDao.FeedRow> rows = new ArrayList<>();
+        for (CachedReport report : db.reportDao().getAllReports()) {
+            ReportDao.FeedRow row = new ReportDao.FeedRow();
+            row.report = report;
+            rows.add(row);
+        }
+        PagingState<Integer, ReportDao.FeedRow> state = new PagingState<>(
+                Collections.singletonList(new PagingSource.LoadResult.Page<>(rows, null, null)),
+                null, new PagingConfig(PAGE_SIZE), 0);
+        return mediator.loadFuture(loadType, state).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Serve the page after the cursor and cache it, as DataRepository.fetchReportsPage does
+     */
+    private Task<ApiClient.ReportsPage> fetchPage(long cursorCreatedAt, String cursorId) {
+        fetchedCursors.add(cursorId);
+        int from = 0;
+        if (cursorId != null) {
+            for (int i = 0; i < server.size(); i++) {
+                if (server.get(i).getDocumentId().equals(cursorId)) {
+                    from = i + 1;
+                }
+            }
+        }
+        List<HazardCard> reports = new ArrayList<>();
+        for (HazardCard card : server.subList(from, Math.min(from + PAGE_SIZE, server.size()))) {
+            reports.add(new HazardCard(card));
+        }
+        HazardCard last = reports.get(reports.size() - 1);
+        boolean hasMore = from + PAGE_SIZE < server.size();
+        ApiClient.ReportsPage page = new ApiClient.ReportsPage(reports,
+                hasMore ? last.getCreatedAt() : 0L, hasMore ? last.getDocumentId() : null);
+
+        TaskCompletionSource<ApiClient.ReportsPage> source = new TaskCompletionSource<>();
+        cacheManager.cacheReportsPage(reports, cursorCreatedAt, cursorId, page.nextCreatedAt,
+                page.nextDocumentId, cached -> {
+                    if (cached) {
+                        source.setResult(page);
+                    } else {
+                        source.setException(new IllegalStateException("Page not cached"));
+                    }
+                });
+        return source.getTask();
+    }
+
+    private static HazardCard report(int index) {
+        HazardCard card = new HazardCard(id(index), "Report " + index, "Pothole", "Council",
+                "Street " + index, 0.0, 0.0, "Submitted", "", "User", 0);
+        card.setUserId("u1");
+        card.setCreatedAt(1_000_000L - index * 1000L);
+        card.setUpdatedAt(card.getCreatedAt());
+        return card;
+    }
+
+    private static String id(int index) {
+        return String.format(Locale.ROOT, "r%02d", index);
+    }
+}
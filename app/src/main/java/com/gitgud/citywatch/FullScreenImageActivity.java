@@ -7,6 +7,7 @@ import android.widget.ImageView;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.bumptech.glide.Glide;
+import com.gitgud.citywatch.util.image.StorageImage;
 
 public class FullScreenImageActivity extends AppCompatActivity {
 
@@ -18,11 +19,12 @@ public class FullScreenImageActivity extends AppCompatActivity {
         ImageView ivFullScreen = findViewById(R.id.ivFullScreen);
         ImageButton btnClose = findViewById(R.id.btnClose);
 
-        String photoUrl = getIntent().getStringExtra("photoUrl");
+        String documentId = getIntent().getStringExtra("documentId");
+        String photoVersion = getIntent().getStringExtra("photoVersion");
 
-        if (photoUrl != null && !photoUrl.isEmpty()) {
+        if (documentId != null && !documentId.isEmpty()) {
             Glide.with(this)
-                    .load(photoUrl)
+                    .load(StorageImage.reportPhoto(documentId, photoVersion))
                     .into(ivFullScreen);
         }
 
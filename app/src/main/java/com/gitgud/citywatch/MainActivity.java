@@ -103,7 +103,7 @@ public class MainActivity extends AppCompatActivity {
         dataRepository.validateCachesOnNavigation(invalidatedKeys -> {
             if (!invalidatedKeys.isEmpty()) {
                 Log.d(TAG, "Invalidated caches: " + invalidatedKeys);
-                // The fragments will automatically refresh when they load
+                // The fragments show their cached rows and revalidate when they load
                 // because reportsCacheInvalidated flag is set
             }
         });
@@ -19,8 +19,10 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.textfield.TextInputEditText;
 import com.gitgud.citywatch.data.repository.DataRepository;
+import com.gitgud.citywatch.model.HazardCard;
 import com.gitgud.citywatch.util.ApiClient;
 import com.gitgud.citywatch.util.SessionManager;
+import com.gitgud.citywatch.util.image.StorageImage;
 
 import java.io.IOException;
 import java.util.Locale;
@@ -140,10 +142,10 @@ public class ReportActivity extends AppCompatActivity {
         }
 
         // Load existing photo if available
-        String photoUrl = intent.getStringExtra("photoUrl");
-        if (photoUrl != null && !photoUrl.isEmpty()) {
+        if (editReportId != null && !editReportId.isEmpty()) {
+            String photoVersion = intent.getStringExtra("photoVersion");
             com.bumptech.glide.Glide.with(this)
-                .load(photoUrl)
+                .load(StorageImage.reportPhoto(editReportId, photoVersion))
                 .into(ivPhotoPlaceholder);
             prepareImageView();
         }
@@ -250,34 +252,45 @@ public class ReportActivity extends AppCompatActivity {
         // Show progress dialog
         showProgressDialog("Updating report...");
 
-        // Call edit API
-        ApiClient.editReport(editReportId, userId, description, hazardType, localGov,
-                locationDetails, selectedLatitude, selectedLongitude, editStatus)
-                .addOnSuccessListener(aVoid -> {
-                    dismissProgressDialog();
-                    // Invalidate cache to reload with fresh data
-                    dataRepository.invalidateReportsCache();
-                    Toast.makeText(this, "Report updated successfully!", Toast.LENGTH_SHORT).show();
-
-                    // Return edited data to fragment for immediate UI update
-                    Intent resultIntent = new Intent();
-                    resultIntent.putExtra("reportId", editReportId);
-                    resultIntent.putExtra("description", description);
-                    resultIntent.putExtra("hazardType", hazardType);
-                    resultIntent.putExtra("localGov", localGov);
-                    resultIntent.putExtra("locationDetails", locationDetails);
-                    resultIntent.putExtra("latitude", selectedLatitude);
-                    resultIntent.putExtra("longitude", selectedLongitude);
-                    resultIntent.putExtra("status", editStatus);
-
-                    setResult(RESULT_OK, resultIntent);
-                    finish();
-                })
-                .addOnFailureListener(e -> {
-                    dismissProgressDialog();
-                    Toast.makeText(this, "Failed to update report: " + e.getMessage(),
-                            Toast.LENGTH_SHORT).show();
-                });
+        HazardCard edited = new HazardCard();
+        edited.setDocumentId(editReportId);
+        edited.setDescription(description);
+        edited.setHazardType(hazardType);
+        edited.setLocalGov(localGov);
+        edited.setLocationDetails(locationDetails);
+        edited.setLatitude(selectedLatitude);
+        edited.setLongitude(selectedLongitude);
+        edited.setStatus(editStatus);
+
+        // Edit through the repository, which writes the new fields to the cache on success
+        dataRepository.editReport(edited, new DataRepository.SimpleCallback() {
+            @Override
+            public void onSuccess() {
+                dismissProgressDialog();
+                Toast.makeText(ReportActivity.this, "Report updated successfully!", Toast.LENGTH_SHORT).show();
+
+                // Return edited data to fragment for immediate UI update
+                Intent resultIntent = new Intent();
+                resultIntent.putExtra("reportId", editReportId);
+                resultIntent.putExtra("description", description);
+                resultIntent.putExtra("hazardType", hazardType);
+                resultIntent.putExtra("localGov", localGov);
+                resultIntent.putExtra("locationDetails", locationDetails);
+                resultIntent.putExtra("latitude", selectedLatitude);
+                resultIntent.putExtra("longitude", selectedLongitude);
+                resultIntent.putExtra("status", editStatus);
+
+                setResult(RESULT_OK, resultIntent);
+                finish();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                dismissProgressDialog();
+                Toast.makeText(ReportActivity.this, "Failed to update report: " + e.getMessage(),
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void submitReport() {
@@ -312,7 +325,7 @@ public class ReportActivity extends AppCompatActivity {
         // Show progress dialog
         showProgressDialog("Submitting report...");
 
-        // Submit report via DataRepository (automatically invalidates cache)
+        // Queued via DataRepository, the photo can upload before the report reaches the server
         dataRepository.submitReport(description, hazardType, localGov, locationDetails,
                 selectedLatitude, selectedLongitude,
                 new DataRepository.ReportSubmitCallback() {
@@ -1,6 +1,7 @@
 package com.gitgud.citywatch;
 
 import android.content.Intent;
+import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.ImageButton;
@@ -9,21 +10,31 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
 import com.gitgud.citywatch.model.Comment;
+import com.gitgud.citywatch.model.HazardCard;
 import com.gitgud.citywatch.model.SpacingItemDecoration;
 import com.gitgud.citywatch.ui.thread.CommentAdapter;
+import com.gitgud.citywatch.ui.thread.ThreadHeaderAdapter;
 import com.gitgud.citywatch.data.repository.DataRepository;
+import com.gitgud.citywatch.data.repository.VoteStateStore;
 import com.gitgud.citywatch.util.ApiClient;
 import com.gitgud.citywatch.util.SessionManager;
 import com.gitgud.citywatch.util.VoteButtonAnimationHelper;
+import com.gitgud.citywatch.util.image.StorageImage;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.google.android.material.textfield.TextInputEditText;
@@ -47,16 +58,17 @@ public class ThreadActivity extends AppCompatActivity {
     private MaterialButton btnDownvote;
     private TextView tvVotes;
     private TextView tvComments;
-    private RecyclerView rvComments;
+    private RecyclerView rvThread;
     private TextView tvCommentsLoading;
     private TextInputLayout tilComment;
     private TextInputEditText etComment;
     private View llCommentInput;
-    private androidx.core.widget.NestedScrollView nestedScrollView;
     private com.google.android.material.appbar.MaterialToolbar toolbar;
 
     // Comments
     private CommentAdapter commentAdapter;
+    private ConcatAdapter threadAdapter;
+    private View threadHeader;
     private List<Comment> commentList;
 
     // Data
@@ -65,10 +77,27 @@ public class ThreadActivity extends AppCompatActivity {
     private int currentUserVote;
     private double latitude;
     private double longitude;
-    private String photoUrl;
+    private String photoVersion;
     private DataRepository dataRepository;
     private boolean hasCachedComments = false;
 
+    // Follows votes on this report made here or on another screen
+    private final VoteStateStore.VoteObserver reportVoteObserver = (reportId, state) -> {
+        if (!reportId.equals(documentId)) return;
+        currentScore = state.score;
+        currentUserVote = state.userVote;
+        tvVotes.setText(String.valueOf(currentScore));
+        updateVoteButtonStates(currentUserVote);
+    };
+
+    // Keyset cursor for the next comments page
+    private static final int LOAD_MORE_THRESHOLD = 5;
+    private long nextCursorDatetime = 0L;
+    private String nextCursorId = null;
+    private boolean hasMorePages = false;
+    private boolean isLoadingPage = false;
+    private int commentsGeneration = 0; // Bumped on reload so late page results are dropped
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -97,29 +126,39 @@ public class ThreadActivity extends AppCompatActivity {
 
         loadIntentData();
         setupClickListeners();
+        dataRepository.getReportVotes().addObserver(reportVoteObserver);
+        observeThread();
         loadComments();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        dataRepository.getReportVotes().removeObserver(reportVoteObserver);
+    }
+
     private void initViews() {
         toolbar = findViewById(R.id.toolbar);
-        ivProfile = findViewById(R.id.ivThreadProfile);
-        tvName = findViewById(R.id.tvThreadName);
-        tvTitle = findViewById(R.id.tvThreadTitle);
-        tvTagTertiary = findViewById(R.id.tvThreadTagTertiary);
-        tvTagSecondary = findViewById(R.id.tvThreadTagSecondary);
-        ivPhoto = findViewById(R.id.ivThreadPhoto);
-        cvPhoto = findViewById(R.id.cvPhoto);
-        tvDescription = findViewById(R.id.tvThreadDesc);
-        btnUpvote = findViewById(R.id.btnThreadUpvote);
-        btnDownvote = findViewById(R.id.btnThreadDownvote);
-        tvVotes = findViewById(R.id.tvThreadVotes);
-        tvComments = findViewById(R.id.tvThreadComments);
-        rvComments = findViewById(R.id.rvComments);
-        tvCommentsLoading = findViewById(R.id.tvCommentsLoading);
+        rvThread = findViewById(R.id.rvThread);
         tilComment = findViewById(R.id.tilComment);
         etComment = findViewById(R.id.etComment);
         llCommentInput = findViewById(R.id.llCommentInput);
-        nestedScrollView = findViewById(R.id.nestedScrollView);
+
+        // Report body scrolls as the first item of the thread list
+        threadHeader = getLayoutInflater().inflate(R.layout.thread_header, rvThread, false);
+        ivProfile = threadHeader.findViewById(R.id.ivThreadProfile);
+        tvName = threadHeader.findViewById(R.id.tvThreadName);
+        tvTitle = threadHeader.findViewById(R.id.tvThreadTitle);
+        tvTagTertiary = threadHeader.findViewById(R.id.tvThreadTagTertiary);
+        tvTagSecondary = threadHeader.findViewById(R.id.tvThreadTagSecondary);
+        ivPhoto = threadHeader.findViewById(R.id.ivThreadPhoto);
+        cvPhoto = threadHeader.findViewById(R.id.cvPhoto);
+        tvDescription = threadHeader.findViewById(R.id.tvThreadDesc);
+        btnUpvote = threadHeader.findViewById(R.id.btnThreadUpvote);
+        btnDownvote = threadHeader.findViewById(R.id.btnThreadDownvote);
+        tvVotes = threadHeader.findViewById(R.id.tvThreadVotes);
+        tvComments = threadHeader.findViewById(R.id.tvThreadComments);
+        tvCommentsLoading = threadHeader.findViewById(R.id.tvCommentsLoading);
 
         // Setup RecyclerView for comments
         commentList = new ArrayList<>();
@@ -135,22 +174,33 @@ public class ThreadActivity extends AppCompatActivity {
                 showDeleteCommentDialog(comment);
             }
         });
-        rvComments.setLayoutManager(new LinearLayoutManager(this));
-        rvComments.setAdapter(commentAdapter);
-        rvComments.setNestedScrollingEnabled(false);
+        // One scrolling list, so only the visible comments are inflated and recycled
+        threadAdapter = new ConcatAdapter(new ThreadHeaderAdapter(threadHeader), commentAdapter);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        rvThread.setLayoutManager(layoutManager);
+        rvThread.setAdapter(threadAdapter);
+
+        // Load the next page of comments when the user scrolls near the end of the thread
+        rvThread.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= threadAdapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    loadNextPage();
+                }
+            }
+        });
 
         // Add 10dp spacing between comments
         int spacingInPx = (int) (10 * getResources().getDisplayMetrics().density);
-        rvComments.addItemDecoration(new SpacingItemDecoration(spacingInPx));
+        rvThread.addItemDecoration(new SpacingItemDecoration(spacingInPx));
 
         // Auto-scroll to bottom when typing a comment (without stealing focus)
         etComment.setOnFocusChangeListener((v, hasFocus) -> {
             if (hasFocus) {
-                // Use smoothScrollTo instead of fullScroll to avoid transferring focus
-                nestedScrollView.postDelayed(() -> {
-                    // Scroll to the comment input layout position
-                    nestedScrollView.smoothScrollTo(0, llCommentInput.getBottom());
-                }, 300);
+                rvThread.postDelayed(() ->
+                        rvThread.smoothScrollToPosition(threadAdapter.getItemCount() - 1), 300);
             }
         });
     }
@@ -163,10 +213,17 @@ public class ThreadActivity extends AppCompatActivity {
         String status = getIntent().getStringExtra("status");
         String localGov = getIntent().getStringExtra("localGov");
         String description = getIntent().getStringExtra("description");
-        photoUrl = getIntent().getStringExtra("photoUrl");
-        String profilePictureUrl = getIntent().getStringExtra("profilePictureUrl");
+        String userId = getIntent().getStringExtra("userId");
+        photoVersion = getIntent().getStringExtra("photoVersion");
+        String profilePictureVersion = getIntent().getStringExtra("profilePictureVersion");
         currentScore = getIntent().getLongExtra("score", 0);
         currentUserVote = getIntent().getIntExtra("userVote", 0);
+        // A vote still settling elsewhere wins over the extras
+        VoteStateStore.VoteState localVote = dataRepository.getReportVotes().get(documentId);
+        if (localVote != null) {
+            currentScore = localVote.score;
+            currentUserVote = localVote.userVote;
+        }
         long createdAt = getIntent().getLongExtra("createdAt", 0);
         long commentCount = getIntent().getLongExtra("comments", 0);
         latitude = getIntent().getDoubleExtra("latitude", 0.0);
@@ -179,12 +236,31 @@ public class ThreadActivity extends AppCompatActivity {
         tvTagSecondary.setText(localGov != null ? localGov : "");
         tvDescription.setText(description != null ? description : "");
 
-        if (profilePictureUrl != null && !profilePictureUrl.isEmpty()) {
-            Glide.with(this).load(profilePictureUrl).placeholder(R.drawable.ic_profile).circleCrop().into(ivProfile);
+        if (userId != null && !userId.isEmpty()) {
+            Glide.with(this).load(StorageImage.profilePicture(userId, profilePictureVersion))
+                    .placeholder(R.drawable.ic_profile).circleCrop().into(ivProfile);
         }
-        if (photoUrl != null && !photoUrl.isEmpty()) {
+        if (documentId != null && !documentId.isEmpty()) {
             cvPhoto.setVisibility(View.VISIBLE);
-            Glide.with(this).load(photoUrl).placeholder(R.drawable.ic_pic).centerCrop().into(ivPhoto);
+            Glide.with(this).load(StorageImage.reportPhoto(documentId, photoVersion))
+                    .placeholder(R.drawable.ic_pic).centerCrop()
+                    .listener(new RequestListener<Drawable>() {
+                        @Override
+                        public boolean onLoadFailed(GlideException e, Object model,
+                                                    @NonNull Target<Drawable> target, boolean isFirstResource) {
+                            // Report has no photo
+                            cvPhoto.setVisibility(View.GONE);
+                            return false;
+                        }
+
+                        @Override
+                        public boolean onResourceReady(@NonNull Drawable resource, @NonNull Object model,
+                                                       Target<Drawable> target, @NonNull DataSource dataSource,
+                                                       boolean isFirstResource) {
+                            return false;
+                        }
+                    })
+                    .into(ivPhoto);
         } else {
             cvPhoto.setVisibility(View.GONE);
         }
@@ -204,32 +280,30 @@ public class ThreadActivity extends AppCompatActivity {
             btnDownvote.setIconTintResource(R.color.md_theme_onSurfaceVariant);
         }
 
-        TextView tvThreadLocation = findViewById(R.id.tvThreadLocation);
+        TextView tvThreadLocation = threadHeader.findViewById(R.id.tvThreadLocation);
         if (tvThreadLocation != null) {
             tvThreadLocation.setPaintFlags(tvThreadLocation.getPaintFlags() | android.graphics.Paint.UNDERLINE_TEXT_FLAG);
         }
     }
 
     private void setupClickListeners() {
-        toolbar.setNavigationOnClickListener(v -> {
-            // Invalidate reports cache since vote/comment counts might have changed
-            dataRepository.invalidateReportsCache();
-            finish();
-        });
+        // Vote and comment count changes are already written through to the reports cache
+        toolbar.setNavigationOnClickListener(v -> finish());
 
         // Show photo in full screen
         cvPhoto.setOnClickListener(v -> {
-            if (photoUrl != null && !photoUrl.isEmpty()) {
+            if (documentId != null && !documentId.isEmpty()) {
                 Intent intent = new Intent(this, FullScreenImageActivity.class);
-                intent.putExtra("photoUrl", photoUrl);
+                intent.putExtra("documentId", documentId);
+                intent.putExtra("photoVersion", photoVersion);
                 startActivity(intent);
             }
         });
 
-        TextView tvThreadLocation = findViewById(R.id.tvThreadLocation);
+        TextView tvThreadLocation = threadHeader.findViewById(R.id.tvThreadLocation);
         if (tvThreadLocation != null) tvThreadLocation.setOnClickListener(v -> openMapApp());
 
-        ImageButton btnLocation = findViewById(R.id.btnThreadLocation);
+        ImageButton btnLocation = threadHeader.findViewById(R.id.btnThreadLocation);
         if (btnLocation != null) btnLocation.setOnClickListener(v -> openMapApp());
 
         btnUpvote.setOnClickListener(v -> {
@@ -251,40 +325,8 @@ public class ThreadActivity extends AppCompatActivity {
             return;
         }
 
-        // Determine actual vote type (toggle if same vote)
-        int actualVoteType = currentUserVote == voteType ? 0 : voteType;
-
-        // Store previous state for rollback
-        long previousScore = currentScore;
-        int previousVote = currentUserVote;
-
-        // Optimistic UI update - update immediately before server response
-        currentScore = previousScore - previousVote + actualVoteType;
-        currentUserVote = actualVoteType;
-        tvVotes.setText(String.valueOf(currentScore));
-        updateVoteButtonStates(currentUserVote);
-
-        dataRepository.voteReport(documentId, actualVoteType,
-                new DataRepository.VoteCallback() {
-                    @Override
-                    public void onSuccess(long score, int userVote) {
-                        currentScore = score;
-                        currentUserVote = userVote;
-                        tvVotes.setText(String.valueOf(currentScore));
-                        updateVoteButtonStates(currentUserVote);
-                    }
-
-                    @Override
-                    public void onError(Exception e) {
-                        // Rollback UI on error
-                        currentScore = previousScore;
-                        currentUserVote = previousVote;
-                        tvVotes.setText(String.valueOf(currentScore));
-                        updateVoteButtonStates(currentUserVote);
-                        Toast.makeText(ThreadActivity.this, "Failed to vote",
-                                Toast.LENGTH_SHORT).show();
-                    }
-                });
+        // Shared optimistic state, published back through reportVoteObserver
+        dataRepository.toggleReportVote(documentId, currentScore, currentUserVote, voteType);
     }
 
     /**
@@ -335,32 +377,65 @@ public class ThreadActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Follow the cached report and first page for the activity's lifetime
+     * Fetched pages, votes and comment changes from any screen land in Room and show up here without a reload
+     */
+    private void observeThread() {
+        if (documentId == null) return;
+
+        dataRepository.observeReport(documentId).observe(this, this::applyReport);
+        dataRepository.observeCommentsFirstPage(documentId).observe(this, page -> {
+            // Nothing cached yet and nothing shown, the fetch started by loadComments fills it
+            if (page.comments.isEmpty() && commentList.isEmpty()) return;
+            hasCachedComments = true;
+            applyFirstPage(page);
+            tvCommentsLoading.setVisibility(View.GONE);
+        });
+    }
+
+    /**
+     * Refresh the header's counters and status from the cached report
+     */
+    private void applyReport(HazardCard report) {
+        if (report == null) return;
+        currentScore = report.getScore();
+        currentUserVote = report.getUserVote();
+        tvVotes.setText(String.valueOf(currentScore));
+        updateVoteButtonStates(currentUserVote);
+        tvComments.setText(String.valueOf(report.getComments()));
+        if (report.getStatus() != null) {
+            tvTagTertiary.setText(report.getStatus());
+        }
+    }
+
     private void loadComments() {
         if (documentId == null) return;
         hasCachedComments = false;
+        isLoadingPage = true;
+        int generation = ++commentsGeneration;
 
-        dataRepository.getCommentsForReport(documentId, new DataRepository.DataCallback<List<Comment>>() {
+        dataRepository.getCommentsPage(documentId, 0L, null,
+                new DataRepository.DataCallback<ApiClient.CommentsPage>() {
             @Override
-            public void onCacheData(List<Comment> data) {
+            public void onCacheData(ApiClient.CommentsPage page) {
+                if (generation != commentsGeneration) return;
                 hasCachedComments = true;
-                commentList.clear();
-                commentList.addAll(data);
-                tvComments.setText(String.valueOf(data.size()));
-                commentAdapter.notifyDataSetChanged();
+                applyFirstPage(page);
                 tvCommentsLoading.setVisibility(View.GONE);
             }
 
             @Override
-            public void onFreshData(List<Comment> data) {
-                commentList.clear();
-                commentList.addAll(data);
-                tvComments.setText(String.valueOf(data.size()));
-                commentAdapter.notifyDataSetChanged();
+            public void onFreshData(ApiClient.CommentsPage page) {
+                // The page is written to Room and arrives through the observed first page
+                if (generation != commentsGeneration) return;
                 tvCommentsLoading.setVisibility(View.GONE);
             }
 
             @Override
             public void onLoading(boolean isLoading) {
+                if (generation != commentsGeneration) return;
+                if (!isLoading) isLoadingPage = false;
                 if (!hasCachedComments) {
                     tvCommentsLoading.setVisibility(isLoading ? View.VISIBLE : View.GONE);
                 }
@@ -368,11 +443,123 @@ public class ThreadActivity extends AppCompatActivity {
 
             @Override
             public void onError(Exception e) {
+                if (generation != commentsGeneration) return;
+                isLoadingPage = false;
                 tvCommentsLoading.setVisibility(View.GONE);
             }
         });
     }
 
+    private void loadNextPage() {
+        if (isLoadingPage || !hasMorePages || documentId == null) return;
+        isLoadingPage = true;
+        int generation = commentsGeneration;
+        long cursorDatetime = nextCursorDatetime;
+        String cursorId = nextCursorId;
+
+        dataRepository.getCommentsPage(documentId, cursorDatetime, cursorId,
+                new DataRepository.DataCallback<ApiClient.CommentsPage>() {
+            @Override
+            public void onCacheData(ApiClient.CommentsPage page) {
+                if (generation != commentsGeneration) return;
+                applyNextPage(page, cursorDatetime, cursorId);
+            }
+
+            @Override
+            public void onFreshData(ApiClient.CommentsPage page) {
+                if (generation != commentsGeneration) return;
+                applyNextPage(page, cursorDatetime, cursorId);
+            }
+
+            @Override
+            public void onLoading(boolean isLoading) {
+                if (generation != commentsGeneration) return;
+                if (!isLoading) isLoadingPage = false;
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (generation != commentsGeneration) return;
+                isLoadingPage = false;
+                Toast.makeText(ThreadActivity.this, "Failed to load more comments",
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    /**
+     * Replace the top of the thread with the first page
+     * Keeps already loaded comments that sort after the page so scroll depth survives a reload
+     */
+    private void applyFirstPage(ApiClient.CommentsPage page) {
+        List<Comment> merged = new ArrayList<>(page.comments);
+        if (page.hasMore()) {
+            java.util.Set<String> pageIds = new java.util.HashSet<>();
+            for (Comment comment : page.comments) {
+                pageIds.add(comment.getCommentId());
+            }
+            for (Comment comment : commentList) {
+                if (!pageIds.contains(comment.getCommentId()) &&
+                        isAfterCursor(comment, page.nextDatetime, page.nextCommentId)) {
+                    merged.add(comment);
+                }
+            }
+        }
+
+        // Only reset the cursor if the previously loaded pages were dropped
+        if (merged.size() == page.comments.size()) {
+            nextCursorDatetime = page.nextDatetime;
+            nextCursorId = page.nextCommentId;
+            hasMorePages = page.hasMore();
+        }
+
+        commentList.clear();
+        commentList.addAll(merged);
+        commentAdapter.notifyDataSetChanged();
+
+        // The whole thread is loaded, so its size is the exact count
+        if (!hasMorePages) {
+            tvComments.setText(String.valueOf(commentList.size()));
+        }
+    }
+
+    /**
+     * Replace everything after the page's cursor with the page
+     * The cached copy of a page is swapped for the fresh one when it arrives
+     */
+    private void applyNextPage(ApiClient.CommentsPage page, long cursorDatetime, String cursorId) {
+        int start = commentList.size();
+        for (int i = 0; i < commentList.size(); i++) {
+            if (isAfterCursor(commentList.get(i), cursorDatetime, cursorId)) {
+                start = i;
+                break;
+            }
+        }
+        int removed = commentList.size() - start;
+        commentList.subList(start, commentList.size()).clear();
+        commentAdapter.notifyItemRangeRemoved(start, removed);
+        commentList.addAll(page.comments);
+        commentAdapter.notifyItemRangeInserted(start, page.comments.size());
+
+        nextCursorDatetime = page.nextDatetime;
+        nextCursorId = page.nextCommentId;
+        hasMorePages = page.hasMore();
+
+        if (!hasMorePages) {
+            tvComments.setText(String.valueOf(commentList.size()));
+        }
+    }
+
+    /**
+     * Whether a comment sorts after the cursor in the thread's (datetime, commentId) descending order
+     */
+    private static boolean isAfterCursor(Comment comment, long cursorDatetime, String cursorId) {
+        if (comment.getDatetime() != cursorDatetime) {
+            return comment.getDatetime() < cursorDatetime;
+        }
+        return comment.getCommentId().compareTo(cursorId) < 0;
+    }
+
     private void submitComment() {
         String userId = SessionManager.getCurrentUserId();
         if (userId == null) {
@@ -386,10 +573,15 @@ public class ThreadActivity extends AppCompatActivity {
         dataRepository.submitComment(content, documentId,
                 new DataRepository.CommentSubmitCallback() {
                     @Override
-                    public void onSuccess(String commentId) {
+                    public void onSuccess(Comment comment) {
                         etComment.setText("");
                         tilComment.setEnabled(true);
-                        loadComments();
+                        // Newest first, matching the cached and server order
+                        commentList.add(0, comment);
+                        commentAdapter.notifyItemInserted(0);
+                        long currentCount = Long.parseLong(tvComments.getText().toString());
+                        tvComments.setText(String.valueOf(currentCount + 1));
+                        tvCommentsLoading.setVisibility(View.GONE);
                         Toast.makeText(ThreadActivity.this, "Comment posted",
                                 Toast.LENGTH_SHORT).show();
                     }
@@ -427,42 +619,32 @@ public class ThreadActivity extends AppCompatActivity {
     }
 
     private void editComment(Comment comment, String newContent) {
-        String userId = SessionManager.getCurrentUserId();
-        if (userId == null) {
+        if (SessionManager.getCurrentUserId() == null) {
             Toast.makeText(this, "Not logged in", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        // Store old content for rollback
-        String oldContent = comment.getContent();
-
-        // Optimistic update - update UI immediately
-        comment.setContent(newContent);
+        // Optimistic update - the repository writes the new content to the comment and cache
         int position = commentList.indexOf(comment);
+        dataRepository.editComment(comment, newContent, new DataRepository.SimpleCallback() {
+            @Override
+            public void onSuccess() {
+                Toast.makeText(ThreadActivity.this, "Comment updated", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // Content was rolled back by the repository
+                if (position != -1) {
+                    commentAdapter.notifyItemChanged(position);
+                }
+                Toast.makeText(ThreadActivity.this, "Failed to update: " + e.getMessage(),
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
         if (position != -1) {
             commentAdapter.notifyItemChanged(position);
         }
-
-        // Update in local cache immediately
-        dataRepository.updateCommentInCache(comment);
-
-        // Call API
-        ApiClient.editComment(comment.getCommentId(), userId, newContent)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(this, "Comment updated", Toast.LENGTH_SHORT).show();
-                    // Reload comments to ensure consistency with server
-                    loadComments();
-                })
-                .addOnFailureListener(e -> {
-                    // Rollback on failure
-                    comment.setContent(oldContent);
-                    if (position != -1) {
-                        commentAdapter.notifyItemChanged(position);
-                    }
-                    dataRepository.updateCommentInCache(comment);
-                    Toast.makeText(this, "Failed to update: " + e.getMessage(),
-                            Toast.LENGTH_SHORT).show();
-                });
     }
 
     private void showDeleteCommentDialog(Comment comment) {
@@ -475,8 +657,7 @@ public class ThreadActivity extends AppCompatActivity {
     }
 
     private void deleteComment(Comment comment) {
-        String userId = SessionManager.getCurrentUserId();
-        if (userId == null) {
+        if (SessionManager.getCurrentUserId() == null) {
             Toast.makeText(this, "Not logged in", Toast.LENGTH_SHORT).show();
             return;
         }
@@ -494,26 +675,24 @@ public class ThreadActivity extends AppCompatActivity {
         long currentCount = Long.parseLong(tvComments.getText().toString());
         tvComments.setText(String.valueOf(currentCount - 1));
 
-        // Remove from local cache immediately
-        dataRepository.removeCommentFromCache(comment.getCommentId(), documentId);
-
-        // Call API
-        ApiClient.deleteComment(comment.getCommentId(), userId)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(this, "Comment deleted", Toast.LENGTH_SHORT).show();
-                    // Reload comments to ensure consistency with server
-                    loadComments();
-                })
-                .addOnFailureListener(e -> {
-                    // Rollback on failure
-                    if (position != -1) {
-                        commentList.add(position, comment);
-                        commentAdapter.notifyItemInserted(position);
-                    }
-                    tvComments.setText(String.valueOf(currentCount));
-                    dataRepository.updateCommentInCache(comment);
-                    Toast.makeText(this, "Failed to delete: " + e.getMessage(),
-                            Toast.LENGTH_SHORT).show();
-                });
+        // The repository removes it from the cache immediately and restores it on failure
+        dataRepository.deleteComment(comment, new DataRepository.SimpleCallback() {
+            @Override
+            public void onSuccess() {
+                Toast.makeText(ThreadActivity.this, "Comment deleted", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // Rollback on failure
+                if (position != -1) {
+                    commentList.add(position, comment);
+                    commentAdapter.notifyItemInserted(position);
+                }
+                tvComments.setText(String.valueOf(currentCount));
+                Toast.makeText(ThreadActivity.this, "Failed to delete: " + e.getMessage(),
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 }
@@ -9,18 +9,25 @@ import androidx.room.RoomDatabase;
 import com.gitgud.citywatch.data.cache.dao.CacheMetadataDao;
 import com.gitgud.citywatch.data.cache.dao.CommentDao;
 import com.gitgud.citywatch.data.cache.dao.CommentVoteDao;
+import com.gitgud.citywatch.data.cache.dao.FeedRemoteKeyDao;
+import com.gitgud.citywatch.data.cache.dao.OutboxDao;
 import com.gitgud.citywatch.data.cache.dao.ReportDao;
 import com.gitgud.citywatch.data.cache.dao.ReportVoteDao;
+import com.gitgud.citywatch.data.cache.dao.UserDirectoryDao;
 import com.gitgud.citywatch.data.cache.dao.UserProfileDao;
 import com.gitgud.citywatch.data.cache.entity.CacheMetadata;
 import com.gitgud.citywatch.data.cache.entity.CachedComment;
 import com.gitgud.citywatch.data.cache.entity.CachedCommentVote;
+import com.gitgud.citywatch.data.cache.entity.CachedDirectoryUser;
 import com.gitgud.citywatch.data.cache.entity.CachedReport;
 import com.gitgud.citywatch.data.cache.entity.CachedReportVote;
 import com.gitgud.citywatch.data.cache.entity.CachedUserProfile;
+import com.gitgud.citywatch.data.cache.entity.FeedRemoteKey;
+import com.gitgud.citywatch.data.cache.entity.OutboxMutation;
 
 /**
  * Room database for local caching of Firebase data
+ * Every version bump needs a migration in Migrations, the schema of each version is exported to app/schemas
  */
 @Database(
     entities = {
@@ -29,10 +36,13 @@ import com.gitgud.citywatch.data.cache.entity.CachedUserProfile;
         CachedUserProfile.class,
         CachedReportVote.class,
         CachedCommentVote.class,
-        CacheMetadata.class
+        CacheMetadata.class,
+        CachedDirectoryUser.class,
+        OutboxMutation.class,
+        FeedRemoteKey.class
     },
-    version = 1,
-    exportSchema = false
+    version = 10,
+    exportSchema = true
 )
 public abstract class AppDatabase extends RoomDatabase {
 
@@ -46,6 +56,9 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract ReportVoteDao reportVoteDao();
     public abstract CommentVoteDao commentVoteDao();
     public abstract CacheMetadataDao cacheMetadataDao();
+    public abstract UserDirectoryDao userDirectoryDao();
+    public abstract OutboxDao outboxDao();
+    public abstract FeedRemoteKeyDao feedRemoteKeyDao();
 
     /**
      * Get singleton database instance
@@ -59,7 +72,9 @@ public abstract class AppDatabase extends RoomDatabase {
                             AppDatabase.class,
                             DATABASE_NAME
                     )
-                    .fallbackToDestructiveMigration()
+                    // Upgrades migrate in place, only a downgrade (e.g. reinstalling an older build) wipes the cache
+                    .addMigrations(Migrations.ALL)
+                    .fallbackToDestructiveMigrationOnDowngrade()
                     .build();
                 }
             }
@@ -4,6 +4,12 @@ import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.PagingSource;
 
 import com.gitgud.citywatch.data.cache.dao.CacheMetadataDao;
 import com.gitgud.citywatch.data.cache.dao.CommentDao;
@@ -14,17 +20,29 @@ import com.gitgud.citywatch.data.cache.dao.UserProfileDao;
 import com.gitgud.citywatch.data.cache.entity.CacheMetadata;
 import com.gitgud.citywatch.data.cache.entity.CachedComment;
 import com.gitgud.citywatch.data.cache.entity.CachedCommentVote;
+import com.gitgud.citywatch.data.cache.entity.CachedDirectoryUser;
 import com.gitgud.citywatch.data.cache.entity.CachedReport;
 import com.gitgud.citywatch.data.cache.entity.CachedReportVote;
 import com.gitgud.citywatch.data.cache.entity.CachedUserProfile;
+import com.gitgud.citywatch.data.cache.entity.FeedRemoteKey;
+import com.gitgud.citywatch.data.cache.entity.OutboxMutation;
 import com.gitgud.citywatch.model.Comment;
 import com.gitgud.citywatch.model.HazardCard;
+import com.gitgud.citywatch.model.UserMeta;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -40,18 +58,41 @@ public class CacheManager {
     public static final String KEY_ALL_REPORTS = "all_reports";
     public static final String KEY_COMMENTS_PREFIX = "comments_";
     public static final String KEY_USER_PROFILE_PREFIX = "user_profile_";
+    public static final String KEY_USER_VOTES_PREFIX = "user_votes_";
 
     // Cache expiry times (milliseconds)
     private static final long CACHE_EXPIRY_REPORTS = 5 * 60 * 1000; // 5 minutes
-    private static final long CACHE_EXPIRY_COMMENTS = 2 * 60 * 1000; // 2 minutes
     private static final long CACHE_EXPIRY_USER_PROFILE = 10 * 60 * 1000; // 10 minutes
+    private static final long CACHE_EXPIRY_USER_DIRECTORY = 60 * 60 * 1000; // 1 hour
+
+    // Stay well below SQLite's bound-parameter limit in IN (...) lookups
+    private static final int USER_DIRECTORY_LOOKUP_CHUNK = 500;
+    private static final int REPORT_LOOKUP_CHUNK = 500;
+
+    // Thread first pages kept in memory in front of CommentDao, bounded by total comment count
+    private static final int MEMORY_COMMENTS_MAX = 600;
 
     private final AppDatabase database;
     private final ExecutorService executor;
     private final Handler mainHandler;
+    private final LruCache<String, List<Comment>> memoryFirstPages =
+            new LruCache<String, List<Comment>>(MEMORY_COMMENTS_MAX) {
+                @Override
+                protected int sizeOf(String reportId, List<Comment> comments) {
+                    return Math.max(comments.size(), 1);
+                }
+            };
 
     private CacheManager(Context context) {
-        this.database = AppDatabase.getInstance(context);
+        this(AppDatabase.getInstance(context));
+    }
+
+    /**
+     * Cache manager over the given database instead of the app's, e.g. an in-memory one in tests
+     */
+    @VisibleForTesting
+    public CacheManager(AppDatabase database) {
+        this.database = database;
         this.executor = Executors.newFixedThreadPool(4);
         this.mainHandler = new Handler(Looper.getMainLooper());
     }
@@ -90,26 +131,160 @@ public class CacheManager {
     }
 
     /**
-     * Cache reports
+     * Apply a delta sync result to the reports cache
+     * Rows, the new high-water mark and the feed hash are written in one transaction
+     * Only rows that differ from the stored ones are rewritten, the feed hash is updated from their digests
+     * @param callback Receives true once the delta is written, false if the write failed
+     */
+    public void applyReportsDelta(List<HazardCard> changed, List<String> deletedIds, long syncToken,
+                                  CacheCallback<Boolean> callback) {
+        executor.execute(() -> {
+            try {
+                List<CachedReport> cachedReports = convertToCachedReports(changed);
+                database.runInTransaction(() -> {
+                    long digestChange = writeChangedRows(cachedReports);
+                    if (!deletedIds.isEmpty()) {
+                        digestChange ^= xorStoredRowDigests(deletedIds);
+                        database.reportDao().deleteByDocumentIds(deletedIds);
+                    }
+
+                    CacheMetadata metadata = database.cacheMetadataDao().getMetadata(KEY_ALL_REPORTS);
+                    if (metadata == null || metadata.getDataHash() == null) {
+                        metadata = metadata != null ? metadata : new CacheMetadata();
+                        metadata.setCacheKey(KEY_ALL_REPORTS);
+                        metadata.setDataHash(toFeedHash(xorAllRowDigests()));
+                    } else {
+                        metadata.setDataHash(toFeedHash(parseFeedHash(metadata.getDataHash()) ^ digestChange));
+                    }
+                    metadata.setLastUpdated(System.currentTimeMillis());
+                    metadata.setItemCount(database.reportDao().getReportCount());
+                    metadata.setSyncToken(Math.max(metadata.getSyncToken(), syncToken));
+                    metadata.setStale(false);
+                    database.cacheMetadataDao().insert(metadata);
+                });
+
+                Log.d(TAG, "Applied report delta: " + changed.size() + " changed, " +
+                        deletedIds.size() + " deleted");
+                mainHandler.post(() -> callback.onResult(true));
+            } catch (Exception e) {
+                Log.e(TAG, "Error applying report delta", e);
+                mainHandler.post(() -> callback.onResult(false));
+            }
+        });
+    }
+
+    /**
+     * Get the reports delta sync high-water mark
+     * @return 0 if the cache has never been synced or filled from the first feed page
+     */
+    public void getReportsSyncToken(CacheCallback<Long> callback) {
+        executor.execute(() -> {
+            try {
+                Long syncToken = database.cacheMetadataDao().getSyncToken(KEY_ALL_REPORTS);
+                long result = syncToken != null ? syncToken : 0L;
+                mainHandler.post(() -> callback.onResult(result));
+            } catch (Exception e) {
+                mainHandler.post(() -> callback.onResult(0L));
+            }
+        });
+    }
+
+    /**
+     * Room paging source of the community feed, see ReportDao.getFeedPagingSource
+     */
+    public PagingSource<Integer, ReportDao.FeedRow> getFeedPagingSource(String userId) {
+        return database.reportDao().getFeedPagingSource(userId);
+    }
+
+    /**
+     * Convert a feed row to the card shown for it
+     */
+    public static HazardCard toHazardCard(ReportDao.FeedRow row) {
+        HazardCard card = toHazardCard(row.report);
+        card.setUserVote(row.userVote);
+        return card;
+    }
+
+    /**
+     * A user's own reports as cards, re-emitted on every change, see ReportDao.observeUserReports
+     */
+    public LiveData<List<HazardCard>> observeUserReports(String userId) {
+        return Transformations.map(database.reportDao().observeUserReports(userId), rows -> {
+            List<HazardCard> cards = new ArrayList<>(rows.size());
+            for (ReportDao.FeedRow row : rows) {
+                cards.add(toHazardCard(row));
+            }
+            return cards;
+        });
+    }
+
+    /**
+     * One report as a card, re-emitted on every change, null while it is not cached
+     */
+    public LiveData<HazardCard> observeReport(String documentId, String userId) {
+        return Transformations.map(database.reportDao().observeReport(documentId, userId),
+                row -> row != null ? toHazardCard(row) : null);
+    }
+
+    /**
+     * Cache one page of reports without touching rows outside the page's keyset range
+     * Cached rows inside that range which the server no longer returns are removed,
+     * rows the server returned unchanged are not rewritten
+     * A first page cached before any sync sets the delta sync high-water mark to its newest updatedAt,
+     * later pages leave the mark alone since rows they hold are at least as fresh
+     * The page's next cursor is stored as the feed's remote key in the same transaction, see FeedRemoteKey
+     * @param cursorId documentId of the last report on the previous page, or null for the first page
+     * @param nextDocumentId Server's cursor for the page after this one, null when this is the last page
+     * @param callback Receives true once the page is written, false if the write failed
      */
-    public void cacheReports(List<HazardCard> reports, String dataHash) {
+    public void cacheReportsPage(List<HazardCard> reports, long cursorCreatedAt, String cursorId,
+                                 long nextCreatedAt, String nextDocumentId, CacheCallback<Boolean> callback) {
         executor.execute(() -> {
             try {
                 List<CachedReport> cachedReports = convertToCachedReports(reports);
-                database.reportDao().deleteAll();
-                database.reportDao().insertAll(cachedReports);
+                List<String> keepIds = new ArrayList<>();
+                for (CachedReport cached : cachedReports) {
+                    keepIds.add(cached.getDocumentId());
+                }
 
-                // Update metadata
-                CacheMetadata metadata = new CacheMetadata();
-                metadata.setCacheKey(KEY_ALL_REPORTS);
-                metadata.setDataHash(dataHash);
-                metadata.setLastUpdated(System.currentTimeMillis());
-                metadata.setItemCount(reports.size());
-                database.cacheMetadataDao().insert(metadata);
+                // First page has no upper bound, last page has no lower bound
+                long upperCreatedAt = cursorId != null ? cursorCreatedAt : Long.MAX_VALUE;
+                String upperId = cursorId != null ? cursorId : "";
+                long lowerCreatedAt = nextDocumentId != null ? nextCreatedAt : Long.MIN_VALUE;
+                String lowerId = nextDocumentId != null ? nextDocumentId : "";
 
-                Log.d(TAG, "Cached " + reports.size() + " reports");
+                long pageSyncToken = 0L;
+                if (cursorId == null) {
+                    for (CachedReport cached : cachedReports) {
+                        pageSyncToken = Math.max(pageSyncToken, cached.getUpdatedAt());
+                    }
+                }
+                long finalPageSyncToken = pageSyncToken;
+                database.runInTransaction(() -> {
+                    // Reports created offline are not on the server yet, keep them until the outbox sends them
+                    List<String> keptIds = new ArrayList<>(keepIds);
+                    keptIds.addAll(database.outboxDao().getKeysOfType(OutboxMutation.TYPE_SUBMIT_REPORT));
+                    long digestChange = 0L;
+                    List<Long> removedDigests = database.reportDao().getPageRangeDigestsExcept(upperCreatedAt,
+                            upperId, lowerCreatedAt, lowerId, keptIds);
+                    if (!removedDigests.isEmpty()) {
+                        for (Long digest : removedDigests) {
+                            digestChange ^= digest;
+                        }
+                        database.reportDao().deletePageRangeExcept(upperCreatedAt, upperId,
+                                lowerCreatedAt, lowerId, keptIds);
+                    }
+                    digestChange ^= writeChangedRows(cachedReports);
+                    adjustReportsFeedHash(digestChange);
+                    initReportsSyncToken(finalPageSyncToken);
+                    advanceFeedRemoteKey(cursorCreatedAt, cursorId, nextCreatedAt, nextDocumentId);
+                });
+
+                Log.d(TAG, "Cached page of " + reports.size() + " reports");
+                mainHandler.post(() -> callback.onResult(true));
             } catch (Exception e) {
-                Log.e(TAG, "Error caching reports", e);
+                Log.e(TAG, "Error caching reports page", e);
+                mainHandler.post(() -> callback.onResult(false));
             }
         });
     }
@@ -120,9 +295,9 @@ public class CacheManager {
     public void isReportsCacheStale(CacheCallback<Boolean> callback) {
         executor.execute(() -> {
             try {
-                Long lastUpdated = database.cacheMetadataDao().getLastUpdated(KEY_ALL_REPORTS);
-                boolean isStale = lastUpdated == null ||
-                        (System.currentTimeMillis() - lastUpdated) > CACHE_EXPIRY_REPORTS;
+                CacheMetadata metadata = database.cacheMetadataDao().getMetadata(KEY_ALL_REPORTS);
+                boolean isStale = metadata == null || metadata.isStale() ||
+                        (System.currentTimeMillis() - metadata.getLastUpdated()) > CACHE_EXPIRY_REPORTS;
                 mainHandler.post(() -> callback.onResult(isStale));
             } catch (Exception e) {
                 mainHandler.post(() -> callback.onResult(true));
@@ -132,11 +307,17 @@ public class CacheManager {
 
     /**
      * Get cached reports hash for comparison
+     * Only a cache that holds the whole feed has one, a partly paged cache can never match
+     * the server's hash and is compared by month bucket instead, see getReportBucketHashes
+     * A stale cache reports no hash either, so any comparison triggers a revalidation
      */
     public void getReportsCacheHash(CacheCallback<String> callback) {
         executor.execute(() -> {
             try {
-                String hash = database.cacheMetadataDao().getDataHash(KEY_ALL_REPORTS);
+                FeedRemoteKey key = database.feedRemoteKeyDao().getKey(FeedRemoteKey.FEED_REPORTS);
+                CacheMetadata metadata = database.cacheMetadataDao().getMetadata(KEY_ALL_REPORTS);
+                String hash = key == null || !key.isEndReached() || metadata == null || metadata.isStale()
+                        ? null : metadata.getDataHash();
                 mainHandler.post(() -> callback.onResult(hash));
             } catch (Exception e) {
                 mainHandler.post(() -> callback.onResult(null));
@@ -144,13 +325,24 @@ public class CacheManager {
         });
     }
 
+    /**
+     * Mark the reports cache stale after a local change
+     * Rows are kept so screens can still render them while a revalidation runs
+     */
+    public void markReportsStale() {
+        markStale(KEY_ALL_REPORTS);
+    }
+
     /**
      * Update a single report's score in cache
      */
     public void updateReportScore(String documentId, long score) {
         executor.execute(() -> {
             try {
-                database.reportDao().updateScore(documentId, score);
+                database.runInTransaction(() -> {
+                    database.reportDao().updateScore(documentId, score);
+                    refreshRowDigest(documentId);
+                });
             } catch (Exception e) {
                 Log.e(TAG, "Error updating report score", e);
             }
@@ -163,7 +355,10 @@ public class CacheManager {
     public void updateReportCommentCount(String documentId, long commentCount) {
         executor.execute(() -> {
             try {
-                database.reportDao().updateCommentCount(documentId, commentCount);
+                database.runInTransaction(() -> {
+                    database.reportDao().updateCommentCount(documentId, commentCount);
+                    refreshRowDigest(documentId);
+                });
             } catch (Exception e) {
                 Log.e(TAG, "Error updating report comment count", e);
             }
@@ -177,16 +372,19 @@ public class CacheManager {
     public void updateCachedReport(HazardCard report) {
         executor.execute(() -> {
             try {
-                database.reportDao().updateReport(
-                    report.getDocumentId(),
-                    report.getDescription(),
-                    report.getHazardType(),
-                    report.getLocalGov(),
-                    report.getLocationDetails(),
-                    report.getLatitude(),
-                    report.getLongitude(),
-                    report.getStatus()
-                );
+                database.runInTransaction(() -> {
+                    database.reportDao().updateReport(
+                        report.getDocumentId(),
+                        report.getDescription(),
+                        report.getHazardType(),
+                        report.getLocalGov(),
+                        report.getLocationDetails(),
+                        report.getLatitude(),
+                        report.getLongitude(),
+                        report.getStatus()
+                    );
+                    refreshRowDigest(report.getDocumentId());
+                });
                 Log.d(TAG, "Updated report in cache: " + report.getDocumentId());
             } catch (Exception e) {
                 Log.e(TAG, "Error updating report in cache", e);
@@ -199,9 +397,15 @@ public class CacheManager {
      * Used for optimistic UI updates after deletion
      */
     public void removeCachedReport(String documentId) {
+        memoryFirstPages.remove(documentId);
         executor.execute(() -> {
             try {
-                database.reportDao().deleteByDocumentId(documentId);
+                database.runInTransaction(() -> {
+                    long digestChange = xorStoredRowDigests(Collections.singletonList(documentId));
+                    database.reportDao().deleteByDocumentId(documentId);
+                    database.commentDao().deleteByReportId(documentId);
+                    adjustReportsFeedHash(digestChange);
+                });
                 Log.d(TAG, "Removed report from cache: " + documentId);
             } catch (Exception e) {
                 Log.e(TAG, "Error removing report from cache", e);
@@ -209,63 +413,375 @@ public class CacheManager {
         });
     }
 
-    // ==================== Comments ====================
+    /**
+     * Put a report row into cache
+     * Used for reports created locally and to roll back an optimistic deletion
+     */
+    public void insertCachedReport(HazardCard report) {
+        executor.execute(() -> {
+            try {
+                CachedReport cached = convertToCachedReports(Collections.singletonList(report)).get(0);
+                database.runInTransaction(() -> {
+                    long digestChange = xorStoredRowDigests(Collections.singletonList(
+                            cached.getDocumentId())) ^ cached.getRowDigest();
+                    database.reportDao().insert(cached);
+                    adjustReportsFeedHash(digestChange);
+                });
+                Log.d(TAG, "Inserted report into cache: " + report.getDocumentId());
+            } catch (Exception e) {
+                Log.e(TAG, "Error inserting report into cache", e);
+            }
+        });
+    }
 
     /**
-     * Get cached comments for a report
+     * Get the feed hash of every creation month bucket the cache holds in full
+     * Paging fills the feed from the newest report down to the remote key, so only the months after
+     * the key's month are complete, older rows may be missing and are left out of the comparison
+     * Same bucketing and hashing as the server's getReportBucketChecksums, empty buckets are left out
+     * @param callback Receives null before the first page is cached or on failure
      */
-    public void getCachedComments(String reportId, CacheCallback<List<Comment>> callback) {
+    public void getReportBucketHashes(CacheCallback<ReportBucketHashes> callback) {
         executor.execute(() -> {
             try {
-                List<CachedComment> cachedComments = database.commentDao().getCommentsForReport(reportId);
-                List<Comment> comments = convertToComments(cachedComments);
-                mainHandler.post(() -> callback.onResult(comments));
+                FeedRemoteKey key = database.feedRemoteKeyDao().getKey(FeedRemoteKey.FEED_REPORTS);
+                if (key == null) {
+                    mainHandler.post(() -> callback.onResult(null));
+                    return;
+                }
+                String coveredFrom = key.isEndReached() ? null : nextBucket(reportBucket(key.getNextCreatedAt()));
+                long start = coveredFrom != null ? bucketStart(coveredFrom) : Long.MIN_VALUE;
+
+                Map<String, Long> bucketDigests = new HashMap<>();
+                for (ReportDao.DigestRow row : database.reportDao().getDigestRowsFrom(start)) {
+                    String bucket = reportBucket(row.createdAt);
+                    Long digest = bucketDigests.get(bucket);
+                    bucketDigests.put(bucket, (digest != null ? digest : 0L) ^ row.rowDigest);
+                }
+                Map<String, String> bucketHashes = new HashMap<>();
+                for (Map.Entry<String, Long> entry : bucketDigests.entrySet()) {
+                    if (entry.getValue() != 0L) {
+                        bucketHashes.put(entry.getKey(), toFeedHash(entry.getValue()));
+                    }
+                }
+                ReportBucketHashes result = new ReportBucketHashes(coveredFrom, bucketHashes);
+                mainHandler.post(() -> callback.onResult(result));
             } catch (Exception e) {
-                Log.e(TAG, "Error getting cached comments", e);
-                mainHandler.post(() -> callback.onResult(new ArrayList<>()));
+                Log.e(TAG, "Error computing report bucket hashes", e);
+                mainHandler.post(() -> callback.onResult(null));
             }
         });
     }
 
     /**
-     * Cache comments for a report
+     * Cache one page of a creation month bucket refetched after its checksum differed
+     * Cached rows of the bucket inside the page's keyset range which the server no longer returns
+     * are removed, except reports still waiting in the outbox, and unchanged rows are not rewritten
+     * @param cursorId documentId of the last report on the previous page, or null for the bucket's first page
+     * @param nextDocumentId Server's cursor for the bucket's next page, null when this is its last page
+     * @param callback Receives true once the page is written, false if the write failed
      */
-    public void cacheComments(String reportId, List<Comment> comments, String dataHash) {
+    public void cacheReportBucketPage(List<HazardCard> reports, String bucket, long cursorCreatedAt,
+                                      String cursorId, long nextCreatedAt, String nextDocumentId,
+                                      CacheCallback<Boolean> callback) {
         executor.execute(() -> {
             try {
-                List<CachedComment> cachedComments = convertToCachedComments(comments);
-                database.commentDao().deleteByReportId(reportId);
-                database.commentDao().insertAll(cachedComments);
+                List<CachedReport> cachedReports = convertToCachedReports(reports);
+
+                // The bucket's first page starts at the end of the month, its last page at the start
+                long upperCreatedAt = cursorId != null ? cursorCreatedAt : bucketStart(nextBucket(bucket));
+                String upperId = cursorId != null ? cursorId : "";
+                long lowerCreatedAt = nextDocumentId != null ? nextCreatedAt : bucketStart(bucket);
+                String lowerId = nextDocumentId != null ? nextDocumentId : "";
 
-                // Update metadata
-                String cacheKey = KEY_COMMENTS_PREFIX + reportId;
-                CacheMetadata metadata = new CacheMetadata();
-                metadata.setCacheKey(cacheKey);
-                metadata.setDataHash(dataHash);
-                metadata.setLastUpdated(System.currentTimeMillis());
-                metadata.setItemCount(comments.size());
-                database.cacheMetadataDao().insert(metadata);
+                database.runInTransaction(() -> {
+                    List<String> keptIds = new ArrayList<>(
+                            database.outboxDao().getKeysOfType(OutboxMutation.TYPE_SUBMIT_REPORT));
+                    for (CachedReport cached : cachedReports) {
+                        keptIds.add(cached.getDocumentId());
+                    }
+                    long digestChange = 0L;
+                    List<Long> removedDigests = database.reportDao().getPageRangeDigestsExcept(upperCreatedAt,
+                            upperId, lowerCreatedAt, lowerId, keptIds);
+                    if (!removedDigests.isEmpty()) {
+                        for (Long digest : removedDigests) {
+                            digestChange ^= digest;
+                        }
+                        database.reportDao().deletePageRangeExcept(upperCreatedAt, upperId,
+                                lowerCreatedAt, lowerId, keptIds);
+                    }
+                    digestChange ^= writeChangedRows(cachedReports);
+                    adjustReportsFeedHash(digestChange);
+                });
 
-                Log.d(TAG, "Cached " + comments.size() + " comments for report " + reportId);
+                Log.d(TAG, "Cached page of " + reports.size() + " reports in bucket " + bucket);
+                mainHandler.post(() -> callback.onResult(true));
             } catch (Exception e) {
-                Log.e(TAG, "Error caching comments", e);
+                Log.e(TAG, "Error caching report bucket page", e);
+                mainHandler.post(() -> callback.onResult(false));
             }
         });
     }
 
     /**
-     * Check if comments cache is stale
+     * Write the reports whose row differs from the stored one, new reports included
+     * Row digests cover the server's content, the author fields shown on the card are compared on their own
+     * Must run inside the transaction that owns the write
+     * @return XOR change of the stored row digests, to fold into the feed hash
+     */
+    private long writeChangedRows(List<CachedReport> reports) {
+        Map<String, ReportDao.StoredRow> stored = new HashMap<>();
+        for (int start = 0; start < reports.size(); start += REPORT_LOOKUP_CHUNK) {
+            List<String> chunk = new ArrayList<>();
+            for (CachedReport report : reports.subList(start, Math.min(start + REPORT_LOOKUP_CHUNK, reports.size()))) {
+                chunk.add(report.getDocumentId());
+            }
+            for (ReportDao.StoredRow row : database.reportDao().getStoredRows(chunk)) {
+                stored.put(row.documentId, row);
+            }
+        }
+
+        List<CachedReport> changed = new ArrayList<>();
+        long digestChange = 0L;
+        for (CachedReport report : reports) {
+            ReportDao.StoredRow row = stored.get(report.getDocumentId());
+            if (row != null && row.rowDigest == report.getRowDigest()
+                    && row.userIsAdmin == report.isUserIsAdmin()
+                    && Objects.equals(row.userName, report.getUserName())
+                    && Objects.equals(row.profilePictureVersion, report.getProfilePictureVersion())) {
+                continue;
+            }
+            digestChange ^= (row != null ? row.rowDigest : 0L) ^ report.getRowDigest();
+            changed.add(report);
+        }
+        if (!changed.isEmpty()) {
+            database.reportDao().insertAll(changed);
+        }
+        return digestChange;
+    }
+
+    /**
+     * Recompute a report's row digest after a local write to its score, comment count or status
+     * and fold the difference into the feed hash
+     * Must run inside the transaction that made the write
      */
-    public void isCommentsCacheStale(String reportId, CacheCallback<Boolean> callback) {
+    private void refreshRowDigest(String documentId) {
+        CachedReport report = database.reportDao().getReportById(documentId);
+        if (report == null) return;
+        long digest = reportRowDigest(report);
+        if (digest == report.getRowDigest()) return;
+        database.reportDao().updateRowDigest(documentId, digest);
+        adjustReportsFeedHash(report.getRowDigest() ^ digest);
+    }
+
+    /**
+     * XOR of the stored row digests of the given cached reports, missing rows count as 0
+     * Must run inside the transaction that then rewrites or deletes those rows
+     */
+    private long xorStoredRowDigests(List<String> documentIds) {
+        long digest = 0L;
+        for (int start = 0; start < documentIds.size(); start += REPORT_LOOKUP_CHUNK) {
+            List<String> chunk = documentIds.subList(start,
+                    Math.min(start + REPORT_LOOKUP_CHUNK, documentIds.size()));
+            for (Long rowDigest : database.reportDao().getRowDigests(chunk)) {
+                digest ^= rowDigest;
+            }
+        }
+        return digest;
+    }
+
+    private long xorAllRowDigests() {
+        long digest = 0L;
+        for (Long rowDigest : database.reportDao().getAllRowDigests()) {
+            digest ^= rowDigest;
+        }
+        return digest;
+    }
+
+    /**
+     * Fold a change of row digests into the stored feed hash, rebuilding it if there is none yet
+     * The hash covers every stored row, reports still waiting in the outbox included
+     * Must run inside the transaction that changed the rows
+     */
+    private void adjustReportsFeedHash(long digestChange) {
+        CacheMetadata metadata = database.cacheMetadataDao().getMetadata(KEY_ALL_REPORTS);
+        if (metadata == null) {
+            metadata = new CacheMetadata();
+            metadata.setCacheKey(KEY_ALL_REPORTS);
+        }
+        long feedDigest = metadata.getDataHash() != null
+                ? parseFeedHash(metadata.getDataHash()) ^ digestChange
+                : xorAllRowDigests();
+        metadata.setDataHash(toFeedHash(feedDigest));
+        database.cacheMetadataDao().insert(metadata);
+    }
+
+    /**
+     * Move the community feed's remote key past a cached page
+     * The first page always resets it, a later page only moves it on from the key it was fetched with,
+     * so a page fetched before a refresh cannot skip the pages after the refreshed one
+     * Must run inside the transaction that cached the page
+     */
+    private void advanceFeedRemoteKey(long cursorCreatedAt, String cursorId, long nextCreatedAt,
+                                      String nextDocumentId) {
+        if (cursorId != null) {
+            FeedRemoteKey current = database.feedRemoteKeyDao().getKey(FeedRemoteKey.FEED_REPORTS);
+            if (current == null || current.getNextCreatedAt() != cursorCreatedAt
+                    || !cursorId.equals(current.getNextDocumentId())) {
+                return;
+            }
+        }
+        FeedRemoteKey key = new FeedRemoteKey();
+        key.setFeed(FeedRemoteKey.FEED_REPORTS);
+        key.setNextCreatedAt(nextCreatedAt);
+        key.setNextDocumentId(nextDocumentId);
+        database.feedRemoteKeyDao().insert(key);
+    }
+
+    /**
+     * Get the community feed's remote key, the server cursor its next page is fetched from
+     * @return null before the first page is cached
+     */
+    public void getFeedRemoteKey(CacheCallback<FeedRemoteKey> callback) {
         executor.execute(() -> {
             try {
-                String cacheKey = KEY_COMMENTS_PREFIX + reportId;
-                Long lastUpdated = database.cacheMetadataDao().getLastUpdated(cacheKey);
-                boolean isStale = lastUpdated == null ||
-                        (System.currentTimeMillis() - lastUpdated) > CACHE_EXPIRY_COMMENTS;
-                mainHandler.post(() -> callback.onResult(isStale));
+                FeedRemoteKey key = database.feedRemoteKeyDao().getKey(FeedRemoteKey.FEED_REPORTS);
+                mainHandler.post(() -> callback.onResult(key));
             } catch (Exception e) {
-                mainHandler.post(() -> callback.onResult(true));
+                Log.e(TAG, "Error getting feed remote key", e);
+                mainHandler.post(() -> callback.onResult(null));
+            }
+        });
+    }
+
+    /**
+     * Start delta sync from syncToken if the reports cache has no high-water mark yet
+     * Must run inside the transaction that cached the rows the mark covers
+     */
+    private void initReportsSyncToken(long syncToken) {
+        if (syncToken <= 0) return;
+        CacheMetadata metadata = database.cacheMetadataDao().getMetadata(KEY_ALL_REPORTS);
+        if (metadata == null || metadata.getSyncToken() > 0) return;
+        metadata.setSyncToken(syncToken);
+        metadata.setLastUpdated(System.currentTimeMillis());
+        database.cacheMetadataDao().insert(metadata);
+    }
+
+    // ==================== Comments ====================
+
+    /**
+     * First page of a thread with the user's votes, re-emitted on every change, see CommentDao.observeFirstPage
+     */
+    public LiveData<List<Comment>> observeCommentsFirstPage(String reportId, String userId, int pageSize) {
+        return Transformations.map(database.commentDao().observeFirstPage(reportId, userId, pageSize), rows -> {
+            List<Comment> comments = new ArrayList<>(rows.size());
+            for (CommentDao.CommentRow row : rows) {
+                Comment comment = toComment(row.comment);
+                comment.setUserVote(row.userVote);
+                comments.add(comment);
+            }
+            return comments;
+        });
+    }
+
+    /**
+     * First page of a thread from memory, without touching Room
+     * @return A copy of the page, or null if it is not held in memory
+     */
+    public List<Comment> peekCommentsFirstPage(String reportId) {
+        List<Comment> comments = memoryFirstPages.get(reportId);
+        return comments != null ? new ArrayList<>(comments) : null;
+    }
+
+    /**
+     * Keep a thread's first page in memory, comments should already carry the user's votes
+     * Any write to the thread's cached comments drops it again
+     */
+    public void putCommentsFirstPage(String reportId, List<Comment> comments) {
+        memoryFirstPages.put(reportId, new ArrayList<>(comments));
+    }
+
+    /**
+     * Drop a thread's in-memory first page, the next read goes to Room
+     */
+    public void forgetCommentsFirstPage(String reportId) {
+        memoryFirstPages.remove(reportId);
+    }
+
+    /**
+     * Drop the in-memory thread holding a comment, its score or vote changed
+     */
+    private void forgetMemoryThreadOf(String commentId) {
+        for (Map.Entry<String, List<Comment>> thread : memoryFirstPages.snapshot().entrySet()) {
+            for (Comment comment : thread.getValue()) {
+                if (commentId.equals(comment.getCommentId())) {
+                    memoryFirstPages.remove(thread.getKey());
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get one page of a report's cached comments, newest first
+     * @param cursorId commentId of the last comment on the previous page, or null for the first page
+     */
+    public void getCachedCommentsPage(String reportId, long cursorDatetime, String cursorId, int pageSize,
+                                      CacheCallback<List<Comment>> callback) {
+        executor.execute(() -> {
+            try {
+                List<CachedComment> cachedComments = cursorId == null
+                        ? database.commentDao().getFirstPage(reportId, pageSize)
+                        : database.commentDao().getPageAfter(reportId, cursorDatetime, cursorId, pageSize);
+                List<Comment> comments = convertToComments(cachedComments);
+                mainHandler.post(() -> callback.onResult(comments));
+            } catch (Exception e) {
+                Log.e(TAG, "Error getting cached comments page", e);
+                mainHandler.post(() -> callback.onResult(new ArrayList<>()));
+            }
+        });
+    }
+
+    /**
+     * Append one page of a report's comments without touching rows outside the page's keyset range
+     * Cached rows inside that range which the server no longer returns are removed
+     * @param cursorId commentId of the last comment on the previous page, or null for the first page
+     * @param hasMore Whether the server has more pages after this one
+     */
+    public void cacheCommentsPage(String reportId, List<Comment> comments, long cursorDatetime, String cursorId,
+                                  boolean hasMore) {
+        executor.execute(() -> {
+            try {
+                List<CachedComment> cachedComments = convertToCachedComments(comments);
+                List<String> keepIds = new ArrayList<>();
+                for (CachedComment cached : cachedComments) {
+                    keepIds.add(cached.getCommentId());
+                }
+
+                // First page has no upper bound, last page has no lower bound
+                long upperDatetime = cursorId != null ? cursorDatetime : Long.MAX_VALUE;
+                String upperId = cursorId != null ? cursorId : "";
+                long lowerDatetime = Long.MIN_VALUE;
+                String lowerId = "";
+                if (hasMore && !cachedComments.isEmpty()) {
+                    CachedComment last = cachedComments.get(cachedComments.size() - 1);
+                    lowerDatetime = last.getDatetime();
+                    lowerId = last.getCommentId();
+                }
+
+                long finalLowerDatetime = lowerDatetime;
+                String finalLowerId = lowerId;
+                database.runInTransaction(() -> {
+                    // Comments posted offline are not on the server yet, keep them until the outbox sends them
+                    keepIds.addAll(database.outboxDao().getKeysOfType(OutboxMutation.TYPE_SUBMIT_COMMENT));
+                    database.commentDao().deletePageRangeExcept(reportId, upperDatetime, upperId,
+                            finalLowerDatetime, finalLowerId, keepIds);
+                    database.commentDao().insertAll(cachedComments);
+                });
+
+                Log.d(TAG, "Cached page of " + comments.size() + " comments for " + reportId);
+            } catch (Exception e) {
+                Log.e(TAG, "Error caching comments page", e);
             }
         });
     }
@@ -274,6 +790,7 @@ public class CacheManager {
      * Update a comment's score in cache
      */
     public void updateCommentScore(String commentId, long score) {
+        forgetMemoryThreadOf(commentId);
         executor.execute(() -> {
             try {
                 database.commentDao().updateScore(commentId, score);
@@ -288,6 +805,7 @@ public class CacheManager {
      * Used for optimistic UI updates after editing
      */
     public void updateCachedComment(Comment comment) {
+        memoryFirstPages.remove(comment.getReportId());
         executor.execute(() -> {
             try {
                 database.commentDao().updateComment(comment.getCommentId(), comment.getContent());
@@ -302,10 +820,15 @@ public class CacheManager {
      * Remove a comment from cache
      * Used for optimistic UI updates after deletion
      */
-    public void removeCachedComment(String commentId) {
+    public void removeCachedComment(String commentId, String reportId) {
+        memoryFirstPages.remove(reportId);
         executor.execute(() -> {
             try {
-                database.commentDao().deleteByCommentId(commentId);
+                database.runInTransaction(() -> {
+                    database.commentDao().deleteByCommentId(commentId);
+                    database.reportDao().adjustCommentCount(reportId, -1);
+                    refreshRowDigest(reportId);
+                });
                 Log.d(TAG, "Removed comment from cache: " + commentId);
             } catch (Exception e) {
                 Log.e(TAG, "Error removing comment from cache", e);
@@ -313,6 +836,28 @@ public class CacheManager {
         });
     }
 
+    /**
+     * Insert a comment into cache and bump its report's comment count
+     * Used for a newly posted comment and to roll back an optimistic deletion
+     */
+    public void insertCachedComment(Comment comment) {
+        memoryFirstPages.remove(comment.getReportId());
+        executor.execute(() -> {
+            try {
+                List<CachedComment> cachedComments =
+                        convertToCachedComments(Collections.singletonList(comment));
+                database.runInTransaction(() -> {
+                    database.commentDao().insertAll(cachedComments);
+                    database.reportDao().adjustCommentCount(comment.getReportId(), 1);
+                    refreshRowDigest(comment.getReportId());
+                });
+                Log.d(TAG, "Inserted comment into cache: " + comment.getCommentId());
+            } catch (Exception e) {
+                Log.e(TAG, "Error inserting comment into cache", e);
+            }
+        });
+    }
+
     // ==================== User Profiles ====================
 
     /**
@@ -409,6 +954,94 @@ public class CacheManager {
         });
     }
 
+    // ==================== User Directory ====================
+
+    /**
+     * Get cached metadata for report and comment authors
+     * Only rows younger than the directory TTL are returned, callers fetch the rest
+     * @return Map of userId to metadata, missing ids are not in the map
+     */
+    public void getCachedUsersMeta(Collection<String> userIds,
+                                   CacheCallback<Map<String, UserMeta>> callback) {
+        executor.execute(() -> {
+            try {
+                List<String> ids = new ArrayList<>(userIds);
+                long minCachedAt = System.currentTimeMillis() - CACHE_EXPIRY_USER_DIRECTORY;
+                Map<String, UserMeta> metaById = new HashMap<>();
+                for (int start = 0; start < ids.size(); start += USER_DIRECTORY_LOOKUP_CHUNK) {
+                    List<String> chunk = ids.subList(start,
+                            Math.min(start + USER_DIRECTORY_LOOKUP_CHUNK, ids.size()));
+                    for (CachedDirectoryUser cached :
+                            database.userDirectoryDao().getFreshUsers(chunk, minCachedAt)) {
+                        metaById.put(cached.getUserId(), convertToUserMeta(cached));
+                    }
+                }
+                mainHandler.post(() -> callback.onResult(metaById));
+            } catch (Exception e) {
+                Log.e(TAG, "Error getting cached user directory", e);
+                mainHandler.post(() -> callback.onResult(new HashMap<>()));
+            }
+        });
+    }
+
+    /**
+     * Cache author metadata and drop expired directory rows
+     */
+    public void cacheUsersMeta(Collection<UserMeta> users) {
+        executor.execute(() -> {
+            try {
+                long now = System.currentTimeMillis();
+                List<CachedDirectoryUser> cachedUsers = convertToCachedDirectoryUsers(users, now);
+                database.runInTransaction(() -> {
+                    database.userDirectoryDao().deleteExpired(now - CACHE_EXPIRY_USER_DIRECTORY);
+                    database.userDirectoryDao().insertAll(cachedUsers);
+                });
+
+                Log.d(TAG, "Cached " + cachedUsers.size() + " directory users");
+            } catch (Exception e) {
+                Log.e(TAG, "Error caching user directory", e);
+            }
+        });
+    }
+
+    /**
+     * Rewrite an author's name on every cached report, comment and directory row
+     */
+    public void updateAuthorName(String userId, String name) {
+        memoryFirstPages.evictAll();
+        executor.execute(() -> {
+            try {
+                database.runInTransaction(() -> {
+                    database.reportDao().updateUserName(userId, name);
+                    database.commentDao().updateUserName(userId, name);
+                    database.userDirectoryDao().updateName(userId, name);
+                });
+                Log.d(TAG, "Updated cached author name for " + userId);
+            } catch (Exception e) {
+                Log.e(TAG, "Error updating cached author name", e);
+            }
+        });
+    }
+
+    /**
+     * Rewrite an author's avatar version on every cached report, comment and directory row
+     */
+    public void updateAuthorAvatarVersion(String userId, String avatarVersion) {
+        memoryFirstPages.evictAll();
+        executor.execute(() -> {
+            try {
+                database.runInTransaction(() -> {
+                    database.reportDao().updateProfilePictureVersion(userId, avatarVersion);
+                    database.commentDao().updateProfilePictureVersion(userId, avatarVersion);
+                    database.userDirectoryDao().updateAvatarVersion(userId, avatarVersion);
+                });
+                Log.d(TAG, "Updated cached author avatar for " + userId);
+            } catch (Exception e) {
+                Log.e(TAG, "Error updating cached author avatar", e);
+            }
+        });
+    }
+
     // ==================== Votes ====================
 
     /**
@@ -472,6 +1105,32 @@ public class CacheManager {
         });
     }
 
+    /**
+     * Set a user's vote on a cached report and shift the report's score by the change
+     * Used for votes applied locally before the server confirms them
+     */
+    public void applyReportVote(String reportId, String userId, int voteType) {
+        executor.execute(() -> {
+            try {
+                database.runInTransaction(() -> {
+                    CachedReportVote previous = database.reportVoteDao().getVote(reportId, userId);
+                    int previousVote = previous != null ? previous.getVoteType() : 0;
+
+                    CachedReportVote vote = new CachedReportVote();
+                    vote.setReportId(reportId);
+                    vote.setUserId(userId);
+                    vote.setVoteType(voteType);
+                    vote.setCachedAt(System.currentTimeMillis());
+                    database.reportVoteDao().insert(vote);
+                    database.reportDao().adjustScore(reportId, voteType - previousVote);
+                    refreshRowDigest(reportId);
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error applying report vote to cache", e);
+            }
+        });
+    }
+
     /**
      * Get cached comment votes for a user
      */
@@ -515,10 +1174,88 @@ public class CacheManager {
         });
     }
 
+    /**
+     * Get the vote sync high-water mark for a user
+     * @return 0 if the user's votes have never been synced
+     */
+    public void getVoteSyncToken(String userId, CacheCallback<Long> callback) {
+        executor.execute(() -> {
+            try {
+                Long syncToken = database.cacheMetadataDao().getSyncToken(KEY_USER_VOTES_PREFIX + userId);
+                long result = syncToken != null ? syncToken : 0L;
+                mainHandler.post(() -> callback.onResult(result));
+            } catch (Exception e) {
+                mainHandler.post(() -> callback.onResult(0L));
+            }
+        });
+    }
+
+    /**
+     * Apply a vote sync result, votes and the new high-water mark are written in one transaction
+     * Targets with a vote still waiting in the outbox keep their local vote, the outbox result settles them
+     */
+    public void applyVotesDelta(String userId, Map<String, Integer> reportVotes,
+                                Map<String, Integer> commentVotes, long syncToken) {
+        if (!commentVotes.isEmpty()) {
+            memoryFirstPages.evictAll();
+        }
+        executor.execute(() -> {
+            try {
+                database.runInTransaction(() -> {
+                    Map<String, Integer> confirmedReportVotes = new HashMap<>(reportVotes);
+                    confirmedReportVotes.keySet().removeAll(database.outboxDao()
+                            .getPendingTargets(userId, OutboxMutation.TYPE_VOTE_REPORT));
+                    Map<String, Integer> confirmedCommentVotes = new HashMap<>(commentVotes);
+                    confirmedCommentVotes.keySet().removeAll(database.outboxDao()
+                            .getPendingTargets(userId, OutboxMutation.TYPE_VOTE_COMMENT));
+
+                    long now = System.currentTimeMillis();
+                    List<CachedReportVote> cachedReportVotes = new ArrayList<>();
+                    for (Map.Entry<String, Integer> entry : confirmedReportVotes.entrySet()) {
+                        CachedReportVote vote = new CachedReportVote();
+                        vote.setReportId(entry.getKey());
+                        vote.setUserId(userId);
+                        vote.setVoteType(entry.getValue());
+                        vote.setCachedAt(now);
+                        cachedReportVotes.add(vote);
+                    }
+                    List<CachedCommentVote> cachedCommentVotes = new ArrayList<>();
+                    for (Map.Entry<String, Integer> entry : confirmedCommentVotes.entrySet()) {
+                        CachedCommentVote vote = new CachedCommentVote();
+                        vote.setCommentId(entry.getKey());
+                        vote.setUserId(userId);
+                        vote.setVoteType(entry.getValue());
+                        vote.setCachedAt(now);
+                        cachedCommentVotes.add(vote);
+                    }
+                    database.reportVoteDao().insertAll(cachedReportVotes);
+                    database.commentVoteDao().insertAll(cachedCommentVotes);
+
+                    String cacheKey = KEY_USER_VOTES_PREFIX + userId;
+                    CacheMetadata metadata = database.cacheMetadataDao().getMetadata(cacheKey);
+                    if (metadata == null) {
+                        metadata = new CacheMetadata();
+                        metadata.setCacheKey(cacheKey);
+                    }
+                    metadata.setLastUpdated(now);
+                    metadata.setItemCount(cachedReportVotes.size() + cachedCommentVotes.size());
+                    metadata.setSyncToken(Math.max(metadata.getSyncToken(), syncToken));
+                    metadata.setStale(false);
+                    database.cacheMetadataDao().insert(metadata);
+                });
+                Log.d(TAG, "Applied vote delta: " + reportVotes.size() + " report votes, " +
+                        commentVotes.size() + " comment votes");
+            } catch (Exception e) {
+                Log.e(TAG, "Error applying vote delta", e);
+            }
+        });
+    }
+
     /**
      * Update a single comment vote in cache
      */
     public void updateCommentVote(String commentId, String userId, int voteType) {
+        forgetMemoryThreadOf(commentId);
         executor.execute(() -> {
             try {
                 CachedCommentVote vote = new CachedCommentVote();
@@ -533,12 +1270,50 @@ public class CacheManager {
         });
     }
 
+    /**
+     * Set a user's vote on a cached comment and shift the comment's score by the change
+     * Used for votes applied locally before the server confirms them
+     */
+    public void applyCommentVote(String commentId, String userId, int voteType) {
+        forgetMemoryThreadOf(commentId);
+        executor.execute(() -> {
+            try {
+                database.runInTransaction(() -> {
+                    CachedCommentVote previous = database.commentVoteDao().getVote(commentId, userId);
+                    int previousVote = previous != null ? previous.getVoteType() : 0;
+
+                    CachedCommentVote vote = new CachedCommentVote();
+                    vote.setCommentId(commentId);
+                    vote.setUserId(userId);
+                    vote.setVoteType(voteType);
+                    vote.setCachedAt(System.currentTimeMillis());
+                    database.commentVoteDao().insert(vote);
+                    database.commentDao().adjustScore(commentId, voteType - previousVote);
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error applying comment vote to cache", e);
+            }
+        });
+    }
+
     // ==================== Utility Methods ====================
 
+    private void markStale(String cacheKey) {
+        executor.execute(() -> {
+            try {
+                database.cacheMetadataDao().markStale(cacheKey);
+                Log.d(TAG, "Marked " + cacheKey + " stale");
+            } catch (Exception e) {
+                Log.e(TAG, "Error marking " + cacheKey + " stale", e);
+            }
+        });
+    }
+
     /**
      * Clear all caches (e.g., on logout)
      */
     public void clearAllCaches() {
+        memoryFirstPages.evictAll();
         executor.execute(() -> {
             try {
                 database.reportDao().deleteAll();
@@ -547,6 +1322,8 @@ public class CacheManager {
                 database.reportVoteDao().deleteAll();
                 database.commentVoteDao().deleteAll();
                 database.cacheMetadataDao().deleteAll();
+                database.userDirectoryDao().deleteAll();
+                database.feedRemoteKeyDao().deleteAll();
                 Log.d(TAG, "Cleared all caches");
             } catch (Exception e) {
                 Log.e(TAG, "Error clearing caches", e);
@@ -555,25 +1332,65 @@ public class CacheManager {
     }
 
     /**
-     * Generate hash for data comparison
+     * Content digest of a report row, the same algorithm as the server's reports checksum
+     * First 8 bytes of SHA-256 over documentId|updatedAt|score|comments|status
+     */
+    static long reportRowDigest(CachedReport report) {
+        String content = report.getDocumentId() + "|" + report.getUpdatedAt() + "|" + report.getScore() + "|" +
+                report.getComments() + "|" + report.getStatus();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(content.getBytes(StandardCharsets.UTF_8));
+            long value = 0L;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (digest[i] & 0xff);
+            }
+            return value;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * Checksum bucket of a report, its creation month in UTC, e.g. "2025-03"
+     */
+    static String reportBucket(long createdAt) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(createdAt);
+        return String.format(Locale.ROOT, "%04d-%02d",
+                calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1);
+    }
+
+    /**
+     * First millisecond of a bucket's month in UTC
+     */
+    private static long bucketStart(String bucket) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(Integer.parseInt(bucket.substring(0, 4)), Integer.parseInt(bucket.substring(5, 7)) - 1, 1);
+        return calendar.getTimeInMillis();
+    }
+
+    private static String nextBucket(String bucket) {
+        int year = Integer.parseInt(bucket.substring(0, 4));
+        int month = Integer.parseInt(bucket.substring(5, 7));
+        return month == 12
+                ? String.format(Locale.ROOT, "%04d-01", year + 1)
+                : String.format(Locale.ROOT, "%04d-%02d", year, month + 1);
+    }
+
+    /**
+     * Feed hash as the server formats it, 16 lowercase hex characters
      */
-    public static String generateHash(List<?> data) {
+    private static String toFeedHash(long feedDigest) {
+        return String.format(Locale.ROOT, "%016x", feedDigest);
+    }
+
+    private static long parseFeedHash(String feedHash) {
         try {
-            StringBuilder sb = new StringBuilder();
-            for (Object item : data) {
-                sb.append(item.hashCode());
-            }
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] digest = md.digest(sb.toString().getBytes());
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : digest) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (Exception e) {
-            return String.valueOf(System.currentTimeMillis());
+            return Long.parseUnsignedLong(feedHash, 16);
+        } catch (NumberFormatException e) {
+            return 0L;
         }
     }
 
@@ -582,29 +1399,34 @@ public class CacheManager {
     private List<HazardCard> convertToHazardCards(List<CachedReport> cachedReports) {
         List<HazardCard> hazardCards = new ArrayList<>();
         for (CachedReport cached : cachedReports) {
-            HazardCard card = new HazardCard();
-            card.setDocumentId(cached.getDocumentId());
-            card.setDescription(cached.getDescription());
-            card.setHazardType(cached.getHazardType());
-            card.setLocalGov(cached.getLocalGov());
-            card.setLocationDetails(cached.getLocationDetails());
-            card.setLatitude(cached.getLatitude());
-            card.setLongitude(cached.getLongitude());
-            card.setStatus(cached.getStatus());
-            card.setPhotoUrl(cached.getPhotoUrl());
-            card.setProfilePictureUrl(cached.getProfilePictureUrl());
-            card.setUserName(cached.getUserName());
-            card.setUserId(cached.getUserId());
-            card.setVotes(cached.getVotes());
-            card.setCreatedAt(cached.getCreatedAt());
-            card.setScore(cached.getScore());
-            card.setComments(cached.getComments());
-            card.setUserIsAdmin(cached.isUserIsAdmin());
-            hazardCards.add(card);
+            hazardCards.add(toHazardCard(cached));
         }
         return hazardCards;
     }
 
+    private static HazardCard toHazardCard(CachedReport cached) {
+        HazardCard card = new HazardCard();
+        card.setDocumentId(cached.getDocumentId());
+        card.setDescription(cached.getDescription());
+        card.setHazardType(cached.getHazardType());
+        card.setLocalGov(cached.getLocalGov());
+        card.setLocationDetails(cached.getLocationDetails());
+        card.setLatitude(cached.getLatitude());
+        card.setLongitude(cached.getLongitude());
+        card.setStatus(cached.getStatus());
+        card.setPhotoVersion(cached.getPhotoVersion());
+        card.setProfilePictureVersion(cached.getProfilePictureVersion());
+        card.setUserName(cached.getUserName());
+        card.setUserId(cached.getUserId());
+        card.setVotes(cached.getVotes());
+        card.setCreatedAt(cached.getCreatedAt());
+        card.setUpdatedAt(cached.getUpdatedAt());
+        card.setScore(cached.getScore());
+        card.setComments(cached.getComments());
+        card.setUserIsAdmin(cached.isUserIsAdmin());
+        return card;
+    }
+
     private List<CachedReport> convertToCachedReports(List<HazardCard> hazardCards) {
         List<CachedReport> cachedReports = new ArrayList<>();
         long now = System.currentTimeMillis();
@@ -618,16 +1440,18 @@ public class CacheManager {
             cached.setLatitude(card.getLatitude());
             cached.setLongitude(card.getLongitude());
             cached.setStatus(card.getStatus());
-            cached.setPhotoUrl(card.getPhotoUrl());
-            cached.setProfilePictureUrl(card.getProfilePictureUrl());
+            cached.setPhotoVersion(card.getPhotoVersion());
+            cached.setProfilePictureVersion(card.getProfilePictureVersion());
             cached.setUserName(card.getUserName());
             cached.setUserId(card.getUserId());
             cached.setVotes(card.getVotes());
             cached.setCreatedAt(card.getCreatedAt());
+            cached.setUpdatedAt(card.getUpdatedAt());
             cached.setScore(card.getScore());
             cached.setComments(card.getComments());
             cached.setUserIsAdmin(card.isUserIsAdmin());
             cached.setCachedAt(now);
+            cached.setRowDigest(reportRowDigest(cached));
             cachedReports.add(cached);
         }
         return cachedReports;
@@ -636,21 +1460,25 @@ public class CacheManager {
     private List<Comment> convertToComments(List<CachedComment> cachedComments) {
         List<Comment> comments = new ArrayList<>();
         for (CachedComment cached : cachedComments) {
-            Comment comment = new Comment();
-            comment.setCommentId(cached.getCommentId());
-            comment.setContent(cached.getContent());
-            comment.setDatetime(cached.getDatetime());
-            comment.setReportId(cached.getReportId());
-            comment.setUserId(cached.getUserId());
-            comment.setUserName(cached.getUserName());
-            comment.setProfilePictureUrl(cached.getProfilePictureUrl());
-            comment.setScore(cached.getScore());
-            comment.setUserIsAdmin(cached.isUserIsAdmin());
-            comments.add(comment);
+            comments.add(toComment(cached));
         }
         return comments;
     }
 
+    private static Comment toComment(CachedComment cached) {
+        Comment comment = new Comment();
+        comment.setCommentId(cached.getCommentId());
+        comment.setContent(cached.getContent());
+        comment.setDatetime(cached.getDatetime());
+        comment.setReportId(cached.getReportId());
+        comment.setUserId(cached.getUserId());
+        comment.setUserName(cached.getUserName());
+        comment.setProfilePictureVersion(cached.getProfilePictureVersion());
+        comment.setScore(cached.getScore());
+        comment.setUserIsAdmin(cached.isUserIsAdmin());
+        return comment;
+    }
+
     private List<CachedComment> convertToCachedComments(List<Comment> comments) {
         List<CachedComment> cachedComments = new ArrayList<>();
         long now = System.currentTimeMillis();
@@ -662,7 +1490,7 @@ public class CacheManager {
             cached.setReportId(comment.getReportId());
             cached.setUserId(comment.getUserId());
             cached.setUserName(comment.getUserName());
-            cached.setProfilePictureUrl(comment.getProfilePictureUrl());
+            cached.setProfilePictureVersion(comment.getProfilePictureVersion());
             cached.setScore(comment.getScore());
             cached.setUserIsAdmin(comment.isUserIsAdmin());
             cached.setCachedAt(now);
@@ -671,6 +1499,47 @@ public class CacheManager {
         return cachedComments;
     }
 
+    private UserMeta convertToUserMeta(CachedDirectoryUser cached) {
+        UserMeta meta = new UserMeta();
+        meta.setUserId(cached.getUserId());
+        meta.setName(cached.getName());
+        meta.setAdmin(cached.isAdmin());
+        meta.setAvatarVersion(cached.getAvatarVersion());
+        return meta;
+    }
+
+    private List<CachedDirectoryUser> convertToCachedDirectoryUsers(Collection<UserMeta> users,
+                                                                    long cachedAt) {
+        List<CachedDirectoryUser> cachedUsers = new ArrayList<>();
+        for (UserMeta meta : users) {
+            CachedDirectoryUser cached = new CachedDirectoryUser();
+            cached.setUserId(meta.getUserId());
+            cached.setName(meta.getName());
+            cached.setAdmin(meta.isAdmin());
+            cached.setAvatarVersion(meta.getAvatarVersion());
+            cached.setCachedAt(cachedAt);
+            cachedUsers.add(cached);
+        }
+        return cachedUsers;
+    }
+
+    /**
+     * Month bucket hashes of the part of the community feed the cache holds in full
+     */
+    public static class ReportBucketHashes {
+        public final String coveredFrom; // Oldest bucket held in full, null when the whole feed is cached
+        public final Map<String, String> hashes;
+
+        ReportBucketHashes(String coveredFrom, Map<String, String> hashes) {
+            this.coveredFrom = coveredFrom;
+            this.hashes = hashes;
+        }
+
+        public boolean covers(String bucket) {
+            return coveredFrom == null || bucket.compareTo(coveredFrom) >= 0;
+        }
+    }
+
     /**
      * Callback interface for async cache operations
      */
@@ -0,0 +1,165 @@
+package com.gitgud.citywatch.data.cache;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Schema migrations for AppDatabase, applied in place so an update keeps the warm cache
+ * Add one for every schema change, MigrationTest runs the chain from version 1 and validates it with Room
+ */
+public final class Migrations {
+
+    private Migrations() {
+    }
+
+    /**
+     * Reports carry their last update time, cache metadata a delta sync token
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `reports` ADD COLUMN `updatedAt` INTEGER NOT NULL DEFAULT 0");
+            // A zero token makes the next sync start from the first feed page
+            db.execSQL("ALTER TABLE `cache_metadata` ADD COLUMN `syncToken` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * Image URLs were replaced by version keys
+     * SQLite before 3.25 cannot rename columns, so both tables are rebuilt with their rows copied over
+     * A URL is not a version key, the versions stay null until the next sync rewrites the row
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `reports_new` (`documentId` TEXT NOT NULL, " +
+                    "`description` TEXT, `hazardType` TEXT, `localGov` TEXT, `locationDetails` TEXT, " +
+                    "`latitude` REAL NOT NULL, `longitude` REAL NOT NULL, `status` TEXT, `photoVersion` TEXT, " +
+                    "`profilePictureVersion` TEXT, `userName` TEXT, `userId` TEXT, `votes` INTEGER NOT NULL, " +
+                    "`createdAt` INTEGER NOT NULL, `updatedAt` INTEGER NOT NULL, `score` INTEGER NOT NULL, " +
+                    "`comments` INTEGER NOT NULL, `cachedAt` INTEGER NOT NULL, `userIsAdmin` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`documentId`))");
+            db.execSQL("INSERT INTO `reports_new` (`documentId`, `description`, `hazardType`, `localGov`, " +
+                    "`locationDetails`, `latitude`, `longitude`, `status`, `userName`, `userId`, `votes`, " +
+                    "`createdAt`, `updatedAt`, `score`, `comments`, `cachedAt`, `userIsAdmin`) " +
+                    "SELECT `documentId`, `description`, `hazardType`, `localGov`, `locationDetails`, " +
+                    "`latitude`, `longitude`, `status`, `userName`, `userId`, `votes`, `createdAt`, `updatedAt`, " +
+                    "`score`, `comments`, `cachedAt`, `userIsAdmin` FROM `reports`");
+            db.execSQL("DROP TABLE `reports`");
+            db.execSQL("ALTER TABLE `reports_new` RENAME TO `reports`");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `comments_new` (`commentId` TEXT NOT NULL, `content` TEXT, " +
+                    "`datetime` INTEGER NOT NULL, `reportId` TEXT, `userId` TEXT, `userName` TEXT, " +
+                    "`profilePictureVersion` TEXT, `score` INTEGER NOT NULL, `cachedAt` INTEGER NOT NULL, " +
+                    "`userIsAdmin` INTEGER NOT NULL, PRIMARY KEY(`commentId`))");
+            db.execSQL("INSERT INTO `comments_new` (`commentId`, `content`, `datetime`, `reportId`, `userId`, " +
+                    "`userName`, `score`, `cachedAt`, `userIsAdmin`) " +
+                    "SELECT `commentId`, `content`, `datetime`, `reportId`, `userId`, `userName`, `score`, " +
+                    "`cachedAt`, `userIsAdmin` FROM `comments`");
+            db.execSQL("DROP TABLE `comments`");
+            db.execSQL("ALTER TABLE `comments_new` RENAME TO `comments`");
+        }
+    };
+
+    /**
+     * Directory of report and comment authors
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `user_directory` (`userId` TEXT NOT NULL, `name` TEXT, " +
+                    "`admin` INTEGER NOT NULL, `avatarVersion` TEXT, `cachedAt` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`userId`))");
+        }
+    };
+
+    /**
+     * Caches can be marked stale instead of being wiped
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `cache_metadata` ADD COLUMN `stale` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * Index comments in thread order for keyset paging
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_comments_reportId_datetime_commentId` " +
+                    "ON `comments` (`reportId`, `datetime`, `commentId`)");
+        }
+    };
+
+    /**
+     * Durable outbox of local writes
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `outbox` (`mutationKey` TEXT NOT NULL, `userId` TEXT NOT NULL, " +
+                    "`type` TEXT NOT NULL, `targetId` TEXT, `payload` TEXT, `createdAt` INTEGER NOT NULL, " +
+                    "`attempts` INTEGER NOT NULL, `nextAttemptAt` INTEGER NOT NULL, PRIMARY KEY(`mutationKey`))");
+        }
+    };
+
+    /**
+     * Reports carry the content digest the feed hash is built from
+     * Digests are computed in Java, so existing rows start at 0 and the stored feed hash is cleared
+     * Feed pages and bucket syncs rewrite the rows they load with their real digests
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `reports` ADD COLUMN `rowDigest` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE `cache_metadata` SET `dataHash` = NULL " +
+                    "WHERE `cacheKey` = '" + CacheManager.KEY_ALL_REPORTS + "'");
+        }
+    };
+
+    /**
+     * Index reports in feed order and per author, and votes per user
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_reports_createdAt_documentId` " +
+                    "ON `reports` (`createdAt`, `documentId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_reports_userId_createdAt_documentId` " +
+                    "ON `reports` (`userId`, `createdAt`, `documentId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_report_votes_userId` ON `report_votes` (`userId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_comment_votes_userId` ON `comment_votes` (`userId`)");
+        }
+    };
+
+    /**
+     * Paged feeds keep the server cursor they resume from
+     * No key is seeded, the feed's initial refresh writes it from the first page
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `feed_remote_keys` (`feed` TEXT NOT NULL, " +
+                    "`nextCreatedAt` INTEGER NOT NULL, `nextDocumentId` TEXT, PRIMARY KEY(`feed`))");
+        }
+    };
+
+    /**
+     * Every migration, in version order
+     */
+    public static final Migration[] ALL = {
+            MIGRATION_1_2,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10
+    };
+}
@@ -30,5 +30,11 @@ public interface CacheMetadataDao {
 
     @Query("SELECT lastUpdated FROM cache_metadata WHERE cacheKey = :cacheKey")
     Long getLastUpdated(String cacheKey);
+
+    @Query("SELECT syncToken FROM cache_metadata WHERE cacheKey = :cacheKey")
+    Long getSyncToken(String cacheKey);
+
+    @Query("UPDATE cache_metadata SET stale = 1 WHERE cacheKey = :cacheKey")
+    void markStale(String cacheKey);
 }
 
@@ -1,6 +1,8 @@
 package com.gitgud.citywatch.data.cache.dao;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
+import androidx.room.Embedded;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
@@ -21,8 +23,36 @@ public interface CommentDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insert(CachedComment comment);
 
-    @Query("SELECT * FROM comments WHERE reportId = :reportId ORDER BY datetime DESC")
-    List<CachedComment> getCommentsForReport(String reportId);
+    @Query("SELECT * FROM comments WHERE reportId = :reportId " +
+           "ORDER BY datetime DESC, commentId DESC LIMIT :limit")
+    List<CachedComment> getFirstPage(String reportId, int limit);
+
+    /**
+     * First page of a thread with the user's vote on each comment
+     * Re-emitted whenever the comments or comment votes change
+     */
+    @Query("SELECT comments.*, IFNULL(comment_votes.voteType, 0) AS userVote FROM comments " +
+           "LEFT JOIN comment_votes ON comment_votes.commentId = comments.commentId " +
+           "AND comment_votes.userId = :userId " +
+           "WHERE comments.reportId = :reportId " +
+           "ORDER BY comments.datetime DESC, comments.commentId DESC LIMIT :limit")
+    LiveData<List<CommentRow>> observeFirstPage(String reportId, String userId, int limit);
+
+    @Query("SELECT * FROM comments WHERE reportId = :reportId " +
+           "AND (datetime < :cursorDatetime OR (datetime = :cursorDatetime AND commentId < :cursorId)) " +
+           "ORDER BY datetime DESC, commentId DESC LIMIT :limit")
+    List<CachedComment> getPageAfter(String reportId, long cursorDatetime, String cursorId, int limit);
+
+    /**
+     * Delete cached comments of a report between a page's cursor (exclusive) and its last row (inclusive)
+     * that the server no longer returned for that page
+     */
+    @Query("DELETE FROM comments WHERE reportId = :reportId " +
+           "AND (datetime < :upperDatetime OR (datetime = :upperDatetime AND commentId < :upperId)) " +
+           "AND (datetime > :lowerDatetime OR (datetime = :lowerDatetime AND commentId >= :lowerId)) " +
+           "AND commentId NOT IN (:keepIds)")
+    void deletePageRangeExcept(String reportId, long upperDatetime, String upperId, long lowerDatetime,
+                               String lowerId, List<String> keepIds);
 
     @Query("SELECT * FROM comments WHERE commentId = :commentId")
     CachedComment getCommentById(String commentId);
@@ -39,9 +69,27 @@ public interface CommentDao {
     @Query("UPDATE comments SET score = :score WHERE commentId = :commentId")
     void updateScore(String commentId, long score);
 
+    @Query("UPDATE comments SET score = score + :delta WHERE commentId = :commentId")
+    void adjustScore(String commentId, long delta);
+
     @Query("UPDATE comments SET content = :content WHERE commentId = :commentId")
     void updateComment(String commentId, String content);
 
     @Query("DELETE FROM comments WHERE commentId = :commentId")
     void deleteByCommentId(String commentId);
+
+    @Query("UPDATE comments SET userName = :userName WHERE userId = :userId")
+    void updateUserName(String userId, String userName);
+
+    @Query("UPDATE comments SET profilePictureVersion = :version WHERE userId = :userId")
+    void updateProfilePictureVersion(String userId, String version);
+
+    /**
+     * Cached comment with the current user's vote on it
+     */
+    class CommentRow {
+        @Embedded
+        public CachedComment comment;
+        public int userVote;
+    }
 }
@@ -0,0 +1,24 @@
+package com.gitgud.citywatch.data.cache.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.gitgud.citywatch.data.cache.entity.FeedRemoteKey;
+
+/**
+ * Data Access Object for the paged feeds' server cursors
+ */
+@Dao
+public interface FeedRemoteKeyDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(FeedRemoteKey key);
+
+    @Query("SELECT * FROM feed_remote_keys WHERE feed = :feed")
+    FeedRemoteKey getKey(String feed);
+
+    @Query("DELETE FROM feed_remote_keys")
+    void deleteAll();
+}
@@ -0,0 +1,52 @@
+package com.gitgud.citywatch.data.cache.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.gitgud.citywatch.data.cache.entity.OutboxMutation;
+
+import java.util.List;
+
+/**
+ * Data Access Object for queued local writes
+ */
+@Dao
+public interface OutboxDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(OutboxMutation mutation);
+
+    @Query("DELETE FROM outbox WHERE userId = :userId AND type = :type AND targetId = :targetId")
+    void deleteForTarget(String userId, String type, String targetId);
+
+    /**
+     * Queue a mutation, dropping any pending one it supersedes
+     * A burst of votes on the same target collapses to the last one
+     */
+    @Transaction
+    default void enqueue(OutboxMutation mutation) {
+        if (mutation.getTargetId() != null) {
+            deleteForTarget(mutation.getUserId(), mutation.getType(), mutation.getTargetId());
+        }
+        insert(mutation);
+    }
+
+    @Query("SELECT * FROM outbox WHERE userId = :userId ORDER BY createdAt, mutationKey LIMIT :limit")
+    List<OutboxMutation> getOldest(String userId, int limit);
+
+    @Query("UPDATE outbox SET attempts = attempts + 1, nextAttemptAt = :nextAttemptAt " +
+           "WHERE mutationKey IN (:mutationKeys)")
+    void markAttempted(List<String> mutationKeys, long nextAttemptAt);
+
+    @Query("DELETE FROM outbox WHERE mutationKey IN (:mutationKeys)")
+    void delete(List<String> mutationKeys);
+
+    @Query("SELECT targetId FROM outbox WHERE userId = :userId AND type = :type AND targetId IS NOT NULL")
+    List<String> getPendingTargets(String userId, String type);
+
+    @Query("SELECT mutationKey FROM outbox WHERE type = :type")
+    List<String> getKeysOfType(String type);
+}
@@ -1,6 +1,9 @@
 package com.gitgud.citywatch.data.cache.dao;
 
+import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
+import androidx.room.Embedded;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
@@ -24,6 +27,36 @@ public interface ReportDao {
     @Query("SELECT * FROM reports ORDER BY createdAt DESC")
     List<CachedReport> getAllReports();
 
+    /**
+     * Community feed, newest first, with the user's cached vote on each report
+     * Room invalidates the source whenever either table changes
+     */
+    @Query("SELECT reports.*, IFNULL(report_votes.voteType, 0) AS userVote FROM reports " +
+           "LEFT JOIN report_votes ON report_votes.reportId = reports.documentId " +
+           "AND report_votes.userId = :userId " +
+           "ORDER BY reports.createdAt DESC, reports.documentId DESC")
+    PagingSource<Integer, FeedRow> getFeedPagingSource(String userId);
+
+    /**
+     * A user's own reports, newest first, with their vote on each
+     * Re-emitted whenever either table changes
+     */
+    @Query("SELECT reports.*, IFNULL(report_votes.voteType, 0) AS userVote FROM reports " +
+           "LEFT JOIN report_votes ON report_votes.reportId = reports.documentId " +
+           "AND report_votes.userId = :userId " +
+           "WHERE reports.userId = :userId " +
+           "ORDER BY reports.createdAt DESC, reports.documentId DESC")
+    LiveData<List<FeedRow>> observeUserReports(String userId);
+
+    /**
+     * One report with the user's vote on it, null while it is not cached
+     */
+    @Query("SELECT reports.*, IFNULL(report_votes.voteType, 0) AS userVote FROM reports " +
+           "LEFT JOIN report_votes ON report_votes.reportId = reports.documentId " +
+           "AND report_votes.userId = :userId " +
+           "WHERE reports.documentId = :documentId")
+    LiveData<FeedRow> observeReport(String documentId, String userId);
+
     @Query("SELECT * FROM reports WHERE documentId = :documentId")
     CachedReport getReportById(String documentId);
 
@@ -33,15 +66,68 @@ public interface ReportDao {
     @Query("DELETE FROM reports WHERE documentId = :documentId")
     void deleteById(String documentId);
 
+    /**
+     * Delete cached reports between a page's cursor (exclusive) and its last row (inclusive)
+     * that the server no longer returned for that page
+     * @param keepIds The page's ids plus reports still waiting in the outbox
+     */
+    @Query("DELETE FROM reports " +
+           "WHERE (createdAt < :upperCreatedAt OR (createdAt = :upperCreatedAt AND documentId < :upperId)) " +
+           "AND (createdAt > :lowerCreatedAt OR (createdAt = :lowerCreatedAt AND documentId >= :lowerId)) " +
+           "AND documentId NOT IN (:keepIds)")
+    void deletePageRangeExcept(long upperCreatedAt, String upperId, long lowerCreatedAt,
+                               String lowerId, List<String> keepIds);
+
+    @Query("SELECT rowDigest FROM reports WHERE documentId IN (:documentIds)")
+    List<Long> getRowDigests(List<String> documentIds);
+
+    @Query("SELECT rowDigest FROM reports")
+    List<Long> getAllRowDigests();
+
+    /**
+     * What an incoming row is compared against before it is written, see StoredRow
+     */
+    @Query("SELECT documentId, rowDigest, userName, profilePictureVersion, userIsAdmin FROM reports " +
+           "WHERE documentId IN (:documentIds)")
+    List<StoredRow> getStoredRows(List<String> documentIds);
+
+    /**
+     * Row digests of the rows deletePageRangeExcept would delete
+     */
+    @Query("SELECT rowDigest FROM reports " +
+           "WHERE (createdAt < :upperCreatedAt OR (createdAt = :upperCreatedAt AND documentId < :upperId)) " +
+           "AND (createdAt > :lowerCreatedAt OR (createdAt = :lowerCreatedAt AND documentId >= :lowerId)) " +
+           "AND documentId NOT IN (:keepIds)")
+    List<Long> getPageRangeDigestsExcept(long upperCreatedAt, String upperId, long lowerCreatedAt,
+                                         String lowerId, List<String> keepIds);
+
+    @Query("SELECT createdAt, rowDigest FROM reports WHERE createdAt >= :start")
+    List<DigestRow> getDigestRowsFrom(long start);
+
     @Query("SELECT COUNT(*) FROM reports")
     int getReportCount();
 
     @Query("UPDATE reports SET score = :score WHERE documentId = :documentId")
     void updateScore(String documentId, long score);
 
+    @Query("UPDATE reports SET score = score + :delta WHERE documentId = :documentId")
+    void adjustScore(String documentId, long delta);
+
     @Query("UPDATE reports SET comments = :commentCount WHERE documentId = :documentId")
     void updateCommentCount(String documentId, long commentCount);
 
+    @Query("UPDATE reports SET comments = MAX(comments + :delta, 0) WHERE documentId = :documentId")
+    void adjustCommentCount(String documentId, int delta);
+
+    @Query("UPDATE reports SET rowDigest = :rowDigest WHERE documentId = :documentId")
+    void updateRowDigest(String documentId, long rowDigest);
+
+    @Query("UPDATE reports SET userName = :userName WHERE userId = :userId")
+    void updateUserName(String userId, String userName);
+
+    @Query("UPDATE reports SET profilePictureVersion = :version WHERE userId = :userId")
+    void updateProfilePictureVersion(String userId, String version);
+
     @Query("UPDATE reports SET description = :description, hazardType = :hazardType, " +
            "localGov = :localGov, locationDetails = :locationDetails, " +
            "latitude = :latitude, longitude = :longitude, status = :status " +
@@ -52,5 +138,35 @@ public interface ReportDao {
 
     @Query("DELETE FROM reports WHERE documentId = :documentId")
     void deleteByDocumentId(String documentId);
-}
 
+    @Query("DELETE FROM reports WHERE documentId IN (:documentIds)")
+    void deleteByDocumentIds(List<String> documentIds);
+
+    /**
+     * Cached report with the current user's vote on it
+     */
+    class FeedRow {
+        @Embedded
+        public CachedReport report;
+        public int userVote;
+    }
+
+    /**
+     * Row digest and author fields of a cached report, enough to tell whether a fetched row changed
+     */
+    class StoredRow {
+        public String documentId;
+        public long rowDigest;
+        public String userName;
+        public String profilePictureVersion;
+        public boolean userIsAdmin;
+    }
+
+    /**
+     * Creation time and row digest of a cached report, enough to compute bucket checksums
+     */
+    class DigestRow {
+        public long createdAt;
+        public long rowDigest;
+    }
+}
@@ -0,0 +1,35 @@
+package com.gitgud.citywatch.data.cache.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.gitgud.citywatch.data.cache.entity.CachedDirectoryUser;
+
+import java.util.List;
+
+/**
+ * Data Access Object for the cached user directory
+ */
+@Dao
+public interface UserDirectoryDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<CachedDirectoryUser> users);
+
+    @Query("SELECT * FROM user_directory WHERE userId IN (:userIds) AND cachedAt > :minCachedAt")
+    List<CachedDirectoryUser> getFreshUsers(List<String> userIds, long minCachedAt);
+
+    @Query("DELETE FROM user_directory WHERE cachedAt <= :minCachedAt")
+    void deleteExpired(long minCachedAt);
+
+    @Query("DELETE FROM user_directory")
+    void deleteAll();
+
+    @Query("UPDATE user_directory SET name = :name WHERE userId = :userId")
+    void updateName(String userId, String name);
+
+    @Query("UPDATE user_directory SET avatarVersion = :avatarVersion WHERE userId = :userId")
+    void updateAvatarVersion(String userId, String avatarVersion);
+}
@@ -16,6 +16,8 @@ public class CacheMetadata {
     private String dataHash; // Hash of the data for change detection
     private long lastUpdated;
     private int itemCount;
+    private long syncToken; // Server high-water mark for delta sync, 0 if never synced
+    private boolean stale; // Set by local changes, rows stay readable until the next revalidation
 
     public CacheMetadata() {
         this.cacheKey = "";
@@ -27,11 +29,15 @@ public class CacheMetadata {
     public String getDataHash() { return dataHash; }
     public long getLastUpdated() { return lastUpdated; }
     public int getItemCount() { return itemCount; }
+    public long getSyncToken() { return syncToken; }
+    public boolean isStale() { return stale; }
 
     // Setters
     public void setCacheKey(@NonNull String cacheKey) { this.cacheKey = cacheKey; }
     public void setDataHash(String dataHash) { this.dataHash = dataHash; }
     public void setLastUpdated(long lastUpdated) { this.lastUpdated = lastUpdated; }
     public void setItemCount(int itemCount) { this.itemCount = itemCount; }
+    public void setSyncToken(long syncToken) { this.syncToken = syncToken; }
+    public void setStale(boolean stale) { this.stale = stale; }
 }
 
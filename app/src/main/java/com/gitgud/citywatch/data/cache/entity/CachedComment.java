@@ -2,12 +2,15 @@ package com.gitgud.citywatch.data.cache.entity;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * Room entity for caching comment data
+ * Indexed in thread order, so a page of a report's comments is a range scan
  */
-@Entity(tableName = "comments")
+@Entity(tableName = "comments",
+        indices = {@Index(value = {"reportId", "datetime", "commentId"})})
 public class CachedComment {
     @PrimaryKey
     @NonNull
@@ -17,7 +20,7 @@ public class CachedComment {
     private String reportId;
     private String userId;
     private String userName;
-    private String profilePictureUrl;
+    private String profilePictureVersion;
     private long score;
     private long cachedAt;
     private boolean userIsAdmin; // Whether the comment author is an admin
@@ -34,7 +37,7 @@ public class CachedComment {
     public String getReportId() { return reportId; }
     public String getUserId() { return userId; }
     public String getUserName() { return userName; }
-    public String getProfilePictureUrl() { return profilePictureUrl; }
+    public String getProfilePictureVersion() { return profilePictureVersion; }
     public long getScore() { return score; }
     public long getCachedAt() { return cachedAt; }
     public boolean isUserIsAdmin() { return userIsAdmin; }
@@ -46,7 +49,7 @@ public class CachedComment {
     public void setReportId(String reportId) { this.reportId = reportId; }
     public void setUserId(String userId) { this.userId = userId; }
     public void setUserName(String userName) { this.userName = userName; }
-    public void setProfilePictureUrl(String profilePictureUrl) { this.profilePictureUrl = profilePictureUrl; }
+    public void setProfilePictureVersion(String profilePictureVersion) { this.profilePictureVersion = profilePictureVersion; }
     public void setScore(long score) { this.score = score; }
     public void setCachedAt(long cachedAt) { this.cachedAt = cachedAt; }
     public void setUserIsAdmin(boolean userIsAdmin) { this.userIsAdmin = userIsAdmin; }
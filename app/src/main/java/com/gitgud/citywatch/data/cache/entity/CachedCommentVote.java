@@ -2,11 +2,14 @@ package com.gitgud.citywatch.data.cache.entity;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Index;
 
 /**
  * Room entity for caching user votes on comments
+ * The primary key serves per-comment lookups, the userId index loading all of a user's votes
  */
-@Entity(tableName = "comment_votes", primaryKeys = {"commentId", "userId"})
+@Entity(tableName = "comment_votes", primaryKeys = {"commentId", "userId"},
+        indices = {@Index(value = {"userId"})})
 public class CachedCommentVote {
     @NonNull
     private String commentId;
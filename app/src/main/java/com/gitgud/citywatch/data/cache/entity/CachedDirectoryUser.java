@@ -0,0 +1,39 @@
+package com.gitgud.citywatch.data.cache.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Room entity for caching metadata of report and comment authors
+ * Unlike CachedUserProfile this holds any user, not just the signed-in one
+ */
+@Entity(tableName = "user_directory")
+public class CachedDirectoryUser {
+    @PrimaryKey
+    @NonNull
+    private String userId;
+    private String name;
+    private boolean admin;
+    private String avatarVersion;
+    private long cachedAt; // Timestamp when cached, rows older than the TTL are ignored
+
+    public CachedDirectoryUser() {
+        this.userId = "";
+    }
+
+    // Getters
+    @NonNull
+    public String getUserId() { return userId; }
+    public String getName() { return name; }
+    public boolean isAdmin() { return admin; }
+    public String getAvatarVersion() { return avatarVersion; }
+    public long getCachedAt() { return cachedAt; }
+
+    // Setters
+    public void setUserId(@NonNull String userId) { this.userId = userId; }
+    public void setName(String name) { this.name = name; }
+    public void setAdmin(boolean admin) { this.admin = admin; }
+    public void setAvatarVersion(String avatarVersion) { this.avatarVersion = avatarVersion; }
+    public void setCachedAt(long cachedAt) { this.cachedAt = cachedAt; }
+}
@@ -2,12 +2,16 @@ package com.gitgud.citywatch.data.cache.entity;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * Room entity for caching report data
+ * Indexed in feed order and per author, so feed pages, bucket ranges and a user's reports are range scans
  */
-@Entity(tableName = "reports")
+@Entity(tableName = "reports",
+        indices = {@Index(value = {"createdAt", "documentId"}),
+                   @Index(value = {"userId", "createdAt", "documentId"})})
 public class CachedReport {
     @PrimaryKey
     @NonNull
@@ -19,16 +23,18 @@ public class CachedReport {
     private double latitude;
     private double longitude;
     private String status;
-    private String photoUrl;
-    private String profilePictureUrl;
+    private String photoVersion;
+    private String profilePictureVersion;
     private String userName;
     private String userId;
     private long votes;
     private long createdAt;
+    private long updatedAt;
     private long score;
     private long comments;
     private long cachedAt; // Timestamp when cached
     private boolean userIsAdmin; // Whether the user is an admin
+    private long rowDigest; // Content digest computed locally by CacheManager.reportRowDigest, XORed into the feed hash
 
     public CachedReport() {
         this.documentId = "";
@@ -44,16 +50,18 @@ public class CachedReport {
     public double getLatitude() { return latitude; }
     public double getLongitude() { return longitude; }
     public String getStatus() { return status; }
-    public String getPhotoUrl() { return photoUrl; }
-    public String getProfilePictureUrl() { return profilePictureUrl; }
+    public String getPhotoVersion() { return photoVersion; }
+    public String getProfilePictureVersion() { return profilePictureVersion; }
     public String getUserName() { return userName; }
     public String getUserId() { return userId; }
     public long getVotes() { return votes; }
     public long getCreatedAt() { return createdAt; }
+    public long getUpdatedAt() { return updatedAt; }
     public long getScore() { return score; }
     public long getComments() { return comments; }
     public long getCachedAt() { return cachedAt; }
     public boolean isUserIsAdmin() { return userIsAdmin; }
+    public long getRowDigest() { return rowDigest; }
 
 
     // Setters
@@ -65,15 +73,17 @@ public class CachedReport {
     public void setLatitude(double latitude) { this.latitude = latitude; }
     public void setLongitude(double longitude) { this.longitude = longitude; }
     public void setStatus(String status) { this.status = status; }
-    public void setPhotoUrl(String photoUrl) { this.photoUrl = photoUrl; }
-    public void setProfilePictureUrl(String profilePictureUrl) { this.profilePictureUrl = profilePictureUrl; }
+    public void setPhotoVersion(String photoVersion) { this.photoVersion = photoVersion; }
+    public void setProfilePictureVersion(String profilePictureVersion) { this.profilePictureVersion = profilePictureVersion; }
     public void setUserName(String userName) { this.userName = userName; }
     public void setUserId(String userId) { this.userId = userId; }
     public void setVotes(long votes) { this.votes = votes; }
     public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
     public void setScore(long score) { this.score = score; }
     public void setComments(long comments) { this.comments = comments; }
     public void setCachedAt(long cachedAt) { this.cachedAt = cachedAt; }
     public void setUserIsAdmin(boolean userIsAdmin) { this.userIsAdmin = userIsAdmin; }
+    public void setRowDigest(long rowDigest) { this.rowDigest = rowDigest; }
 }
 
@@ -2,11 +2,14 @@ package com.gitgud.citywatch.data.cache.entity;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Index;
 
 /**
  * Room entity for caching user votes on reports
+ * The primary key serves per-report lookups, the userId index loading all of a user's votes
  */
-@Entity(tableName = "report_votes", primaryKeys = {"reportId", "userId"})
+@Entity(tableName = "report_votes", primaryKeys = {"reportId", "userId"},
+        indices = {@Index(value = {"userId"})})
 public class CachedReportVote {
     @NonNull
     private String reportId;
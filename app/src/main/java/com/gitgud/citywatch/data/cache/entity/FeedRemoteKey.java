@@ -0,0 +1,39 @@
+package com.gitgud.citywatch.data.cache.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Room entity for the server cursor a paged feed resumes from
+ * Written with the page it follows, so rows cached by delta or bucket syncs never move it
+ */
+@Entity(tableName = "feed_remote_keys")
+public class FeedRemoteKey {
+    public static final String FEED_REPORTS = "reports";
+
+    @PrimaryKey
+    @NonNull
+    private String feed; // e.g. "reports"
+    private long nextCreatedAt;
+    private String nextDocumentId; // null once the last page is cached
+
+    public FeedRemoteKey() {
+        this.feed = "";
+    }
+
+    // Getters
+    @NonNull
+    public String getFeed() { return feed; }
+    public long getNextCreatedAt() { return nextCreatedAt; }
+    public String getNextDocumentId() { return nextDocumentId; }
+
+    public boolean isEndReached() {
+        return nextDocumentId == null;
+    }
+
+    // Setters
+    public void setFeed(@NonNull String feed) { this.feed = feed; }
+    public void setNextCreatedAt(long nextCreatedAt) { this.nextCreatedAt = nextCreatedAt; }
+    public void setNextDocumentId(String nextDocumentId) { this.nextDocumentId = nextDocumentId; }
+}
@@ -0,0 +1,59 @@
+package com.gitgud.citywatch.data.cache.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Room entity for a local write waiting to be sent to the server
+ * The mutation key is the idempotency key, replaying a mutation with the same key has no further effect
+ */
+@Entity(tableName = "outbox")
+public class OutboxMutation {
+    public static final String TYPE_VOTE_REPORT = "voteReport";
+    public static final String TYPE_VOTE_COMMENT = "voteComment";
+    public static final String TYPE_SUBMIT_COMMENT = "submitComment";
+    public static final String TYPE_SUBMIT_REPORT = "submitReport";
+
+    @PrimaryKey
+    @NonNull
+    private String mutationKey; // Also the document ID of created comments and reports
+    @NonNull
+    private String userId;
+    @NonNull
+    private String type;
+    private String targetId; // Voted report or comment, a newer vote on the same target replaces this one
+    private String payload; // JSON encoded call arguments
+    private long createdAt;
+    private int attempts;
+    private long nextAttemptAt; // Earliest retry time after a failed send
+
+    public OutboxMutation() {
+        this.mutationKey = "";
+        this.userId = "";
+        this.type = "";
+    }
+
+    // Getters
+    @NonNull
+    public String getMutationKey() { return mutationKey; }
+    @NonNull
+    public String getUserId() { return userId; }
+    @NonNull
+    public String getType() { return type; }
+    public String getTargetId() { return targetId; }
+    public String getPayload() { return payload; }
+    public long getCreatedAt() { return createdAt; }
+    public int getAttempts() { return attempts; }
+    public long getNextAttemptAt() { return nextAttemptAt; }
+
+    // Setters
+    public void setMutationKey(@NonNull String mutationKey) { this.mutationKey = mutationKey; }
+    public void setUserId(@NonNull String userId) { this.userId = userId; }
+    public void setType(@NonNull String type) { this.type = type; }
+    public void setTargetId(String targetId) { this.targetId = targetId; }
+    public void setPayload(String payload) { this.payload = payload; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public void setNextAttemptAt(long nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+}
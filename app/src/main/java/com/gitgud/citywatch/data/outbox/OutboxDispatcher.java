@@ -0,0 +1,275 @@
+package com.gitgud.citywatch.data.outbox;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.gitgud.citywatch.data.cache.AppDatabase;
+import com.gitgud.citywatch.data.cache.dao.OutboxDao;
+import com.gitgud.citywatch.data.cache.entity.OutboxMutation;
+import com.gitgud.citywatch.util.ApiClient;
+import com.gitgud.citywatch.util.SessionManager;
+import com.google.android.gms.tasks.Tasks;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Persists local writes in the Room outbox and drains them to the server in batches
+ * Mutations are sent oldest first, a failed send backs off exponentially and resumes when connectivity returns
+ */
+public class OutboxDispatcher {
+    private static final String TAG = "OutboxDispatcher";
+    private static volatile OutboxDispatcher INSTANCE;
+
+    // Mutations per processOutbox call, matches the server's limit
+    private static final int BATCH_SIZE = 50;
+    private static final long SEND_TIMEOUT_MS = 30 * 1000; // 30 seconds
+
+    // Retry backoff, doubled per failed attempt up to the cap
+    private static final long BACKOFF_BASE_MS = 2 * 1000; // 2 seconds
+    private static final long BACKOFF_MAX_MS = 5 * 60 * 1000; // 5 minutes
+
+    private final OutboxDao outboxDao;
+    private final ConnectivityManager connectivityManager;
+    private final ExecutorService executor; // Single thread, so batches never overlap or reorder
+    private final Handler mainHandler;
+    private final Runnable drainRunnable = this::drain;
+    private volatile Listener listener;
+    private boolean started = false;
+
+    private OutboxDispatcher(Context context) {
+        this.outboxDao = AppDatabase.getInstance(context).outboxDao();
+        this.connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        this.executor = Executors.newSingleThreadExecutor();
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static OutboxDispatcher getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (OutboxDispatcher.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new OutboxDispatcher(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Receive server outcomes of sent mutations, called on the main thread
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Start draining whenever a network becomes available
+     * The callback also fires right away if one already is, sending anything left from a previous session
+     */
+    public synchronized void start() {
+        if (started) return;
+        started = true;
+        connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                Log.d(TAG, "Network available, draining outbox");
+                drain();
+            }
+        });
+    }
+
+    /**
+     * Queue a mutation and try to send it
+     * @param targetId Voted report or comment, a pending vote on the same target is replaced, null otherwise
+     * @param payload Call arguments, must be JSON encodable
+     * @return The mutation key, also used as the ID of a created comment or report
+     */
+    public String enqueue(String userId, String type, String targetId, Map<String, Object> payload) {
+        OutboxMutation mutation = new OutboxMutation();
+        mutation.setMutationKey(UUID.randomUUID().toString());
+        mutation.setUserId(userId);
+        mutation.setType(type);
+        mutation.setTargetId(targetId);
+        mutation.setPayload(new JSONObject(payload).toString());
+        mutation.setCreatedAt(System.currentTimeMillis());
+
+        executor.execute(() -> {
+            try {
+                outboxDao.enqueue(mutation);
+                Log.d(TAG, "Queued " + type + " " + mutation.getMutationKey());
+            } catch (Exception e) {
+                Log.e(TAG, "Error queueing mutation", e);
+            }
+        });
+        drain();
+        return mutation.getMutationKey();
+    }
+
+    /**
+     * Send queued mutations for the current user until the queue is empty or a send fails
+     */
+    public void drain() {
+        mainHandler.removeCallbacks(drainRunnable);
+        executor.execute(() -> {
+            try {
+                drainQueue();
+            } catch (Exception e) {
+                Log.e(TAG, "Error draining outbox", e);
+            }
+        });
+    }
+
+    private void drainQueue() throws InterruptedException {
+        String userId = SessionManager.getCurrentUserId();
+        if (userId == null || !isOnline()) return;
+
+        while (true) {
+            List<OutboxMutation> batch = outboxDao.getOldest(userId, BATCH_SIZE);
+            if (batch.isEmpty()) return;
+
+            // The head of the queue carries the backoff, later mutations never overtake it
+            long waitMs = batch.get(0).getNextAttemptAt() - System.currentTimeMillis();
+            if (waitMs > 0) {
+                mainHandler.postDelayed(drainRunnable, waitMs);
+                return;
+            }
+
+            Map<String, ApiClient.OutboxResult> results;
+            try {
+                results = Tasks.await(ApiClient.processOutbox(userId, toRequest(batch)),
+                        SEND_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                Log.w(TAG, "Failed to send outbox batch", e);
+                scheduleRetry(batch);
+                return;
+            }
+
+            List<String> doneKeys = new ArrayList<>();
+            List<OutboxMutation> pending = new ArrayList<>();
+            for (OutboxMutation mutation : batch) {
+                ApiClient.OutboxResult result = results.get(mutation.getMutationKey());
+                if (result == null) {
+                    pending.add(mutation);
+                    continue;
+                }
+                doneKeys.add(mutation.getMutationKey());
+                notifyResult(mutation, result);
+            }
+            if (!doneKeys.isEmpty()) {
+                outboxDao.delete(doneKeys);
+            }
+            Log.d(TAG, "Sent " + doneKeys.size() + " mutations, " + pending.size() + " deferred");
+
+            if (!pending.isEmpty()) {
+                scheduleRetry(pending);
+                return;
+            }
+            if (batch.size() < BATCH_SIZE) return;
+        }
+    }
+
+    /**
+     * Push the mutations' next attempt back by an exponentially growing delay with jitter
+     */
+    private void scheduleRetry(List<OutboxMutation> mutations) {
+        int attempts = mutations.get(0).getAttempts();
+        long backoff = Math.min(BACKOFF_BASE_MS << Math.min(attempts, 16), BACKOFF_MAX_MS);
+        long delay = backoff / 2 + (long) (Math.random() * (backoff / 2));
+
+        List<String> keys = new ArrayList<>();
+        for (OutboxMutation mutation : mutations) {
+            keys.add(mutation.getMutationKey());
+        }
+        outboxDao.markAttempted(keys, System.currentTimeMillis() + delay);
+        Log.d(TAG, "Retrying " + keys.size() + " mutations in " + delay + "ms");
+        mainHandler.postDelayed(drainRunnable, delay);
+    }
+
+    private void notifyResult(OutboxMutation mutation, ApiClient.OutboxResult result) {
+        Listener current = listener;
+        if (current == null) return;
+        mainHandler.post(() -> {
+            if (result.ok) {
+                current.onApplied(mutation, result);
+            } else {
+                Log.w(TAG, "Mutation " + mutation.getMutationKey() + " rejected: " + result.error);
+                current.onRejected(mutation, result.error);
+            }
+        });
+    }
+
+    private boolean isOnline() {
+        NetworkCapabilities capabilities =
+                connectivityManager.getNetworkCapabilities(connectivityManager.getActiveNetwork());
+        return capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+    }
+
+    /**
+     * Build the processOutbox request body, decoding each stored payload back to a map
+     */
+    private static List<Map<String, Object>> toRequest(List<OutboxMutation> batch) {
+        List<Map<String, Object>> mutations = new ArrayList<>();
+        for (OutboxMutation mutation : batch) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("key", mutation.getMutationKey());
+            entry.put("type", mutation.getType());
+            entry.put("targetId", mutation.getTargetId());
+            entry.put("payload", decodePayload(mutation.getPayload()));
+            mutations.add(entry);
+        }
+        return mutations;
+    }
+
+    private static Map<String, Object> decodePayload(String payload) {
+        Map<String, Object> map = new HashMap<>();
+        if (payload == null) return map;
+        try {
+            JSONObject json = new JSONObject(payload);
+            Iterator<String> keys = json.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                map.put(key, json.get(key));
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Unreadable outbox payload", e);
+        }
+        return map;
+    }
+
+    /**
+     * Server outcome of a queued mutation
+     */
+    public interface Listener {
+        /**
+         * The server applied the mutation, or had already applied it
+         */
+        void onApplied(OutboxMutation mutation, ApiClient.OutboxResult result);
+
+        /**
+         * The server refused the mutation, it is dropped and the optimistic change has to be reconciled
+         */
+        void onRejected(OutboxMutation mutation, String error);
+    }
+}
@@ -1,17 +1,49 @@
 package com.gitgud.citywatch.data.repository;
 
 import android.content.Context;
+import android.net.Uri;
 import android.util.Log;
 
+import androidx.annotation.OptIn;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.ExperimentalPagingApi;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+import androidx.paging.PagingLiveData;
+
 import com.gitgud.citywatch.data.cache.CacheManager;
+import com.gitgud.citywatch.data.cache.dao.ReportDao;
 import com.gitgud.citywatch.data.cache.entity.CachedUserProfile;
+import com.gitgud.citywatch.data.cache.entity.OutboxMutation;
+import com.gitgud.citywatch.data.outbox.OutboxDispatcher;
 import com.gitgud.citywatch.model.Comment;
 import com.gitgud.citywatch.model.HazardCard;
+import com.gitgud.citywatch.model.UserMeta;
 import com.gitgud.citywatch.util.ApiClient;
 import com.gitgud.citywatch.util.SessionManager;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+
+import org.json.JSONException;
+import org.json.JSONObject;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 /**
  * Repository that implements cache-first pattern for all Firebase data.
@@ -22,18 +54,68 @@ public class DataRepository {
     private static volatile DataRepository INSTANCE;
 
     private final CacheManager cacheManager;
+    private final OutboxDispatcher outbox;
+
+    // Optimistic vote state shared by every screen, see VoteStateStore
+    private final VoteStateStore reportVotes =
+            new VoteStateStore((reportId, parentId, voteType) -> voteReport(reportId, voteType));
+    private final VoteStateStore commentVotes =
+            new VoteStateStore((commentId, reportId, voteType) -> voteComment(commentId, reportId, voteType));
 
     // Flags to track when cache is known to be stale (after local changes)
     private volatile boolean reportsCacheInvalidated = false;
-    private volatile java.util.Set<String> commentsCacheInvalidated = new java.util.HashSet<>();
+    private volatile Set<String> commentsCacheInvalidated = new HashSet<>();
 
     // Cached server checksums (fetched on navigation change)
-    private volatile java.util.Map<String, String> serverChecksums = new java.util.HashMap<>();
+    private volatile Map<String, String> serverChecksums = new HashMap<>();
     private volatile long lastChecksumFetch = 0;
     private static final long CHECKSUM_FETCH_THROTTLE_MS = 2000; // Throttle to avoid rapid fetches
 
+    // Number of reports per community feed page
+    public static final int FEED_PAGE_SIZE = 20;
+
+    // Converts feed rows to cards off the main thread
+    private final Executor feedExecutor = Executors.newSingleThreadExecutor();
+
+    // Number of comments per thread page
+    public static final int COMMENTS_PAGE_SIZE = 30;
+
+    // Mismatched month buckets refetched on navigation, above this a delta sync is cheaper
+    private static final int MAX_REPORT_BUCKETS_PER_SYNC = 12;
+
+    // Reports per page when refetching a month bucket, the server's page size limit
+    private static final int REPORT_BUCKET_PAGE_SIZE = 50;
+
+    // In-flight requests keyed by logical resource, concurrent callers share one pending Task
+    private final Map<String, Task<?>> inFlightRequests = new HashMap<>();
+    private static final String FLIGHT_CHECKSUMS = "checksums";
+    private static final String FLIGHT_REPORTS = "reports";
+    private static final String FLIGHT_REPORT_BUCKETS = "report_buckets";
+    private static final String FLIGHT_REPORTS_PAGE_PREFIX = "reports_page_";
+    private static final String FLIGHT_COMMENTS_PAGE_PREFIX = "comments_page_";
+    private static final String FLIGHT_VOTES_PREFIX = "votes_";
+
+    // Thread prefetch for cards the user lingered on, newest first, see prefetchThread
+    private static final int MAX_PREFETCHES_IN_FLIGHT = 2;
+    private static final int MAX_QUEUED_PREFETCHES = 6;
+    private final ArrayDeque<String> prefetchQueue = new ArrayDeque<>();
+    private final Set<String> prefetchingThreads = new HashSet<>();
+
     private DataRepository(Context context) {
         this.cacheManager = CacheManager.getInstance(context);
+        this.outbox = OutboxDispatcher.getInstance(context);
+        outbox.setListener(new OutboxDispatcher.Listener() {
+            @Override
+            public void onApplied(OutboxMutation mutation, ApiClient.OutboxResult result) {
+                onOutboxApplied(mutation, result);
+            }
+
+            @Override
+            public void onRejected(OutboxMutation mutation, String error) {
+                onOutboxRejected(mutation);
+            }
+        });
+        outbox.start();
     }
 
     /**
@@ -51,8 +133,8 @@ public class DataRepository {
     }
 
     /**
-     * Initialize local cache with user's all votings on app startup
-     * This ensures votes are available immediately without network calls
+     * Bring the local vote cache up to date on app startup
+     * Only votes changed since the last sync are downloaded, feeds then read votes from the cache alone
      */
     public void initializeUserVotes() {
         String userId = SessionManager.getCurrentUserId();
@@ -61,27 +143,61 @@ public class DataRepository {
             return;
         }
 
-        Log.d(TAG, "Initializing user votes for: " + userId);
+        cacheManager.getVoteSyncToken(userId, since -> {
+            Log.d(TAG, "Syncing votes for " + userId + " since " + since);
+            singleFlight(FLIGHT_VOTES_PREFIX + userId, () -> ApiClient.getVotesSince(userId, since))
+                    .addOnSuccessListener(delta -> {
+                        if (delta.isEmpty() && delta.syncToken <= since) {
+                            Log.d(TAG, "No vote changes since " + since);
+                            return;
+                        }
+                        // Unconfirmed local votes stay on top, their outbox results settle them
+                        cacheManager.applyVotesDelta(userId, withoutLocalVotes(delta.reportVotes, reportVotes),
+                                withoutLocalVotes(delta.commentVotes, commentVotes), delta.syncToken);
+                    })
+                    .addOnFailureListener(e -> Log.e(TAG, "Failed to sync votes", e));
+        });
+    }
+
+    // ==================== Request Coalescing ====================
 
-        // Load all report votes
-        ApiClient.getAllReportVotesForUser(userId)
-                .addOnSuccessListener(reportVotes -> {
-                    if (!reportVotes.isEmpty()) {
-                        cacheManager.cacheReportVotes(userId, reportVotes);
-                        Log.d(TAG, "Cached " + reportVotes.size() + " report votes");
-                    }
-                })
-                .addOnFailureListener(e -> Log.e(TAG, "Failed to load report votes", e));
-
-        // Load all comment votes
-        ApiClient.getAllCommentVotesForUser(userId)
-                .addOnSuccessListener(commentVotes -> {
-                    if (!commentVotes.isEmpty()) {
-                        cacheManager.cacheCommentVotes(userId, commentVotes);
-                        Log.d(TAG, "Cached " + commentVotes.size() + " comment votes");
-                    }
-                })
-                .addOnFailureListener(e -> Log.e(TAG, "Failed to load comment votes", e));
+    /**
+     * Run a request once per key while it is pending
+     * Callers arriving before it completes get the same Task instead of starting another request
+     * @param key Logical resource, e.g. the reports feed or comments of one report
+     * @param loader Starts the request, only called when nothing is in flight for the key
+     */
+    @SuppressWarnings("unchecked")
+    private synchronized <T> Task<T> singleFlight(String key, Supplier<Task<T>> loader) {
+        Task<T> pending = (Task<T>) inFlightRequests.get(key);
+        if (pending != null) {
+            Log.d(TAG, "Joining in-flight request: " + key);
+            return pending;
+        }
+
+        Task<T> task = loader.get();
+        inFlightRequests.put(key, task);
+        task.addOnCompleteListener(done -> {
+            synchronized (this) {
+                inFlightRequests.remove(key, task);
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Stop sharing a pending request, later callers start a fresh one
+     * Used after local changes the pending response may not include
+     */
+    private synchronized void forgetInFlight(String key) {
+        inFlightRequests.remove(key);
+    }
+
+    /**
+     * Stop sharing every pending request whose key starts with the prefix, e.g. all pages of one thread
+     */
+    private synchronized void forgetInFlightWithPrefix(String prefix) {
+        inFlightRequests.keySet().removeIf(key -> key.startsWith(prefix));
     }
 
     // ==================== Navigation-Triggered Checksum Validation ====================
@@ -96,28 +212,35 @@ public class DataRepository {
         long now = System.currentTimeMillis();
         if (now - lastChecksumFetch < CHECKSUM_FETCH_THROTTLE_MS) {
             Log.d(TAG, "Checksum fetch throttled");
-            callback.onValidated(new java.util.HashSet<>());
+            callback.onValidated(new HashSet<>());
             return;
         }
         lastChecksumFetch = now;
 
         Log.d(TAG, "Fetching server checksums for validation...");
-        ApiClient.getAllChecksums()
+        singleFlight(FLIGHT_CHECKSUMS, ApiClient::getAllChecksums)
                 .addOnSuccessListener(checksums -> {
                     serverChecksums = checksums;
-                    java.util.Set<String> invalidatedKeys = new java.util.HashSet<>();
+                    Set<String> invalidatedKeys = new HashSet<>();
 
-                    // Compare reports checksum
+                    // Compare reports checksum, then walk down to the month buckets that differ
                     String serverReportsChecksum = checksums.get("reports");
                     if (serverReportsChecksum != null) {
                         cacheManager.getReportsCacheHash(localHash -> {
-                            if (localHash == null || !localHash.equals(serverReportsChecksum)) {
-                                Log.d(TAG, "Reports cache invalid: local=" + localHash +
-                                        ", server=" + serverReportsChecksum);
-                                invalidatedKeys.add("reports");
-                                reportsCacheInvalidated = true;
+                            if (localHash != null && localHash.equals(serverReportsChecksum)) {
+                                callback.onValidated(invalidatedKeys);
+                                return;
                             }
-                            callback.onValidated(invalidatedKeys);
+                            // No hash while only part of the feed is paged in, the held months are compared instead
+                            Log.d(TAG, "Reports cache hash differs: local=" + localHash +
+                                    ", server=" + serverReportsChecksum);
+                            syncChangedReportBuckets().addOnCompleteListener(task -> {
+                                if (!task.isSuccessful() || !Boolean.TRUE.equals(task.getResult())) {
+                                    invalidatedKeys.add("reports");
+                                    reportsCacheInvalidated = true;
+                                }
+                                callback.onValidated(invalidatedKeys);
+                            });
                         });
                     } else {
                         callback.onValidated(invalidatedKeys);
@@ -125,450 +248,588 @@ public class DataRepository {
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Failed to fetch checksums", e);
-                    callback.onValidated(new java.util.HashSet<>());
+                    callback.onValidated(new HashSet<>());
                 });
     }
 
     /**
-     * Validate comments cache for a specific report
-     * @param reportId The report ID to validate comments for
-     * @param callback Called with true if cache is valid, false if stale
+     * Refetch only the reports of month buckets whose checksum differs from the cache
+     * Only the months the cache holds in full are compared, older ones are fetched by paging
+     * Completes with true when those months then match the server,
+     * false when the next load still has to revalidate
      */
-    public void validateCommentsCache(String reportId, CacheValidCallback callback) {
-        String serverChecksum = serverChecksums.get("comments_" + reportId);
-        if (serverChecksum == null) {
-            // No server checksum available, fetch fresh
-            callback.onResult(false);
-            return;
-        }
+    private Task<Boolean> syncChangedReportBuckets() {
+        return singleFlight(FLIGHT_REPORT_BUCKETS, () -> {
+            TaskCompletionSource<Boolean> source = new TaskCompletionSource<>();
+            ApiClient.getReportBucketChecksums()
+                    .addOnSuccessListener(serverBuckets -> cacheManager.getReportBucketHashes(localBuckets -> {
+                        if (localBuckets == null) {
+                            source.setResult(false);
+                            return;
+                        }
+                        List<String> changedBuckets = changedReportBuckets(serverBuckets, localBuckets);
+                        if (changedBuckets.isEmpty()) {
+                            source.setResult(true);
+                            return;
+                        }
+                        // So much changed that a delta sync is cheaper
+                        if (changedBuckets.size() > MAX_REPORT_BUCKETS_PER_SYNC) {
+                            source.setResult(false);
+                            return;
+                        }
 
-        String cacheKey = CacheManager.KEY_COMMENTS_PREFIX + reportId;
-        cacheManager.getReportsCacheHash(localHash -> {
-            boolean isValid = localHash != null && localHash.equals(serverChecksum);
-            if (!isValid) {
-                commentsCacheInvalidated.add(reportId);
-            }
-            callback.onResult(isValid);
+                        Log.d(TAG, "Refetching report buckets " + changedBuckets);
+                        TaskCompletionSource<Void> refetched = new TaskCompletionSource<>();
+                        syncReportBucketPage(changedBuckets, 0, 0L, null, refetched);
+                        refetched.getTask()
+                                .addOnSuccessListener(aVoid -> cacheManager.getReportBucketHashes(patched ->
+                                        source.setResult(patched != null
+                                                && changedReportBuckets(serverBuckets, patched).isEmpty())))
+                                .addOnFailureListener(source::setException);
+                    }))
+                    .addOnFailureListener(source::setException);
+            return source.getTask();
         });
     }
 
     /**
-     * Get the server checksum for reports (already fetched)
+     * Month buckets the cache holds in full whose hash differs from the server's
      */
-    public String getServerReportsChecksum() {
-        return serverChecksums.get("reports");
+    private static List<String> changedReportBuckets(Map<String, String> serverBuckets,
+                                                     CacheManager.ReportBucketHashes localBuckets) {
+        Set<String> bucketKeys = new HashSet<>(localBuckets.hashes.keySet());
+        for (String bucket : serverBuckets.keySet()) {
+            if (localBuckets.covers(bucket)) {
+                bucketKeys.add(bucket);
+            }
+        }
+        List<String> changedBuckets = new ArrayList<>();
+        for (String bucket : bucketKeys) {
+            if (!Objects.equals(serverBuckets.get(bucket), localBuckets.hashes.get(bucket))) {
+                changedBuckets.add(bucket);
+            }
+        }
+        return changedBuckets;
     }
 
     /**
-     * Get the server checksum for comments of a report (already fetched)
+     * Refetch the changed buckets one page at a time, each page reconciled with the cache before the next
      */
-    public String getServerCommentsChecksum(String reportId) {
-        return serverChecksums.get("comments_" + reportId);
+    private void syncReportBucketPage(List<String> buckets, int index, long cursorCreatedAt, String cursorId,
+                                      TaskCompletionSource<Void> source) {
+        if (index == buckets.size()) {
+            source.setResult(null);
+            return;
+        }
+        String bucket = buckets.get(index);
+        ApiClient.getReportsInBucket(bucket, cursorCreatedAt, cursorId, REPORT_BUCKET_PAGE_SIZE)
+                .addOnSuccessListener(page -> fetchAndApplyUserMetaToReports(page.reports, () ->
+                        cacheManager.cacheReportBucketPage(page.reports, bucket, cursorCreatedAt, cursorId,
+                                page.nextCreatedAt, page.nextDocumentId, cached -> {
+                                    if (!cached) {
+                                        source.setException(new IllegalStateException(
+                                                "Failed to cache report bucket page"));
+                                    } else if (page.hasMore()) {
+                                        syncReportBucketPage(buckets, index, page.nextCreatedAt,
+                                                page.nextDocumentId, source);
+                                    } else {
+                                        syncReportBucketPage(buckets, index + 1, 0L, null, source);
+                                    }
+                                })))
+                .addOnFailureListener(source::setException);
     }
 
     /**
-     * Callback for checksum validation
+     * Get the server checksum for reports (already fetched)
      */
-    public interface ChecksumValidationCallback {
-        void onValidated(java.util.Set<String> invalidatedKeys);
+    public String getServerReportsChecksum() {
+        return serverChecksums.get("reports");
     }
 
     /**
-     * Callback for single cache validation
+     * Callback for checksum validation
      */
-    public interface CacheValidCallback {
-        void onResult(boolean isValid);
+    public interface ChecksumValidationCallback {
+        void onValidated(Set<String> invalidatedKeys);
     }
 
     // ==================== Reports ====================
 
     /**
-     * Get all reports with cache-first strategy
-     * @param callback Called with cached data first, then updated data if available
+     * Bring the cached report list up to date with the server
+     * Only the cached feed hash and sync token are read, the rows themselves stay in Room
+     * Screens observing the cache pick the result up from Room, so no list is handed back
+     * @param callback onSuccess once the refresh settles, or onError if it failed with nothing cached
      */
-    public void getAllReports(DataCallback<List<HazardCard>> callback) {
-        // Check if cache is known to be stale (after local changes)
-        if (reportsCacheInvalidated) {
-            Log.d(TAG, "Cache invalidated flag set, fetching fresh data immediately");
-            callback.onLoading(true);
-            reportsCacheInvalidated = false; // Reset flag
-            fetchReportsFromApi(callback, new java.util.ArrayList<>(), null);
-            return;
-        }
-
-        // Step 1: Return cached data immediately
-        cacheManager.getCachedReports(cachedReports -> {
-            if (!cachedReports.isEmpty()) {
-                Log.d(TAG, "Returning " + cachedReports.size() + " cached reports");
-                callback.onCacheData(cachedReports);
+    public void syncReports(SimpleCallback callback) {
+        // A stale cache (after local changes) is always revalidated
+        boolean forceRefresh = reportsCacheInvalidated;
+        reportsCacheInvalidated = false; // Reset flag
+
+        cacheManager.getReportsCacheHash(cachedHash -> cacheManager.getReportsSyncToken(syncToken -> {
+            // First check if we already have server checksum from navigation validation
+            String serverChecksum = forceRefresh ? null : serverChecksums.get("reports");
+            if (serverChecksum != null && serverChecksum.equals(cachedHash)) {
+                Log.d(TAG, "Reports checksum matches (pre-fetched), using cache");
+                callback.onSuccess();
+                return;
             }
 
-            // Step 2: Check for updates using lightweight checksum
-            callback.onLoading(true);
-            checkForReportUpdates(cachedReports, callback);
-        });
+            // Otherwise send the cached hash with the fetch itself, so a hit and a miss both take one round trip
+            // A partly paged cache has no hash, its delta is always fetched
+            String ifNoneMatch = forceRefresh ? null : cachedHash;
+            refreshReports(syncToken, ifNoneMatch)
+                    .addOnSuccessListener(aVoid -> callback.onSuccess())
+                    .addOnFailureListener(e -> {
+                        if (syncToken > 0) {
+                            Log.w(TAG, "Reports refresh failed, keeping cache", e);
+                            callback.onSuccess();
+                        } else {
+                            callback.onError(e);
+                        }
+                    });
+        }));
     }
 
-    private void checkForReportUpdates(List<HazardCard> cachedReports,
-                                       DataCallback<List<HazardCard>> callback) {
-        // First check if we already have server checksum from navigation validation
-        String serverChecksum = serverChecksums.get("reports");
-        if (serverChecksum != null) {
-            cacheManager.getReportsCacheHash(cachedHash -> {
-                boolean needsRefresh = cachedHash == null ||
-                        !cachedHash.equals(serverChecksum) ||
-                        cachedReports.isEmpty();
+    /**
+     * Refresh the cached reports from the server, shared by concurrent callers
+     * Completes once the cache is written
+     * @param syncToken Cached high-water mark, 0 if the cache was never synced
+     * @param ifNoneMatch Cached feed hash, the server answers "not modified" instead of rows when it matches
+     */
+    private Task<Void> refreshReports(long syncToken, String ifNoneMatch) {
+        return singleFlight(FLIGHT_REPORTS, () -> {
+            TaskCompletionSource<Void> source = new TaskCompletionSource<>();
+            syncReportsFromApi(source, syncToken, ifNoneMatch);
+            return source.getTask();
+        });
+    }
 
-                if (needsRefresh) {
-                    Log.d(TAG, "Reports checksum mismatch (pre-fetched), fetching fresh");
-                    fetchReportsFromApi(callback, cachedReports, serverChecksum);
-                } else {
-                    Log.d(TAG, "Reports checksum matches (pre-fetched), using cache");
-                    callback.onLoading(false);
-                    if (!cachedReports.isEmpty()) {
-                        applyUserVotesToReports(cachedReports, callback);
-                    }
-                }
-            });
+    /**
+     * Refresh reports by applying only what changed since the cached high-water mark
+     * Without a sync token only the first feed page is loaded, which sets the mark for the next refresh
+     */
+    private void syncReportsFromApi(TaskCompletionSource<Void> source, long syncToken, String ifNoneMatch) {
+        if (syncToken <= 0) {
+            fetchReportsPage(0L, null)
+                    .addOnSuccessListener(page -> source.setResult(null))
+                    .addOnFailureListener(source::setException);
             return;
         }
 
-        // Fallback: fetch checksum from server
-        ApiClient.getReportsCacheChecksum()
-                .addOnSuccessListener(checksum -> {
-                    cacheManager.getReportsCacheHash(cachedHash -> {
-                        boolean needsRefresh = cachedHash == null ||
-                                !cachedHash.equals(checksum.checksum) ||
-                                cachedReports.isEmpty();
-
-                        if (needsRefresh) {
-                            Log.d(TAG, "Reports checksum mismatch, fetching fresh data");
-                            fetchReportsFromApi(callback, cachedReports, checksum.checksum);
-                        } else {
-                            Log.d(TAG, "Reports checksum matches, using cache");
-                            callback.onLoading(false);
-                            if (!cachedReports.isEmpty()) {
-                                applyUserVotesToReports(cachedReports, callback);
-                            }
-                        }
-                    });
+        ApiClient.getReportsSince(syncToken, ifNoneMatch)
+                .addOnSuccessListener(delta -> {
+                    rememberReportsChecksum(delta.checksum);
+                    if (delta.notModified) {
+                        Log.d(TAG, "Reports not modified, using cache");
+                        source.setResult(null);
+                        return;
+                    }
+                    Log.d(TAG, "Report delta: " + delta.reports.size() + " changed, " +
+                            delta.deletedIds.size() + " deleted");
+
+                    fetchAndApplyUserMetaToReports(delta.reports, () ->
+                            cacheManager.applyReportsDelta(delta.reports, delta.deletedIds, delta.syncToken,
+                                    applied -> {
+                                        if (!applied) {
+                                            source.setException(new IllegalStateException(
+                                                    "Failed to cache report delta"));
+                                            return;
+                                        }
+                                        source.setResult(null);
+                                    }));
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to get checksum, falling back to staleness check", e);;
-                    // Fallback to time-based check
-                    cacheManager.isReportsCacheStale(isStale -> {
-                        if (isStale || cachedReports.isEmpty()) {
-                            fetchReportsFromApi(callback, cachedReports, null);
-                        } else {
-                            callback.onLoading(false);
-                            applyUserVotesToReports(cachedReports, callback);
-                        }
-                    });
+                    // The next refresh retries from the same token, the feed is never downloaded in full
+                    Log.e(TAG, "Failed to sync reports", e);
+                    source.setException(e);
                 });
     }
 
-    private void fetchReportsFromApi(DataCallback<List<HazardCard>> callback,
-                                     List<HazardCard> cachedReports,
-                                     String newChecksum) {
-        ApiClient.getAllReports()
-                .addOnSuccessListener(freshReports -> {
-                    // Use provided checksum or generate one
-                    String hash = newChecksum != null ? newChecksum :
-                            CacheManager.generateHash(freshReports);
+    /**
+     * Keep the reports checksum a data call returned, later loads compare against it without a call
+     */
+    private void rememberReportsChecksum(String checksum) {
+        if (checksum == null) return;
+        Map<String, String> checksums = new HashMap<>(serverChecksums);
+        checksums.put("reports", checksum);
+        serverChecksums = checksums;
+    }
 
-                    Log.d(TAG, "Fetched " + freshReports.size() + " fresh reports");
+    /**
+     * Resolve author metadata from the user directory cache, fetching only missing or expired users
+     * Failed lookups leave those users out of the map, so they are treated as non-admin
+     */
+    private void resolveUsersMeta(Set<String> userIds,
+                                  CacheManager.CacheCallback<Map<String, UserMeta>> callback) {
+        cacheManager.getCachedUsersMeta(userIds, cachedMeta -> {
+            Set<String> missingIds = new HashSet<>(userIds);
+            missingIds.removeAll(cachedMeta.keySet());
+            if (missingIds.isEmpty()) {
+                Log.d(TAG, "All " + userIds.size() + " authors resolved from user directory");
+                callback.onResult(cachedMeta);
+                return;
+            }
 
-                    // Fetch admin status for each unique user, then cache and return
-                    fetchAndApplyAdminStatusToReports(freshReports, () -> {
-                        cacheManager.cacheReports(freshReports, hash);
-                        // Apply user votes and return fresh data
-                        applyUserVotesToReports(freshReports, callback);
+            ApiClient.getUsersMeta(missingIds)
+                    .addOnCompleteListener(task -> {
+                        Map<String, UserMeta> metaById =
+                                new HashMap<>(cachedMeta);
+                        if (task.isSuccessful()) {
+                            metaById.putAll(task.getResult());
+                            cacheManager.cacheUsersMeta(task.getResult().values());
+                        } else {
+                            Log.w(TAG, "Failed to get users meta for " + missingIds.size() + " authors",
+                                    task.getException());
+                        }
+                        callback.onResult(metaById);
                     });
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch reports", e);
-                    callback.onLoading(false);
-                    if (cachedReports.isEmpty()) {
-                        callback.onError(e);
-                    }
-                });
+        });
     }
 
     /**
-     * Fetch admin status for each unique user in reports and apply to the reports
+     * Resolve author metadata for all users in reports and apply it to the reports
      */
-    private void fetchAndApplyAdminStatusToReports(List<HazardCard> reports, Runnable onComplete) {
-        // Collect unique user IDs
-        java.util.Set<String> uniqueUserIds = new java.util.HashSet<>();
+    private void fetchAndApplyUserMetaToReports(List<HazardCard> reports, Runnable onComplete) {
+        Set<String> userIds = new HashSet<>();
         for (HazardCard card : reports) {
             if (card.getUserId() != null && !card.getUserId().isEmpty()) {
-                uniqueUserIds.add(card.getUserId());
+                userIds.add(card.getUserId());
             }
         }
 
-        if (uniqueUserIds.isEmpty()) {
+        if (userIds.isEmpty()) {
             onComplete.run();
             return;
         }
 
-        // Map to store admin status for each user
-        java.util.Map<String, Boolean> adminStatusMap = new java.util.concurrent.ConcurrentHashMap<>();
-        java.util.concurrent.atomic.AtomicInteger pendingCount = new java.util.concurrent.atomic.AtomicInteger(uniqueUserIds.size());
-
-        for (String userId : uniqueUserIds) {
-            ApiClient.getIsAdmin(userId)
-                    .addOnSuccessListener(isAdmin -> {
-                        adminStatusMap.put(userId, isAdmin);
-                        if (pendingCount.decrementAndGet() == 0) {
-                            // All admin status fetched, apply to reports
-                            for (HazardCard card : reports) {
-                                Boolean isUserAdmin = adminStatusMap.get(card.getUserId());
-                                card.setUserIsAdmin(isUserAdmin != null && isUserAdmin);
-                            }
-                            onComplete.run();
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.w(TAG, "Failed to get admin status for user: " + userId, e);
-                        adminStatusMap.put(userId, false);
-                        if (pendingCount.decrementAndGet() == 0) {
-                            // All admin status fetched (some failed), apply to reports
-                            for (HazardCard card : reports) {
-                                Boolean isUserAdmin = adminStatusMap.get(card.getUserId());
-                                card.setUserIsAdmin(isUserAdmin != null && isUserAdmin);
-                            }
-                            onComplete.run();
-                        }
-                    });
-        }
+        resolveUsersMeta(userIds, metaById -> {
+            for (HazardCard card : reports) {
+                UserMeta meta = metaById.get(card.getUserId());
+                card.setUserIsAdmin(meta != null && meta.isAdmin());
+                if (meta != null) {
+                    // The payload carries the current name and avatar, the directory only fills gaps
+                    if (card.getUserName() == null) card.setUserName(meta.getName());
+                    if (card.getProfilePictureVersion() == null || card.getProfilePictureVersion().isEmpty()) {
+                        card.setProfilePictureVersion(meta.getAvatarVersion());
+                    }
+                }
+            }
+            onComplete.run();
+        });
     }
 
-    private void applyUserVotesToReports(List<HazardCard> reports,
-                                         DataCallback<List<HazardCard>> callback) {
+    // ==================== Community Feed (paged) ====================
+
+    /**
+     * Community feed paged out of Room, newest first
+     * FeedRemoteMediator fills Room from the server one page at a time as the end of the cached rows is reached,
+     * so only the reports around the viewport are loaded and converted to cards
+     * @param lifecycle Lifecycle the loaded pages are cached in, e.g. the fragment's view lifecycle
+     */
+    @OptIn(markerClass = ExperimentalPagingApi.class)
+    public LiveData<PagingData<HazardCard>> getReportsFeed(Lifecycle lifecycle) {
         String userId = SessionManager.getCurrentUserId();
-        if (userId == null || reports.isEmpty()) {
-            callback.onFreshData(reports);
-            callback.onLoading(false);
+        String voterId = userId != null ? userId : "";
+        Pager<Integer, ReportDao.FeedRow> pager = new Pager<>(
+                new PagingConfig(FEED_PAGE_SIZE, FEED_PAGE_SIZE / 2, false),
+                null,
+                new FeedRemoteMediator(cacheManager::getFeedRemoteKey, this::fetchReportsPage),
+                () -> cacheManager.getFeedPagingSource(voterId));
+        LiveData<PagingData<HazardCard>> cards = Transformations.map(PagingLiveData.getLiveData(pager),
+                rows -> PagingDataTransforms.map(rows, feedExecutor, row -> CacheManager.toHazardCard(row)));
+        return PagingLiveData.cachedIn(cards, lifecycle);
+    }
+
+    /**
+     * Fetch one feed page into Room, resolved once the page is written and failed if the write fails
+     * @param cursorCreatedAt createdAt of the last report on the previous page
+     * @param cursorId documentId of the last report on the previous page, or null for the first page
+     */
+    private Task<ApiClient.ReportsPage> fetchReportsPage(long cursorCreatedAt, String cursorId) {
+        return singleFlight(FLIGHT_REPORTS_PAGE_PREFIX + cursorCreatedAt + "_" + cursorId,
+                () -> fetchReportsPageFromApi(cursorCreatedAt, cursorId));
+    }
+
+    /**
+     * Fetch one feed page, apply author metadata and cache it
+     * The user's votes are joined in by the feed query, so they are not applied here
+     */
+    private Task<ApiClient.ReportsPage> fetchReportsPageFromApi(long cursorCreatedAt, String cursorId) {
+        TaskCompletionSource<ApiClient.ReportsPage> source = new TaskCompletionSource<>();
+        ApiClient.getReportsPage(cursorCreatedAt, cursorId, FEED_PAGE_SIZE)
+                .addOnSuccessListener(page -> {
+                    Log.d(TAG, "Fetched page of " + page.reports.size() + " reports");
+                    fetchAndApplyUserMetaToReports(page.reports, () ->
+                            cacheManager.cacheReportsPage(page.reports, cursorCreatedAt, cursorId,
+                                    page.nextCreatedAt, page.nextDocumentId, cached -> {
+                                        if (!cached) {
+                                            source.setException(new IllegalStateException(
+                                                    "Failed to cache reports page"));
+                                            return;
+                                        }
+                                        source.setResult(page);
+                                    }));
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to fetch reports page", e);
+                    source.setException(e);
+                });
+        return source.getTask();
+    }
+
+    // ==================== Comments ====================
+
+    /**
+     * Resolve author metadata for all users in comments and apply it to the comments
+     */
+    private void fetchAndApplyUserMetaToComments(List<Comment> comments, Runnable onComplete) {
+        Set<String> userIds = new HashSet<>();
+        for (Comment comment : comments) {
+            if (comment.getUserId() != null && !comment.getUserId().isEmpty()) {
+                userIds.add(comment.getUserId());
+            }
+        }
+
+        if (userIds.isEmpty()) {
+            onComplete.run();
             return;
         }
 
-        // Try cached votes first
-        cacheManager.getCachedReportVotes(userId, cachedVotes -> {
-            if (!cachedVotes.isEmpty()) {
-                for (HazardCard card : reports) {
-                    Integer vote = cachedVotes.get(card.getDocumentId());
-                    card.setUserVote(vote != null ? vote : 0);
+        resolveUsersMeta(userIds, metaById -> {
+            for (Comment comment : comments) {
+                UserMeta meta = metaById.get(comment.getUserId());
+                comment.setUserIsAdmin(meta != null && meta.isAdmin());
+                if (meta != null) {
+                    // The payload carries the current name and avatar, the directory only fills gaps
+                    if (comment.getUserName() == null) comment.setUserName(meta.getName());
+                    if (comment.getProfilePictureVersion() == null || comment.getProfilePictureVersion().isEmpty()) {
+                        comment.setProfilePictureVersion(meta.getAvatarVersion());
+                    }
                 }
             }
+            onComplete.run();
+        });
+    }
 
-            // Fetch fresh votes
-            java.util.List<String> reportIds = new java.util.ArrayList<>();
-            for (HazardCard card : reports) {
-                reportIds.add(card.getDocumentId());
-            }
+    /**
+     * Apply the user's cached votes to comments, kept current by the vote sync in initializeUserVotes
+     */
+    private void applyUserVotesToComments(List<Comment> comments,
+                                          DataCallback<List<Comment>> callback) {
+        String userId = SessionManager.getCurrentUserId();
+        if (userId == null || comments.isEmpty()) {
+            callback.onFreshData(comments);
+            callback.onLoading(false);
+            return;
+        }
 
-            ApiClient.getUserVotesForReports(reportIds, userId)
-                    .addOnSuccessListener(freshVotes -> {
-                        // Cache and apply fresh votes
-                        cacheManager.cacheReportVotes(userId, freshVotes);
-                        for (HazardCard card : reports) {
-                            Integer vote = freshVotes.get(card.getDocumentId());
-                            card.setUserVote(vote != null ? vote : 0);
-                        }
-                        callback.onFreshData(reports);
-                        callback.onLoading(false);
-                    })
-                    .addOnFailureListener(e -> {
-                        // Still return reports even if votes failed
-                        callback.onFreshData(reports);
-                        callback.onLoading(false);
-                    });
+        cacheManager.getCachedCommentVotes(userId, cachedVotes -> {
+            for (Comment comment : comments) {
+                Integer vote = cachedVotes.get(comment.getCommentId());
+                comment.setUserVote(vote != null ? vote : 0);
+            }
+            applyLocalCommentVoteStates(comments);
+            callback.onFreshData(comments);
+            callback.onLoading(false);
         });
     }
 
-    // ==================== Comments ====================
+    // ==================== Comments (paged) ====================
 
     /**
-     * Get comments for a report with cache-first strategy
+     * Get one page of a thread's comments with cache-first strategy
+     * The cached page is read from Room by the same keyset cursor, then replaced by the server page
+     * A first page held in memory, e.g. from prefetchThread, is delivered before this returns,
+     * unless the thread was invalidated since it was fetched
+     * @param cursorDatetime datetime of the last comment on the previous page
+     * @param cursorId commentId of the last comment on the previous page, or null for the first page
      */
-    public void getCommentsForReport(String reportId, DataCallback<List<Comment>> callback) {
-        // Check if cache is known to be stale for this report
-        if (commentsCacheInvalidated.contains(reportId)) {
-            Log.d(TAG, "Comments cache invalidated flag set for " + reportId);
-            callback.onLoading(true);
-            commentsCacheInvalidated.remove(reportId); // Reset flag
-            fetchCommentsFromApi(reportId, callback, new java.util.ArrayList<>(), null);
-            return;
+    public void getCommentsPage(String reportId, long cursorDatetime, String cursorId,
+                                DataCallback<ApiClient.CommentsPage> callback) {
+        // A stale thread (after local changes) skips the memory page, Room rows are still shown while it revalidates
+        boolean stale = cursorId == null && commentsCacheInvalidated.remove(reportId);
+        if (cursorId == null && !stale) {
+            List<Comment> inMemory = cacheManager.peekCommentsFirstPage(reportId);
+            if (inMemory != null) {
+                applyLocalCommentVoteStates(inMemory);
+                callback.onCacheData(toCommentsPage(inMemory));
+                refreshCommentsPage(reportId, cursorDatetime, null, true, callback);
+                return;
+            }
         }
 
-        // Step 1: Return cached comments immediately
-        cacheManager.getCachedComments(reportId, cachedComments -> {
-            if (!cachedComments.isEmpty()) {
-                Log.d(TAG, "Returning " + cachedComments.size() + " cached comments");
-                callback.onCacheData(cachedComments);
+        cacheManager.getCachedCommentsPage(reportId, cursorDatetime, cursorId, COMMENTS_PAGE_SIZE,
+                cachedComments -> {
+            boolean hasCache = !cachedComments.isEmpty();
+            if (hasCache) {
+                callback.onCacheData(toCommentsPage(cachedComments));
             }
-
-            // Step 2: Check for updates using lightweight checksum
-            callback.onLoading(true);
-            checkForCommentUpdates(reportId, cachedComments, callback);
+            refreshCommentsPage(reportId, cursorDatetime, cursorId, hasCache, callback);
         });
     }
 
-    private void checkForCommentUpdates(String reportId, List<Comment> cachedComments,
-                                        DataCallback<List<Comment>> callback) {
-        String cacheKey = CacheManager.KEY_COMMENTS_PREFIX + reportId;
-
-        ApiClient.getCommentsCacheChecksum(reportId)
-                .addOnSuccessListener(checksum -> {
-                    cacheManager.getReportsCacheHash(cachedHash -> {
-                        boolean needsRefresh = cachedHash == null ||
-                                !cachedHash.equals(checksum.checksum) ||
-                                cachedComments.isEmpty();
+    /**
+     * Fetch a thread page from the server with the user's votes applied
+     * @param hasCache Whether a cached page was already delivered, errors are then only logged
+     */
+    private void refreshCommentsPage(String reportId, long cursorDatetime, String cursorId, boolean hasCache,
+                                     DataCallback<ApiClient.CommentsPage> callback) {
+        callback.onLoading(true);
+        singleFlight(FLIGHT_COMMENTS_PAGE_PREFIX + reportId + "_" + cursorDatetime + "_" + cursorId,
+                () -> fetchCommentsPageFromApi(reportId, cursorDatetime, cursorId))
+                .addOnSuccessListener(page ->
+                        applyUserVotesToComments(page.comments, new DataCallback<List<Comment>>() {
+                            @Override
+                            public void onCacheData(List<Comment> data) {
+                            }
 
-                        if (needsRefresh) {
-                            Log.d(TAG, "Comments checksum mismatch, fetching fresh");
-                            fetchCommentsFromApi(reportId, callback, cachedComments,
-                                    checksum.checksum);
-                        } else {
-                            Log.d(TAG, "Comments checksum matches, using cache");
-                            callback.onLoading(false);
-                            if (!cachedComments.isEmpty()) {
-                                applyUserVotesToComments(cachedComments, callback);
+                            @Override
+                            public void onFreshData(List<Comment> data) {
+                                if (cursorId == null) {
+                                    cacheManager.putCommentsFirstPage(reportId, data);
+                                }
+                                callback.onFreshData(page);
                             }
-                        }
-                    });
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to get comments checksum, falling back", e);
-                    // Fallback to time-based check
-                    cacheManager.isCommentsCacheStale(reportId, isStale -> {
-                        if (isStale || cachedComments.isEmpty()) {
-                            fetchCommentsFromApi(reportId, callback, cachedComments, null);
-                        } else {
-                            callback.onLoading(false);
-                            applyUserVotesToComments(cachedComments, callback);
-                        }
-                    });
-                });
-    }
 
-    private void fetchCommentsFromApi(String reportId, DataCallback<List<Comment>> callback,
-                                       List<Comment> cachedComments, String newChecksum) {
-        ApiClient.getCommentsForReport(reportId)
-                .addOnSuccessListener(freshComments -> {
-                    String hash = newChecksum != null ? newChecksum :
-                            CacheManager.generateHash(freshComments);
-                    Log.d(TAG, "Fetched " + freshComments.size() + " fresh comments");
+                            @Override
+                            public void onLoading(boolean isLoading) {
+                                callback.onLoading(isLoading);
+                            }
 
-                    // Fetch admin status for each unique user, then cache and return
-                    fetchAndApplyAdminStatusToComments(freshComments, () -> {
-                        cacheManager.cacheComments(reportId, freshComments, hash);
-                        applyUserVotesToComments(freshComments, callback);
-                    });
-                })
+                            @Override
+                            public void onError(Exception e) {
+                                callback.onError(e);
+                            }
+                        }))
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch comments", e);
                     callback.onLoading(false);
-                    if (cachedComments.isEmpty()) {
+                    if (!hasCache) {
                         callback.onError(e);
                     }
                 });
     }
 
     /**
-     * Fetch admin status for each unique user in comments and apply to the comments
+     * A thread's first page straight from the cache, with unconfirmed local votes laid on top
+     * Emits again whenever its comments or the user's comment votes change, so pages fetched by
+     * getCommentsPage and local edits show up without a reload
      */
-    private void fetchAndApplyAdminStatusToComments(List<Comment> comments, Runnable onComplete) {
-        // Collect unique user IDs
-        java.util.Set<String> uniqueUserIds = new java.util.HashSet<>();
-        for (Comment comment : comments) {
-            if (comment.getUserId() != null && !comment.getUserId().isEmpty()) {
-                uniqueUserIds.add(comment.getUserId());
-            }
-        }
+    public LiveData<ApiClient.CommentsPage> observeCommentsFirstPage(String reportId) {
+        String userId = SessionManager.getCurrentUserId();
+        return Transformations.map(
+                cacheManager.observeCommentsFirstPage(reportId, userId != null ? userId : "", COMMENTS_PAGE_SIZE),
+                comments -> {
+                    applyLocalCommentVoteStates(comments);
+                    return toCommentsPage(comments);
+                });
+    }
 
-        if (uniqueUserIds.isEmpty()) {
-            onComplete.run();
+    // ==================== Thread Prefetch ====================
+
+    /**
+     * Warm a thread's first page in memory so opening it renders on the first frame
+     * Newest requests run first and at most MAX_PREFETCHES_IN_FLIGHT at a time, so prefetching never
+     * competes with what the user is actually loading. Main thread only
+     */
+    public void prefetchThread(String reportId) {
+        if (cacheManager.peekCommentsFirstPage(reportId) != null
+                || prefetchingThreads.contains(reportId)
+                || prefetchQueue.contains(reportId)) {
             return;
         }
-
-        // Map to store admin status for each user
-        java.util.Map<String, Boolean> adminStatusMap = new java.util.concurrent.ConcurrentHashMap<>();
-        java.util.concurrent.atomic.AtomicInteger pendingCount = new java.util.concurrent.atomic.AtomicInteger(uniqueUserIds.size());
-
-        for (String userId : uniqueUserIds) {
-            ApiClient.getIsAdmin(userId)
-                    .addOnSuccessListener(isAdmin -> {
-                        adminStatusMap.put(userId, isAdmin);
-                        if (pendingCount.decrementAndGet() == 0) {
-                            // All admin status fetched, apply to comments
-                            for (Comment comment : comments) {
-                                Boolean isUserAdmin = adminStatusMap.get(comment.getUserId());
-                                comment.setUserIsAdmin(isUserAdmin != null && isUserAdmin);
-                            }
-                            onComplete.run();
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.w(TAG, "Failed to get admin status for user: " + userId, e);
-                        adminStatusMap.put(userId, false);
-                        if (pendingCount.decrementAndGet() == 0) {
-                            // All admin status fetched (some failed), apply to comments
-                            for (Comment comment : comments) {
-                                Boolean isUserAdmin = adminStatusMap.get(comment.getUserId());
-                                comment.setUserIsAdmin(isUserAdmin != null && isUserAdmin);
-                            }
-                            onComplete.run();
-                        }
-                    });
+        prefetchQueue.addFirst(reportId);
+        while (prefetchQueue.size() > MAX_QUEUED_PREFETCHES) {
+            // Cards scrolled past long ago are no longer likely to be opened
+            prefetchQueue.removeLast();
         }
+        pumpPrefetchQueue();
     }
 
-    private void applyUserVotesToComments(List<Comment> comments,
-                                          DataCallback<List<Comment>> callback) {
-        String userId = SessionManager.getCurrentUserId();
-        if (userId == null || comments.isEmpty()) {
-            callback.onFreshData(comments);
-            callback.onLoading(false);
-            return;
+    private void pumpPrefetchQueue() {
+        while (prefetchingThreads.size() < MAX_PREFETCHES_IN_FLIGHT && !prefetchQueue.isEmpty()) {
+            String reportId = prefetchQueue.removeFirst();
+            prefetchingThreads.add(reportId);
+            loadThreadIntoMemory(reportId, () -> {
+                prefetchingThreads.remove(reportId);
+                pumpPrefetchQueue();
+            });
         }
+    }
 
-        // Try cached votes first - apply immediately
-        cacheManager.getCachedCommentVotes(userId, cachedVotes -> {
-            if (!cachedVotes.isEmpty()) {
-                for (Comment comment : comments) {
-                    Integer vote = cachedVotes.get(comment.getCommentId());
-                    comment.setUserVote(vote != null ? vote : 0);
-                }
+    /**
+     * Read a thread's first page from Room, or the server if it is not cached, and keep it in memory
+     */
+    private void loadThreadIntoMemory(String reportId, Runnable onDone) {
+        DataCallback<List<Comment>> remember = new DataCallback<List<Comment>>() {
+            @Override
+            public void onCacheData(List<Comment> data) {
             }
 
-            // Call callback immediately with cached votes applied
-            callback.onFreshData(comments);
-            callback.onLoading(false);
+            @Override
+            public void onFreshData(List<Comment> data) {
+                cacheManager.putCommentsFirstPage(reportId, data);
+                onDone.run();
+            }
 
-            // Fetch fresh votes in background
-            java.util.List<String> commentIds = new java.util.ArrayList<>();
-            for (Comment comment : comments) {
-                commentIds.add(comment.getCommentId());
+            @Override
+            public void onLoading(boolean isLoading) {
             }
 
-            ApiClient.getUserVotesForComments(commentIds, userId)
-                    .addOnSuccessListener(freshVotes -> {
-                        cacheManager.cacheCommentVotes(userId, freshVotes);
-                        for (Comment comment : comments) {
-                            Integer vote = freshVotes.get(comment.getCommentId());
-                            comment.setUserVote(vote != null ? vote : 0);
-                        }
-                        // Update UI with fresh votes
-                        callback.onFreshData(comments);
-                    })
+            @Override
+            public void onError(Exception e) {
+                onDone.run();
+            }
+        };
+
+        cacheManager.getCachedCommentsPage(reportId, 0L, null, COMMENTS_PAGE_SIZE, cachedComments -> {
+            if (!cachedComments.isEmpty()) {
+                applyUserVotesToComments(cachedComments, remember);
+                return;
+            }
+            singleFlight(FLIGHT_COMMENTS_PAGE_PREFIX + reportId + "_" + 0L + "_" + null,
+                    () -> fetchCommentsPageFromApi(reportId, 0L, null))
+                    .addOnSuccessListener(page -> applyUserVotesToComments(page.comments, remember))
                     .addOnFailureListener(e -> {
-                        Log.e(TAG, "Failed to fetch fresh comment votes", e);
-                        // Keep using cached votes, no need to call callback again
+                        Log.w(TAG, "Failed to prefetch thread " + reportId, e);
+                        onDone.run();
                     });
         });
     }
 
+    /**
+     * Fetch one thread page, apply author metadata and append it to the cache
+     */
+    private Task<ApiClient.CommentsPage> fetchCommentsPageFromApi(String reportId, long cursorDatetime,
+                                                               String cursorId) {
+        TaskCompletionSource<ApiClient.CommentsPage> source = new TaskCompletionSource<>();
+        ApiClient.getCommentsPage(reportId, cursorDatetime, cursorId, COMMENTS_PAGE_SIZE)
+                .addOnSuccessListener(page -> {
+                    Log.d(TAG, "Fetched page of " + page.comments.size() + " comments");
+                    fetchAndApplyUserMetaToComments(page.comments, () -> {
+                        cacheManager.cacheCommentsPage(reportId, page.comments, cursorDatetime, cursorId,
+                                page.hasMore());
+                        source.setResult(page);
+                    });
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to fetch comments page", e);
+                    source.setException(e);
+                });
+        return source.getTask();
+    }
+
+    /**
+     * Build a page from cached comments, assuming more pages follow when the page is full
+     */
+    private ApiClient.CommentsPage toCommentsPage(List<Comment> comments) {
+        if (comments.size() < COMMENTS_PAGE_SIZE) {
+            return new ApiClient.CommentsPage(comments, 0L, null);
+        }
+        Comment last = comments.get(comments.size() - 1);
+        return new ApiClient.CommentsPage(comments, last.getDatetime(), last.getCommentId());
+    }
+
     // ==================== User Profile ====================
 
     /**
@@ -650,52 +911,114 @@ public class DataRepository {
     // ==================== Vote Operations ====================
 
     /**
-     * Vote on a report (with optimistic update)
+     * Vote state of reports, register here to follow votes made on any screen
      */
-    public void voteReport(String reportId, int voteType,
-                           VoteCallback callback) {
+    public VoteStateStore getReportVotes() {
+        return reportVotes;
+    }
+
+    /**
+     * Vote state of comments, register here to follow votes made on any screen
+     */
+    public VoteStateStore getCommentVotes() {
+        return commentVotes;
+    }
+
+    /**
+     * Press a report's upvote or downvote button
+     * The new state is published at once, the final vote is sent after the taps settle
+     * @param score Score currently shown for the report
+     * @param userVote Vote currently shown for the report
+     * @param pressed 1 for upvote, -1 for downvote
+     */
+    public VoteStateStore.VoteState toggleReportVote(String reportId, long score, int userVote, int pressed) {
+        return reportVotes.toggle(reportId, null, score, userVote, pressed);
+    }
+
+    /**
+     * Press a comment's upvote or downvote button
+     * The new state is published at once, the final vote is sent after the taps settle
+     * @param pressed 1 for upvote, -1 for downvote
+     */
+    public VoteStateStore.VoteState toggleCommentVote(Comment comment, int pressed) {
+        return commentVotes.toggle(comment.getCommentId(), comment.getReportId(), comment.getScore(),
+                comment.getUserVote(), pressed);
+    }
+
+    /**
+     * Queue a settled report vote, applied to the cache right away
+     * @param voteType The resulting vote, 1 = upvote, -1 = downvote, 0 = no vote
+     */
+    private void voteReport(String reportId, int voteType) {
         String userId = SessionManager.getCurrentUserId();
         if (userId == null) {
-            callback.onError(new IllegalStateException("User not logged in"));
+            Log.w(TAG, "Cannot vote: user not logged in");
+            reportVotes.discard(reportId);
             return;
         }
 
-        ApiClient.voteReport(reportId, userId, voteType)
-                .addOnSuccessListener(result -> {
-                    // Update cache
-                    cacheManager.updateReportVote(reportId, userId, result.userVote);
-                    cacheManager.updateReportScore(reportId, result.score);
-                    callback.onSuccess(result.score, result.userVote);
-                })
-                .addOnFailureListener(callback::onError);
+        cacheManager.applyReportVote(reportId, userId, voteType);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("voteType", voteType);
+        outbox.enqueue(userId, OutboxMutation.TYPE_VOTE_REPORT, reportId, payload);
     }
 
     /**
-     * Vote on a comment (with optimistic update)
+     * Queue a settled comment vote, applied to the cache right away
+     * @param voteType The resulting vote, 1 = upvote, -1 = downvote, 0 = no vote
      */
-    public void voteComment(String commentId, int voteType,
-                            VoteCallback callback) {
+    private void voteComment(String commentId, String reportId, int voteType) {
         String userId = SessionManager.getCurrentUserId();
         if (userId == null) {
-            callback.onError(new IllegalStateException("User not logged in"));
+            Log.w(TAG, "Cannot vote: user not logged in");
+            commentVotes.discard(commentId);
             return;
         }
 
-        ApiClient.voteComment(commentId, userId, voteType)
-                .addOnSuccessListener(result -> {
-                    // Update cache
-                    cacheManager.updateCommentVote(commentId, userId, result.userVote);
-                    cacheManager.updateCommentScore(commentId, result.score);
-                    callback.onSuccess(result.score, result.userVote);
-                })
-                .addOnFailureListener(callback::onError);
+        cacheManager.applyCommentVote(commentId, userId, voteType);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("voteType", voteType);
+        payload.put("reportId", reportId); // Only used locally, to reconcile a rejected vote
+        outbox.enqueue(userId, OutboxMutation.TYPE_VOTE_COMMENT, commentId, payload);
+    }
+
+    /**
+     * Show unconfirmed local votes over scores and votes loaded from cache or server
+     */
+    private void applyLocalVoteStates(List<HazardCard> reports) {
+        for (HazardCard card : reports) {
+            VoteStateStore.VoteState state = reportVotes.get(card.getDocumentId());
+            if (state != null) {
+                card.setScore(state.score);
+                card.setUserVote(state.userVote);
+            }
+        }
+    }
+
+    private void applyLocalCommentVoteStates(List<Comment> comments) {
+        for (Comment comment : comments) {
+            VoteStateStore.VoteState state = commentVotes.get(comment.getCommentId());
+            if (state != null) {
+                comment.setScore(state.score);
+                comment.setUserVote(state.userVote);
+            }
+        }
+    }
+
+    /**
+     * Server votes minus targets with an unconfirmed local vote, so caching them keeps the local vote
+     */
+    private static Map<String, Integer> withoutLocalVotes(Map<String, Integer> votes, VoteStateStore store) {
+        Map<String, Integer> confirmed = new HashMap<>(votes);
+        confirmed.keySet().removeIf(targetId -> store.get(targetId) != null);
+        return confirmed;
     }
 
     // ==================== Profile Update Operations ====================
 
     /**
      * Update user name (updates cache immediately)
-     * Also invalidates reports cache since reports display usernames
+     * The new name is written through to every cached report and comment by this user
      */
     public void updateUserName(String newName, SimpleCallback callback) {
         String userId = SessionManager.getCurrentUserId();
@@ -707,8 +1030,7 @@ public class DataRepository {
         ApiClient.updateUserName(userId, newName)
                 .addOnSuccessListener(aVoid -> {
                     cacheManager.updateCachedUserName(userId, newName);
-                    // Invalidate reports cache since reports display usernames
-                    invalidateReportsCache();
+                    cacheManager.updateAuthorName(userId, newName);
                     callback.onSuccess();
                 })
                 .addOnFailureListener(callback::onError);
@@ -732,10 +1054,11 @@ public class DataRepository {
                 .addOnFailureListener(callback::onError);
     }
 
-    // ==================== Report Submission ====================
+    // ==================== Report Mutations ====================
 
     /**
-     * Submit a new report and invalidate cache to trigger refresh
+     * Submit a new report
+     * The report is written to the cache and queued in the outbox, its ID is known before the server sees it
      */
     public void submitReport(String description, String hazardType, String localGov,
                              String locationDetails, double latitude, double longitude,
@@ -746,16 +1069,74 @@ public class DataRepository {
             return;
         }
 
-        ApiClient.submitReport(description, hazardType, localGov, locationDetails,
-                        latitude, longitude, userId)
-                .addOnSuccessListener(documentId -> {
-                    // Invalidate reports cache to force refresh
-                    invalidateReportsCache();
-                    callback.onSuccess(documentId);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("description", description);
+        payload.put("hazardType", hazardType);
+        payload.put("localGov", localGov);
+        payload.put("locationDetails", locationDetails);
+        payload.put("latitude", latitude);
+        payload.put("longitude", longitude);
+        String documentId = outbox.enqueue(userId, OutboxMutation.TYPE_SUBMIT_REPORT, null, payload);
+
+        HazardCard report = new HazardCard();
+        report.setDocumentId(documentId);
+        report.setDescription(description);
+        report.setHazardType(hazardType);
+        report.setLocalGov(localGov);
+        report.setLocationDetails(locationDetails);
+        report.setLatitude(latitude);
+        report.setLongitude(longitude);
+        report.setStatus("Submitted");
+        report.setUserId(userId);
+        report.setCreatedAt(System.currentTimeMillis()); // Replaced by the server time on next sync
+        report.setUpdatedAt(report.getCreatedAt());
+
+        fetchAndApplyUserMetaToReports(Collections.singletonList(report), () -> {
+            cacheManager.insertCachedReport(report);
+            callback.onSuccess(documentId);
+        });
+    }
+
+    /**
+     * Edit a report and write the new fields through to the cache
+     */
+    public void editReport(HazardCard report, SimpleCallback callback) {
+        String userId = SessionManager.getCurrentUserId();
+        if (userId == null) {
+            callback.onError(new IllegalStateException("User not logged in"));
+            return;
+        }
+
+        ApiClient.editReport(report.getDocumentId(), userId, report.getDescription(), report.getHazardType(),
+                        report.getLocalGov(), report.getLocationDetails(), report.getLatitude(),
+                        report.getLongitude(), report.getStatus())
+                .addOnSuccessListener(aVoid -> {
+                    cacheManager.updateCachedReport(report);
+                    callback.onSuccess();
                 })
                 .addOnFailureListener(callback::onError);
     }
 
+    /**
+     * Delete a report, removing it from the cache before the server confirms
+     * The cached row is restored if the deletion fails
+     */
+    public void deleteReport(HazardCard report, SimpleCallback callback) {
+        String userId = SessionManager.getCurrentUserId();
+        if (userId == null) {
+            callback.onError(new IllegalStateException("User not logged in"));
+            return;
+        }
+
+        cacheManager.removeCachedReport(report.getDocumentId());
+        ApiClient.deleteReport(report.getDocumentId(), userId)
+                .addOnSuccessListener(aVoid -> callback.onSuccess())
+                .addOnFailureListener(e -> {
+                    cacheManager.insertCachedReport(report);
+                    callback.onError(e);
+                });
+    }
+
     /**
      * Upload report photo
      */
@@ -776,88 +1157,121 @@ public class DataRepository {
                 .addOnFailureListener(callback::onError);
     }
 
-    // ==================== User Reports (Home Fragment) ====================
+    // ==================== Observed Reports ====================
 
     /**
-     * Get current user's reports with cache-first strategy
+     * Current user's reports straight from the cache, newest first
+     * Emits again whenever a report or vote is written from any screen, call syncReports to refresh the cache
      */
-    public void getUserReports(DataCallback<List<HazardCard>> callback) {
+    public LiveData<List<HazardCard>> observeUserReports() {
         String currentUserId = SessionManager.getCurrentUserId();
         if (currentUserId == null) {
-            callback.onError(new IllegalStateException("User not logged in"));
-            return;
+            return new MutableLiveData<>(new ArrayList<>());
         }
+        return Transformations.map(cacheManager.observeUserReports(currentUserId), reports -> {
+            applyLocalVoteStates(reports);
+            return reports;
+        });
+    }
 
-        // Use getAllReports and filter for current user
-        getAllReports(new DataCallback<List<HazardCard>>() {
-            @Override
-            public void onCacheData(List<HazardCard> data) {
-                List<HazardCard> userReports = filterByUserId(data, currentUserId);
-                callback.onCacheData(userReports);
-            }
+    /**
+     * A report straight from the cache, with an unconfirmed local vote laid on top
+     * Emits null while the report is not cached
+     */
+    public LiveData<HazardCard> observeReport(String documentId) {
+        String userId = SessionManager.getCurrentUserId();
+        return Transformations.map(cacheManager.observeReport(documentId, userId != null ? userId : ""),
+                report -> {
+                    if (report != null) {
+                        applyLocalVoteStates(Collections.singletonList(report));
+                    }
+                    return report;
+                });
+    }
 
-            @Override
-            public void onFreshData(List<HazardCard> data) {
-                List<HazardCard> userReports = filterByUserId(data, currentUserId);
-                callback.onFreshData(userReports);
-            }
+    // ==================== Comment Mutations ====================
 
-            @Override
-            public void onLoading(boolean isLoading) {
-                callback.onLoading(isLoading);
-            }
+    /**
+     * Submit a comment and write it through to the cache
+     * The comment is queued in the outbox, its ID is known before the server sees it
+     */
+    public void submitComment(String content, String reportId,
+                              CommentSubmitCallback callback) {
+        String userId = SessionManager.getCurrentUserId();
+        if (userId == null) {
+            callback.onError(new IllegalStateException("User not logged in"));
+            return;
+        }
 
-            @Override
-            public void onError(Exception e) {
-                callback.onError(e);
-            }
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("content", content);
+        payload.put("reportId", reportId);
+        String commentId = outbox.enqueue(userId, OutboxMutation.TYPE_SUBMIT_COMMENT, null, payload);
+
+        Comment comment = new Comment();
+        comment.setCommentId(commentId);
+        comment.setContent(content);
+        comment.setDatetime(System.currentTimeMillis()); // Replaced by the server time on next sync
+        comment.setReportId(reportId);
+        comment.setUserId(userId);
+
+        fetchAndApplyUserMetaToComments(Collections.singletonList(comment), () -> {
+            cacheManager.insertCachedComment(comment);
+            callback.onSuccess(comment);
         });
     }
 
-    private List<HazardCard> filterByUserId(List<HazardCard> reports, String userId) {
-        List<HazardCard> filtered = new java.util.ArrayList<>();
-        for (HazardCard report : reports) {
-            if (userId.equals(report.getUserId())) {
-                filtered.add(report);
-            }
+    /**
+     * Edit a comment, writing the new content to the model and cache before the server confirms
+     * Both are rolled back if the edit fails
+     */
+    public void editComment(Comment comment, String newContent, SimpleCallback callback) {
+        String userId = SessionManager.getCurrentUserId();
+        if (userId == null) {
+            callback.onError(new IllegalStateException("User not logged in"));
+            return;
         }
-        // Sort by createdAt descending (newest first)
-        filtered.sort((c1, c2) -> Long.compare(c2.getCreatedAt(), c1.getCreatedAt()));
-        return filtered;
-    }
 
-    // ==================== Comment Submission ====================
+        String oldContent = comment.getContent();
+        comment.setContent(newContent);
+        cacheManager.updateCachedComment(comment);
+
+        ApiClient.editComment(comment.getCommentId(), userId, newContent)
+                .addOnSuccessListener(aVoid -> callback.onSuccess())
+                .addOnFailureListener(e -> {
+                    comment.setContent(oldContent);
+                    cacheManager.updateCachedComment(comment);
+                    callback.onError(e);
+                });
+    }
 
     /**
-     * Submit a comment and update cache
-     * Invalidates reports cache to force fresh fetch with correct comment count
+     * Delete a comment, removing it from the cache and the report's count before the server confirms
+     * The cached row is restored if the deletion fails
      */
-    public void submitComment(String content, String reportId,
-                              CommentSubmitCallback callback) {
+    public void deleteComment(Comment comment, SimpleCallback callback) {
         String userId = SessionManager.getCurrentUserId();
         if (userId == null) {
             callback.onError(new IllegalStateException("User not logged in"));
             return;
         }
 
-        ApiClient.submitComment(content, reportId, userId)
-                .addOnSuccessListener(commentId -> {
-                    // Invalidate comments cache to force refresh
-                    invalidateCommentsCache(reportId);
-                    // Also invalidate reports cache so comment count is fetched fresh
-                    invalidateReportsCache();
-                    callback.onSuccess(commentId);
-                })
-                .addOnFailureListener(callback::onError);
+        cacheManager.removeCachedComment(comment.getCommentId(), comment.getReportId());
+        ApiClient.deleteComment(comment.getCommentId(), userId)
+                .addOnSuccessListener(aVoid -> callback.onSuccess())
+                .addOnFailureListener(e -> {
+                    cacheManager.insertCachedComment(comment);
+                    callback.onError(e);
+                });
     }
 
     // ==================== Profile Picture ====================
 
     /**
      * Upload profile picture and update cache
-     * Also invalidates reports cache since reports display profile pictures
+     * The new avatar version is written through to every cached report and comment by this user
      */
-    public void uploadProfilePicture(android.net.Uri imageUri,
+    public void uploadProfilePicture(Uri imageUri,
                                       ProfilePictureCallback callback) {
         String userId = SessionManager.getCurrentUserId();
         if (userId == null) {
@@ -866,36 +1280,98 @@ public class DataRepository {
         }
 
         ApiClient.uploadProfilePicture(userId, imageUri)
-                .addOnSuccessListener(downloadUrl -> {
+                .addOnSuccessListener(image -> {
                     // Update cached profile picture URL
-                    cacheManager.updateCachedProfilePictureUrl(userId, downloadUrl);
-                    // Invalidate reports cache since reports display profile pictures
-                    invalidateReportsCache();
-                    callback.onSuccess(downloadUrl);
+                    cacheManager.updateCachedProfilePictureUrl(userId, image.downloadUrl);
+                    cacheManager.updateAuthorAvatarVersion(userId, image.version);
+                    callback.onSuccess(image.downloadUrl);
                 })
                 .addOnFailureListener(callback::onError);
     }
 
+    // ==================== Outbox Results ====================
+
+    /**
+     * Settle an optimistic change with the server's outcome
+     * Votes take the authoritative score, created rows keep their local fields until the next sync
+     */
+    private void onOutboxApplied(OutboxMutation mutation, ApiClient.OutboxResult result) {
+        switch (mutation.getType()) {
+            case OutboxMutation.TYPE_VOTE_REPORT:
+                cacheManager.updateReportVote(mutation.getTargetId(), mutation.getUserId(), result.userVote);
+                cacheManager.updateReportScore(mutation.getTargetId(), result.score);
+                reportVotes.settle(mutation.getTargetId(), result.score, result.userVote);
+                break;
+            case OutboxMutation.TYPE_VOTE_COMMENT:
+                cacheManager.updateCommentVote(mutation.getTargetId(), mutation.getUserId(), result.userVote);
+                cacheManager.updateCommentScore(mutation.getTargetId(), result.score);
+                commentVotes.settle(mutation.getTargetId(), result.score, result.userVote);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Undo an optimistic change the server refused
+     * Created rows are removed, votes are reconciled by revalidating the list they belong to
+     */
+    private void onOutboxRejected(OutboxMutation mutation) {
+        String reportId = outboxReportId(mutation);
+        switch (mutation.getType()) {
+            case OutboxMutation.TYPE_SUBMIT_REPORT:
+                cacheManager.removeCachedReport(mutation.getMutationKey());
+                break;
+            case OutboxMutation.TYPE_SUBMIT_COMMENT:
+                cacheManager.removeCachedComment(mutation.getMutationKey(), reportId);
+                break;
+            case OutboxMutation.TYPE_VOTE_REPORT:
+                reportVotes.discard(mutation.getTargetId());
+                invalidateReportsCache();
+                break;
+            case OutboxMutation.TYPE_VOTE_COMMENT:
+                commentVotes.discard(mutation.getTargetId());
+                if (reportId != null) invalidateCommentsCache(reportId);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Report a queued comment or comment vote belongs to, from its payload
+     */
+    private static String outboxReportId(OutboxMutation mutation) {
+        try {
+            return new JSONObject(mutation.getPayload()).optString("reportId", null);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
     // ==================== Cache Management ====================
 
     /**
-     * Invalidate reports cache (force refresh on next access)
-     * Sets flag so next getAllReports() skips showing stale cached data
+     * Invalidate reports cache (revalidate on next access)
+     * Cached rows are kept and marked stale, so observed screens still render them instantly
      */
     public void invalidateReportsCache() {
         reportsCacheInvalidated = true;
-        cacheManager.cacheReports(new java.util.ArrayList<>(), "");
-        Log.d(TAG, "Reports cache invalidated - will fetch fresh on next load");
+        forgetInFlight(FLIGHT_REPORTS);
+        cacheManager.markReportsStale();
+        Log.d(TAG, "Reports cache marked stale - will revalidate on next load");
     }
 
     /**
      * Invalidate comments cache for a report
-     * Sets flag so next getCommentsForReport() skips showing stale cached data
+     * Cached comments are kept, the next getCommentsPage() still renders them from Room
+     * but drops the in-memory first page and does not join a page request started before the change
      */
     public void invalidateCommentsCache(String reportId) {
         commentsCacheInvalidated.add(reportId);
-        cacheManager.cacheComments(reportId, new java.util.ArrayList<>(), "");
-        Log.d(TAG, "Comments cache invalidated for " + reportId + " - will fetch fresh on next load");
+        forgetInFlightWithPrefix(FLIGHT_COMMENTS_PAGE_PREFIX + reportId + "_");
+        cacheManager.forgetCommentsFirstPage(reportId);
+        Log.d(TAG, "Comments cache marked stale for " + reportId + " - will revalidate on next load");
     }
 
     /**
@@ -912,7 +1388,7 @@ public class DataRepository {
      * Used for optimistic UI updates after deletion
      */
     public void removeCommentFromCache(String commentId, String reportId) {
-        cacheManager.removeCachedComment(commentId);
+        cacheManager.removeCachedComment(commentId, reportId);
         Log.d(TAG, "Removed comment from cache: " + commentId);
     }
 
@@ -980,14 +1456,6 @@ public class DataRepository {
         void onError(Exception e);
     }
 
-    /**
-     * Callback for vote operations
-     */
-    public interface VoteCallback {
-        void onSuccess(long score, int userVote);
-        void onError(Exception e);
-    }
-
     /**
      * Simple callback for operations without return data
      */
@@ -1008,7 +1476,7 @@ public class DataRepository {
      * Callback for comment submission
      */
     public interface CommentSubmitCallback {
-        void onSuccess(String commentId);
+        void onSuccess(Comment comment);
         void onError(Exception e);
     }
 
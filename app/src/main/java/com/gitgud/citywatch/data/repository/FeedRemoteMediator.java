@@ -0,0 +1,94 @@
+package com.gitgud.citywatch.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.paging.ExperimentalPagingApi;
+import androidx.paging.LoadType;
+import androidx.paging.PagingState;
+import androidx.paging.guava.ListenableFutureRemoteMediator;
+
+import com.gitgud.citywatch.data.cache.CacheManager;
+import com.gitgud.citywatch.data.cache.dao.ReportDao;
+import com.gitgud.citywatch.data.cache.entity.FeedRemoteKey;
+import com.gitgud.citywatch.util.ApiClient;
+import com.google.android.gms.tasks.Task;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Fills the cached reports table from the server one feed page at a time
+ * Room stays the only source the community feed is paged from, the mediator just decides which page to fetch
+ * Appends resume from the stored FeedRemoteKey rather than the oldest cached row,
+ * delta and bucket syncs cache older reports that the paged range has not reached yet
+ */
+@OptIn(markerClass = ExperimentalPagingApi.class)
+class FeedRemoteMediator extends ListenableFutureRemoteMediator<Integer, ReportDao.FeedRow> {
+    private final RemoteKeyLoader keyLoader;
+    private final PageFetcher fetcher;
+
+    FeedRemoteMediator(RemoteKeyLoader keyLoader, PageFetcher fetcher) {
+        this.keyLoader = keyLoader;
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Cached rows are shown right away while the first page is refetched
+     */
+    @NonNull
+    @Override
+    public ListenableFuture<InitializeAction> initializeFuture() {
+        return Futures.immediateFuture(InitializeAction.LAUNCH_INITIAL_REFRESH);
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<MediatorResult> loadFuture(@NonNull LoadType loadType,
+                                                       @NonNull PagingState<Integer, ReportDao.FeedRow> state) {
+        SettableFuture<MediatorResult> result = SettableFuture.create();
+        switch (loadType) {
+            case REFRESH:
+                fetch(0L, null, result);
+                break;
+            case PREPEND:
+                // The first page always starts at the newest report
+                return Futures.immediateFuture(new MediatorResult.Success(true));
+            case APPEND:
+                keyLoader.load(key -> {
+                    if (key == null) {
+                        // The refresh has not cached a page yet, it triggers the append again once it has
+                        result.set(new MediatorResult.Success(false));
+                    } else if (key.isEndReached()) {
+                        result.set(new MediatorResult.Success(true));
+                    } else {
+                        fetch(key.getNextCreatedAt(), key.getNextDocumentId(), result);
+                    }
+                });
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Room invalidates the feed once the page is written, the result only reports whether more follow
+     */
+    private void fetch(long cursorCreatedAt, String cursorId, SettableFuture<MediatorResult> result) {
+        fetcher.fetch(cursorCreatedAt, cursorId)
+                .addOnSuccessListener(page -> result.set(new MediatorResult.Success(!page.hasMore())))
+                .addOnFailureListener(e -> result.set(new MediatorResult.Error(e)));
+    }
+
+    /**
+     * Reads the feed's stored remote key, null before the first page is cached
+     */
+    interface RemoteKeyLoader {
+        void load(CacheManager.CacheCallback<FeedRemoteKey> callback);
+    }
+
+    /**
+     * Fetches one feed page by keyset cursor and resolves once it is cached along with its remote key
+     */
+    interface PageFetcher {
+        Task<ApiClient.ReportsPage> fetch(long cursorCreatedAt, String cursorId);
+    }
+}
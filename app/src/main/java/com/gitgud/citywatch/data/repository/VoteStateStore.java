@@ -0,0 +1,173 @@
+package com.gitgud.citywatch.data.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optimistic vote state for one kind of target (reports or comments), shared by every screen showing it
+ * Rapid toggles on a target are debounced into one final-state vote, and a server result only replaces the
+ * local state once it answers the last vote sent and no newer toggle is waiting, so late responses never flicker
+ * Main thread only
+ */
+public class VoteStateStore {
+    // Quiet period after the last tap before the final vote is sent
+    private static final long DEBOUNCE_MS = 500;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final List<VoteObserver> observers = new ArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Sender sender;
+
+    VoteStateStore(Sender sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * Local state of a target with an unconfirmed vote, null when the server's state is current
+     */
+    public VoteState get(String targetId) {
+        Entry entry = entries.get(targetId);
+        return entry != null ? entry.state : null;
+    }
+
+    public void addObserver(VoteObserver observer) {
+        if (!observers.contains(observer)) {
+            observers.add(observer);
+        }
+    }
+
+    public void removeObserver(VoteObserver observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * Apply a vote button press, pressing the current vote again removes it
+     * @param score Score the screen shows, only used if the store has no state for the target yet
+     * @param userVote Vote the screen shows, only used if the store has no state for the target yet
+     * @param parentId Report a comment belongs to, null for reports
+     * @return The new optimistic state, also published to every observer
+     */
+    VoteState toggle(String targetId, String parentId, long score, int userVote, int pressed) {
+        Entry entry = entries.get(targetId);
+        if (entry == null) {
+            entry = new Entry(new VoteState(score, userVote), parentId);
+            entries.put(targetId, entry);
+        }
+
+        int newVote = entry.state.userVote == pressed ? 0 : pressed;
+        entry.state = new VoteState(entry.state.score - entry.state.userVote + newVote, newVote);
+        publish(targetId, entry.state);
+
+        if (entry.pendingSend != null) {
+            mainHandler.removeCallbacks(entry.pendingSend);
+        }
+        Entry target = entry;
+        entry.pendingSend = () -> flush(targetId, target);
+        mainHandler.postDelayed(entry.pendingSend, DEBOUNCE_MS);
+        return entry.state;
+    }
+
+    /**
+     * Send the settled vote, unless the taps cancelled out
+     */
+    private void flush(String targetId, Entry entry) {
+        entry.pendingSend = null;
+        if (entry.state.userVote == entry.sentVote) {
+            if (!entry.awaitingResult) {
+                // Back where the server already is, nothing to send or wait for
+                entries.remove(targetId);
+                if (entry.confirmed != null) {
+                    publish(targetId, entry.confirmed);
+                }
+            }
+            return;
+        }
+        entry.sentVote = entry.state.userVote;
+        entry.awaitingResult = true;
+        entry.confirmed = null;
+        sender.send(targetId, entry.parentId, entry.sentVote);
+    }
+
+    /**
+     * Take the server's state for a target once it answers the latest local vote
+     * Results for superseded votes are ignored, the local state already reflects a newer tap
+     * A result that arrives while newer taps are waiting is kept, flush publishes it if those taps cancel out
+     */
+    void settle(String targetId, long score, int userVote) {
+        Entry entry = entries.get(targetId);
+        if (entry != null && userVote != entry.sentVote) {
+            return;
+        }
+        VoteState state = new VoteState(score, userVote);
+        if (entry != null && entry.pendingSend != null) {
+            entry.awaitingResult = false;
+            entry.confirmed = state;
+            return;
+        }
+        entries.remove(targetId);
+        publish(targetId, state);
+    }
+
+    /**
+     * Drop local state the server refused, the owning list is revalidated instead
+     */
+    void discard(String targetId) {
+        Entry entry = entries.remove(targetId);
+        if (entry != null && entry.pendingSend != null) {
+            mainHandler.removeCallbacks(entry.pendingSend);
+        }
+    }
+
+    private void publish(String targetId, VoteState state) {
+        for (VoteObserver observer : new ArrayList<>(observers)) {
+            observer.onVoteStateChanged(targetId, state);
+        }
+    }
+
+    private static class Entry {
+        VoteState state;
+        final String parentId;
+        int sentVote; // Last vote the server has or was sent
+        boolean awaitingResult;
+        VoteState confirmed; // Server's answer to sentVote, held while newer taps are waiting
+        Runnable pendingSend;
+
+        Entry(VoteState state, String parentId) {
+            this.state = state;
+            this.parentId = parentId;
+            this.sentVote = state.userVote;
+        }
+    }
+
+    /**
+     * Score and the current user's vote on one target
+     */
+    public static class VoteState {
+        public final long score;
+        public final int userVote; // 1 = upvoted, -1 = downvoted, 0 = no vote
+
+        public VoteState(long score, int userVote) {
+            this.score = score;
+            this.userVote = userVote;
+        }
+    }
+
+    /**
+     * Screens showing a target register to follow its vote state
+     */
+    public interface VoteObserver {
+        void onVoteStateChanged(String targetId, VoteState state);
+    }
+
+    /**
+     * Sends a settled vote to the server
+     */
+    interface Sender {
+        void send(String targetId, String parentId, int voteType);
+    }
+}
@@ -10,7 +10,7 @@ public class Comment {
     private String reportId;
     private String userId;
     private String userName;
-    private String profilePictureUrl;
+    private String profilePictureVersion; // Storage generation of the author avatar
     private long score;
     private int userVote; // 1 = upvoted, -1 = downvoted, 0 = no vote
     private boolean userIsAdmin; // Whether the user is an admin
@@ -27,7 +27,7 @@ public class Comment {
     public String getReportId() { return reportId; }
     public String getUserId() { return userId; }
     public String getUserName() { return userName; }
-    public String getProfilePictureUrl() { return profilePictureUrl; }
+    public String getProfilePictureVersion() { return profilePictureVersion; }
     public long getScore() { return score; }
     public int getUserVote() { return userVote; }
     public boolean isUserIsAdmin() { return userIsAdmin; }
@@ -39,7 +39,7 @@ public class Comment {
     public void setReportId(String reportId) { this.reportId = reportId; }
     public void setUserId(String userId) { this.userId = userId; }
     public void setUserName(String userName) { this.userName = userName; }
-    public void setProfilePictureUrl(String profilePictureUrl) { this.profilePictureUrl = profilePictureUrl; }
+    public void setProfilePictureVersion(String profilePictureVersion) { this.profilePictureVersion = profilePictureVersion; }
     public void setScore(long score) { this.score = score; }
     public void setUserVote(int userVote) { this.userVote = userVote; }
     public void setUserIsAdmin(boolean userIsAdmin) { this.userIsAdmin = userIsAdmin; }
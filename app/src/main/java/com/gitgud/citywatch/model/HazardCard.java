@@ -12,12 +12,13 @@ public class HazardCard {
     private double latitude;
     private double longitude;
     private String status;
-    private String photoUrl;
-    private String profilePictureUrl;
+    private String photoVersion; // Storage generation of the report photo, empty if none
+    private String profilePictureVersion; // Storage generation of the author avatar
     private String userName;
     private String userId;
     private long votes;
     private long createdAt;
+    private long updatedAt; // Server time of the last change, used for delta sync
     private long score;
     private int userVote; // 1 = upvoted, -1 = downvoted, 0 = no vote
     private long comments; // Number of comments on this report
@@ -30,7 +31,7 @@ public class HazardCard {
 
     public HazardCard(String documentId, String description, String hazardType,
                       String localGov, String locationDetails, double latitude, double longitude,
-                      String status, String photoUrl, String userName, long votes) {
+                      String status, String photoVersion, String userName, long votes) {
         this.documentId = documentId;
         this.description = description;
         this.hazardType = hazardType;
@@ -39,11 +40,36 @@ public class HazardCard {
         this.latitude = latitude;
         this.longitude = longitude;
         this.status = status;
-        this.photoUrl = photoUrl;
+        this.photoVersion = photoVersion;
         this.userName = userName;
         this.votes = votes;
     }
 
+    /**
+     * Copy of another card, so per-user fields can be set without touching a shared instance
+     */
+    public HazardCard(HazardCard other) {
+        this.documentId = other.documentId;
+        this.description = other.description;
+        this.hazardType = other.hazardType;
+        this.localGov = other.localGov;
+        this.locationDetails = other.locationDetails;
+        this.latitude = other.latitude;
+        this.longitude = other.longitude;
+        this.status = other.status;
+        this.photoVersion = other.photoVersion;
+        this.profilePictureVersion = other.profilePictureVersion;
+        this.userName = other.userName;
+        this.userId = other.userId;
+        this.votes = other.votes;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+        this.score = other.score;
+        this.userVote = other.userVote;
+        this.comments = other.comments;
+        this.userIsAdmin = other.userIsAdmin;
+    }
+
     // Getters
     public String getDocumentId() { return documentId; }
     public String getDescription() { return description; }
@@ -53,12 +79,13 @@ public class HazardCard {
     public double getLatitude() { return latitude; }
     public double getLongitude() { return longitude; }
     public String getStatus() { return status; }
-    public String getPhotoUrl() { return photoUrl; }
-    public String getProfilePictureUrl() { return profilePictureUrl; }
+    public String getPhotoVersion() { return photoVersion; }
+    public String getProfilePictureVersion() { return profilePictureVersion; }
     public String getUserName() { return userName; }
     public String getUserId() { return userId; }
     public long getVotes() { return votes; }
     public long getCreatedAt() { return createdAt; }
+    public long getUpdatedAt() { return updatedAt; }
     public long getScore() { return score; }
     public int getUserVote() { return userVote; }
     public long getComments() { return comments; }
@@ -74,12 +101,13 @@ public class HazardCard {
     public void setLatitude(double latitude) { this.latitude = latitude; }
     public void setLongitude(double longitude) { this.longitude = longitude; }
     public void setStatus(String status) { this.status = status; }
-    public void setPhotoUrl(String photoUrl) { this.photoUrl = photoUrl; }
-    public void setProfilePictureUrl(String profilePictureUrl) { this.profilePictureUrl = profilePictureUrl; }
+    public void setPhotoVersion(String photoVersion) { this.photoVersion = photoVersion; }
+    public void setProfilePictureVersion(String profilePictureVersion) { this.profilePictureVersion = profilePictureVersion; }
     public void setUserName(String userName) { this.userName = userName; }
     public void setUserId(String userId) { this.userId = userId; }
     public void setVotes(long votes) { this.votes = votes; }
     public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
     public void setScore(long score) { this.score = score; }
     public void setUserVote(int userVote) { this.userVote = userVote; }
     public void setComments(long comments) { this.comments = comments; }
@@ -0,0 +1,28 @@
+package com.gitgud.citywatch.model;
+
+/**
+ * Model class for per-author metadata shown on reports and comments
+ */
+public class UserMeta {
+    private String userId;
+    private String name;
+    private boolean isAdmin;
+    private String avatarVersion; // Storage generation of the profile picture
+
+
+    public UserMeta() {
+        // Required for deserialization
+    }
+
+    // Getters
+    public String getUserId() { return userId; }
+    public String getName() { return name; }
+    public boolean isAdmin() { return isAdmin; }
+    public String getAvatarVersion() { return avatarVersion; }
+
+    // Setters
+    public void setUserId(String userId) { this.userId = userId; }
+    public void setName(String name) { this.name = name; }
+    public void setAdmin(boolean isAdmin) { this.isAdmin = isAdmin; }
+    public void setAvatarVersion(String avatarVersion) { this.avatarVersion = avatarVersion; }
+}
@@ -0,0 +1,127 @@
+package com.gitgud.citywatch.ui.community;
+
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.gitgud.citywatch.model.HazardCard;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Reports hazard cards the user lingers on, i.e. that stay mostly visible for DWELL_MS
+ * Visibility is rechecked on every scroll or layout in the window, so lists inside a scroll view are covered too
+ * Each card is reported once between attach and detach
+ */
+public class CardDwellTracker {
+    private static final long DWELL_MS = 700;
+    private static final float MIN_VISIBLE_FRACTION = 0.5f;
+
+    private final RecyclerView recyclerView;
+    private final IntFunction<HazardCard> cardAt;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, Long> visibleSince = new HashMap<>();
+    private final Set<String> reported = new HashSet<>();
+    private final Rect visibleRect = new Rect();
+    private final ViewTreeObserver.OnScrollChangedListener scrollListener = this::checkVisibleCards;
+    private final ViewTreeObserver.OnGlobalLayoutListener layoutListener = this::checkVisibleCards;
+    private final Runnable dwellCheck = this::checkVisibleCards;
+    private boolean attached = false;
+
+    /**
+     * @param cardAt Card bound at an adapter position, null if there is none
+     */
+    public CardDwellTracker(RecyclerView recyclerView, IntFunction<HazardCard> cardAt, Listener listener) {
+        this.recyclerView = recyclerView;
+        this.cardAt = cardAt;
+        this.listener = listener;
+    }
+
+    /**
+     * Start tracking, call when the list becomes visible to the user
+     */
+    public void attach() {
+        if (attached) return;
+        attached = true;
+        ViewTreeObserver observer = recyclerView.getViewTreeObserver();
+        observer.addOnScrollChangedListener(scrollListener);
+        observer.addOnGlobalLayoutListener(layoutListener);
+        checkVisibleCards();
+    }
+
+    /**
+     * Stop tracking and forget partial dwell times, call when the list is no longer in front of the user
+     */
+    public void detach() {
+        if (!attached) return;
+        attached = false;
+        ViewTreeObserver observer = recyclerView.getViewTreeObserver();
+        if (observer.isAlive()) {
+            observer.removeOnScrollChangedListener(scrollListener);
+            observer.removeOnGlobalLayoutListener(layoutListener);
+        }
+        mainHandler.removeCallbacks(dwellCheck);
+        visibleSince.clear();
+        reported.clear();
+    }
+
+    private void checkVisibleCards() {
+        if (!attached) return;
+        long now = SystemClock.uptimeMillis();
+        long nextCheck = Long.MAX_VALUE;
+        Set<String> visible = new HashSet<>();
+
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            View child = recyclerView.getChildAt(i);
+            int position = recyclerView.getChildAdapterPosition(child);
+            HazardCard card = position != RecyclerView.NO_POSITION ? cardAt.apply(position) : null;
+            if (card == null) continue;
+
+            String id = card.getDocumentId();
+            if (id == null || reported.contains(id) || !isMostlyVisible(child)) continue;
+
+            visible.add(id);
+            Long since = visibleSince.get(id);
+            if (since == null) {
+                since = now;
+                visibleSince.put(id, now);
+            }
+            if (now - since >= DWELL_MS) {
+                reported.add(id);
+                listener.onCardDwelled(card);
+            } else {
+                nextCheck = Math.min(nextCheck, since + DWELL_MS);
+            }
+        }
+
+        // A card that left the screen starts over when it comes back
+        visibleSince.keySet().retainAll(visible);
+        mainHandler.removeCallbacks(dwellCheck);
+        if (nextCheck != Long.MAX_VALUE) {
+            mainHandler.postAtTime(dwellCheck, nextCheck);
+        }
+    }
+
+    private boolean isMostlyVisible(View child) {
+        return recyclerView.isShown()
+                && child.getLocalVisibleRect(visibleRect)
+                && visibleRect.height() >= child.getHeight() * MIN_VISIBLE_FRACTION;
+    }
+
+    /**
+     * Receives each card the user lingered on
+     */
+    public interface Listener {
+        void onCardDwelled(HazardCard card);
+    }
+}
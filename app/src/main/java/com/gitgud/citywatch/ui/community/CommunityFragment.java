@@ -11,6 +11,8 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.paging.CombinedLoadStates;
+import androidx.paging.LoadState;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -20,18 +22,14 @@ import com.gitgud.citywatch.model.HazardCard;
 import com.gitgud.citywatch.data.repository.DataRepository;
 import com.gitgud.citywatch.model.SpacingItemDecoration;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class CommunityFragment extends Fragment {
 
     private RecyclerView rvCommunityCards;
     private ProgressBar progressSpinner;
-    private HazardCardAdapter adapter;
-    private List<HazardCard> hazardCardList;
+    private HazardCardPagingAdapter adapter;
     private DataRepository dataRepository;
-    private boolean hasCachedData = false;
-    private androidx.activity.result.ActivityResultLauncher<Intent> editReportLauncher;
+    private CardDwellTracker dwellTracker;
+    private LoadState lastLoadError;
 
     public CommunityFragment() {
         // Required empty public constructor
@@ -41,54 +39,6 @@ public class CommunityFragment extends Fragment {
         return new CommunityFragment();
     }
 
-    @Override
-    public void onCreate(@Nullable Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState);
-
-        // Initialize edit report launcher
-        editReportLauncher = registerForActivityResult(
-            new androidx.activity.result.contract.ActivityResultContracts.StartActivityForResult(),
-            result -> {
-                if (result.getResultCode() == android.app.Activity.RESULT_OK && result.getData() != null) {
-                    // Report was edited successfully, update UI immediately
-                    Intent data = result.getData();
-                    String reportId = data.getStringExtra("reportId");
-
-                    if (reportId != null) {
-                        // Find the report in the list and update it
-                        for (int i = 0; i < hazardCardList.size(); i++) {
-                            HazardCard card = hazardCardList.get(i);
-                            if (card.getDocumentId().equals(reportId)) {
-                                // Update the report with new data
-                                card.setDescription(data.getStringExtra("description"));
-                                card.setHazardType(data.getStringExtra("hazardType"));
-                                card.setLocalGov(data.getStringExtra("localGov"));
-                                card.setLocationDetails(data.getStringExtra("locationDetails"));
-                                card.setLatitude(data.getDoubleExtra("latitude", 0));
-                                card.setLongitude(data.getDoubleExtra("longitude", 0));
-                                card.setStatus(data.getStringExtra("status"));
-
-                                // Update cache immediately
-                                if (dataRepository != null) {
-                                    dataRepository.updateReportInCache(card);
-                                }
-
-                                // Notify adapter that this item changed
-                                adapter.notifyItemChanged(i);
-                                break;
-                            }
-                        }
-
-                        // Reload in background to ensure consistency with server
-                        if (dataRepository != null) {
-                            loadReports();
-                        }
-                    }
-                }
-            }
-        );
-    }
-
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
@@ -106,9 +56,7 @@ public class CommunityFragment extends Fragment {
         // Initialize views
         rvCommunityCards = view.findViewById(R.id.rvCommunityCards);
         progressSpinner = view.findViewById(R.id.progressSpinner);
-        hazardCardList = new ArrayList<>();
-        adapter = new HazardCardAdapter(hazardCardList);
-        adapter.setDataRepository(dataRepository);
+        adapter = new HazardCardPagingAdapter(dataRepository);
 
         // Setup RecyclerView
         GridLayoutManager gridLayoutManager = new GridLayoutManager(getContext(), 1);
@@ -119,6 +67,13 @@ public class CommunityFragment extends Fragment {
         int spacingInDp = (int) (20 * getResources().getDisplayMetrics().density);
         rvCommunityCards.addItemDecoration(new SpacingItemDecoration(spacingInDp));
 
+        // Prefetch threads of cards the user lingers on, so opening one shows its comments right away
+        dwellTracker = new CardDwellTracker(rvCommunityCards, adapter::peekCard, card -> {
+            if (card.getComments() > 0) {
+                dataRepository.prefetchThread(card.getDocumentId());
+            }
+        });
+
         // Set card click listener to navigate to ThreadActivity
         adapter.setOnCardClickListener(hazardCard -> {
             Intent intent = new Intent(getActivity(), com.gitgud.citywatch.ThreadActivity.class);
@@ -130,8 +85,8 @@ public class CommunityFragment extends Fragment {
             intent.putExtra("status", hazardCard.getStatus());
             intent.putExtra("localGov", hazardCard.getLocalGov());
             intent.putExtra("description", hazardCard.getDescription());
-            intent.putExtra("photoUrl", hazardCard.getPhotoUrl());
-            intent.putExtra("profilePictureUrl", hazardCard.getProfilePictureUrl());
+            intent.putExtra("photoVersion", hazardCard.getPhotoVersion());
+            intent.putExtra("profilePictureVersion", hazardCard.getProfilePictureVersion());
             intent.putExtra("score", hazardCard.getScore());
             intent.putExtra("userVote", hazardCard.getUserVote());
             intent.putExtra("createdAt", hazardCard.getCreatedAt());
@@ -159,8 +114,11 @@ public class CommunityFragment extends Fragment {
             }
         });
 
-        // Load reports using cache-first strategy
-        loadReports();
+        // Pages are read from the cache and fetched from the server as the user scrolls
+        adapter.addLoadStateListener(this::onLoadStatesChanged);
+        dataRepository.getReportsFeed(getViewLifecycleOwner().getLifecycle())
+                .observe(getViewLifecycleOwner(), pagingData ->
+                        adapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData));
 
         // Setup click listeners
         setupClickListeners(view);
@@ -169,61 +127,42 @@ public class CommunityFragment extends Fragment {
     @Override
     public void onResume() {
         super.onResume();
-        // Reload reports when fragment comes back into focus
-        // This ensures vote/comment counts are updated if user modified them in ThreadActivity
-        loadReports();
+        // Vote and comment counts changed in ThreadActivity reach the feed through the cache it is paged from
+        dwellTracker.attach();
     }
 
-    private void loadReports() {
-        hasCachedData = false;
-
-        dataRepository.getAllReports(new DataRepository.DataCallback<List<HazardCard>>() {
-            @Override
-            public void onCacheData(List<HazardCard> data) {
-                // Show cached data immediately
-                if (getActivity() == null) return;
-                hasCachedData = true;
-                updateReportsList(data);
-                // Hide spinner since we have cached data to show
-                progressSpinner.setVisibility(View.GONE);
-            }
-
-            @Override
-            public void onFreshData(List<HazardCard> data) {
-                // Update with fresh data
-                if (getActivity() == null) return;
-                updateReportsList(data);
-                progressSpinner.setVisibility(View.GONE);
-            }
-
-            @Override
-            public void onLoading(boolean isLoading) {
-                if (getActivity() == null) return;
-                // Only show spinner if we don't have cached data
-                if (!hasCachedData) {
-                    progressSpinner.setVisibility(isLoading ? View.VISIBLE : View.GONE);
-                }
-            }
-
-            @Override
-            public void onError(Exception e) {
-                if (getActivity() == null) return;
-                progressSpinner.setVisibility(View.GONE);
-                Toast.makeText(getContext(), "Failed to load reports: " + e.getMessage(),
-                    Toast.LENGTH_SHORT).show();
-            }
-        });
+    @Override
+    public void onPause() {
+        super.onPause();
+        dwellTracker.detach();
     }
 
-    private void updateReportsList(List<HazardCard> reports) {
-        hazardCardList.clear();
-        hazardCardList.addAll(reports);
-
-        // Sort by date (newest first)
-        hazardCardList.sort((c1, c2) ->
-            Long.compare(c2.getCreatedAt(), c1.getCreatedAt()));
-
-        adapter.notifyDataSetChanged();
+    /**
+     * Spinner and errors for the feed's loads
+     * As before paging, the spinner and a failed refresh are only shown while there are no cached reports
+     */
+    private kotlin.Unit onLoadStatesChanged(CombinedLoadStates states) {
+        boolean empty = adapter.getItemCount() == 0;
+        LoadState refresh = states.getRefresh();
+        LoadState append = states.getAppend();
+        progressSpinner.setVisibility(empty && refresh instanceof LoadState.Loading ? View.VISIBLE : View.GONE);
+
+        // Load states are republished on every change, each failure is only reported once
+        LoadState error = null;
+        String message = null;
+        if (empty && refresh instanceof LoadState.Error) {
+            error = refresh;
+            message = "Failed to load reports: ";
+        } else if (append instanceof LoadState.Error) {
+            error = append;
+            message = "Failed to load more reports: ";
+        }
+        if (error != null && error != lastLoadError) {
+            Toast.makeText(getContext(), message + ((LoadState.Error) error).getError().getMessage(),
+                    Toast.LENGTH_SHORT).show();
+        }
+        lastLoadError = error;
+        return kotlin.Unit.INSTANCE;
     }
 
     private void setupClickListeners(View view) {
@@ -245,9 +184,10 @@ public class CommunityFragment extends Fragment {
         intent.putExtra("latitude", hazardCard.getLatitude());
         intent.putExtra("longitude", hazardCard.getLongitude());
         intent.putExtra("status", hazardCard.getStatus());
-        intent.putExtra("photoUrl", hazardCard.getPhotoUrl());
+        intent.putExtra("photoVersion", hazardCard.getPhotoVersion());
 
-        editReportLauncher.launch(intent);
+        // The edit is written through to the cache, the observed list picks it up from there
+        startActivity(intent);
     }
 
     private void showDeleteReportDialog(HazardCard hazardCard) {
@@ -260,43 +200,27 @@ public class CommunityFragment extends Fragment {
     }
 
     private void deleteReport(HazardCard hazardCard) {
-        String userId = com.gitgud.citywatch.util.SessionManager.getCurrentUserId();
-        if (userId == null) {
+        if (com.gitgud.citywatch.util.SessionManager.getCurrentUserId() == null) {
             android.widget.Toast.makeText(getContext(), "Not logged in",
                 android.widget.Toast.LENGTH_SHORT).show();
             return;
         }
 
-        // Store position for potential rollback
-        int position = hazardCardList.indexOf(hazardCard);
-
-        // Optimistic update - remove from UI immediately
-        if (position != -1) {
-            hazardCardList.remove(position);
-            adapter.notifyItemRemoved(position);
-        }
+        // The repository removes it from the cache immediately and restores it on failure,
+        // the feed follows the cache either way
+        dataRepository.deleteReport(hazardCard, new DataRepository.SimpleCallback() {
+            @Override
+            public void onSuccess() {
+                android.widget.Toast.makeText(getContext(), "Report deleted",
+                    android.widget.Toast.LENGTH_SHORT).show();
+            }
 
-        // Remove from local cache immediately
-        dataRepository.invalidateReportsCache();
-
-        // Call API
-        com.gitgud.citywatch.util.ApiClient.deleteReport(hazardCard.getDocumentId(), userId)
-                .addOnSuccessListener(aVoid -> {
-                    android.widget.Toast.makeText(getContext(), "Report deleted",
-                        android.widget.Toast.LENGTH_SHORT).show();
-                    // Reload reports to ensure consistency with server
-                    loadReports();
-                })
-                .addOnFailureListener(e -> {
-                    // Rollback on failure
-                    if (position != -1) {
-                        hazardCardList.add(position, hazardCard);
-                        adapter.notifyItemInserted(position);
-                    }
-                    dataRepository.updateReportInCache(hazardCard);
-                    android.widget.Toast.makeText(getContext(),
-                        "Failed to delete: " + e.getMessage(),
-                        android.widget.Toast.LENGTH_SHORT).show();
-                });
+            @Override
+            public void onError(Exception e) {
+                android.widget.Toast.makeText(getContext(),
+                    "Failed to delete: " + e.getMessage(),
+                    android.widget.Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 }
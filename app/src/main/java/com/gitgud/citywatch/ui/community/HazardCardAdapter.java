@@ -8,27 +8,79 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.gitgud.citywatch.R;
 import com.gitgud.citywatch.model.HazardCard;
 import com.gitgud.citywatch.data.repository.DataRepository;
+import com.gitgud.citywatch.data.repository.VoteStateStore;
 import com.gitgud.citywatch.util.VoteButtonAnimationHelper;
+import com.gitgud.citywatch.util.image.StorageImage;
 import com.google.android.material.imageview.ShapeableImageView;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * RecyclerView adapter for displaying hazard cards
+ * Lists are diffed off the main thread, so a refresh only rebinds the cards that changed
  */
-public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.HazardViewHolder> {
+public class HazardCardAdapter extends ListAdapter<HazardCard, HazardCardAdapter.HazardViewHolder> {
+
+    /**
+     * Card fields that can be updated without a full rebind
+     */
+    enum Payload { SCORE, USER_VOTE, COMMENTS, STATUS }
+
+    static final DiffUtil.ItemCallback<HazardCard> DIFF_CALLBACK = new DiffUtil.ItemCallback<HazardCard>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull HazardCard oldItem, @NonNull HazardCard newItem) {
+            return Objects.equals(oldItem.getDocumentId(), newItem.getDocumentId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull HazardCard oldItem, @NonNull HazardCard newItem) {
+            return hasSameStaticContent(oldItem, newItem) && changedFields(oldItem, newItem).isEmpty();
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull HazardCard oldItem, @NonNull HazardCard newItem) {
+            // Anything beyond the payload fields changed, fall back to a full rebind
+            return hasSameStaticContent(oldItem, newItem) ? changedFields(oldItem, newItem) : null;
+        }
+    };
 
-    private List<HazardCard> hazardCards;
     private OnCardClickListener onCardClickListener;
     private OnReportActionListener onReportActionListener;
     private DataRepository dataRepository;
 
+    // Follows votes made on any screen and rebinds only the score and vote of the matching card
+    private final VoteStateStore.VoteObserver voteObserver = (reportId, state) -> {
+        List<HazardCard> current = getCurrentList();
+        for (int i = 0; i < current.size(); i++) {
+            HazardCard card = current.get(i);
+            if (!reportId.equals(card.getDocumentId())) continue;
+
+            EnumSet<Payload> changed = EnumSet.noneOf(Payload.class);
+            if (card.getScore() != state.score) {
+                card.setScore(state.score);
+                changed.add(Payload.SCORE);
+            }
+            if (card.getUserVote() != state.userVote) {
+                card.setUserVote(state.userVote);
+                changed.add(Payload.USER_VOTE);
+            }
+            if (!changed.isEmpty()) {
+                notifyItemChanged(i, changed);
+            }
+            return;
+        }
+    };
+
     /**
      * Interface for card click events
      */
@@ -44,8 +96,9 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
         void onDeleteReport(HazardCard hazardCard);
     }
 
-    public HazardCardAdapter(List<HazardCard> hazardCards) {
-        this.hazardCards = hazardCards;
+    public HazardCardAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
         this.dataRepository = null; // Will be set via setDataRepository
     }
 
@@ -61,6 +114,22 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
         this.onReportActionListener = listener;
     }
 
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        if (dataRepository != null) {
+            dataRepository.getReportVotes().addObserver(voteObserver);
+        }
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        if (dataRepository != null) {
+            dataRepository.getReportVotes().removeObserver(voteObserver);
+        }
+    }
+
     @NonNull
     @Override
     public HazardViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -71,18 +140,74 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
 
     @Override
     public void onBindViewHolder(@NonNull HazardViewHolder holder, int position) {
-        HazardCard hazard = hazardCards.get(position);
+        HazardCard hazard = getItem(position);
         holder.bind(hazard, onCardClickListener, onReportActionListener, dataRepository);
     }
 
     @Override
-    public int getItemCount() {
-        return hazardCards.size();
+    @SuppressWarnings("unchecked")
+    public void onBindViewHolder(@NonNull HazardViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        // Several diffs may be coalesced into one bind
+        EnumSet<Payload> changed = EnumSet.noneOf(Payload.class);
+        for (Object payload : payloads) {
+            changed.addAll((EnumSet<Payload>) payload);
+        }
+        holder.bindPayloads(getItem(position), changed);
+    }
+
+    /**
+     * Stable id derived from the documentId, a 64-bit FNV-1a hash so the adapter keeps no per-item state
+     */
+    @Override
+    public long getItemId(int position) {
+        String documentId = getItem(position).getDocumentId();
+        if (documentId == null) return RecyclerView.NO_ID;
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < documentId.length(); i++) {
+            hash ^= documentId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Card at a position, or null if the position is out of range
+     */
+    public HazardCard peekCard(int position) {
+        List<HazardCard> current = getCurrentList();
+        return position >= 0 && position < current.size() ? current.get(position) : null;
     }
 
-    public void updateList(List<HazardCard> newList) {
-        this.hazardCards = newList;
-        notifyDataSetChanged();
+    /**
+     * Fields that require a full rebind when they change
+     */
+    private static boolean hasSameStaticContent(HazardCard a, HazardCard b) {
+        return Objects.equals(a.getDescription(), b.getDescription()) &&
+                Objects.equals(a.getHazardType(), b.getHazardType()) &&
+                Objects.equals(a.getLocalGov(), b.getLocalGov()) &&
+                Objects.equals(a.getLocationDetails(), b.getLocationDetails()) &&
+                a.getLatitude() == b.getLatitude() &&
+                a.getLongitude() == b.getLongitude() &&
+                Objects.equals(a.getPhotoVersion(), b.getPhotoVersion()) &&
+                Objects.equals(a.getProfilePictureVersion(), b.getProfilePictureVersion()) &&
+                Objects.equals(a.getUserName(), b.getUserName()) &&
+                Objects.equals(a.getUserId(), b.getUserId()) &&
+                a.getCreatedAt() == b.getCreatedAt() &&
+                a.isUserIsAdmin() == b.isUserIsAdmin();
+    }
+
+    private static EnumSet<Payload> changedFields(HazardCard a, HazardCard b) {
+        EnumSet<Payload> changed = EnumSet.noneOf(Payload.class);
+        if (a.getScore() != b.getScore()) changed.add(Payload.SCORE);
+        if (a.getUserVote() != b.getUserVote()) changed.add(Payload.USER_VOTE);
+        if (a.getComments() != b.getComments()) changed.add(Payload.COMMENTS);
+        if (!Objects.equals(a.getStatus(), b.getStatus())) changed.add(Payload.STATUS);
+        return changed;
     }
 
     static class HazardViewHolder extends RecyclerView.ViewHolder {
@@ -100,6 +225,8 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
         private final TextView tvVotes;
         private final TextView tvComments;
         private final RecyclerView rvAdminStatusSelector;
+        private HazardCard hazard; // Card currently bound, read by the click listeners
+        private StatusChipAdapter statusAdapter;
 
         HazardViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -119,7 +246,10 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
             rvAdminStatusSelector = itemView.findViewById(R.id.rvAdminStatusSelector);
         }
 
-        void bind(HazardCard hazard, OnCardClickListener listener, OnReportActionListener actionListener, DataRepository dataRepository) {
+        void bind(HazardCard item, OnCardClickListener listener, OnReportActionListener actionListener,
+                  DataRepository dataRepository) {
+            this.hazard = item;
+
             // Set user name with time ago estimate
             String userName = hazard.getUserName() != null ? hazard.getUserName() : "Anonymous";
             String timeAgo = getTimeAgoEstimate(hazard.getCreatedAt());
@@ -129,9 +259,8 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
             tvCardAdminTag.setVisibility(hazard.isUserIsAdmin() ? View.VISIBLE : View.GONE);
 
             // Load report author's profile picture
-            loadProfilePicture(hazard.getProfilePictureUrl());
+            loadProfilePicture(hazard.getUserId(), hazard.getProfilePictureVersion());
 
-            // ...existing code...
             tvCardTitle.setText(hazard.getHazardType() + " @ " + hazard.getLocationDetails());
 
             // Set status badge
@@ -140,29 +269,14 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
             // Set local government badge
             tvTagSecondary.setText(hazard.getLocalGov());
 
-            // Load photo from Storage bucket if URL is available
-            loadPhotoFromStorage(hazard.getPhotoUrl());
+            // Load photo from Storage bucket, served from Glide's cache when the version is unchanged
+            loadPhotoFromStorage(hazard.getDocumentId(), hazard.getPhotoVersion());
 
             // Set score and update vote button states
             tvVotes.setText(String.valueOf(hazard.getScore()));
 
             // Set vote button colors immediately based on cached user vote
-            int activeColor = itemView.getContext().getColor(R.color.md_theme_primary);
-            int inactiveColor = itemView.getContext().getColor(R.color.md_theme_onSurfaceVariant);
-
-            if (hazard.getUserVote() == 1) {
-                // Upvoted
-                btnUpvote.setColorFilter(activeColor);
-                btnDownvote.setColorFilter(inactiveColor);
-            } else if (hazard.getUserVote() == -1) {
-                // Downvoted
-                btnUpvote.setColorFilter(inactiveColor);
-                btnDownvote.setColorFilter(activeColor);
-            } else {
-                // No vote
-                btnUpvote.setColorFilter(inactiveColor);
-                btnDownvote.setColorFilter(inactiveColor);
-            }
+            updateVoteButtonStates(hazard.getUserVote());
 
             // Set comment count
             tvComments.setText(String.valueOf(hazard.getComments()));
@@ -171,7 +285,7 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
             String currentUserId = com.gitgud.citywatch.util.SessionManager.getCurrentUserId();
             if (currentUserId != null && currentUserId.equals(hazard.getUserId())) {
                 btnMenu.setVisibility(View.VISIBLE);
-                btnMenu.setOnClickListener(v -> showReportMenu(v, hazard, actionListener));
+                btnMenu.setOnClickListener(v -> showReportMenu(v, this.hazard, actionListener));
             } else {
                 btnMenu.setVisibility(View.GONE);
             }
@@ -182,30 +296,53 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
             // Upvote button listener
             btnUpvote.setOnClickListener(v -> {
                 VoteButtonAnimationHelper.animateVoteButton(btnUpvote);
-                handleVote(hazard, 1, dataRepository);
+                handleVote(this.hazard, 1, dataRepository);
             });
 
             // Downvote button listener
             btnDownvote.setOnClickListener(v -> {
                 VoteButtonAnimationHelper.animateVoteButton(btnDownvote);
-                handleVote(hazard, -1, dataRepository);
+                handleVote(this.hazard, -1, dataRepository);
             });
 
             // Comment button listener - navigate to thread
             btnComments.setOnClickListener(v -> {
                 if (listener != null) {
-                    listener.onCardClick(hazard);
+                    listener.onCardClick(this.hazard);
                 }
             });
 
             // Card click listener - navigate to thread
             itemView.setOnClickListener(v -> {
                 if (listener != null) {
-                    listener.onCardClick(hazard);
+                    listener.onCardClick(this.hazard);
                 }
             });
         }
 
+        /**
+         * Update only the views behind the changed fields, leaving images and the status selector alone
+         */
+        void bindPayloads(HazardCard item, EnumSet<Payload> changed) {
+            this.hazard = item;
+
+            if (changed.contains(Payload.SCORE)) {
+                tvVotes.setText(String.valueOf(hazard.getScore()));
+            }
+            if (changed.contains(Payload.USER_VOTE)) {
+                updateVoteButtonStates(hazard.getUserVote());
+            }
+            if (changed.contains(Payload.COMMENTS)) {
+                tvComments.setText(String.valueOf(hazard.getComments()));
+            }
+            if (changed.contains(Payload.STATUS)) {
+                tvTagTertiary.setText(hazard.getStatus());
+                if (statusAdapter != null) {
+                    statusAdapter.setSelectedStatus(hazard.getStatus() != null ? hazard.getStatus() : "Submitted");
+                }
+            }
+        }
+
         private void showReportMenu(View anchor, HazardCard hazard, OnReportActionListener actionListener) {
             android.widget.PopupMenu popup = new android.widget.PopupMenu(itemView.getContext(), anchor);
             popup.getMenuInflater().inflate(R.menu.report_menu, popup.getMenu());
@@ -243,6 +380,17 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
                 return;
             }
 
+            if (dataRepository != null) {
+                // Shared optimistic state, rapid taps are sent as one final vote
+                VoteStateStore.VoteState state = dataRepository.toggleReportVote(hazard.getDocumentId(),
+                        hazard.getScore(), hazard.getUserVote(), voteType);
+                hazard.setScore(state.score);
+                hazard.setUserVote(state.userVote);
+                tvVotes.setText(String.valueOf(state.score));
+                updateVoteButtonStates(state.userVote);
+                return;
+            }
+
             // Determine actual vote type (toggle if same vote)
             int actualVoteType = hazard.getUserVote() == voteType ? 0 : voteType;
 
@@ -257,47 +405,23 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
             tvVotes.setText(String.valueOf(newScore));
             updateVoteButtonStates(newUserVote);
 
-            // Use DataRepository if available, otherwise fall back to ApiClient
-            if (dataRepository != null) {
-                dataRepository.voteReport(hazard.getDocumentId(), actualVoteType,
-                        new DataRepository.VoteCallback() {
-                            @Override
-                            public void onSuccess(long score, int userVote) {
-                                hazard.setScore(score);
-                                hazard.setUserVote(userVote);
-                                tvVotes.setText(String.valueOf(score));
-                                updateVoteButtonStates(userVote);
-                            }
-
-                            @Override
-                            public void onError(Exception e) {
-                                hazard.setScore(previousScore);
-                                hazard.setUserVote(previousVote);
-                                tvVotes.setText(String.valueOf(previousScore));
-                                updateVoteButtonStates(previousVote);
-                                android.widget.Toast.makeText(itemView.getContext(),
-                                        "Failed to vote", android.widget.Toast.LENGTH_SHORT).show();
-                            }
-                        });
-            } else {
-                // Fallback to ApiClient
-                com.gitgud.citywatch.util.ApiClient.voteReport(
-                        hazard.getDocumentId(), userId, actualVoteType)
-                        .addOnSuccessListener(result -> {
-                            hazard.setScore(result.score);
-                            hazard.setUserVote(result.userVote);
-                            tvVotes.setText(String.valueOf(result.score));
-                            updateVoteButtonStates(result.userVote);
-                        })
-                        .addOnFailureListener(e -> {
-                            hazard.setScore(previousScore);
-                            hazard.setUserVote(previousVote);
-                            tvVotes.setText(String.valueOf(previousScore));
-                            updateVoteButtonStates(previousVote);
-                            android.widget.Toast.makeText(itemView.getContext(),
-                                    "Failed to vote", android.widget.Toast.LENGTH_SHORT).show();
-                        });
-            }
+            // Fallback to ApiClient when no repository was set
+            com.gitgud.citywatch.util.ApiClient.voteReport(
+                    hazard.getDocumentId(), userId, actualVoteType)
+                    .addOnSuccessListener(result -> {
+                        hazard.setScore(result.score);
+                        hazard.setUserVote(result.userVote);
+                        tvVotes.setText(String.valueOf(result.score));
+                        updateVoteButtonStates(result.userVote);
+                    })
+                    .addOnFailureListener(e -> {
+                        hazard.setScore(previousScore);
+                        hazard.setUserVote(previousVote);
+                        tvVotes.setText(String.valueOf(previousScore));
+                        updateVoteButtonStates(previousVote);
+                        android.widget.Toast.makeText(itemView.getContext(),
+                                "Failed to vote", android.widget.Toast.LENGTH_SHORT).show();
+                    });
         }
 
         /**
@@ -325,42 +449,38 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
         }
 
         /**
-         * Load profile picture from Storage bucket using download URL
-         * @param profilePictureUrl Download URL from Storage
+         * Load profile picture from Storage bucket
+         * @param userId Report author, the avatar is stored under their id
+         * @param version Storage generation of the avatar, part of the cache key
          */
-        private void loadProfilePicture(String profilePictureUrl) {
-            if (profilePictureUrl != null && !profilePictureUrl.isEmpty()) {
-                android.util.Log.d("HazardCardAdapter", "Loading profile picture: " +
-                    profilePictureUrl.substring(0, Math.min(50, profilePictureUrl.length())));
+        private void loadProfilePicture(String userId, String version) {
+            if (userId != null && !userId.isEmpty()) {
                 Glide.with(itemView.getContext())
-                        .load(profilePictureUrl)
+                        .load(StorageImage.profilePicture(userId, version))
                         .placeholder(R.drawable.ic_profile)
                         .error(R.drawable.ic_profile)
                         .circleCrop()
                         .into(ivCardProfile);
             } else {
-                android.util.Log.d("HazardCardAdapter", "Profile picture URL is null or empty");
                 ivCardProfile.setImageResource(R.drawable.ic_profile);
             }
         }
 
         /**
-         * Load photo from Storage bucket using signed URL
-         * @param photoUrl Signed URL from Cloud Function
+         * Load report photo from Storage bucket
+         * @param documentId Report id, the photo is stored under it
+         * @param version Storage generation of the photo, part of the cache key
          */
-        private void loadPhotoFromStorage(String photoUrl) {
-            if (photoUrl != null && !photoUrl.isEmpty()) {
-                // Load image from Storage using signed URL
-                android.util.Log.d("HazardCardAdapter", "Loading photo: " + photoUrl.substring(0, Math.min(50, photoUrl.length())));
+        private void loadPhotoFromStorage(String documentId, String version) {
+            if (documentId != null && !documentId.isEmpty()) {
                 Glide.with(itemView.getContext())
-                        .load(photoUrl)
+                        .load(StorageImage.reportPhoto(documentId, version))
                         .placeholder(R.drawable.ic_pic)
                         .error(R.drawable.ic_pic)
                         .centerCrop()
                         .into(ivCardPhoto);
             } else {
                 // No photo available, show placeholder
-                android.util.Log.d("HazardCardAdapter", "Photo URL is null or empty");
                 ivCardPhoto.setImageResource(R.drawable.ic_pic);
             }
         }
@@ -461,6 +581,13 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
          */
         private void initializeStatusSelector(HazardCard hazard, DataRepository dataRepository) {
             rvAdminStatusSelector.setVisibility(View.VISIBLE);
+            String currentStatus = hazard.getStatus() != null ? hazard.getStatus() : "Submitted";
+
+            // A recycled holder keeps its selector, only the selection moves
+            if (statusAdapter != null) {
+                statusAdapter.setSelectedStatus(currentStatus);
+                return;
+            }
 
             // Status options
             java.util.List<String> statusOptions = java.util.Arrays.asList(
@@ -468,10 +595,7 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
             );
 
             // Create adapter with current status
-            StatusChipAdapter statusAdapter = new StatusChipAdapter(
-                statusOptions,
-                hazard.getStatus() != null ? hazard.getStatus() : "Submitted"
-            );
+            statusAdapter = new StatusChipAdapter(statusOptions, currentStatus);
 
             // Setup RecyclerView
             rvAdminStatusSelector.setLayoutManager(
@@ -483,10 +607,10 @@ public class HazardCardAdapter extends RecyclerView.Adapter<HazardCardAdapter.Ha
             );
             rvAdminStatusSelector.setAdapter(statusAdapter);
 
-            // Handle status selection
+            // Handle status selection for whichever card is bound at the time
             statusAdapter.setOnStatusSelectedListener(newStatus -> {
-                if (!newStatus.equals(hazard.getStatus())) {
-                    updateReportStatus(hazard, newStatus, statusAdapter, dataRepository);
+                if (!newStatus.equals(this.hazard.getStatus())) {
+                    updateReportStatus(this.hazard, newStatus, statusAdapter, dataRepository);
                 }
             });
         }
@@ -0,0 +1,128 @@
+package com.gitgud.citywatch.ui.community;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.paging.ItemSnapshotList;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.gitgud.citywatch.R;
+import com.gitgud.citywatch.data.repository.DataRepository;
+import com.gitgud.citywatch.data.repository.VoteStateStore;
+import com.gitgud.citywatch.model.HazardCard;
+
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Paged variant of HazardCardAdapter for the community feed
+ * Cards are bound by the same view holder, only the pages around the viewport are held in memory
+ */
+public class HazardCardPagingAdapter
+        extends PagingDataAdapter<HazardCard, HazardCardAdapter.HazardViewHolder> {
+
+    private HazardCardAdapter.OnCardClickListener onCardClickListener;
+    private HazardCardAdapter.OnReportActionListener onReportActionListener;
+    private final DataRepository dataRepository;
+
+    // Follows votes made on any screen and rebinds only the score and vote of the matching card
+    private final VoteStateStore.VoteObserver voteObserver = (reportId, state) -> {
+        ItemSnapshotList<HazardCard> snapshot = snapshot();
+        List<HazardCard> loaded = snapshot.getItems();
+        int offset = snapshot.getPlaceholdersBefore();
+        for (int i = 0; i < loaded.size(); i++) {
+            if (reportId.equals(loaded.get(i).getDocumentId())) {
+                notifyItemChanged(offset + i, EnumSet.of(HazardCardAdapter.Payload.SCORE,
+                        HazardCardAdapter.Payload.USER_VOTE));
+                return;
+            }
+        }
+    };
+
+    public HazardCardPagingAdapter(DataRepository dataRepository) {
+        super(HazardCardAdapter.DIFF_CALLBACK);
+        this.dataRepository = dataRepository;
+    }
+
+    public void setOnCardClickListener(HazardCardAdapter.OnCardClickListener listener) {
+        this.onCardClickListener = listener;
+    }
+
+    public void setOnReportActionListener(HazardCardAdapter.OnReportActionListener listener) {
+        this.onReportActionListener = listener;
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        dataRepository.getReportVotes().addObserver(voteObserver);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        dataRepository.getReportVotes().removeObserver(voteObserver);
+    }
+
+    @NonNull
+    @Override
+    public HazardCardAdapter.HazardViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.hazard_card, parent, false);
+        return new HazardCardAdapter.HazardViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull HazardCardAdapter.HazardViewHolder holder, int position) {
+        HazardCard hazard = getItem(position);
+        if (hazard == null) return;
+        holder.bind(withLocalVoteState(hazard), onCardClickListener, onReportActionListener, dataRepository);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onBindViewHolder(@NonNull HazardCardAdapter.HazardViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        HazardCard hazard = getItem(position);
+        if (payloads.isEmpty() || hazard == null) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        // Several diffs may be coalesced into one bind
+        EnumSet<HazardCardAdapter.Payload> changed = EnumSet.noneOf(HazardCardAdapter.Payload.class);
+        for (Object payload : payloads) {
+            changed.addAll((EnumSet<HazardCardAdapter.Payload>) payload);
+        }
+        if (dataRepository.getReportVotes().get(hazard.getDocumentId()) != null) {
+            // The shown vote comes from the store, not from the diffed rows
+            changed.add(HazardCardAdapter.Payload.SCORE);
+            changed.add(HazardCardAdapter.Payload.USER_VOTE);
+        }
+        holder.bindPayloads(withLocalVoteState(hazard), changed);
+    }
+
+    /**
+     * Loaded card at a position without triggering a page load, null if it is not loaded
+     */
+    public HazardCard peekCard(int position) {
+        return position >= 0 && position < getItemCount() ? peek(position) : null;
+    }
+
+    /**
+     * Rows from Room only carry confirmed votes, a vote still being debounced or sent is laid on top
+     * Cards are owned by PagingData and diffed against each other, so the holder gets a copy it may change
+     */
+    private HazardCard withLocalVoteState(HazardCard card) {
+        HazardCard shown = new HazardCard(card);
+        VoteStateStore.VoteState state = dataRepository.getReportVotes().get(card.getDocumentId());
+        if (state != null) {
+            shown.setScore(state.score);
+            shown.setUserVote(state.userVote);
+        }
+        return shown;
+    }
+}
@@ -18,6 +18,7 @@ import com.gitgud.citywatch.R;
 import com.gitgud.citywatch.ReportActivity;
 import com.gitgud.citywatch.ThreadActivity;
 import com.gitgud.citywatch.model.HazardCard;
+import com.gitgud.citywatch.ui.community.CardDwellTracker;
 import com.gitgud.citywatch.ui.community.HazardCardAdapter;
 import com.gitgud.citywatch.data.repository.DataRepository;
 import com.gitgud.citywatch.util.SessionManager;
@@ -33,8 +34,7 @@ public class HomeFragment extends Fragment {
     private HazardCardAdapter adapter;
     private List<HazardCard> userReportsList;
     private DataRepository dataRepository;
-    private boolean hasCachedData = false;
-    private androidx.activity.result.ActivityResultLauncher<Intent> editReportLauncher;
+    private CardDwellTracker dwellTracker;
 
     // Statistics TextViews
     private android.widget.TextView tvNumberSubmitted;
@@ -51,54 +51,6 @@ public class HomeFragment extends Fragment {
         return new HomeFragment();
     }
 
-    @Override
-    public void onCreate(@Nullable Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState);
-
-        // Initialize edit report launcher
-        editReportLauncher = registerForActivityResult(
-            new androidx.activity.result.contract.ActivityResultContracts.StartActivityForResult(),
-            result -> {
-                if (result.getResultCode() == android.app.Activity.RESULT_OK && result.getData() != null) {
-                    // Report was edited successfully, update UI immediately
-                    Intent data = result.getData();
-                    String reportId = data.getStringExtra("reportId");
-
-                    if (reportId != null) {
-                        // Find the report in the list and update it
-                        for (int i = 0; i < userReportsList.size(); i++) {
-                            HazardCard card = userReportsList.get(i);
-                            if (card.getDocumentId().equals(reportId)) {
-                                // Update the report with new data
-                                card.setDescription(data.getStringExtra("description"));
-                                card.setHazardType(data.getStringExtra("hazardType"));
-                                card.setLocalGov(data.getStringExtra("localGov"));
-                                card.setLocationDetails(data.getStringExtra("locationDetails"));
-                                card.setLatitude(data.getDoubleExtra("latitude", 0));
-                                card.setLongitude(data.getDoubleExtra("longitude", 0));
-                                card.setStatus(data.getStringExtra("status"));
-
-                                // Update cache immediately
-                                if (dataRepository != null) {
-                                    dataRepository.updateReportInCache(card);
-                                }
-
-                                // Notify adapter that this item changed
-                                adapter.notifyItemChanged(i);
-                                break;
-                            }
-                        }
-
-                        // Reload in background to ensure consistency with server
-                        if (dataRepository != null) {
-                            loadUserReports();
-                        }
-                    }
-                }
-            }
-        );
-    }
-
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
@@ -125,7 +77,7 @@ public class HomeFragment extends Fragment {
         statsProgressSpinner = view.findViewById(R.id.statsProgressSpinner);
 
         userReportsList = new ArrayList<>();
-        adapter = new HazardCardAdapter(userReportsList);
+        adapter = new HazardCardAdapter();
         adapter.setDataRepository(dataRepository);
 
         rvYourReports.setLayoutManager(new LinearLayoutManager(getContext()));
@@ -135,6 +87,13 @@ public class HomeFragment extends Fragment {
         int spacingInDp = (int) (20 * getResources().getDisplayMetrics().density);
         rvYourReports.addItemDecoration(new SpacingItemDecoration(spacingInDp));
 
+        // Prefetch threads of cards the user lingers on, so opening one shows its comments right away
+        dwellTracker = new CardDwellTracker(rvYourReports, adapter::peekCard, card -> {
+            if (card.getComments() > 0) {
+                dataRepository.prefetchThread(card.getDocumentId());
+            }
+        });
+
         // Set card click listener to navigate to ThreadActivity
         adapter.setOnCardClickListener(hazardCard -> {
             Intent intent = new Intent(getActivity(), ThreadActivity.class);
@@ -146,8 +105,8 @@ public class HomeFragment extends Fragment {
             intent.putExtra("status", hazardCard.getStatus());
             intent.putExtra("localGov", hazardCard.getLocalGov());
             intent.putExtra("description", hazardCard.getDescription());
-            intent.putExtra("photoUrl", hazardCard.getPhotoUrl());
-            intent.putExtra("profilePictureUrl", hazardCard.getProfilePictureUrl());
+            intent.putExtra("photoVersion", hazardCard.getPhotoVersion());
+            intent.putExtra("profilePictureVersion", hazardCard.getProfilePictureVersion());
             intent.putExtra("score", hazardCard.getScore());
             intent.putExtra("userVote", hazardCard.getUserVote());
             intent.putExtra("createdAt", hazardCard.getCreatedAt());
@@ -170,8 +129,10 @@ public class HomeFragment extends Fragment {
             }
         });
 
-        // Load reports using cache-first strategy
-        loadUserReports();
+        // Follow the cached reports for as long as the view exists, so votes, comments and edits made on
+        // any screen show up without a reload
+        observeUserReports();
+        syncUserReports();
         // Load statistics
         loadStatistics();
         setupClickListeners(view);
@@ -180,44 +141,45 @@ public class HomeFragment extends Fragment {
     @Override
     public void onResume() {
         super.onResume();
-        // Reload user reports when fragment comes back into focus
-        // This ensures vote/comment counts are updated if user modified them in ThreadActivity
-        loadUserReports();
         // Reload statistics to reflect any changes
         loadStatistics();
+        dwellTracker.attach();
     }
 
-    private void loadUserReports() {
-        String currentUserId = SessionManager.getCurrentUserId();
-        if (currentUserId == null) {
+    @Override
+    public void onPause() {
+        super.onPause();
+        dwellTracker.detach();
+    }
+
+    private void observeUserReports() {
+        if (SessionManager.getCurrentUserId() == null) {
             progressSpinner.setVisibility(View.GONE);
             return;
         }
 
-        hasCachedData = false;
-
-        dataRepository.getUserReports(new DataRepository.DataCallback<List<HazardCard>>() {
-            @Override
-            public void onCacheData(List<HazardCard> data) {
-                if (getActivity() == null) return;
-                hasCachedData = true;
-                updateReportsList(data);
+        dataRepository.observeUserReports().observe(getViewLifecycleOwner(), reports -> {
+            updateReportsList(reports);
+            if (!reports.isEmpty()) {
                 progressSpinner.setVisibility(View.GONE);
             }
+        });
+    }
 
-            @Override
-            public void onFreshData(List<HazardCard> data) {
-                if (getActivity() == null) return;
-                updateReportsList(data);
-                progressSpinner.setVisibility(View.GONE);
-            }
+    /**
+     * Refresh the cached reports from the server, the observed list picks up the result
+     */
+    private void syncUserReports() {
+        if (SessionManager.getCurrentUserId() == null) return;
 
+        if (userReportsList.isEmpty()) {
+            progressSpinner.setVisibility(View.VISIBLE);
+        }
+        dataRepository.syncReports(new DataRepository.SimpleCallback() {
             @Override
-            public void onLoading(boolean isLoading) {
+            public void onSuccess() {
                 if (getActivity() == null) return;
-                if (!hasCachedData) {
-                    progressSpinner.setVisibility(isLoading ? View.VISIBLE : View.GONE);
-                }
+                progressSpinner.setVisibility(View.GONE);
             }
 
             @Override
@@ -233,7 +195,8 @@ public class HomeFragment extends Fragment {
     private void updateReportsList(List<HazardCard> reports) {
         userReportsList.clear();
         userReportsList.addAll(reports);
-        adapter.notifyDataSetChanged();
+        // Diffed in the background, unchanged cards are not rebound
+        adapter.submitList(new ArrayList<>(userReportsList));
     }
 
     private void setupClickListeners(View view) {
@@ -255,9 +218,10 @@ public class HomeFragment extends Fragment {
         intent.putExtra("latitude", hazardCard.getLatitude());
         intent.putExtra("longitude", hazardCard.getLongitude());
         intent.putExtra("status", hazardCard.getStatus());
-        intent.putExtra("photoUrl", hazardCard.getPhotoUrl());
+        intent.putExtra("photoVersion", hazardCard.getPhotoVersion());
 
-        editReportLauncher.launch(intent);
+        // The edit is written through to the cache, the observed list picks it up from there
+        startActivity(intent);
     }
 
     private void showDeleteReportDialog(HazardCard hazardCard) {
@@ -270,8 +234,7 @@ public class HomeFragment extends Fragment {
     }
 
     private void deleteReport(HazardCard hazardCard) {
-        String userId = SessionManager.getCurrentUserId();
-        if (userId == null) {
+        if (SessionManager.getCurrentUserId() == null) {
             android.widget.Toast.makeText(getContext(), "Not logged in",
                 android.widget.Toast.LENGTH_SHORT).show();
             return;
@@ -283,33 +246,31 @@ public class HomeFragment extends Fragment {
         // Optimistic update - remove from UI immediately
         if (position != -1) {
             userReportsList.remove(position);
-            adapter.notifyItemRemoved(position);
+            adapter.submitList(new ArrayList<>(userReportsList));
         }
 
-        // Remove from local cache immediately
-        dataRepository.invalidateReportsCache();
-
-        // Call API
-        com.gitgud.citywatch.util.ApiClient.deleteReport(hazardCard.getDocumentId(), userId)
-                .addOnSuccessListener(aVoid -> {
-                    android.widget.Toast.makeText(getContext(), "Report deleted",
-                        android.widget.Toast.LENGTH_SHORT).show();
-                    // Reload reports to ensure consistency with server
-                    loadUserReports();
-                    // Reload statistics immediately to reflect the deletion
-                    loadStatistics();
-                })
-                .addOnFailureListener(e -> {
-                    // Rollback on failure
-                    if (position != -1) {
-                        userReportsList.add(position, hazardCard);
-                        adapter.notifyItemInserted(position);
-                    }
-                    dataRepository.updateReportInCache(hazardCard);
-                    android.widget.Toast.makeText(getContext(),
-                        "Failed to delete: " + e.getMessage(),
-                        android.widget.Toast.LENGTH_SHORT).show();
-                });
+        // The repository removes it from the cache immediately and restores it on failure
+        dataRepository.deleteReport(hazardCard, new DataRepository.SimpleCallback() {
+            @Override
+            public void onSuccess() {
+                android.widget.Toast.makeText(getContext(), "Report deleted",
+                    android.widget.Toast.LENGTH_SHORT).show();
+                // Reload statistics immediately to reflect the deletion
+                loadStatistics();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // Rollback on failure
+                if (position != -1) {
+                    userReportsList.add(position, hazardCard);
+                    adapter.submitList(new ArrayList<>(userReportsList));
+                }
+                android.widget.Toast.makeText(getContext(),
+                    "Failed to delete: " + e.getMessage(),
+                    android.widget.Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     /**
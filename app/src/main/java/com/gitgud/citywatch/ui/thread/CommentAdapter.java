@@ -13,9 +13,11 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.gitgud.citywatch.R;
 import com.gitgud.citywatch.model.Comment;
-import com.gitgud.citywatch.util.ApiClient;
+import com.gitgud.citywatch.data.repository.DataRepository;
+import com.gitgud.citywatch.data.repository.VoteStateStore;
 import com.gitgud.citywatch.util.SessionManager;
 import com.gitgud.citywatch.util.VoteButtonAnimationHelper;
+import com.gitgud.citywatch.util.image.StorageImage;
 import com.google.android.material.imageview.ShapeableImageView;
 
 import java.util.List;
@@ -27,6 +29,22 @@ public class CommentAdapter extends RecyclerView.Adapter<CommentAdapter.CommentV
 
     private List<Comment> comments;
     private OnCommentActionListener actionListener;
+    private DataRepository dataRepository;
+
+    // Follows votes made on any screen and rebinds the matching comment
+    private final VoteStateStore.VoteObserver voteObserver = (commentId, state) -> {
+        for (int i = 0; i < comments.size(); i++) {
+            Comment comment = comments.get(i);
+            if (!commentId.equals(comment.getCommentId())) continue;
+
+            if (comment.getScore() != state.score || comment.getUserVote() != state.userVote) {
+                comment.setScore(state.score);
+                comment.setUserVote(state.userVote);
+                notifyItemChanged(i);
+            }
+            return;
+        }
+    };
 
     /**
      * Interface for comment action callbacks (edit/delete)
@@ -44,6 +62,19 @@ public class CommentAdapter extends RecyclerView.Adapter<CommentAdapter.CommentV
         this.actionListener = listener;
     }
 
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        dataRepository = DataRepository.getInstance(recyclerView.getContext());
+        dataRepository.getCommentVotes().addObserver(voteObserver);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        dataRepository.getCommentVotes().removeObserver(voteObserver);
+    }
+
     @NonNull
     @Override
     public CommentViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -103,9 +134,9 @@ public class CommentAdapter extends RecyclerView.Adapter<CommentAdapter.CommentV
             tvContent.setText(comment.getContent());
 
             // Load profile picture
-            if (comment.getProfilePictureUrl() != null && !comment.getProfilePictureUrl().isEmpty()) {
+            if (comment.getUserId() != null && !comment.getUserId().isEmpty()) {
                 Glide.with(itemView.getContext())
-                        .load(comment.getProfilePictureUrl())
+                        .load(StorageImage.profilePicture(comment.getUserId(), comment.getProfilePictureVersion()))
                         .placeholder(R.drawable.ic_profile)
                         .error(R.drawable.ic_profile)
                         .circleCrop()
@@ -171,37 +202,13 @@ public class CommentAdapter extends RecyclerView.Adapter<CommentAdapter.CommentV
                 return;
             }
 
-            // Determine actual vote type (toggle if same vote)
-            int actualVoteType = comment.getUserVote() == voteType ? 0 : voteType;
-
-            // Store previous state for rollback
-            int previousVote = comment.getUserVote();
-            long previousScore = comment.getScore();
-
-            // Optimistic UI update
-            long newScore = previousScore - previousVote + (actualVoteType == 0 ? 0 : actualVoteType);
-            comment.setScore(newScore);
-            comment.setUserVote(actualVoteType);
-            tvVotes.setText(String.valueOf(newScore));
-            updateVoteButtonStates(actualVoteType);
-
-            // Call Cloud Function
-            ApiClient.voteComment(comment.getCommentId(), userId, actualVoteType)
-                    .addOnSuccessListener(result -> {
-                        comment.setScore(result.score);
-                        comment.setUserVote(result.userVote);
-                        tvVotes.setText(String.valueOf(result.score));
-                        updateVoteButtonStates(result.userVote);
-                    })
-                    .addOnFailureListener(e -> {
-                        // Revert on failure
-                        comment.setScore(previousScore);
-                        comment.setUserVote(previousVote);
-                        tvVotes.setText(String.valueOf(previousScore));
-                        updateVoteButtonStates(previousVote);
-                        Toast.makeText(itemView.getContext(),
-                                "Failed to vote", Toast.LENGTH_SHORT).show();
-                    });
+            // Shared optimistic state, rapid taps are sent as one final vote
+            VoteStateStore.VoteState state =
+                    DataRepository.getInstance(itemView.getContext()).toggleCommentVote(comment, voteType);
+            comment.setScore(state.score);
+            comment.setUserVote(state.userVote);
+            tvVotes.setText(String.valueOf(state.score));
+            updateVoteButtonStates(state.userVote);
         }
 
         private void updateVoteButtonStates(int userVote) {
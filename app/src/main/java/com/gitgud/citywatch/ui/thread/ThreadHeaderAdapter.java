@@ -0,0 +1,42 @@
+package com.gitgud.citywatch.ui.thread;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Single-item adapter showing the report body above the comments
+ * Wraps a header view inflated up front, the activity binds its fields directly
+ */
+public class ThreadHeaderAdapter extends RecyclerView.Adapter<ThreadHeaderAdapter.HeaderViewHolder> {
+
+    private final View headerView;
+
+    public ThreadHeaderAdapter(@NonNull View headerView) {
+        this.headerView = headerView;
+    }
+
+    @NonNull
+    @Override
+    public HeaderViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return new HeaderViewHolder(headerView);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull HeaderViewHolder holder, int position) {
+        // Already bound by the activity
+    }
+
+    @Override
+    public int getItemCount() {
+        return 1;
+    }
+
+    static class HeaderViewHolder extends RecyclerView.ViewHolder {
+        HeaderViewHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+}
@@ -4,8 +4,14 @@ import android.graphics.Bitmap;
 import android.net.Uri;
 import android.text.TextUtils;
 
+import com.gitgud.citywatch.model.Comment;
+import com.gitgud.citywatch.model.HazardCard;
+import com.gitgud.citywatch.model.UserMeta;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.AuthResult;
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.auth.UserProfileChangeRequest;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.functions.FirebaseFunctions;
@@ -14,8 +20,14 @@ import com.google.firebase.storage.FirebaseStorage;
 import com.google.firebase.storage.StorageReference;
 
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * Communicates with Firebase backend services and Cloud Functions.
@@ -25,6 +37,14 @@ public class ApiClient {
     private static final FirebaseAuth auth = FirebaseAuth.getInstance();
     private static final FirebaseFunctions functions = FirebaseFunctions.getInstance();
 
+    // Continuations decode payloads here so the main thread only receives render-ready results
+    // A few threads, so one large decode does not hold up unrelated calls
+    private static final int DECODE_THREADS = 3;
+    private static final Executor decodeExecutor = Executors.newFixedThreadPool(DECODE_THREADS);
+
+    // Must not exceed USERS_META_MAX_IDS in functions/src/userManagement.js
+    private static final int USERS_META_CHUNK_SIZE = 100;
+
     /**
      * Validates sign in input
      */
@@ -48,14 +68,14 @@ public class ApiClient {
     /**
      * Attempts to sign in with email and password
      */
-    public static com.google.android.gms.tasks.Task<com.google.firebase.auth.AuthResult> signIn(String email, String password) {
+    public static Task<AuthResult> signIn(String email, String password) {
         return auth.signInWithEmailAndPassword(email, password);
     }
 
     /**
      * Attempts to sign up with email and password, then updates user profile with name and stores name and phone in Firestore
      */
-    public static com.google.android.gms.tasks.Task<Void> signUp(String email, String password, String name, String phone) {
+    public static Task<Void> signUp(String email, String password, String name, String phone) {
         FirebaseFirestore db = FirebaseFirestore.getInstance();
 
         return auth.createUserWithEmailAndPassword(email, password)
@@ -71,7 +91,7 @@ public class ApiClient {
                                 .continueWithTask(profileTask -> {
                                     // Store name and phone number in Firestore
                                     return db.collection("users").document(userId)
-                                            .set(new java.util.HashMap<String, Object>() {{
+                                            .set(new HashMap<String, Object>() {{
                                                 put("name", name);
                                                 put("phone", phone);
                                             }});
@@ -91,11 +111,11 @@ public class ApiClient {
     /**
      * Fetch user name from Cloud Function
      */
-    public static com.google.android.gms.tasks.Task<String> getUserName(String userId) {
+    public static Task<String> getUserName(String userId) {
         HttpsCallableReference getUserNameFunc = functions.getHttpsCallable("getUserName");
-        return getUserNameFunc.call(new java.util.HashMap<String, Object>() {{
+        return getUserNameFunc.call(new HashMap<String, Object>() {{
             put("userId", userId);
-        }}).continueWith(task -> {
+        }}).continueWith(decodeExecutor, task -> {
             if (task.isSuccessful()) {
                 return (String) task.getResult().getData();
             }
@@ -106,11 +126,11 @@ public class ApiClient {
     /**
      * Fetch user phone from Cloud Function
      */
-    public static com.google.android.gms.tasks.Task<String> getUserPhone(String userId) {
+    public static Task<String> getUserPhone(String userId) {
         HttpsCallableReference getUserPhoneFunc = functions.getHttpsCallable("getUserPhone");
-        return getUserPhoneFunc.call(new java.util.HashMap<String, Object>() {{
+        return getUserPhoneFunc.call(new HashMap<String, Object>() {{
             put("userId", userId);
-        }}).continueWith(task -> {
+        }}).continueWith(decodeExecutor, task -> {
             if (task.isSuccessful()) {
                 return (String) task.getResult().getData();
             }
@@ -122,11 +142,11 @@ public class ApiClient {
      * Fetch user admin status from Cloud Function
      * Returns true if user has isAdmin field set to true, false otherwise
      */
-    public static com.google.android.gms.tasks.Task<Boolean> getIsAdmin(String userId) {
+    public static Task<Boolean> getIsAdmin(String userId) {
         HttpsCallableReference getIsAdminFunc = functions.getHttpsCallable("getIsAdmin");
-        return getIsAdminFunc.call(new java.util.HashMap<String, Object>() {{
+        return getIsAdminFunc.call(new HashMap<String, Object>() {{
             put("userId", userId);
-        }}).continueWith(task -> {
+        }}).continueWith(decodeExecutor, task -> {
             if (task.isSuccessful()) {
                 Object result = task.getResult().getData();
                 return result instanceof Boolean ? (Boolean) result : false;
@@ -135,20 +155,72 @@ public class ApiClient {
         });
     }
 
+    /**
+     * Fetch admin status, name and avatar version for a set of users via Cloud Function
+     * Ids are sent in chunks of USERS_META_CHUNK_SIZE, one call per chunk
+     * @param userIds Users to look up, duplicates are ignored
+     * @return Task that completes with metadata keyed by user ID
+     */
+    public static Task<Map<String, UserMeta>> getUsersMeta(
+            Collection<String> userIds) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        List<Task<Map<String, UserMeta>>> chunkTasks =
+                new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += USERS_META_CHUNK_SIZE) {
+            int end = Math.min(start + USERS_META_CHUNK_SIZE, ids.size());
+            chunkTasks.add(getUsersMetaChunk(new ArrayList<>(ids.subList(start, end))));
+        }
+
+        return Tasks.whenAllSuccess(chunkTasks)
+                .continueWith(decodeExecutor, task -> {
+                    if (task.isSuccessful()) {
+                        Map<String, UserMeta> merged = new HashMap<>();
+                        for (Object chunk : task.getResult()) {
+                            merged.putAll((Map<String, UserMeta>) chunk);
+                        }
+                        return merged;
+                    }
+                    throw task.getException() != null ? task.getException() : new Exception("Failed to get users meta");
+                });
+    }
+
+    /**
+     * Fetch metadata for one chunk of at most USERS_META_CHUNK_SIZE users
+     */
+    private static Task<Map<String, UserMeta>> getUsersMetaChunk(
+            List<String> userIds) {
+        HttpsCallableReference getUsersMetaFunc = functions.getHttpsCallable("getUsersMeta");
+        Map<String, Object> data = buildAuthenticatedData("userIds", userIds);
+
+        return getUsersMetaFunc.call(data)
+                .continueWith(decodeExecutor, task -> {
+                    if (task.isSuccessful()) {
+                        return ResponseDecoder.usersMeta((Map<String, Object>) task.getResult().getData());
+                    }
+                    throw task.getException() != null ? task.getException() : new Exception("Failed to get users meta");
+                });
+    }
+
     /**
      * Delete user account via Cloud Function
      */
-    public static com.google.android.gms.tasks.Task<Void> deleteAccount(String userId) {
+    public static Task<Void> deleteAccount(String userId) {
         HttpsCallableReference deleteAccountFunc = functions.getHttpsCallable("deleteAccount");
-        return deleteAccountFunc.call(new java.util.HashMap<String, Object>() {{
+        return deleteAccountFunc.call(new HashMap<String, Object>() {{
             put("userId", userId);
-        }}).continueWith(task -> null);
+        }}).continueWith(decodeExecutor, task -> {
+            if (task.isSuccessful()) {
+                return null;
+            }
+            throw task.getException() != null ?
+                    task.getException() : new Exception("Failed to delete account");
+        });
     }
 
     /**
      * Get current Firebase user
      */
-    public static com.google.firebase.auth.FirebaseUser getCurrentUser() {
+    public static FirebaseUser getCurrentUser() {
         return auth.getCurrentUser();
     }
 
@@ -156,48 +228,66 @@ public class ApiClient {
      * Get current user's email
      */
     public static String getCurrentUserEmail() {
-        com.google.firebase.auth.FirebaseUser user = auth.getCurrentUser();
+        FirebaseUser user = auth.getCurrentUser();
         return user != null ? user.getEmail() : null;
     }
 
     /**
      * Send password reset email via Cloud Function
      */
-    public static com.google.android.gms.tasks.Task<Void> sendPasswordResetEmail(String email) {
+    public static Task<Void> sendPasswordResetEmail(String email) {
         HttpsCallableReference sendPasswordResetFunc = functions.getHttpsCallable("sendPasswordResetEmail");
-        return sendPasswordResetFunc.call(new java.util.HashMap<String, Object>() {{
+        return sendPasswordResetFunc.call(new HashMap<String, Object>() {{
             put("email", email);
-        }}).continueWith(task -> null);
+        }}).continueWith(decodeExecutor, task -> {
+            if (task.isSuccessful()) {
+                return null;
+            }
+            throw task.getException() != null ?
+                    task.getException() : new Exception("Failed to send password reset email");
+        });
     }
 
     /**
      * Update user name via Cloud Function
      */
-    public static com.google.android.gms.tasks.Task<Void> updateUserName(String userId, String newName) {
+    public static Task<Void> updateUserName(String userId, String newName) {
         HttpsCallableReference updateUserNameFunc = functions.getHttpsCallable("updateUserName");
-        return updateUserNameFunc.call(new java.util.HashMap<String, Object>() {{
+        return updateUserNameFunc.call(new HashMap<String, Object>() {{
             put("userId", userId);
             put("newName", newName);
-        }}).continueWith(task -> null);
+        }}).continueWith(decodeExecutor, task -> {
+            if (task.isSuccessful()) {
+                return null;
+            }
+            throw task.getException() != null ?
+                    task.getException() : new Exception("Failed to update name");
+        });
     }
 
     /**
      * Update user phone number via Cloud Function
      */
-    public static com.google.android.gms.tasks.Task<Void> updateUserPhone(String userId, String newPhone) {
+    public static Task<Void> updateUserPhone(String userId, String newPhone) {
         HttpsCallableReference updateUserPhoneFunc = functions.getHttpsCallable("updateUserPhone");
-        return updateUserPhoneFunc.call(new java.util.HashMap<String, Object>() {{
+        return updateUserPhoneFunc.call(new HashMap<String, Object>() {{
             put("userId", userId);
             put("newPhone", newPhone);
-        }}).continueWith(task -> null);
+        }}).continueWith(decodeExecutor, task -> {
+            if (task.isSuccessful()) {
+                return null;
+            }
+            throw task.getException() != null ?
+                    task.getException() : new Exception("Failed to update phone");
+        });
     }
 
     /**
      * Update user email in Firebase Auth with verification
      * Sends verification link to new email before updating
      */
-    public static com.google.android.gms.tasks.Task<Void> updateUserEmail(String newEmail) {
-        com.google.firebase.auth.FirebaseUser user = auth.getCurrentUser();
+    public static Task<Void> updateUserEmail(String newEmail) {
+        FirebaseUser user = auth.getCurrentUser();
         if (user != null) {
             return user.verifyBeforeUpdateEmail(newEmail);
         }
@@ -207,41 +297,59 @@ public class ApiClient {
     /**
      * Upload profile picture to Firebase Storage
      * Stores image in profile_pictures/{userId}.jpg
+     * @return Task that completes with the download URL and the Storage generation of the new object
      */
-    public static com.google.android.gms.tasks.Task<String> uploadProfilePicture(String userId, Uri imageUri) {
+    public static Task<UploadedImage> uploadProfilePicture(String userId, Uri imageUri) {
         if (imageUri == null) {
             throw new IllegalArgumentException("Image URI cannot be null");
         }
 
         FirebaseStorage storage = FirebaseStorage.getInstance();
         StorageReference profilePicturesRef = storage.getReference().child("profile_pictures/" + userId + ".jpg");
+        String[] version = new String[1];
 
         return profilePicturesRef.putFile(imageUri)
                 .continueWithTask(task -> {
                     if (!task.isSuccessful()) {
                         throw task.getException() != null ? task.getException() : new Exception("Upload failed");
                     }
+                    // Same value onImageFinalized records as avatarVersion
+                    version[0] = task.getResult().getMetadata() != null ?
+                            String.valueOf(task.getResult().getMetadata().getGeneration()) : "";
                     return profilePicturesRef.getDownloadUrl();
                 })
                 .continueWith(task -> {
                     if (task.isSuccessful()) {
                         Uri downloadUri = task.getResult();
-                        return downloadUri != null ? downloadUri.toString() : null;
+                        return new UploadedImage(downloadUri != null ? downloadUri.toString() : null, version[0]);
                     }
                     throw task.getException() != null ? task.getException() : new Exception("Failed to get download URL");
                 });
     }
 
+    /**
+     * Result class for an image upload
+     */
+    public static class UploadedImage {
+        public final String downloadUrl;
+        public final String version;
+
+        public UploadedImage(String downloadUrl, String version) {
+            this.downloadUrl = downloadUrl;
+            this.version = version;
+        }
+    }
+
     /**
      * Get profile picture download URL from Firebase Storage
      * Returns the download URL for the user's profile picture
      */
-    public static com.google.android.gms.tasks.Task<String> getProfilePictureUrl(String userId) {
+    public static Task<String> getProfilePictureUrl(String userId) {
         FirebaseStorage storage = FirebaseStorage.getInstance();
         StorageReference profilePicturesRef = storage.getReference().child("profile_pictures/" + userId + ".jpg");
 
         return profilePicturesRef.getDownloadUrl()
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
                         Uri downloadUri = task.getResult();
                         return downloadUri != null ? downloadUri.toString() : null;
@@ -255,12 +363,12 @@ public class ApiClient {
      * Get report photo download URL from Firebase Storage
      * Returns the download URL for the report's photo
      */
-    public static com.google.android.gms.tasks.Task<String> getReportPhotoUrl(String documentId) {
+    public static Task<String> getReportPhotoUrl(String documentId) {
         FirebaseStorage storage = FirebaseStorage.getInstance();
         StorageReference reportPhotosRef = storage.getReference().child("report_photos/" + documentId + ".jpg");
 
         return reportPhotosRef.getDownloadUrl()
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
                         Uri downloadUri = task.getResult();
                         return downloadUri != null ? downloadUri.toString() : null;
@@ -283,7 +391,7 @@ public class ApiClient {
      * @param userId Current user ID for reference
      * @return Task that completes with the auto-generated document ID
      */
-    public static com.google.android.gms.tasks.Task<String> submitReport(
+    public static Task<String> submitReport(
             String description,
             String hazardType,
             String localGov,
@@ -304,7 +412,7 @@ public class ApiClient {
         data.put("userId", userId);
 
         return submitReportFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
                         Map<String, Object> result = (Map<String, Object>) task.getResult().getData();
                         return (String) result.get("documentId");
@@ -322,7 +430,7 @@ public class ApiClient {
      * @param imageBase64 Base64 encoded image data
      * @return Task that completes when upload is done
      */
-    public static com.google.android.gms.tasks.Task<Void> uploadReportPhoto(String documentId, String imageBase64) {
+    public static Task<Void> uploadReportPhoto(String documentId, String imageBase64) {
         if (documentId == null || imageBase64 == null) {
             throw new IllegalArgumentException("Document ID and image data are required");
         }
@@ -334,7 +442,13 @@ public class ApiClient {
         data.put("imageBase64", imageBase64);
 
         return uploadReportPhotoFunc.call(data)
-                .continueWith(task -> null);
+                .continueWith(decodeExecutor, task -> {
+                    if (task.isSuccessful()) {
+                        return null;
+                    }
+                    throw task.getException() != null ?
+                            task.getException() : new Exception("Failed to upload report photo");
+                });
     }
 
     /**
@@ -345,7 +459,7 @@ public class ApiClient {
      * @param imageBase64 Base64 encoded bitmap image data
      * @return Task that completes when upload is done
      */
-    public static com.google.android.gms.tasks.Task<Void> uploadReportPhotoBitmap(String documentId, String imageBase64) {
+    public static Task<Void> uploadReportPhotoBitmap(String documentId, String imageBase64) {
         if (documentId == null || imageBase64 == null) {
             throw new IllegalArgumentException("Document ID and image data are required");
         }
@@ -357,7 +471,7 @@ public class ApiClient {
         data.put("imageBase64", imageBase64);
 
         return uploadReportPhotoFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (!task.isSuccessful()) {
                         throw task.getException() != null ? task.getException() : new Exception("Upload failed");
                     }
@@ -366,96 +480,134 @@ public class ApiClient {
     }
 
     /**
-     * Fetch all reports from Firestore via Cloud Function
-     * Includes photo URLs and user names
+     * Fetch one page of reports, newest first, via Cloud Function
+     * Pages are keyed on (createdAt, documentId) of the last report of the previous page
      *
-     * @return Task that completes with list of HazardCard objects
+     * @param cursorCreatedAt createdAt of the last report on the previous page, only used if that report was deleted
+     * @param cursorId documentId of the last report on the previous page, or null for the first page
+     * @param pageSize Maximum number of reports to return
+     * @return Task that completes with the page and the cursor for the next one
      */
-    public static com.google.android.gms.tasks.Task<java.util.List<com.gitgud.citywatch.model.HazardCard>> getAllReports() {
-        HttpsCallableReference getAllReportsFunc = functions.getHttpsCallable("getAllReports");
-        Map<String, Object> data = buildAuthenticatedData(new HashMap<>());
+    public static Task<ReportsPage> getReportsPage(long cursorCreatedAt, String cursorId, int pageSize) {
+        HttpsCallableReference getReportsPageFunc = functions.getHttpsCallable("getReportsPage");
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("pageSize", pageSize);
+        if (cursorId != null) {
+            params.put("cursorCreatedAt", cursorCreatedAt);
+            params.put("cursorId", cursorId);
+        }
+        Map<String, Object> data = buildAuthenticatedData(params);
 
-        return getAllReportsFunc.call(data)
-                .continueWithTask(task -> {
+        return getReportsPageFunc.call(data)
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
-                        java.util.List<Map<String, Object>> resultList =
-                            (java.util.List<Map<String, Object>>) task.getResult().getData();
-
-                        java.util.List<com.gitgud.citywatch.model.HazardCard> hazardCards = new java.util.ArrayList<>();
-
-                        for (Map<String, Object> reportMap : resultList) {
-                            com.gitgud.citywatch.model.HazardCard hazardCard = new com.gitgud.citywatch.model.HazardCard();
-                            hazardCard.setDocumentId((String) reportMap.get("documentId"));
-                            hazardCard.setDescription((String) reportMap.get("description"));
-                            hazardCard.setHazardType((String) reportMap.get("hazardType"));
-                            hazardCard.setLocalGov((String) reportMap.get("localGov"));
-                            hazardCard.setLocationDetails((String) reportMap.get("locationDetails"));
-                            hazardCard.setStatus((String) reportMap.get("status"));
-                            hazardCard.setUserName((String) reportMap.get("userName"));
-                            hazardCard.setUserId((String) reportMap.get("userId"));
-
-                            // Set latitude and longitude directly
-                            Number latNum = (Number) reportMap.get("latitude");
-                            Number lonNum = (Number) reportMap.get("longitude");
-                            hazardCard.setLatitude(latNum != null ? latNum.doubleValue() : 0.0);
-                            hazardCard.setLongitude(lonNum != null ? lonNum.doubleValue() : 0.0);
+                        return decodeReportsPage((Map<String, Object>) task.getResult().getData());
+                    }
+                    throw task.getException() != null ? task.getException() : new Exception("Failed to fetch reports page");
+                });
+    }
 
-                            Number votesNum = (Number) reportMap.get("votes");
-                            hazardCard.setVotes(votesNum != null ? votesNum.longValue() : 0L);
+    private static ReportsPage decodeReportsPage(Map<String, Object> result) {
+        List<HazardCard> hazardCards = ResponseDecoder.hazardCards(result.get("reports"));
 
-                            Number createdAtNum = (Number) reportMap.get("createdAt");
-                            hazardCard.setCreatedAt(createdAtNum != null ? createdAtNum.longValue() : 0L);
+        Map<String, Object> nextCursor = (Map<String, Object>) result.get("nextCursor");
+        long nextCreatedAt = 0L;
+        String nextDocumentId = null;
+        if (nextCursor != null) {
+            Number createdAtNum = (Number) nextCursor.get("createdAt");
+            nextCreatedAt = createdAtNum != null ? createdAtNum.longValue() : 0L;
+            nextDocumentId = (String) nextCursor.get("documentId");
+        }
+        return new ReportsPage(hazardCards, nextCreatedAt, nextDocumentId);
+    }
 
-                            Number scoreNum = (Number) reportMap.get("score");
-                            hazardCard.setScore(scoreNum != null ? scoreNum.longValue() : 0L);
+    /**
+     * One page of the community feed plus the keyset cursor for the next page
+     */
+    public static class ReportsPage {
+        public final List<HazardCard> reports;
+        public final long nextCreatedAt;
+        public final String nextDocumentId; // null when this is the last page
+
+        public ReportsPage(List<HazardCard> reports,
+                           long nextCreatedAt, String nextDocumentId) {
+            this.reports = reports;
+            this.nextCreatedAt = nextCreatedAt;
+            this.nextDocumentId = nextDocumentId;
+        }
 
-                            Number commentsNum = (Number) reportMap.get("comments");
-                            hazardCard.setComments(commentsNum != null ? commentsNum.longValue() : 0L);
+        public boolean hasMore() {
+            return nextDocumentId != null;
+        }
+    }
 
-                            hazardCards.add(hazardCard);
+    /**
+     * Fetch reports changed since a sync token, plus ids of deleted reports
+     * @param since High-water mark from the previous sync
+     * @param ifNoneMatch Cached feed hash, or null; when it equals the server's checksum
+     *                    only a not-modified marker comes back
+     * @return Task that completes with the changed reports, deleted ids and the new sync token
+     */
+    public static Task<ReportsDelta> getReportsSince(long since, String ifNoneMatch) {
+        HttpsCallableReference getReportsSinceFunc = functions.getHttpsCallable("getReportsSince");
+        Map<String, Object> params = new HashMap<>();
+        params.put("since", since);
+        params.put("ifNoneMatch", ifNoneMatch);
+        Map<String, Object> data = buildAuthenticatedData(params);
+
+        return getReportsSinceFunc.call(data)
+                .continueWith(decodeExecutor, task -> {
+                    if (task.isSuccessful()) {
+                        Map<String, Object> result = (Map<String, Object>) task.getResult().getData();
+                        String checksum = (String) result.get("checksum");
+                        if (Boolean.TRUE.equals(result.get("notModified"))) {
+                            return ReportsDelta.notModified(since, checksum);
+                        }
+                        List<HazardCard> hazardCards =
+                                ResponseDecoder.hazardCards(result.get("reports"));
+
+                        List<String> deletedIds = new ArrayList<>();
+                        List<Object> deletedRaw = (List<Object>) result.get("deletedIds");
+                        if (deletedRaw != null) {
+                            for (Object id : deletedRaw) {
+                                deletedIds.add((String) id);
+                            }
                         }
 
-                        return com.google.android.gms.tasks.Tasks.whenAllSuccess(
-                                fetchPhotoUrlsAndProfilePicturesForCards(hazardCards))
-                                .continueWith(photoTask -> hazardCards);
+                        Number syncTokenNum = (Number) result.get("syncToken");
+                        ReportsDelta delta = new ReportsDelta(false, hazardCards, deletedIds,
+                                syncTokenNum != null ? syncTokenNum.longValue() : since, checksum);
+
+                        return delta;
                     }
-                    throw task.getException() != null ? task.getException() : new Exception("Failed to fetch reports");
+                    throw task.getException() != null ? task.getException() : new Exception("Failed to fetch report delta");
                 });
     }
 
     /**
-     * Fetch photo URLs and profile pictures for all hazard cards
+     * Reports changed since a sync token, plus tombstones for deleted reports
+     * Not modified when the client's cached feed hash was still current, reports and deletedIds are then empty
      */
-    private static java.util.List<com.google.android.gms.tasks.Task<String>> fetchPhotoUrlsAndProfilePicturesForCards(
-            java.util.List<com.gitgud.citywatch.model.HazardCard> hazardCards) {
-        java.util.List<com.google.android.gms.tasks.Task<String>> tasks = new java.util.ArrayList<>();
-
-        for (com.gitgud.citywatch.model.HazardCard card : hazardCards) {
-            // Fetch report photo
-            com.google.android.gms.tasks.Task<String> photoTask = getReportPhotoUrl(card.getDocumentId())
-                    .continueWith(task -> {
-                        if (task.isSuccessful()) {
-                            card.setPhotoUrl(task.getResult());
-                        }
-                        return task.getResult();
-                    });
-            tasks.add(photoTask);
-
-            // Fetch report author's profile picture
-            if (card.getUserId() != null && !card.getUserId().isEmpty()) {
-                android.util.Log.d("test userid", card.getUserId());
-                com.google.android.gms.tasks.Task<String> profileTask = getProfilePictureUrl(card.getUserId())
-                        .continueWith(task -> {
-                            if (task.isSuccessful()) {
-                                card.setProfilePictureUrl(task.getResult());
-                            }
-                            return task.getResult();
-                        });
-                tasks.add(profileTask);
-            }
+    public static class ReportsDelta {
+        public final boolean notModified;
+        public final List<HazardCard> reports;
+        public final List<String> deletedIds;
+        public final long syncToken;
+        public final String checksum; // Server's reports checksum, null if not built yet
+
+        public ReportsDelta(boolean notModified, List<HazardCard> reports,
+                            List<String> deletedIds, long syncToken, String checksum) {
+            this.notModified = notModified;
+            this.reports = reports;
+            this.deletedIds = deletedIds;
+            this.syncToken = syncToken;
+            this.checksum = checksum;
         }
 
-        return tasks;
+        static ReportsDelta notModified(long since, String checksum) {
+            return new ReportsDelta(true, new ArrayList<>(), new ArrayList<>(), since, checksum);
+        }
     }
 
     /**
@@ -465,7 +617,7 @@ public class ApiClient {
      * @param voteType 1 for upvote, -1 for downvote, 0 to remove vote
      * @return Task with new score and user's vote status
      */
-    public static com.google.android.gms.tasks.Task<VoteResult> voteReport(
+    public static Task<VoteResult> voteReport(
             String reportId, String userId, int voteType) {
         HttpsCallableReference voteReportFunc = functions.getHttpsCallable("voteReport");
 
@@ -475,13 +627,9 @@ public class ApiClient {
         data.put("voteType", voteType);
 
         return voteReportFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
-                        Map<String, Object> result =
-                                (Map<String, Object>) task.getResult().getData();
-                        long score = ((Number) result.get("score")).longValue();
-                        int userVote = ((Number) result.get("userVote")).intValue();
-                        return new VoteResult(score, userVote);
+                        return ResponseDecoder.voteResult((Map<String, Object>) task.getResult().getData());
                     }
                     throw task.getException() != null ?
                             task.getException() : new Exception("Failed to vote");
@@ -494,8 +642,8 @@ public class ApiClient {
      * @param userId The current user's ID
      * @return Task with map of reportId to vote status
      */
-    public static Task<java.util.Map<String, Integer>> getUserVotesForReports(
-            java.util.List<String> reportIds, String userId) {
+    public static Task<Map<String, Integer>> getUserVotesForReports(
+            List<String> reportIds, String userId) {
         HttpsCallableReference getUserVotesFunc = functions.getHttpsCallable("getUserVotesForReports");
 
         Map<String, Object> data = new HashMap<>();
@@ -503,20 +651,9 @@ public class ApiClient {
         data.put("userId", userId);
 
         return getUserVotesFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
-                        Map<String, Object> result =
-                                (Map<String, Object>) task.getResult().getData();
-                        Map<String, Object> votesRaw =
-                                (Map<String, Object>) result.get("votes");
-
-                        java.util.Map<String, Integer> votes = new HashMap<>();
-                        if (votesRaw != null) {
-                            for (java.util.Map.Entry<String, Object> entry : votesRaw.entrySet()) {
-                                votes.put(entry.getKey(), ((Number) entry.getValue()).intValue());
-                            }
-                        }
-                        return votes;
+                        return ResponseDecoder.votes((Map<String, Object>) task.getResult().getData());
                     }
                     throw task.getException() != null ?
                             task.getException() : new Exception("Failed to get votes");
@@ -545,7 +682,7 @@ public class ApiClient {
      * @param userId Current user ID
      * @return Task that completes with the auto-generated comment ID
      */
-    public static com.google.android.gms.tasks.Task<String> submitComment(
+    public static Task<String> submitComment(
             String content, String reportId, String userId) {
         HttpsCallableReference submitCommentFunc = functions.getHttpsCallable("submitComment");
 
@@ -555,7 +692,7 @@ public class ApiClient {
         data.put("userId", userId);
 
         return submitCommentFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
                         Map<String, Object> result =
                                 (Map<String, Object>) task.getResult().getData();
@@ -567,71 +704,68 @@ public class ApiClient {
     }
 
     /**
-     * Get all comments for a specific report via Cloud Function
+     * Fetch one page of a report's comments, newest first, via Cloud Function
+     * Pages are keyed on (datetime, commentId) of the last comment of the previous page
+     *
      * @param reportId The report document ID
-     * @return Task that completes with list of Comment objects
+     * @param cursorDatetime datetime of the last comment on the previous page
+     * @param cursorId commentId of the last comment on the previous page, or null for the first page
+     * @param pageSize Maximum number of comments to return
+     * @return Task that completes with the page and the cursor for the next one
      */
-    public static com.google.android.gms.tasks.Task<java.util.List<com.gitgud.citywatch.model.Comment>> getCommentsForReport(
-            String reportId) {
-        HttpsCallableReference getCommentsFunc = functions.getHttpsCallable("getCommentsForReport");
-        Map<String, Object> data = buildAuthenticatedData("reportId", reportId);
+    public static Task<CommentsPage> getCommentsPage(String reportId, long cursorDatetime, String cursorId,
+                                                     int pageSize) {
+        HttpsCallableReference getCommentsPageFunc = functions.getHttpsCallable("getCommentsPage");
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("reportId", reportId);
+        params.put("pageSize", pageSize);
+        if (cursorId != null) {
+            params.put("cursorDatetime", cursorDatetime);
+            params.put("cursorId", cursorId);
+        }
+        Map<String, Object> data = buildAuthenticatedData(params);
 
-        return getCommentsFunc.call(data)
-                .continueWithTask(task -> {
+        return getCommentsPageFunc.call(data)
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
-                        java.util.List<Map<String, Object>> resultList =
-                                (java.util.List<Map<String, Object>>) task.getResult().getData();
-
-                        java.util.List<com.gitgud.citywatch.model.Comment> comments = new java.util.ArrayList<>();
-
-                        for (Map<String, Object> commentMap : resultList) {
-                            com.gitgud.citywatch.model.Comment comment = new com.gitgud.citywatch.model.Comment();
-                            comment.setCommentId((String) commentMap.get("commentId"));
-                            comment.setContent((String) commentMap.get("content"));
-                            comment.setReportId((String) commentMap.get("reportId"));
-                            comment.setUserId((String) commentMap.get("userId"));
-                            comment.setUserName((String) commentMap.get("userName"));
-
-                            Number datetimeNum = (Number) commentMap.get("datetime");
-                            comment.setDatetime(datetimeNum != null ? datetimeNum.longValue() : 0L);
-
-                            Number scoreNum = (Number) commentMap.get("score");
-                            comment.setScore(scoreNum != null ? scoreNum.longValue() : 0L);
-
-                            comments.add(comment);
+                        Map<String, Object> result = (Map<String, Object>) task.getResult().getData();
+                        List<Comment> comments =
+                                ResponseDecoder.comments(result.get("comments"));
+
+                        Map<String, Object> nextCursor = (Map<String, Object>) result.get("nextCursor");
+                        long nextDatetime = 0L;
+                        String nextCommentId = null;
+                        if (nextCursor != null) {
+                            Number datetimeNum = (Number) nextCursor.get("datetime");
+                            nextDatetime = datetimeNum != null ? datetimeNum.longValue() : 0L;
+                            nextCommentId = (String) nextCursor.get("commentId");
                         }
-
-                        // Fetch profile pictures for all comments
-                        return com.google.android.gms.tasks.Tasks.whenAllSuccess(
-                                        fetchProfilePicturesForComments(comments))
-                                .continueWith(photoTask -> comments);
+                        return new CommentsPage(comments, nextDatetime, nextCommentId);
                     }
                     throw task.getException() != null ?
-                            task.getException() : new Exception("Failed to fetch comments");
+                            task.getException() : new Exception("Failed to fetch comments page");
                 });
     }
 
     /**
-     * Fetch profile pictures for all comments
+     * One page of a thread's comments plus the keyset cursor for the next page
      */
-    private static java.util.List<com.google.android.gms.tasks.Task<String>> fetchProfilePicturesForComments(
-            java.util.List<com.gitgud.citywatch.model.Comment> comments) {
-        java.util.List<com.google.android.gms.tasks.Task<String>> tasks = new java.util.ArrayList<>();
-
-        for (com.gitgud.citywatch.model.Comment comment : comments) {
-            if (comment.getUserId() != null && !comment.getUserId().isEmpty()) {
-                com.google.android.gms.tasks.Task<String> profileTask = getProfilePictureUrl(comment.getUserId())
-                        .continueWith(task -> {
-                            if (task.isSuccessful()) {
-                                comment.setProfilePictureUrl(task.getResult());
-                            }
-                            return task.getResult();
-                        });
-                tasks.add(profileTask);
-            }
+    public static class CommentsPage {
+        public final List<Comment> comments;
+        public final long nextDatetime;
+        public final String nextCommentId; // null when this is the last page
+
+        public CommentsPage(List<Comment> comments,
+                            long nextDatetime, String nextCommentId) {
+            this.comments = comments;
+            this.nextDatetime = nextDatetime;
+            this.nextCommentId = nextCommentId;
         }
 
-        return tasks;
+        public boolean hasMore() {
+            return nextCommentId != null;
+        }
     }
 
     /**
@@ -641,7 +775,7 @@ public class ApiClient {
      * @param voteType 1 for upvote, -1 for downvote, 0 to remove vote
      * @return Task with new score and user's vote status
      */
-    public static com.google.android.gms.tasks.Task<VoteResult> voteComment(
+    public static Task<VoteResult> voteComment(
             String commentId, String userId, int voteType) {
         HttpsCallableReference voteCommentFunc = functions.getHttpsCallable("voteComment");
 
@@ -651,13 +785,9 @@ public class ApiClient {
         data.put("voteType", voteType);
 
         return voteCommentFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
-                        Map<String, Object> result =
-                                (Map<String, Object>) task.getResult().getData();
-                        long score = ((Number) result.get("score")).longValue();
-                        int userVote = ((Number) result.get("userVote")).intValue();
-                        return new VoteResult(score, userVote);
+                        return ResponseDecoder.voteResult((Map<String, Object>) task.getResult().getData());
                     }
                     throw task.getException() != null ?
                             task.getException() : new Exception("Failed to vote on comment");
@@ -670,7 +800,7 @@ public class ApiClient {
      * @param userId The current user's ID (must be the comment author)
      * @return Task that completes when deletion is done
      */
-    public static com.google.android.gms.tasks.Task<Void> deleteComment(String commentId, String userId) {
+    public static Task<Void> deleteComment(String commentId, String userId) {
         HttpsCallableReference deleteCommentFunc = functions.getHttpsCallable("deleteComment");
 
         Map<String, Object> data = new HashMap<>();
@@ -678,7 +808,13 @@ public class ApiClient {
         data.put("userId", userId);
 
         return deleteCommentFunc.call(data)
-                .continueWith(task -> null);
+                .continueWith(decodeExecutor, task -> {
+                    if (task.isSuccessful()) {
+                        return null;
+                    }
+                    throw task.getException() != null ?
+                            task.getException() : new Exception("Failed to delete comment");
+                });
     }
 
     /**
@@ -690,7 +826,7 @@ public class ApiClient {
      * @param content The new comment content
      * @return Task that completes when edit is done
      */
-    public static com.google.android.gms.tasks.Task<Void> editComment(
+    public static Task<Void> editComment(
             String commentId, String userId, String content) {
 
         HttpsCallableReference editCommentFunc = functions.getHttpsCallable("editComment");
@@ -701,7 +837,7 @@ public class ApiClient {
         data.put("content", content);
 
         return editCommentFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
                         return null;
                     }
@@ -716,8 +852,8 @@ public class ApiClient {
      * @param userId The current user's ID
      * @return Task with map of commentId to vote status
      */
-    public static Task<java.util.Map<String, Integer>> getUserVotesForComments(
-            java.util.List<String> commentIds, String userId) {
+    public static Task<Map<String, Integer>> getUserVotesForComments(
+            List<String> commentIds, String userId) {
         HttpsCallableReference getUserVotesFunc = functions.getHttpsCallable("getUserVotesForComments");
 
         Map<String, Object> data = new HashMap<>();
@@ -725,20 +861,9 @@ public class ApiClient {
         data.put("userId", userId);
 
         return getUserVotesFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
-                        Map<String, Object> result =
-                                (Map<String, Object>) task.getResult().getData();
-                        Map<String, Object> votesRaw =
-                                (Map<String, Object>) result.get("votes");
-
-                        java.util.Map<String, Integer> votes = new HashMap<>();
-                        if (votesRaw != null) {
-                            for (java.util.Map.Entry<String, Object> entry : votesRaw.entrySet()) {
-                                votes.put(entry.getKey(), ((Number) entry.getValue()).intValue());
-                            }
-                        }
-                        return votes;
+                        return ResponseDecoder.votes((Map<String, Object>) task.getResult().getData());
                     }
                     throw task.getException() != null ?
                             task.getException() : new Exception("Failed to get comment votes");
@@ -750,12 +875,12 @@ public class ApiClient {
      * @param reportId The report document ID
      * @return Task with comment count
      */
-    public static com.google.android.gms.tasks.Task<Integer> getCommentCount(String reportId) {
+    public static Task<Integer> getCommentCount(String reportId) {
         HttpsCallableReference getCommentCountFunc = functions.getHttpsCallable("getCommentCount");
         Map<String, Object> data = buildAuthenticatedData("reportId", reportId);
 
         return getCommentCountFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
                         Map<String, Object> result =
                                 (Map<String, Object>) task.getResult().getData();
@@ -772,7 +897,7 @@ public class ApiClient {
      * @return Current user ID or null if not authenticated
      */
     public static String getCurrentUserId() {
-        com.google.firebase.auth.FirebaseUser user = auth.getCurrentUser();
+        FirebaseUser user = auth.getCurrentUser();
         return user != null ? user.getUid() : null;
     }
 
@@ -820,17 +945,17 @@ public class ApiClient {
      * Checksums are pre-calculated on server-side on every data change
      * @return Task with map of checksum keys to checksum values
      */
-    public static com.google.android.gms.tasks.Task<java.util.Map<String, String>> getAllChecksums() {
+    public static Task<Map<String, String>> getAllChecksums() {
         HttpsCallableReference getChecksumsFunc = functions.getHttpsCallable("getChecksums");
 
         return getChecksumsFunc.call(new HashMap<>())
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
                         Map<String, Object> result =
                                 (Map<String, Object>) task.getResult().getData();
-                        java.util.Map<String, String> checksums = new HashMap<>();
+                        Map<String, String> checksums = new HashMap<>();
                         if (result != null) {
-                            for (java.util.Map.Entry<String, Object> entry : result.entrySet()) {
+                            for (Map.Entry<String, Object> entry : result.entrySet()) {
                                 if (entry.getValue() != null) {
                                     checksums.put(entry.getKey(), entry.getValue().toString());
                                 }
@@ -843,6 +968,68 @@ public class ApiClient {
                 });
     }
 
+    /**
+     * Get the reports checksum of every creation month bucket
+     * Fetched only after the top-level reports checksum mismatched
+     * @return Task with map of bucket (e.g. "2025-03") to bucket hash
+     */
+    public static Task<Map<String, String>> getReportBucketChecksums() {
+        HttpsCallableReference getBucketsFunc = functions.getHttpsCallable("getReportBucketChecksums");
+
+        return getBucketsFunc.call(new HashMap<>())
+                .continueWith(decodeExecutor, task -> {
+                    if (task.isSuccessful()) {
+                        Map<String, Object> result =
+                                (Map<String, Object>) task.getResult().getData();
+                        Map<String, String> buckets = new HashMap<>();
+                        Map<String, Object> bucketsRaw =
+                                result != null ? (Map<String, Object>) result.get("buckets") : null;
+                        if (bucketsRaw != null) {
+                            for (Map.Entry<String, Object> entry : bucketsRaw.entrySet()) {
+                                if (entry.getValue() != null) {
+                                    buckets.put(entry.getKey(), entry.getValue().toString());
+                                }
+                            }
+                        }
+                        return buckets;
+                    }
+                    throw task.getException() != null ?
+                            task.getException() : new Exception("Failed to get bucket checksums");
+                });
+    }
+
+    /**
+     * Fetch one page of the reports in a creation month bucket, newest first
+     * Paged with the same keyset cursor as {@link #getReportsPage}
+     *
+     * @param bucket Bucket key, e.g. "2025-03"
+     * @param cursorCreatedAt createdAt of the last report on the previous page
+     * @param cursorId documentId of the last report on the previous page, or null for the first page
+     * @param pageSize Maximum number of reports to return
+     * @return Task that completes with the page and the cursor for the next one
+     */
+    public static Task<ReportsPage> getReportsInBucket(String bucket, long cursorCreatedAt,
+                                                       String cursorId, int pageSize) {
+        HttpsCallableReference getReportsFunc = functions.getHttpsCallable("getReportsInBucket");
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("bucket", bucket);
+        data.put("pageSize", pageSize);
+        if (cursorId != null) {
+            data.put("cursorCreatedAt", cursorCreatedAt);
+            data.put("cursorId", cursorId);
+        }
+
+        return getReportsFunc.call(data)
+                .continueWith(decodeExecutor, task -> {
+                    if (task.isSuccessful()) {
+                        return decodeReportsPage((Map<String, Object>) task.getResult().getData());
+                    }
+                    throw task.getException() != null ?
+                            task.getException() : new Exception("Failed to fetch reports in bucket");
+                });
+    }
+
     /**
      * Result class for cache checksum operation (kept for compatibility)
      */
@@ -863,14 +1050,14 @@ public class ApiClient {
      * @return Task with CacheChecksum containing checksum, count, and latest timestamp
      * @deprecated Use getAllChecksums() instead for better efficiency
      */
-    public static com.google.android.gms.tasks.Task<CacheChecksum> getReportsCacheChecksum() {
+    public static Task<CacheChecksum> getReportsCacheChecksum() {
         HttpsCallableReference getCacheChecksumFunc = functions.getHttpsCallable("getCacheChecksum");
 
         Map<String, Object> data = new HashMap<>();
         data.put("dataType", "reports");
 
         return getCacheChecksumFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
                         Map<String, Object> result =
                                 (Map<String, Object>) task.getResult().getData();
@@ -889,45 +1076,59 @@ public class ApiClient {
     }
 
     /**
-     * Get cache checksum for comments to efficiently check for updates
-     * @param reportId The report document ID
-     * @return Task with CacheChecksum containing checksum, count, and latest timestamp
-     * @deprecated Use getAllChecksums() instead for better efficiency
+     * Fetch the user's votes that changed since a sync token, removed votes come back as 0
+     * @param userId The current user's ID
+     * @param since High-water mark from the previous vote sync, 0 for every vote
+     * @return Task that completes with the changed report and comment votes and the new sync token
      */
-    public static com.google.android.gms.tasks.Task<CacheChecksum> getCommentsCacheChecksum(
-            String reportId) {
-        HttpsCallableReference getCacheChecksumFunc = functions.getHttpsCallable("getCacheChecksum");
+    public static Task<VotesDelta> getVotesSince(String userId, long since) {
+        HttpsCallableReference getVotesSinceFunc = functions.getHttpsCallable("getVotesSince");
 
         Map<String, Object> data = new HashMap<>();
-        data.put("dataType", "comments");
-        data.put("reportId", reportId);
+        data.put("userId", userId);
+        data.put("since", since);
 
-        return getCacheChecksumFunc.call(data)
-                .continueWith(task -> {
+        return getVotesSinceFunc.call(data)
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
-                        Map<String, Object> result =
-                                (Map<String, Object>) task.getResult().getData();
-                        String checksum = (String) result.get("checksum");
-                        Number countNum = (Number) result.get("count");
-                        Number timestampNum = (Number) result.get("latestTimestamp");
-                        return new CacheChecksum(
-                                checksum,
-                                countNum != null ? countNum.intValue() : 0,
-                                timestampNum != null ? timestampNum.longValue() : 0
-                        );
+                        Map<String, Object> result = (Map<String, Object>) task.getResult().getData();
+                        Number syncTokenNum = (Number) result.get("syncToken");
+                        return new VotesDelta(ResponseDecoder.votes(result, "reportVotes"),
+                                ResponseDecoder.votes(result, "commentVotes"),
+                                syncTokenNum != null ? syncTokenNum.longValue() : since);
                     }
                     throw task.getException() != null ?
-                            task.getException() : new Exception("Failed to get cache checksum");
+                            task.getException() : new Exception("Failed to fetch vote delta");
                 });
     }
 
+    /**
+     * The user's report and comment votes changed since a sync token
+     */
+    public static class VotesDelta {
+        public final Map<String, Integer> reportVotes;
+        public final Map<String, Integer> commentVotes;
+        public final long syncToken;
+
+        public VotesDelta(Map<String, Integer> reportVotes, Map<String, Integer> commentVotes,
+                          long syncToken) {
+            this.reportVotes = reportVotes;
+            this.commentVotes = commentVotes;
+            this.syncToken = syncToken;
+        }
+
+        public boolean isEmpty() {
+            return reportVotes.isEmpty() && commentVotes.isEmpty();
+        }
+    }
+
     /**
      * Get all report votes for the current user
      * Used to initialize vote cache on app startup
      * @param userId The current user's ID
      * @return Task with map of reportId to vote type
      */
-    public static Task<java.util.Map<String, Integer>> getAllReportVotesForUser(
+    public static Task<Map<String, Integer>> getAllReportVotesForUser(
             String userId) {
         HttpsCallableReference getAllVotesFunc = functions.getHttpsCallable("getAllReportVotesForUser");
 
@@ -935,20 +1136,9 @@ public class ApiClient {
         data.put("userId", userId);
 
         return getAllVotesFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
-                        Map<String, Object> result =
-                                (Map<String, Object>) task.getResult().getData();
-                        Map<String, Object> votesRaw =
-                                (Map<String, Object>) result.get("votes");
-
-                        java.util.Map<String, Integer> votes = new HashMap<>();
-                        if (votesRaw != null) {
-                            for (java.util.Map.Entry<String, Object> entry : votesRaw.entrySet()) {
-                                votes.put(entry.getKey(), ((Number) entry.getValue()).intValue());
-                            }
-                        }
-                        return votes;
+                        return ResponseDecoder.votes((Map<String, Object>) task.getResult().getData());
                     }
                     throw task.getException() != null ?
                             task.getException() : new Exception("Failed to get report votes");
@@ -961,7 +1151,7 @@ public class ApiClient {
      * @param userId The current user's ID
      * @return Task with map of commentId to vote type
      */
-    public static Task<java.util.Map<String, Integer>> getAllCommentVotesForUser(
+    public static Task<Map<String, Integer>> getAllCommentVotesForUser(
             String userId) {
         HttpsCallableReference getAllVotesFunc = functions.getHttpsCallable("getAllCommentVotesForUser");
 
@@ -969,20 +1159,9 @@ public class ApiClient {
         data.put("userId", userId);
 
         return getAllVotesFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
-                        Map<String, Object> result =
-                                (Map<String, Object>) task.getResult().getData();
-                        Map<String, Object> votesRaw =
-                                (Map<String, Object>) result.get("votes");
-
-                        java.util.Map<String, Integer> votes = new HashMap<>();
-                        if (votesRaw != null) {
-                            for (java.util.Map.Entry<String, Object> entry : votesRaw.entrySet()) {
-                                votes.put(entry.getKey(), ((Number) entry.getValue()).intValue());
-                            }
-                        }
-                        return votes;
+                        return ResponseDecoder.votes((Map<String, Object>) task.getResult().getData());
                     }
                     throw task.getException() != null ?
                             task.getException() : new Exception("Failed to get comment votes");
@@ -1004,7 +1183,7 @@ public class ApiClient {
      * @param status Updated status
      * @return Task that completes when edit is done
      */
-    public static com.google.android.gms.tasks.Task<Void> editReport(
+    public static Task<Void> editReport(
             String reportId,
             String userId,
             String description,
@@ -1029,7 +1208,7 @@ public class ApiClient {
         data.put("status", status);
 
         return editReportFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
                         return null;
                     }
@@ -1046,7 +1225,7 @@ public class ApiClient {
      * @param userId The current user's ID (must be the owner)
      * @return Task that completes when delete is done
      */
-    public static com.google.android.gms.tasks.Task<Void> deleteReport(
+    public static Task<Void> deleteReport(
             String reportId, String userId) {
 
         HttpsCallableReference deleteReportFunc = functions.getHttpsCallable("deleteReport");
@@ -1056,7 +1235,7 @@ public class ApiClient {
         data.put("userId", userId);
 
         return deleteReportFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
                         return null;
                     }
@@ -1072,7 +1251,7 @@ public class ApiClient {
      * @param userId The current user's ID (must be an admin)
      * @return Task that completes when update is done
      */
-    public static com.google.android.gms.tasks.Task<Void> updateReportStatus(
+    public static Task<Void> updateReportStatus(
             String reportId, String newStatus, String userId) {
 
         HttpsCallableReference updateStatusFunc = functions.getHttpsCallable("updateReportStatus");
@@ -1083,7 +1262,7 @@ public class ApiClient {
         data.put("userId", userId);
 
         return updateStatusFunc.call(data)
-                .continueWith(task -> {
+                .continueWith(decodeExecutor, task -> {
                     if (task.isSuccessful()) {
                         return null;
                     }
@@ -1092,21 +1271,64 @@ public class ApiClient {
                 });
     }
 
+    // ==================== Offline Outbox Methods ====================
+
+    /**
+     * Send a batch of queued mutations, applied by the server in order
+     * @param userId User the mutations belong to
+     * @param mutations Each a map of key, type, targetId and payload
+     * @return Task with a result per processed mutation keyed by mutation key, unprocessed ones are absent
+     */
+    public static Task<Map<String, OutboxResult>> processOutbox(String userId,
+                                                                List<Map<String, Object>> mutations) {
+        HttpsCallableReference processOutboxFunc = functions.getHttpsCallable("processOutbox");
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("userId", userId);
+        data.put("mutations", mutations);
+
+        return processOutboxFunc.call(data)
+                .continueWith(decodeExecutor, task -> {
+                    if (task.isSuccessful()) {
+                        return ResponseDecoder.outboxResults((Map<String, Object>) task.getResult().getData());
+                    }
+                    throw task.getException() != null ?
+                            task.getException() : new Exception("Failed to process outbox");
+                });
+    }
+
+    /**
+     * Server outcome of one queued mutation
+     */
+    public static class OutboxResult {
+        public final boolean ok;
+        public final String error; // Rejection reason, null when ok
+        public final long score; // Votes only
+        public final int userVote; // Votes only
+
+        public OutboxResult(boolean ok, String error, long score, int userVote) {
+            this.ok = ok;
+            this.error = error;
+            this.score = score;
+            this.userVote = userVote;
+        }
+    }
+
     /**
      * Get report statistics
      */
-    public static Task<java.util.Map<String, Integer>> getStats() {
+    public static Task<Map<String, Integer>> getStats() {
         HttpsCallableReference getStatsFunc = functions.getHttpsCallable("getStats");
 
         return getStatsFunc.call()
-            .continueWith(task -> {
+            .continueWith(decodeExecutor, task -> {
                 if (task.isSuccessful()) {
                     Map<String, Object> result =
                         (Map<String, Object>) task.getResult().getData();
 
-                    java.util.Map<String, Integer> stats = new HashMap<>();
+                    Map<String, Integer> stats = new HashMap<>();
                     if (result != null) {
-                        for (java.util.Map.Entry<String, Object> entry : result.entrySet()) {
+                        for (Map.Entry<String, Object> entry : result.entrySet()) {
                             stats.put(entry.getKey(), ((Number) entry.getValue()).intValue());
                         }
                     }
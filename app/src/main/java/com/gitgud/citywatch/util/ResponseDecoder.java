@@ -0,0 +1,177 @@
+package com.gitgud.citywatch.util;
+
+import com.gitgud.citywatch.model.Comment;
+import com.gitgud.citywatch.model.HazardCard;
+import com.gitgud.citywatch.model.UserMeta;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed decoders for Cloud Function payloads
+ * ApiClient runs these on its decode executor, so callers only ever see render-ready objects
+ */
+@SuppressWarnings("unchecked")
+public final class ResponseDecoder {
+
+    private ResponseDecoder() {
+        // Static helpers only
+    }
+
+    // ==================== Reports ====================
+
+    /**
+     * Decode a list of report payloads, null decodes to an empty list
+     */
+    public static List<HazardCard> hazardCards(Object data) {
+        List<HazardCard> hazardCards = new ArrayList<>();
+        if (data instanceof List) {
+            for (Object reportMap : (List<Object>) data) {
+                hazardCards.add(hazardCard((Map<String, Object>) reportMap));
+            }
+        }
+        return hazardCards;
+    }
+
+    /**
+     * Decode one report payload
+     */
+    public static HazardCard hazardCard(Map<String, Object> reportMap) {
+        HazardCard hazardCard = new HazardCard();
+        hazardCard.setDocumentId((String) reportMap.get("documentId"));
+        hazardCard.setDescription((String) reportMap.get("description"));
+        hazardCard.setHazardType((String) reportMap.get("hazardType"));
+        hazardCard.setLocalGov((String) reportMap.get("localGov"));
+        hazardCard.setLocationDetails((String) reportMap.get("locationDetails"));
+        hazardCard.setStatus((String) reportMap.get("status"));
+        hazardCard.setUserName((String) reportMap.get("userName"));
+        hazardCard.setUserId((String) reportMap.get("userId"));
+        hazardCard.setPhotoVersion((String) reportMap.get("photoVersion"));
+        hazardCard.setProfilePictureVersion((String) reportMap.get("avatarVersion"));
+        hazardCard.setLatitude(doubleValue(reportMap.get("latitude"), 0.0));
+        hazardCard.setLongitude(doubleValue(reportMap.get("longitude"), 0.0));
+        hazardCard.setVotes(longValue(reportMap.get("votes"), 0L));
+        hazardCard.setCreatedAt(longValue(reportMap.get("createdAt"), 0L));
+        hazardCard.setUpdatedAt(longValue(reportMap.get("updatedAt"), hazardCard.getCreatedAt()));
+        hazardCard.setScore(longValue(reportMap.get("score"), 0L));
+        hazardCard.setComments(longValue(reportMap.get("comments"), 0L));
+        return hazardCard;
+    }
+
+    // ==================== Comments ====================
+
+    /**
+     * Decode a list of comment payloads, null decodes to an empty list
+     */
+    public static List<Comment> comments(Object data) {
+        List<Comment> comments = new ArrayList<>();
+        if (data instanceof List) {
+            for (Object commentMap : (List<Object>) data) {
+                comments.add(comment((Map<String, Object>) commentMap));
+            }
+        }
+        return comments;
+    }
+
+    /**
+     * Decode one comment payload
+     */
+    public static Comment comment(Map<String, Object> commentMap) {
+        Comment comment = new Comment();
+        comment.setCommentId((String) commentMap.get("commentId"));
+        comment.setContent((String) commentMap.get("content"));
+        comment.setReportId((String) commentMap.get("reportId"));
+        comment.setUserId((String) commentMap.get("userId"));
+        comment.setUserName((String) commentMap.get("userName"));
+        comment.setProfilePictureVersion((String) commentMap.get("avatarVersion"));
+        comment.setDatetime(longValue(commentMap.get("datetime"), 0L));
+        comment.setScore(longValue(commentMap.get("score"), 0L));
+        return comment;
+    }
+
+    // ==================== Votes ====================
+
+    /**
+     * Decode the {score, userVote} result of a vote call
+     */
+    public static ApiClient.VoteResult voteResult(Map<String, Object> result) {
+        return new ApiClient.VoteResult(longValue(result.get("score"), 0L),
+                (int) longValue(result.get("userVote"), 0L));
+    }
+
+    /**
+     * Decode the "votes" map of a vote lookup into id -> vote type
+     */
+    public static Map<String, Integer> votes(Map<String, Object> result) {
+        return votes(result, "votes");
+    }
+
+    /**
+     * Decode a named id -> vote type map of a response, e.g. "reportVotes" of a vote delta
+     */
+    public static Map<String, Integer> votes(Map<String, Object> result, String field) {
+        Map<String, Integer> votes = new HashMap<>();
+        Map<String, Object> votesRaw = result != null ? (Map<String, Object>) result.get(field) : null;
+        if (votesRaw != null) {
+            for (Map.Entry<String, Object> entry : votesRaw.entrySet()) {
+                votes.put(entry.getKey(), ((Number) entry.getValue()).intValue());
+            }
+        }
+        return votes;
+    }
+
+    // ==================== Outbox ====================
+
+    /**
+     * Decode the "results" list of processOutbox into mutation key -> result
+     */
+    public static Map<String, ApiClient.OutboxResult> outboxResults(Map<String, Object> result) {
+        Map<String, ApiClient.OutboxResult> results = new HashMap<>();
+        List<Object> resultsRaw = result != null ? (List<Object>) result.get("results") : null;
+        if (resultsRaw != null) {
+            for (Object item : resultsRaw) {
+                Map<String, Object> itemMap = (Map<String, Object>) item;
+                results.put((String) itemMap.get("key"), new ApiClient.OutboxResult(
+                        Boolean.TRUE.equals(itemMap.get("ok")),
+                        (String) itemMap.get("error"),
+                        longValue(itemMap.get("score"), 0L),
+                        (int) longValue(itemMap.get("userVote"), 0L)));
+            }
+        }
+        return results;
+    }
+
+    // ==================== Users ====================
+
+    /**
+     * Decode the "users" map of getUsersMeta into userId -> metadata
+     */
+    public static Map<String, UserMeta> usersMeta(Map<String, Object> result) {
+        Map<String, UserMeta> metaById = new HashMap<>();
+        Map<String, Object> users = result != null ? (Map<String, Object>) result.get("users") : null;
+        if (users != null) {
+            for (Map.Entry<String, Object> entry : users.entrySet()) {
+                Map<String, Object> userMap = (Map<String, Object>) entry.getValue();
+                UserMeta meta = new UserMeta();
+                meta.setUserId(entry.getKey());
+                meta.setName((String) userMap.get("name"));
+                meta.setAdmin(Boolean.TRUE.equals(userMap.get("isAdmin")));
+                meta.setAvatarVersion((String) userMap.get("avatarVersion"));
+                metaById.put(entry.getKey(), meta);
+            }
+        }
+        return metaById;
+    }
+
+    // ==================== Primitives ====================
+
+    private static long longValue(Object value, long fallback) {
+        return value instanceof Number ? ((Number) value).longValue() : fallback;
+    }
+
+    private static double doubleValue(Object value, double fallback) {
+        return value instanceof Number ? ((Number) value).doubleValue() : fallback;
+    }
+}
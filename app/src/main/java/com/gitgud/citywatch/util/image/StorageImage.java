@@ -0,0 +1,63 @@
+package com.gitgud.citywatch.util.image;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+/**
+ * Glide model for an image in Firebase Storage
+ * Identified by its Storage path and generation, so cache hits survive download token rotation
+ */
+public class StorageImage {
+    private final String path;
+    private final String version;
+
+    public StorageImage(@NonNull String path, String version) {
+        this.path = path;
+        this.version = version != null ? version : "";
+    }
+
+    /**
+     * Photo attached to a report
+     */
+    public static StorageImage reportPhoto(String documentId, String version) {
+        return new StorageImage("report_photos/" + documentId + ".jpg", version);
+    }
+
+    /**
+     * Profile picture of a user
+     */
+    public static StorageImage profilePicture(String userId, String version) {
+        return new StorageImage("profile_pictures/" + userId + ".jpg", version);
+    }
+
+    @NonNull
+    public String getPath() { return path; }
+    public String getVersion() { return version; }
+
+    /**
+     * Disk cache key, changes only when the object is re-uploaded
+     */
+    public String getCacheKey() {
+        return path + "#" + version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StorageImage)) return false;
+        StorageImage other = (StorageImage) o;
+        return path.equals(other.path) && version.equals(other.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, version);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return getCacheKey();
+    }
+}
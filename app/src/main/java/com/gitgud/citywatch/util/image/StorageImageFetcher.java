@@ -0,0 +1,101 @@
+package com.gitgud.citywatch.util.image;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.data.HttpUrlFetcher;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Fetches a Storage image on a Glide cache miss
+ * The download URL is only resolved here, so cached images cost no Storage round trip
+ */
+class StorageImageFetcher implements DataFetcher<InputStream> {
+    private static final int TIMEOUT_MS = 15000;
+
+    // Images known not to exist this session, e.g. users without a profile picture
+    private static final Set<String> missingKeys = ConcurrentHashMap.newKeySet();
+
+    private final StorageImage model;
+    private volatile boolean isCancelled = false;
+    private volatile HttpUrlFetcher urlFetcher;
+
+    StorageImageFetcher(StorageImage model) {
+        this.model = model;
+    }
+
+    @Override
+    public void loadData(@NonNull Priority priority, @NonNull DataCallback<? super InputStream> callback) {
+        if (missingKeys.contains(model.getCacheKey())) {
+            callback.onLoadFailed(new FileNotFoundException("No image at " + model.getPath()));
+            return;
+        }
+
+        try {
+            // Glide calls this on its source executor, so blocking on the task is fine
+            Uri downloadUri = Tasks.await(
+                    FirebaseStorage.getInstance().getReference(model.getPath()).getDownloadUrl(),
+                    TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            if (isCancelled) {
+                callback.onLoadFailed(new IOException("Load cancelled"));
+                return;
+            }
+            urlFetcher = new HttpUrlFetcher(new GlideUrl(downloadUri.toString()), TIMEOUT_MS);
+            urlFetcher.loadData(priority, callback);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof StorageException &&
+                    ((StorageException) e.getCause()).getErrorCode() == StorageException.ERROR_OBJECT_NOT_FOUND) {
+                missingKeys.add(model.getCacheKey());
+            }
+            callback.onLoadFailed(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            callback.onLoadFailed(e);
+        } catch (TimeoutException e) {
+            callback.onLoadFailed(e);
+        }
+    }
+
+    @Override
+    public void cleanup() {
+        if (urlFetcher != null) {
+            urlFetcher.cleanup();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        isCancelled = true;
+        if (urlFetcher != null) {
+            urlFetcher.cancel();
+        }
+    }
+
+    @NonNull
+    @Override
+    public Class<InputStream> getDataClass() {
+        return InputStream.class;
+    }
+
+    @NonNull
+    @Override
+    public DataSource getDataSource() {
+        return DataSource.REMOTE;
+    }
+}
@@ -0,0 +1,45 @@
+package com.gitgud.citywatch.util.image;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.signature.ObjectKey;
+
+import java.io.InputStream;
+
+/**
+ * Glide ModelLoader for Firebase Storage images
+ * Keys the cache on path + generation instead of the token-bearing download URL
+ */
+public class StorageImageLoader implements ModelLoader<StorageImage, InputStream> {
+
+    @Override
+    public LoadData<InputStream> buildLoadData(@NonNull StorageImage model, int width, int height,
+                                               @NonNull Options options) {
+        return new LoadData<>(new ObjectKey(model.getCacheKey()), new StorageImageFetcher(model));
+    }
+
+    @Override
+    public boolean handles(@NonNull StorageImage model) {
+        return true;
+    }
+
+    /**
+     * Factory registered in CityWatchGlideModule
+     */
+    public static class Factory implements ModelLoaderFactory<StorageImage, InputStream> {
+        @NonNull
+        @Override
+        public ModelLoader<StorageImage, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new StorageImageLoader();
+        }
+
+        @Override
+        public void teardown() {
+            // Nothing to release
+        }
+    }
+}
@@ -21,6 +21,7 @@ const {
   onCommentWritten,
   onUserWritten,
   onUserDeleted,
+  onImageFinalized,
 } = require("./src/triggers");
 
 // User Management
@@ -28,6 +29,7 @@ const {
   getUserName,
   getUserPhone,
   getIsAdmin,
+  getUsersMeta,
   updateUserName,
   updateUserPhone,
   deleteAccount,
@@ -39,6 +41,9 @@ const {
   submitReport,
   uploadReportPhoto,
   getAllReports,
+  getReportsPage,
+  getReportsSince,
+  getReportsInBucket,
   editReport,
   deleteReport,
   updateReportStatus,
@@ -57,6 +62,7 @@ const {
   deleteComment,
   editComment,
   getCommentsForReport,
+  getCommentsPage,
   getCommentCount,
 } = require("./src/commentManagement");
 
@@ -66,15 +72,22 @@ const {
   getUserVotesForComments,
 } = require("./src/commentVoting");
 
-// User Voting (fetch all votes on startup)
+// User Voting (incremental vote sync)
 const {
+  getVotesSince,
   getAllReportVotesForUser,
   getAllCommentVotesForUser,
 } = require("./src/userVoting");
 
+// Offline Outbox
+const {
+  processOutbox,
+} = require("./src/outbox");
+
 // Caching
 const {
   getChecksums,
+  getReportBucketChecksums,
   getCacheChecksum,
 } = require("./src/caching");
 
@@ -94,11 +107,13 @@ exports.onCommentCreated = onCommentCreated;
 exports.onCommentWritten = onCommentWritten;
 exports.onUserWritten = onUserWritten;
 exports.onUserDeleted = onUserDeleted;
+exports.onImageFinalized = onImageFinalized;
 
 // User Management
 exports.getUserName = getUserName;
 exports.getUserPhone = getUserPhone;
 exports.getIsAdmin = getIsAdmin;
+exports.getUsersMeta = getUsersMeta;
 exports.updateUserName = updateUserName;
 exports.updateUserPhone = updateUserPhone;
 exports.deleteAccount = deleteAccount;
@@ -108,6 +123,9 @@ exports.sendPasswordResetEmail = sendPasswordResetEmail;
 exports.submitReport = submitReport;
 exports.uploadReportPhoto = uploadReportPhoto;
 exports.getAllReports = getAllReports;
+exports.getReportsPage = getReportsPage;
+exports.getReportsSince = getReportsSince;
+exports.getReportsInBucket = getReportsInBucket;
 exports.editReport = editReport;
 exports.deleteReport = deleteReport;
 exports.updateReportStatus = updateReportStatus;
@@ -122,6 +140,7 @@ exports.submitComment = submitComment;
 exports.deleteComment = deleteComment;
 exports.editComment = editComment;
 exports.getCommentsForReport = getCommentsForReport;
+exports.getCommentsPage = getCommentsPage;
 exports.getCommentCount = getCommentCount;
 
 // Comment Voting
@@ -129,11 +148,16 @@ exports.voteComment = voteComment;
 exports.getUserVotesForComments = getUserVotesForComments;
 
 // User Voting
+exports.getVotesSince = getVotesSince;
 exports.getAllReportVotesForUser = getAllReportVotesForUser;
 exports.getAllCommentVotesForUser = getAllCommentVotesForUser;
 
+// Offline Outbox
+exports.processOutbox = processOutbox;
+
 // Caching
 exports.getChecksums = getChecksums;
+exports.getReportBucketChecksums = getReportBucketChecksums;
 exports.getCacheChecksum = getCacheChecksum;
 
 // Stats
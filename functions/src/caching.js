@@ -4,9 +4,14 @@ const logger = require("firebase-functions/logger");
 
 const db = admin.firestore();
 
+// Per-entity checksum fields, left out of the top-level response so its size
+// does not grow with the number of reports and users
+const PER_ENTITY_PREFIXES = ["comments_", "user_"];
+
 /**
- * Lightweight function to get all checksums
- * Client compares these with locally stored checksums
+ * Lightweight function to get the top-level checksums
+ * Client compares these with locally stored checksums, and on a reports
+ * mismatch walks down through getReportBucketChecksums
  */
 const getChecksums = onCall(async (request) => {
   try {
@@ -14,13 +19,36 @@ const getChecksums = onCall(async (request) => {
     if (!checksumDoc.exists) {
       return {};
     }
-    return checksumDoc.data();
+    const checksums = {};
+    for (const [key, value] of Object.entries(checksumDoc.data())) {
+      if (!PER_ENTITY_PREFIXES.some((prefix) => key.startsWith(prefix))) {
+        checksums[key] = value;
+      }
+    }
+    return checksums;
   } catch (error) {
     logger.error("Error fetching checksums:", error);
     throw new Error(`Failed to fetch checksums: ${error.message}`);
   }
 });
 
+/**
+ * Get the reports checksum of every creation month bucket
+ * Each bucket hash is the XOR of its reports' row digests, so the buckets
+ * combine to the top-level reports checksum
+ * Returns {buckets: {"2025-03": hash, ...}}
+ */
+const getReportBucketChecksums = onCall(async (request) => {
+  try {
+    const bucketsDoc = await db.collection("metadata")
+        .doc("reportBuckets").get();
+    return {buckets: bucketsDoc.exists ? bucketsDoc.data() : {}};
+  } catch (error) {
+    logger.error("Error fetching report bucket checksums:", error);
+    throw new Error(`Failed to fetch bucket checksums: ${error.message}`);
+  }
+});
+
 /**
  * Get cache checksums for efficient data update checking
  * Returns lightweight metadata about reports and comments
@@ -31,33 +59,13 @@ const getCacheChecksum = onCall(async (request) => {
     const {dataType, reportId} = request.data;
 
     if (dataType === "reports") {
-      // Get report count and latest update timestamp
-      const reportsSnapshot = await db.collection("reports")
-          .orderBy("createdAt", "desc")
-          .limit(1)
-          .get();
+      // Feed hash kept incrementally by the report triggers
+      const checksumDoc = await db.collection("metadata")
+          .doc("checksums").get();
+      const checksum = checksumDoc.exists ?
+          checksumDoc.data().reports || null : null;
 
-      const countSnapshot = await db.collection("reports").count().get();
-      const reportCount = countSnapshot.data().count;
-
-      let latestTimestamp = 0;
-      if (!reportsSnapshot.empty) {
-        const latestDoc = reportsSnapshot.docs[0];
-        const data = latestDoc.data();
-        if (data.createdAt) {
-          latestTimestamp = data.createdAt.toMillis ?
-              data.createdAt.toMillis() : data.createdAt;
-        }
-      }
-
-      // Generate a simple checksum based on count + latest timestamp
-      const checksum = `${reportCount}_${latestTimestamp}`;
-
-      return {
-        checksum,
-        count: reportCount,
-        latestTimestamp,
-      };
+      return {checksum};
     } else if (dataType === "comments" && reportId) {
       const reportRef = db.collection("reports").doc(reportId);
 
@@ -103,5 +111,6 @@ const getCacheChecksum = onCall(async (request) => {
 
 module.exports = {
   getChecksums,
+  getReportBucketChecksums,
   getCacheChecksum,
 };
@@ -1,3 +1,4 @@
+const crypto = require("crypto");
 const admin = require("firebase-admin");
 const logger = require("firebase-functions/logger");
 
@@ -8,47 +9,312 @@ if (!admin.apps.length) {
 
 const db = admin.firestore();
 
+// Feed hash of an empty report list; XOR of no row digests
+const ZERO_DIGEST = "0000000000000000";
+
+// Bumped when the row digest format changes, forcing a rebuild
+const REPORTS_DIGEST_VERSION = 2;
+
+// Firestore batches are limited to 500 writes
+const BATCH_LIMIT = 500;
+
+// A rebuild lease outlives the longest function run, so a crashed rebuild
+// is taken over by the next report write
+const REBUILD_LEASE_MS = 10 * 60 * 1000;
+
+// Reports written this long before a rebuild started are reconciled after it,
+// covering server timestamps slightly older than the rebuild's start
+const REBUILD_OVERLAP_MS = 5000;
+
 /**
- * Update reports checksum when a report is created or modified
- * Includes usersVersion so cache is invalidated when referenced user data changes
- * @return {Promise<void>}
+ * Content digest of one report row, 8 bytes of SHA-256 as hex
+ * Covers the fields any report write changes, using the same defaults as the
+ * report payload; the client computes the identical digest from its cache
+ * @param {string} reportId - The report ID
+ * @param {Object} data - Report document data
+ * @return {string} - 16 hex characters
  */
-async function updateReportsChecksum() {
-  try {
-    const snapshot = await db.collection("reports")
-        .orderBy("createdAt", "desc")
-        .limit(1)
-        .get();
-    const countSnapshot = await db.collection("reports").count().get();
-    const count = countSnapshot.data().count;
+function reportRowDigest(reportId, data) {
+  const createdAt = data.createdAt ? data.createdAt.toMillis() : 0;
+  const updatedAt = data.updatedAt ? data.updatedAt.toMillis() : createdAt;
+  const content = [
+    reportId,
+    updatedAt,
+    data.score || 0,
+    data.comments || 0,
+    data.status || "In progress",
+  ].join("|");
+  return crypto.createHash("sha256").update(content, "utf8")
+      .digest("hex").slice(0, 16);
+}
 
-    let latestTimestamp = 0;
-    if (!snapshot.empty) {
-      const data = snapshot.docs[0].data();
-      if (data.createdAt) {
-        latestTimestamp = data.createdAt.toMillis ?
-            data.createdAt.toMillis() : data.createdAt;
-      }
+/**
+ * Checksum bucket of a report: its creation month in UTC, e.g. "2025-03"
+ * Creation time never changes, so a report stays in one bucket
+ * @param {Object} data - Report document data
+ * @return {string} - Bucket key
+ */
+function reportBucket(data) {
+  const createdAt = data.createdAt ? data.createdAt.toMillis() : 0;
+  return new Date(createdAt).toISOString().slice(0, 7);
+}
+
+/**
+ * Creation time range covered by a bucket
+ * @param {string} bucketKey - Bucket key, e.g. "2025-03"
+ * @return {{start: Date, end: Date}} - Start inclusive, end exclusive
+ */
+function bucketRange(bucketKey) {
+  const match = /^(\d{4})-(\d{2})$/.exec(bucketKey || "");
+  if (!match) {
+    throw new Error(`Invalid bucket: ${bucketKey}`);
+  }
+  const year = Number(match[1]);
+  const month = Number(match[2]) - 1;
+  return {
+    start: new Date(Date.UTC(year, month, 1)),
+    end: new Date(Date.UTC(year, month + 1, 1)),
+  };
+}
+
+/**
+ * Combine two digests; XOR makes the feed hash independent of row order
+ * and lets a row be removed by combining its digest again
+ * @param {string} a - 16 hex characters
+ * @param {string} b - 16 hex characters
+ * @return {string} - 16 hex characters
+ */
+function xorDigests(a, b) {
+  return (BigInt(`0x${a}`) ^ BigInt(`0x${b}`)).toString(16)
+      .padStart(16, "0");
+}
+
+/**
+ * Claim the reports checksum rebuild for this run
+ * Only one rebuild holds the lease at a time, others back off until it
+ * expires
+ * @return {Promise<{leaseId: string, startedAt: number}|null>} - The lease,
+ *     null if the checksum is current or another rebuild holds the lease
+ */
+async function acquireRebuildLease() {
+  const checksumsRef = db.collection("metadata").doc("checksums");
+  return db.runTransaction(async (transaction) => {
+    const checksumsDoc = await transaction.get(checksumsRef);
+    const data = checksumsDoc.exists ? checksumsDoc.data() : {};
+    if (data.reportsDigestVersion === REPORTS_DIGEST_VERSION) {
+      return null;
+    }
+    const now = Date.now();
+    const lease = data.reportsRebuild;
+    if (lease && lease.leaseUntil > now) {
+      return null;
     }
 
-    // Get current usersVersion to include in reports checksum
-    const checksumDoc = await db.collection("metadata").doc("checksums").get();
-    const usersVersion = checksumDoc.exists ?
-        (checksumDoc.data().usersVersion || 0) : 0;
+    const claimed = {
+      leaseId: crypto.randomUUID(),
+      startedAt: now,
+      leaseUntil: now + REBUILD_LEASE_MS,
+    };
+    transaction.set(checksumsRef, {reportsRebuild: claimed}, {merge: true});
+    return claimed;
+  });
+}
 
-    // Composite checksum includes reports data + users version
-    const checksum = `${count}_${latestTimestamp}_u${usersVersion}`;
-    await db.collection("metadata").doc("checksums").set({
+/**
+ * Recompute every row digest and the feed hash from scratch
+ * Only needed once per digest version. Runs under a lease, incremental
+ * updates skip while it runs and the reports they touched are reconciled
+ * once the rebuilt checksum is committed
+ * @return {Promise<void>}
+ */
+async function rebuildReportsChecksum() {
+  const lease = await acquireRebuildLease();
+  if (!lease) {
+    logger.info("Reports checksum rebuild skipped, current or in progress");
+    return;
+  }
+
+  const checksumsRef = db.collection("metadata").doc("checksums");
+  const digestsRef = checksumsRef.collection("reportDigests");
+  const bucketsRef = db.collection("metadata").doc("reportBuckets");
+  const [snapshot, storedDigests] = await Promise.all([
+    db.collection("reports").get(),
+    digestsRef.get(),
+  ]);
+
+  let checksum = ZERO_DIGEST;
+  const buckets = {};
+  for (let i = 0; i < snapshot.docs.length; i += BATCH_LIMIT) {
+    const batch = db.batch();
+    snapshot.docs.slice(i, i + BATCH_LIMIT).forEach((doc) => {
+      const digest = reportRowDigest(doc.id, doc.data());
+      const bucketKey = reportBucket(doc.data());
+      checksum = xorDigests(checksum, digest);
+      buckets[bucketKey] =
+          xorDigests(buckets[bucketKey] || ZERO_DIGEST, digest);
+      batch.set(digestsRef.doc(doc.id), {digest, bucket: bucketKey});
+    });
+    await batch.commit();
+  }
+
+  // Digests of reports deleted before the rebuild would be XORed out again
+  const reportIds = new Set(snapshot.docs.map((doc) => doc.id));
+  const staleDigests = storedDigests.docs
+      .filter((doc) => !reportIds.has(doc.id));
+  for (let i = 0; i < staleDigests.length; i += BATCH_LIMIT) {
+    const batch = db.batch();
+    staleDigests.slice(i, i + BATCH_LIMIT)
+        .forEach((doc) => batch.delete(doc.ref));
+    await batch.commit();
+  }
+
+  // Publish only if the lease is still ours, a takeover rebuilds again
+  const committed = await db.runTransaction(async (transaction) => {
+    const checksumsDoc = await transaction.get(checksumsRef);
+    const current = checksumsDoc.exists ?
+        checksumsDoc.data().reportsRebuild : null;
+    if (!current || current.leaseId !== lease.leaseId) {
+      return false;
+    }
+    transaction.set(bucketsRef, buckets);
+    transaction.set(checksumsRef, {
       reports: checksum,
+      reportsDigestVersion: REPORTS_DIGEST_VERSION,
+      reportsRebuild: admin.firestore.FieldValue.delete(),
       reportsUpdatedAt: admin.firestore.FieldValue.serverTimestamp(),
     }, {merge: true});
+    return true;
+  });
+  if (!committed) {
+    logger.warn("Reports checksum rebuild lost its lease, not published");
+    return;
+  }
+  logger.info(`Reports checksum rebuilt over ${snapshot.size} reports`);
+
+  await reconcileReportsWrittenSince(lease.startedAt - REBUILD_OVERLAP_MS);
+}
 
+/**
+ * Apply the incremental update to every report written or deleted since a
+ * time, their own triggers were skipped while a rebuild held the lease
+ * The update swaps a row's stored digest for its current one, so reports the
+ * rebuild already saw as they are now are left unchanged
+ * @param {number} since - Milliseconds since epoch
+ * @return {Promise<void>}
+ */
+async function reconcileReportsWrittenSince(since) {
+  const from = admin.firestore.Timestamp.fromMillis(Math.max(since, 0));
+  const [changedSnapshot, deletedSnapshot] = await Promise.all([
+    db.collection("reports").where("updatedAt", ">=", from).get(),
+    db.collection("deletedReports").where("deletedAt", ">=", from).get(),
+  ]);
+
+  const reportIds = new Set([
+    ...changedSnapshot.docs.map((doc) => doc.id),
+    ...deletedSnapshot.docs.map((doc) => doc.id),
+  ]);
+  for (const reportId of reportIds) {
+    await updateReportsChecksum(reportId);
+  }
+  logger.info(`Reconciled ${reportIds.size} reports written during rebuild`);
+}
+
+/**
+ * Update reports checksum when a report is created, modified or deleted
+ * The feed hash is the XOR of every report's row digest, so only the changed
+ * row is read. The stored row digest is swapped for one computed from the
+ * report as it is now, which makes repeated or reordered triggers harmless.
+ * The report's month bucket in metadata/reportBuckets is updated the same way
+ * While the digest version is outdated a rebuild runs instead, see
+ * rebuildReportsChecksum
+ * @param {string} reportId - The report ID
+ * @return {Promise<void>}
+ */
+async function updateReportsChecksum(reportId) {
+  try {
+    const checksumsRef = db.collection("metadata").doc("checksums");
+    const checksumsDoc = await checksumsRef.get();
+    if (!checksumsDoc.exists ||
+        checksumsDoc.data().reportsDigestVersion !== REPORTS_DIGEST_VERSION) {
+      await rebuildReportsChecksum();
+      return;
+    }
+
+    const reportRef = db.collection("reports").doc(reportId);
+    const digestRef = checksumsRef.collection("reportDigests").doc(reportId);
+    const bucketsRef = db.collection("metadata").doc("reportBuckets");
+    const checksum = await db.runTransaction(async (transaction) => {
+      const [feedDoc, reportDoc, digestDoc, bucketsDoc] =
+          await transaction.getAll(checksumsRef, reportRef, digestRef,
+              bucketsRef);
+
+      // A rebuild started since the check above, it reconciles this report
+      if (!feedDoc.exists ||
+          feedDoc.data().reportsDigestVersion !== REPORTS_DIGEST_VERSION) {
+        return null;
+      }
+      const feedChecksum = feedDoc.data().reports || ZERO_DIGEST;
+      const previous = digestDoc.exists ? digestDoc.data().digest : ZERO_DIGEST;
+      const current = reportDoc.exists ?
+          reportRowDigest(reportId, reportDoc.data()) : ZERO_DIGEST;
+      if (previous === current) {
+        return feedChecksum;
+      }
+
+      // Move the row's contribution within (or out of) its bucket
+      const buckets = bucketsDoc.exists ? bucketsDoc.data() : {};
+      const bucketUpdates = {};
+      const previousBucket = digestDoc.exists ? digestDoc.data().bucket : null;
+      const currentBucket = reportDoc.exists ?
+          reportBucket(reportDoc.data()) : null;
+      if (previousBucket) {
+        bucketUpdates[previousBucket] =
+            xorDigests(buckets[previousBucket] || ZERO_DIGEST, previous);
+      }
+      if (currentBucket) {
+        bucketUpdates[currentBucket] = xorDigests(
+            bucketUpdates[currentBucket] || buckets[currentBucket] ||
+            ZERO_DIGEST, current);
+      }
+      for (const [bucketKey, bucketChecksum] of Object.entries(bucketUpdates)) {
+        // Empty buckets are dropped so the bucket list stays small
+        bucketUpdates[bucketKey] = bucketChecksum === ZERO_DIGEST ?
+            admin.firestore.FieldValue.delete() : bucketChecksum;
+      }
+      transaction.set(bucketsRef, bucketUpdates, {merge: true});
+
+      const next = xorDigests(xorDigests(feedChecksum, previous), current);
+      if (reportDoc.exists) {
+        transaction.set(digestRef, {digest: current, bucket: currentBucket});
+      } else {
+        transaction.delete(digestRef);
+      }
+      transaction.set(checksumsRef, {
+        reports: next,
+        reportsUpdatedAt: admin.firestore.FieldValue.serverTimestamp(),
+      }, {merge: true});
+      return next;
+    });
+
+    if (checksum === null) {
+      logger.info(`Reports checksum update for ${reportId} left to rebuild`);
+      return;
+    }
     logger.info(`Reports checksum updated: ${checksum}`);
   } catch (error) {
     logger.error("Error updating reports checksum:", error);
   }
 }
 
+/**
+ * Current reports checksum, compared with a client's If-None-Match hash
+ * @return {Promise<string|null>} - Feed hash, null before the first build
+ */
+async function getReportsChecksum() {
+  const checksumDoc = await db.collection("metadata").doc("checksums").get();
+  return checksumDoc.exists ? checksumDoc.data().reports || null : null;
+}
+
 /**
  * Update comments checksum for a specific report
  * Includes usersVersion so cache is invalidated when referenced user data changes
@@ -131,8 +397,8 @@ async function updateUsersVersion() {
 
     logger.info(`Users version updated: ${newVersion}`);
 
-    // Also update reports checksum since it includes usersVersion
-    await updateReportsChecksum();
+    // The reports checksum follows on its own: name and avatar changes
+    // re-stamp the user's reports, which changes their row digests
 
     // Update global comments checksum
     await updateGlobalCommentsChecksum();
@@ -164,6 +430,8 @@ async function updateUserChecksum(userId) {
 }
 
 module.exports = {
+  bucketRange,
+  getReportsChecksum,
   updateReportsChecksum,
   updateCommentsChecksum,
   updateGlobalCommentsChecksum,
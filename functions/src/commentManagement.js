@@ -4,48 +4,116 @@ const logger = require("firebase-functions/logger");
 
 const db = admin.firestore();
 
+// Thread comment page size limits
+const DEFAULT_COMMENT_PAGE_SIZE = 30;
+const MAX_COMMENT_PAGE_SIZE = 100;
+
 /**
- * Submit a new comment to a report
+ * Convert a comment document to the payload sent to clients
+ * Resolves the author's name and avatar version from the user reference field
+ * @param {FirebaseFirestore.QueryDocumentSnapshot} doc - Comment document
+ * @param {string} reportId - Report the comment belongs to
+ * @return {Promise<Object>} - Comment payload
  */
-const submitComment = onCall(async (request) => {
-  try {
-    const {content, reportId, userId} = request.data;
+async function buildCommentPayload(doc, reportId) {
+  const commentData = doc.data();
+  const commentId = doc.id;
+
+  // Get user name from user reference
+  let userName = "Anonymous";
+  let userId = "";
+  let avatarVersion = "";
+  if (commentData.user) {
+    try {
+      userId = commentData.user.id;
+      const userDoc = await commentData.user.get();
+      if (userDoc.exists && userDoc.data().name) {
+        userName = userDoc.data().name;
+      }
+      if (userDoc.exists && userDoc.data().avatarVersion) {
+        avatarVersion = userDoc.data().avatarVersion;
+      }
+    } catch (userError) {
+      logger.warn(`Could not fetch user for comment ${commentId}`, userError);
+    }
+  }
 
-    if (!content || !reportId || !userId) {
-      throw new Error("Content, report ID, and user ID are required");
+  return {
+    commentId,
+    content: commentData.content || "",
+    datetime: commentData.datetime ? commentData.datetime.toMillis() : 0,
+    reportId,
+    userId,
+    userName,
+    avatarVersion,
+    score: commentData.score || 0,
+  };
+}
+
+/**
+ * Create a comment under a given ID and bump the report's comment count
+ * Does nothing if the comment already exists, so a replayed create is a no-op
+ * @param {string} commentId - ID for the new comment document
+ * @param {string} content - Comment content
+ * @param {string} reportId - Report being commented on
+ * @param {string} userId - Author's user ID
+ * @return {Promise<boolean>} - Whether the comment was created by this call
+ */
+async function createComment(commentId, content, reportId, userId) {
+  // Validate that user exists
+  const userDoc = await db.collection("users").doc(userId).get();
+  if (!userDoc.exists) {
+    throw new Error("User not found");
+  }
+
+  const reportRef = db.collection("reports").doc(reportId);
+  const commentRef = db.collection("comments").doc(commentId);
+
+  return db.runTransaction(async (transaction) => {
+    const commentDoc = await transaction.get(commentRef);
+    if (commentDoc.exists) {
+      return false;
     }
 
     // Validate that report exists
-    const reportDoc = await db.collection("reports").doc(reportId).get();
+    const reportDoc = await transaction.get(reportRef);
     if (!reportDoc.exists) {
       throw new Error("Report not found");
     }
 
-    // Validate that user exists
-    const userDoc = await db.collection("users").doc(userId).get();
-    if (!userDoc.exists) {
-      throw new Error("User not found");
-    }
-
-    // Create comment data with references
-    const commentData = {
+    transaction.set(commentRef, {
       content,
       datetime: admin.firestore.FieldValue.serverTimestamp(),
-      report: db.collection("reports").doc(reportId),
+      report: reportRef,
       user: db.collection("users").doc(userId),
       score: 0,
-    };
-
-    // Add to Firestore
-    const docRef = await db.collection("comments").add(commentData);
+    });
 
     // Increment comment count in report
-    await db.collection("reports").doc(reportId).update({
+    transaction.update(reportRef, {
       comments: admin.firestore.FieldValue.increment(1),
+      updatedAt: admin.firestore.FieldValue.serverTimestamp(),
     });
+    return true;
+  });
+}
+
+/**
+ * Submit a new comment to a report
+ */
+const submitComment = onCall(async (request) => {
+  try {
+    const {content, reportId, userId} = request.data;
 
-    logger.info(`Comment created with ID: ${docRef.id} by user: ${userId}`);
-    return {commentId: docRef.id, success: true};
+    if (!content || !reportId || !userId) {
+      throw new Error("Content, report ID, and user ID are required");
+    }
+
+    const commentId = db.collection("comments").doc().id;
+    await createComment(commentId, content, reportId, userId);
+
+    logger.info(`Comment created with ID: ${commentId} by user: ${userId}`);
+    return {commentId, success: true};
   } catch (error) {
     logger.error("Error submitting comment:", error);
     throw new Error(`Failed to submit comment: ${error.message}`);
@@ -86,6 +154,7 @@ const deleteComment = onCall(async (request) => {
     // Decrement comment count in report
     await db.collection("reports").doc(reportId).update({
       comments: admin.firestore.FieldValue.increment(-1),
+      updatedAt: admin.firestore.FieldValue.serverTimestamp(),
     });
 
     logger.info(`Comment ${commentId} deleted by user ${userId}`);
@@ -162,39 +231,8 @@ const getCommentsForReport = onCall(async (request) => {
       return [];
     }
 
-    const comments = [];
-
-    for (const doc of snapshot.docs) {
-      const commentData = doc.data();
-      const commentId = doc.id;
-
-      // Get user name from user reference
-      let userName = "Anonymous";
-      let userId = "";
-      if (commentData.user) {
-        try {
-          userId = commentData.user.id;
-          const userDoc = await commentData.user.get();
-          if (userDoc.exists && userDoc.data().name) {
-            userName = userDoc.data().name;
-          }
-        } catch (userError) {
-          logger.warn(`Could not fetch user for comment ${commentId}`,
-              userError);
-        }
-      }
-
-      comments.push({
-        commentId,
-        content: commentData.content || "",
-        datetime: commentData.datetime ?
-            commentData.datetime.toMillis() : 0,
-        reportId,
-        userId,
-        userName,
-        score: commentData.score || 0,
-      });
-    }
+    const comments = await Promise.all(
+        snapshot.docs.map((doc) => buildCommentPayload(doc, reportId)));
 
     logger.info(`Fetched ${comments.length} comments for report: ${reportId}`);
     return comments;
@@ -204,6 +242,65 @@ const getCommentsForReport = onCall(async (request) => {
   }
 });
 
+/**
+ * Fetch one page of a report's comments, newest first
+ * Pages are keyed on (datetime, commentId) of the last comment of the
+ * previous page, so opening a long thread reads only the first page. The
+ * cursor is resolved through the comment id, datetime is only the fallback
+ */
+const getCommentsPage = onCall(async (request) => {
+  try {
+    const {reportId, cursorDatetime, cursorId} = request.data;
+
+    if (!reportId) {
+      throw new Error("Report ID is required");
+    }
+
+    const requestedSize =
+      parseInt(request.data.pageSize) || DEFAULT_COMMENT_PAGE_SIZE;
+    const pageSize = Math.min(Math.max(requestedSize, 1),
+        MAX_COMMENT_PAGE_SIZE);
+
+    let query = db.collection("comments")
+        .where("report", "==", db.collection("reports").doc(reportId))
+        .orderBy("datetime", "desc")
+        .orderBy(admin.firestore.FieldPath.documentId(), "desc");
+
+    if (cursorId) {
+      // Resume from the cursor document itself, its datetime keeps the
+      // microseconds a millisecond cursor would drop
+      const cursorDoc = await db.collection("comments").doc(cursorId).get();
+      if (cursorDoc.exists) {
+        query = query.startAfter(cursorDoc);
+      } else {
+        // Cursor comment was deleted, resume from the end of its millisecond
+        // so comments in that millisecond are repeated rather than skipped
+        query = query.startAfter(
+            admin.firestore.Timestamp.fromMillis((cursorDatetime || 0) + 1),
+            "");
+      }
+    }
+
+    const snapshot = await query.limit(pageSize).get();
+    const comments = await Promise.all(
+        snapshot.docs.map((doc) => buildCommentPayload(doc, reportId)));
+
+    // A short page means we reached the end of the thread
+    let nextCursor = null;
+    if (comments.length === pageSize) {
+      const last = comments[comments.length - 1];
+      nextCursor = {datetime: last.datetime, commentId: last.commentId};
+    }
+
+    logger.info(
+        `Fetched page of ${comments.length} comments for report: ${reportId}`);
+    return {comments, nextCursor};
+  } catch (error) {
+    logger.error("Error fetching comments page:", error);
+    throw new Error(`Failed to fetch comments page: ${error.message}`);
+  }
+});
+
 /**
  * Get the count of comments for a report
  */
@@ -231,9 +328,11 @@ const getCommentCount = onCall(async (request) => {
 });
 
 module.exports = {
+  createComment,
   submitComment,
   deleteComment,
   editComment,
   getCommentsForReport,
+  getCommentsPage,
   getCommentCount,
 };
@@ -1,9 +1,65 @@
 const {onCall} = require("firebase-functions/v2/https");
 const admin = require("firebase-admin");
 const logger = require("firebase-functions/logger");
+const {logVote} = require("./userVoting");
 
 const db = admin.firestore();
 
+/**
+ * Write a user's vote on a comment and adjust its score in one transaction
+ * @param {string} commentId - Comment document ID
+ * @param {string} userId - Voting user's ID
+ * @param {number} voteType - 1 = upvote, -1 = downvote, 0 = remove vote
+ * @param {boolean} toggle - Repeating the current vote removes it, otherwise
+ *     the vote is set as given so replays are idempotent
+ * @return {Promise<{newScore: number, userVote: number}>} - Result
+ */
+async function applyVote(commentId, userId, voteType, toggle) {
+  const commentRef = db.collection("comments").doc(commentId);
+  const voteRef = commentRef.collection("votes").doc(userId);
+
+  // Run as transaction to prevent race conditions
+  return db.runTransaction(async (transaction) => {
+    const commentDoc = await transaction.get(commentRef);
+    const voteDoc = await transaction.get(voteRef);
+
+    if (!commentDoc.exists) {
+      throw new Error("Comment not found");
+    }
+
+    const currentScore = commentDoc.data().score || 0;
+    const previousVote = voteDoc.exists ? voteDoc.data().vote : 0;
+
+    // Same vote again toggles it off unless the vote is being set
+    const userVote = toggle && previousVote === voteType ? 0 : voteType;
+    const scoreChange = userVote - previousVote;
+
+    if (userVote === 0) {
+      transaction.delete(voteRef);
+    } else {
+      transaction.set(voteRef, {vote: userVote});
+    }
+
+    logVote(transaction, userId, "comment", commentId, userVote);
+
+    const newScore = currentScore + scoreChange;
+    transaction.update(commentRef, {score: newScore});
+
+    return {newScore, userVote};
+  });
+}
+
+/**
+ * Set a user's vote on a comment, used when replaying queued votes
+ * @param {string} commentId - Comment document ID
+ * @param {string} userId - Voting user's ID
+ * @param {number} voteType - 1 = upvote, -1 = downvote, 0 = remove vote
+ * @return {Promise<{newScore: number, userVote: number}>} - Result
+ */
+function setCommentVote(commentId, userId, voteType) {
+  return applyVote(commentId, userId, voteType, false);
+}
+
 /**
  * Vote on a comment (upvote or downvote)
  * Each user can only have one vote per comment
@@ -22,49 +78,7 @@ const voteComment = onCall(async (request) => {
           "Invalid vote type. Use 1 (upvote), -1 (downvote), or 0 (remove)");
     }
 
-    const commentRef = db.collection("comments").doc(commentId);
-    const voteRef = commentRef.collection("votes").doc(userId);
-
-    // Run as transaction to prevent race conditions
-    const result = await db.runTransaction(async (transaction) => {
-      const commentDoc = await transaction.get(commentRef);
-      const voteDoc = await transaction.get(voteRef);
-
-      if (!commentDoc.exists) {
-        throw new Error("Comment not found");
-      }
-
-      const currentScore = commentDoc.data().score || 0;
-      const previousVote = voteDoc.exists ? voteDoc.data().vote : 0;
-
-      // Calculate score change
-      let scoreChange = 0;
-
-      if (voteType === 0) {
-        // Remove vote
-        scoreChange = -previousVote;
-        transaction.delete(voteRef);
-      } else if (previousVote === voteType) {
-        // Same vote again: toggle off
-        scoreChange = -previousVote;
-        transaction.delete(voteRef);
-      } else {
-        // New vote or changing vote
-        scoreChange = voteType - previousVote;
-        transaction.set(voteRef, {vote: voteType});
-      }
-
-      const newScore = currentScore + scoreChange;
-      transaction.update(commentRef, {score: newScore});
-
-      // Determine user's current vote status after this action
-      let userVote = 0;
-      if (voteType !== 0 && previousVote !== voteType) {
-        userVote = voteType;
-      }
-
-      return {newScore, userVote};
-    });
+    const result = await applyVote(commentId, userId, voteType, true);
 
     logger.info(
         `Comment vote processed for ${commentId} by user ${userId}: ${
@@ -110,6 +124,7 @@ const getUserVotesForComments = onCall(async (request) => {
 });
 
 module.exports = {
+  setCommentVote,
   voteComment,
   getUserVotesForComments,
 };
@@ -0,0 +1,110 @@
+const {onCall} = require("firebase-functions/v2/https");
+const logger = require("firebase-functions/logger");
+
+const {setReportVote} = require("./reportVoting");
+const {setCommentVote} = require("./commentVoting");
+const {createComment} = require("./commentManagement");
+const {createReport} = require("./reportManagement");
+
+// Mutations accepted per call
+const MAX_BATCH_SIZE = 50;
+
+// Idempotency keys double as document IDs for created comments and reports
+const MUTATION_KEY_PATTERN = /^[A-Za-z0-9-]{16,64}$/;
+
+// gRPC codes worth retrying: DEADLINE_EXCEEDED, RESOURCE_EXHAUSTED, ABORTED,
+// INTERNAL, UNAVAILABLE
+const RETRYABLE_CODES = new Set([4, 8, 10, 13, 14]);
+
+/**
+ * Apply one queued mutation
+ * Votes are set rather than toggled and creates are keyed by the mutation key,
+ * so applying the same mutation twice has no further effect
+ * @param {Object} mutation - {key, type, targetId, payload}
+ * @param {string} userId - User the batch belongs to
+ * @return {Promise<Object>} - Result fields sent back for the mutation
+ */
+async function applyMutation(mutation, userId) {
+  const {key, type, targetId} = mutation;
+  const payload = mutation.payload || {};
+
+  if (!key || !MUTATION_KEY_PATTERN.test(key)) {
+    throw new Error("Invalid mutation key");
+  }
+
+  switch (type) {
+    case "voteReport":
+    case "voteComment": {
+      const {voteType} = payload;
+      if (!targetId) {
+        throw new Error("Target ID is required");
+      }
+      if (voteType !== 1 && voteType !== -1 && voteType !== 0) {
+        throw new Error("Invalid vote type");
+      }
+      const result = type === "voteReport" ?
+        await setReportVote(targetId, userId, voteType) :
+        await setCommentVote(targetId, userId, voteType);
+      return {score: result.newScore, userVote: result.userVote};
+    }
+    case "submitComment": {
+      const {content, reportId} = payload;
+      if (!content || !reportId) {
+        throw new Error("Content and report ID are required");
+      }
+      const created = await createComment(key, content, reportId, userId);
+      return {created};
+    }
+    case "submitReport": {
+      const created = await createReport(key, {...payload, userId});
+      return {created};
+    }
+    default:
+      throw new Error(`Unknown mutation type: ${type}`);
+  }
+}
+
+/**
+ * Apply a batch of mutations queued offline by one user, in order
+ * Each result is ok, rejected (the client drops it) or not processed (the
+ * client retries it); processing stops at the first retryable failure so
+ * later mutations are never applied ahead of it
+ */
+const processOutbox = onCall(async (request) => {
+  try {
+    const {userId, mutations} = request.data;
+
+    if (!userId || !Array.isArray(mutations)) {
+      throw new Error("User ID and mutations array are required");
+    }
+    if (mutations.length > MAX_BATCH_SIZE) {
+      throw new Error(`At most ${MAX_BATCH_SIZE} mutations per batch`);
+    }
+
+    const results = [];
+    for (const mutation of mutations) {
+      try {
+        const result = await applyMutation(mutation, userId);
+        results.push({key: mutation.key, ok: true, ...result});
+      } catch (error) {
+        if (RETRYABLE_CODES.has(error.code)) {
+          logger.warn(`Deferring mutation ${mutation.key}`, error);
+          break;
+        }
+        logger.warn(`Rejected mutation ${mutation.key}: ${error.message}`);
+        results.push({key: mutation.key, ok: false, error: error.message});
+      }
+    }
+
+    logger.info(`Processed ${results.length}/${mutations.length} ` +
+        `mutations for user ${userId}`);
+    return {results};
+  } catch (error) {
+    logger.error("Error processing outbox:", error);
+    throw new Error(`Failed to process outbox: ${error.message}`);
+  }
+});
+
+module.exports = {
+  processOutbox,
+};
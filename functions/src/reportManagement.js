@@ -1,11 +1,20 @@
 const {onCall} = require("firebase-functions/v2/https");
 const admin = require("firebase-admin");
 const logger = require("firebase-functions/logger");
+const {bucketRange, getReportsChecksum} = require("./checksumManager");
 
 const db = admin.firestore();
 const bucket = admin.storage().bucket();
 const statsRef = db.collection("metadata").doc("stats");
 
+// Community feed page size limits
+const DEFAULT_PAGE_SIZE = 20;
+const MAX_PAGE_SIZE = 50;
+
+// Delta sync re-reads this much history before the client's sync token so
+// writes committed with a slightly older server timestamp are not skipped
+const SYNC_OVERLAP_MS = 5000;
+
 /**
  * Helper function to convert report status to stat field name
  * @param {string} status - Report status (e.g., "Submitted", "Confirmed")
@@ -21,65 +30,98 @@ function getStatFieldFromStatus(status) {
   return statusMap[status] || "submitted";
 }
 
+/**
+ * Create a report under a given ID and count it in the stats
+ * Does nothing if the report already exists, so a replayed create is a no-op
+ * Picks up a photo uploaded before the report was written
+ * @param {string} documentId - ID for the new report document
+ * @param {Object} fields - Report fields as sent by the client
+ * @return {Promise<boolean>} - Whether the report was created by this call
+ */
+async function createReport(documentId, fields) {
+  const {
+    description,
+    hazardType,
+    localGov,
+    locationDetails,
+    latitude,
+    longitude,
+    userId,
+  } = fields;
+
+  // Validate required fields
+  if (!description ||
+      !hazardType ||
+      !localGov ||
+      !locationDetails ||
+      latitude === undefined ||
+      longitude === undefined ||
+      !userId) {
+    throw new Error("All fields are required: description, hazardType, " +
+                    "localGov, locationDetails, latitude, longitude, userId");
+  }
+
+  // Create report data
+  const reportData = {
+    description,
+    hazardType,
+    localGov,
+    locationDetails,
+    mapsLocation: new admin.firestore.GeoPoint(latitude, longitude),
+    status: "Submitted",
+    user: db.collection("users").doc(userId),
+    createdAt: admin.firestore.FieldValue.serverTimestamp(),
+    updatedAt: admin.firestore.FieldValue.serverTimestamp(),
+    score: 0,
+    comments: 0,
+  };
+
+  // The photo upload does not wait for the report, record its version here
+  try {
+    const [photoMetadata] =
+        await bucket.file(`report_photos/${documentId}.jpg`).getMetadata();
+    reportData.photoVersion = String(photoMetadata.generation);
+  } catch (photoError) {
+    // No photo yet, onImageFinalized records it once uploaded
+  }
+
+  try {
+    await db.collection("reports").doc(documentId).create(reportData);
+  } catch (error) {
+    // 6 = ALREADY_EXISTS
+    if (error.code === 6) {
+      return false;
+    }
+    throw error;
+  }
+
+  // Increment stats counter for "Submitted" status
+  try {
+    const statField = getStatFieldFromStatus("Submitted");
+    await statsRef.update({
+      [statField]: admin.firestore.FieldValue.increment(1),
+    });
+    logger.info(`Incremented ${statField} stat for new report ${documentId}`);
+  } catch (statsError) {
+    logger.warn(`Could not update stats for report ${documentId}`, statsError);
+    // Don't throw - report was created successfully
+  }
+  return true;
+}
+
 /**
  * Submit a new report to Firestore
  * Creates a new document with auto-generated ID in the 'reports' collection
  */
 const submitReport = onCall(async (request) => {
   try {
-    const {
-      description,
-      hazardType,
-      localGov,
-      locationDetails,
-      latitude,
-      longitude,
-      userId,
-    } = request.data;
+    const {userId} = request.data;
 
-    // Validate required fields
-    if (!description ||
-        !hazardType ||
-        !localGov ||
-        !locationDetails ||
-        latitude === undefined ||
-        longitude === undefined ||
-        !userId) {
-      throw new Error("All fields are required: description, hazardType, " +
-                      "localGov, locationDetails, latitude, longitude, userId");
-    }
+    const documentId = db.collection("reports").doc().id;
+    await createReport(documentId, request.data);
 
-    // Create report data
-    const reportData = {
-      description,
-      hazardType,
-      localGov,
-      locationDetails,
-      mapsLocation: new admin.firestore.GeoPoint(latitude, longitude),
-      status: "Submitted",
-      user: db.collection("users").doc(userId),
-      createdAt: admin.firestore.FieldValue.serverTimestamp(),
-      score: 0,
-      comments: 0,
-    };
-
-    // Add to Firestore and get document ID
-    const docRef = await db.collection("reports").add(reportData);
-
-    // Increment stats counter for "Submitted" status
-    try {
-      const statField = getStatFieldFromStatus("Submitted");
-      await statsRef.update({
-        [statField]: admin.firestore.FieldValue.increment(1),
-      });
-      logger.info(`Incremented ${statField} stat for new report ${docRef.id}`);
-    } catch (statsError) {
-      logger.warn(`Could not update stats for report ${docRef.id}`, statsError);
-      // Don't throw - report was created successfully
-    }
-
-    logger.info(`Report created with ID: ${docRef.id} by user: ${userId}`);
-    return {documentId: docRef.id, success: true};
+    logger.info(`Report created with ID: ${documentId} by user: ${userId}`);
+    return {documentId, success: true};
   } catch (error) {
     logger.error("Error submitting report:", error);
     throw new Error(`Failed to submit report: ${error.message}`);
@@ -117,70 +159,239 @@ const uploadReportPhoto = onCall(async (request) => {
   }
 });
 
+/**
+ * Convert a report document to the payload sent to clients
+ * Resolves the author's name from the user reference field
+ * @param {FirebaseFirestore.QueryDocumentSnapshot} doc - Report document
+ * @return {Promise<Object>} - Report payload
+ */
+async function buildReportPayload(doc) {
+  const reportData = doc.data();
+  const reportId = doc.id;
+
+  // Get user name from user reference field
+  let userName = "Anonymous";
+  let userId = "";
+  let avatarVersion = "";
+  if (reportData.user) {
+    try {
+      userId = reportData.user.id;
+      const userDoc = await reportData.user.get();
+      if (userDoc.exists && userDoc.data().name) {
+        userName = userDoc.data().name;
+      }
+      if (userDoc.exists && userDoc.data().avatarVersion) {
+        avatarVersion = userDoc.data().avatarVersion;
+      }
+    } catch (userError) {
+      logger.warn(`Could not fetch user name from reference for ${
+        reportId}`, userError);
+    }
+  }
+
+  // Extract latitude and longitude from GeoPoint
+  let latitude = 0;
+  let longitude = 0;
+  if (reportData.mapsLocation) {
+    latitude = reportData.mapsLocation.latitude || 0;
+    longitude = reportData.mapsLocation.longitude || 0;
+  }
+
+  const createdAt = reportData.createdAt ? reportData.createdAt.toMillis() : 0;
+
+  return {
+    documentId: reportId,
+    description: reportData.description || "",
+    hazardType: reportData.hazardType || "",
+    localGov: reportData.localGov || "",
+    locationDetails: reportData.locationDetails || "",
+    latitude,
+    longitude,
+    status: reportData.status || "In progress",
+    userName,
+    userId,
+    photoVersion: reportData.photoVersion || "",
+    avatarVersion,
+    score: reportData.score || 0,
+    createdAt,
+    updatedAt: reportData.updatedAt ? reportData.updatedAt.toMillis() : createdAt,
+    comments: reportData.comments || 0,
+  };
+}
+
 /**
  * Fetch all reports from Firestore with photo URLs and user names
+ * Clients that send ifNoneMatch (their cached feed hash, may be null) get
+ * {notModified, checksum, reports}; when the hash equals the server's reports
+ * checksum no reports are read and only the marker is returned. Without it
+ * the plain report array is returned as before
  */
 const getAllReports = onCall(async (request) => {
   try {
+    const data = request.data || {};
+    const conditional = "ifNoneMatch" in data;
+    const checksum = conditional ? await getReportsChecksum() : null;
+    if (conditional && data.ifNoneMatch && data.ifNoneMatch === checksum) {
+      logger.info("Reports not modified");
+      return {notModified: true, checksum};
+    }
+
     const reports = [];
     const snapshot = await db.collection("reports").get();
 
-    if (snapshot.empty) {
-      logger.info("No reports found");
-      return [];
+    for (const doc of snapshot.docs) {
+      reports.push(await buildReportPayload(doc));
     }
 
-    for (const doc of snapshot.docs) {
-      const reportData = doc.data();
-      const reportId = doc.id;
-
-      // Get user name from user reference field
-      let userName = "Anonymous";
-      let userId = "";
-      if (reportData.user) {
-        try {
-          userId = reportData.user.id;
-          const userDoc = await reportData.user.get();
-          if (userDoc.exists && userDoc.data().name) {
-            userName = userDoc.data().name;
-          }
-        } catch (userError) {
-          logger.warn(`Could not fetch user name from reference for ${
-            reportId}`, userError);
-        }
-      }
+    logger.info(`Fetched ${reports.length} reports`);
+    return conditional ? {notModified: false, checksum, reports} : reports;
+  } catch (error) {
+    logger.error("Error fetching all reports:", error);
+    throw new Error(`Failed to fetch reports: ${error.message}`);
+  }
+});
 
-      // Extract latitude and longitude from GeoPoint
-      let latitude = 0;
-      let longitude = 0;
-      if (reportData.mapsLocation) {
-        latitude = reportData.mapsLocation.latitude || 0;
-        longitude = reportData.mapsLocation.longitude || 0;
-        logger.info(
-            `Report ${reportId} location: lat=${latitude}, lon=${longitude}`);
-      }
+/**
+ * Fetch one page of an ordered (createdAt desc, documentId desc) query
+ * @param {Query} query - Ordered reports query
+ * @param {number} cursorCreatedAt - createdAt of the previous page's last
+ *     report, only used if that report was deleted
+ * @param {string} cursorId - documentId of the previous page's last report,
+ *     or empty for the first page
+ * @param {number} pageSize - Maximum number of reports to return
+ * @return {Promise<Object>} - {reports, nextCursor}, nextCursor is null on
+ *     the last page
+ */
+async function fetchReportsPage(query, cursorCreatedAt, cursorId, pageSize) {
+  if (cursorId) {
+    // Resume from the cursor document itself, its createdAt keeps the
+    // microseconds a millisecond cursor would drop
+    const cursorDoc = await db.collection("reports").doc(cursorId).get();
+    if (cursorDoc.exists) {
+      query = query.startAfter(cursorDoc);
+    } else {
+      // Cursor report was deleted, resume from the end of its millisecond
+      // so reports in that millisecond are repeated rather than skipped
+      query = query.startAfter(
+          admin.firestore.Timestamp.fromMillis((cursorCreatedAt || 0) + 1),
+          "");
+    }
+  }
 
-      reports.push({
-        documentId: reportId,
-        description: reportData.description || "",
-        hazardType: reportData.hazardType || "",
-        localGov: reportData.localGov || "",
-        locationDetails: reportData.locationDetails || "",
-        latitude,
-        longitude,
-        status: reportData.status || "In progress",
-        userName,
-        userId,
-        score: reportData.score || 0,
-        createdAt: reportData.createdAt ? reportData.createdAt.toMillis() : 0,
-        comments: reportData.comments || 0,
-      });
+  const snapshot = await query.limit(pageSize).get();
+  const reports = await Promise.all(snapshot.docs.map(buildReportPayload));
+
+  // A short page means we reached the end of the query
+  let nextCursor = null;
+  if (reports.length === pageSize) {
+    const last = reports[reports.length - 1];
+    nextCursor = {createdAt: last.createdAt, documentId: last.documentId};
+  }
+  return {reports, nextCursor};
+}
+
+/**
+ * Fetch one page of reports, newest first
+ * Uses a keyset cursor on (createdAt, documentId) so pages stay stable
+ * while new reports are being added at the top of the feed. The cursor is
+ * resolved through the document id, createdAt is only the fallback
+ */
+const getReportsPage = onCall(async (request) => {
+  try {
+    const {cursorCreatedAt, cursorId} = request.data;
+    const requestedSize = parseInt(request.data.pageSize) || DEFAULT_PAGE_SIZE;
+    const pageSize = Math.min(Math.max(requestedSize, 1), MAX_PAGE_SIZE);
+
+    const query = db.collection("reports")
+        .orderBy("createdAt", "desc")
+        .orderBy(admin.firestore.FieldPath.documentId(), "desc");
+
+    const page = await fetchReportsPage(query, cursorCreatedAt, cursorId,
+        pageSize);
+
+    logger.info(`Fetched page of ${page.reports.length} reports`);
+    return page;
+  } catch (error) {
+    logger.error("Error fetching reports page:", error);
+    throw new Error(`Failed to fetch reports page: ${error.message}`);
+  }
+});
+
+/**
+ * Fetch reports changed since a sync token, plus ids of deleted reports
+ * Lets clients apply a delta to their cache instead of downloading every
+ * report again. The returned syncToken is the high-water mark to send next.
+ * When ifNoneMatch equals the server's reports checksum only
+ * {notModified: true, checksum} is returned
+ */
+const getReportsSince = onCall(async (request) => {
+  try {
+    const since = Number(request.data.since) || 0;
+    const {ifNoneMatch} = request.data;
+    const checksum = await getReportsChecksum();
+    if (ifNoneMatch && ifNoneMatch === checksum) {
+      logger.info(`Reports not modified since ${since}`);
+      return {notModified: true, checksum};
     }
 
-    logger.info(`Fetched ${reports.length} reports`);
-    return reports;
+    const from = admin.firestore.Timestamp.fromMillis(
+        Math.max(since - SYNC_OVERLAP_MS, 0));
+
+    const [changedSnapshot, deletedSnapshot] = await Promise.all([
+      db.collection("reports").where("updatedAt", ">", from).get(),
+      db.collection("deletedReports").where("deletedAt", ">", from).get(),
+    ]);
+
+    const reports = await Promise.all(
+        changedSnapshot.docs.map(buildReportPayload));
+    const deletedIds = deletedSnapshot.docs.map((doc) => doc.id);
+
+    let syncToken = since;
+    for (const report of reports) {
+      syncToken = Math.max(syncToken, report.updatedAt);
+    }
+    for (const doc of deletedSnapshot.docs) {
+      const deletedAt = doc.data().deletedAt;
+      if (deletedAt) {
+        syncToken = Math.max(syncToken, deletedAt.toMillis());
+      }
+    }
+
+    logger.info(`Delta since ${since}: ${reports.length} changed, ${
+      deletedIds.length} deleted`);
+    return {notModified: false, checksum, reports, deletedIds, syncToken};
   } catch (error) {
-    logger.error("Error fetching all reports:", error);
+    logger.error("Error fetching report delta:", error);
+    throw new Error(`Failed to fetch report delta: ${error.message}`);
+  }
+});
+
+/**
+ * Fetch one page of the reports in a creation month bucket, newest first
+ * Used after a bucket checksum mismatch, the client reconciles its cached
+ * rows of that month page by page with the returned cursor
+ */
+const getReportsInBucket = onCall(async (request) => {
+  try {
+    const {bucket: bucketKey, cursorCreatedAt, cursorId} = request.data;
+    const requestedSize = parseInt(request.data.pageSize) || DEFAULT_PAGE_SIZE;
+    const pageSize = Math.min(Math.max(requestedSize, 1), MAX_PAGE_SIZE);
+
+    const {start, end} = bucketRange(bucketKey);
+    const query = db.collection("reports")
+        .where("createdAt", ">=", admin.firestore.Timestamp.fromDate(start))
+        .where("createdAt", "<", admin.firestore.Timestamp.fromDate(end))
+        .orderBy("createdAt", "desc")
+        .orderBy(admin.firestore.FieldPath.documentId(), "desc");
+
+    const page = await fetchReportsPage(query, cursorCreatedAt, cursorId,
+        pageSize);
+
+    logger.info(`Fetched page of ${page.reports.length} reports in ${
+      bucketKey}`);
+    return page;
+  } catch (error) {
+    logger.error("Error fetching reports in bucket:", error);
     throw new Error(`Failed to fetch reports: ${error.message}`);
   }
 });
@@ -323,6 +534,12 @@ const deleteReport = onCall(async (request) => {
     // Delete the report document
     await reportRef.delete();
 
+    // Leave a tombstone so delta sync can tell clients to drop the report
+    // TODO: prune tombstones older than any client sync token we still serve
+    await db.collection("deletedReports").doc(reportId).set({
+      deletedAt: admin.firestore.FieldValue.serverTimestamp(),
+    });
+
     // Decrement stats counter based on report status
     try {
       const statField = getStatFieldFromStatus(reportData.status || "Submitted");
@@ -421,9 +638,13 @@ const updateReportStatus = onCall(async (request) => {
 });
 
 module.exports = {
+  createReport,
   submitReport,
   uploadReportPhoto,
   getAllReports,
+  getReportsPage,
+  getReportsSince,
+  getReportsInBucket,
   editReport,
   deleteReport,
   updateReportStatus,
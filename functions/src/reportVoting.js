@@ -1,9 +1,68 @@
 const {onCall} = require("firebase-functions/v2/https");
 const admin = require("firebase-admin");
 const logger = require("firebase-functions/logger");
+const {logVote} = require("./userVoting");
 
 const db = admin.firestore();
 
+/**
+ * Write a user's vote on a report and adjust its score in one transaction
+ * @param {string} reportId - Report document ID
+ * @param {string} userId - Voting user's ID
+ * @param {number} voteType - 1 = upvote, -1 = downvote, 0 = remove vote
+ * @param {boolean} toggle - Repeating the current vote removes it, otherwise
+ *     the vote is set as given so replays are idempotent
+ * @return {Promise<{newScore: number, userVote: number}>} - Result
+ */
+async function applyVote(reportId, userId, voteType, toggle) {
+  const reportRef = db.collection("reports").doc(reportId);
+  const voteRef = reportRef.collection("votes").doc(userId);
+
+  // Run as transaction to prevent race conditions
+  return db.runTransaction(async (transaction) => {
+    const reportDoc = await transaction.get(reportRef);
+    const voteDoc = await transaction.get(voteRef);
+
+    if (!reportDoc.exists) {
+      throw new Error("Report not found");
+    }
+
+    const currentScore = reportDoc.data().score || 0;
+    const previousVote = voteDoc.exists ? voteDoc.data().vote : 0;
+
+    // Same vote again toggles it off unless the vote is being set
+    const userVote = toggle && previousVote === voteType ? 0 : voteType;
+    const scoreChange = userVote - previousVote;
+
+    if (userVote === 0) {
+      transaction.delete(voteRef);
+    } else {
+      transaction.set(voteRef, {vote: userVote});
+    }
+
+    logVote(transaction, userId, "report", reportId, userVote);
+
+    const newScore = currentScore + scoreChange;
+    transaction.update(reportRef, {
+      score: newScore,
+      updatedAt: admin.firestore.FieldValue.serverTimestamp(),
+    });
+
+    return {newScore, userVote};
+  });
+}
+
+/**
+ * Set a user's vote on a report, used when replaying queued votes
+ * @param {string} reportId - Report document ID
+ * @param {string} userId - Voting user's ID
+ * @param {number} voteType - 1 = upvote, -1 = downvote, 0 = remove vote
+ * @return {Promise<{newScore: number, userVote: number}>} - Result
+ */
+function setReportVote(reportId, userId, voteType) {
+  return applyVote(reportId, userId, voteType, false);
+}
+
 /**
  * Vote on a report (upvote or downvote)
  * Each user can only have one vote per report
@@ -22,50 +81,7 @@ const voteReport = onCall(async (request) => {
           "Invalid vote type. Use 1 (upvote), -1 (downvote), or 0 (remove)");
     }
 
-    const reportRef = db.collection("reports").doc(reportId);
-    const voteRef = reportRef.collection("votes").doc(userId);
-
-    // Run as transaction to prevent race conditions
-    const result = await db.runTransaction(async (transaction) => {
-      const reportDoc = await transaction.get(reportRef);
-      const voteDoc = await transaction.get(voteRef);
-
-      if (!reportDoc.exists) {
-        throw new Error("Report not found");
-      }
-
-      const currentScore = reportDoc.data().score || 0;
-      const previousVote = voteDoc.exists ? voteDoc.data().vote : 0;
-
-      // Calculate score change
-      let scoreChange = 0;
-
-      if (voteType === 0) {
-        // Remove vote: subtract the previous vote
-        scoreChange = -previousVote;
-        transaction.delete(voteRef);
-      } else if (previousVote === voteType) {
-        // Same vote again: remove vote (toggle off)
-        scoreChange = -previousVote;
-        transaction.delete(voteRef);
-      } else {
-        // New vote or changing vote
-        // If had previous vote, remove it first, then add new
-        scoreChange = voteType - previousVote;
-        transaction.set(voteRef, {vote: voteType});
-      }
-
-      const newScore = currentScore + scoreChange;
-      transaction.update(reportRef, {score: newScore});
-
-      // Determine user's current vote status after this action
-      let userVote = 0;
-      if (voteType !== 0 && previousVote !== voteType) {
-        userVote = voteType;
-      }
-
-      return {newScore, userVote};
-    });
+    const result = await applyVote(reportId, userId, voteType, true);
 
     logger.info(
         `Vote for report ${reportId} by ${userId}: ${result.userVote}`,
@@ -134,6 +150,7 @@ const getUserVotesForReports = onCall(async (request) => {
 });
 
 module.exports = {
+  setReportVote,
   voteReport,
   getUserVote,
   getUserVotesForReports,
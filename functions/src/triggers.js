@@ -1,5 +1,7 @@
 const {onDocumentDeleted, onDocumentCreated, onDocumentWritten} =
   require("firebase-functions/v2/firestore");
+const {onObjectFinalized} = require("firebase-functions/v2/storage");
+const admin = require("firebase-admin");
 const logger = require("firebase-functions/logger");
 const {
   updateReportsChecksum,
@@ -8,23 +10,53 @@ const {
   updateUsersVersion,
 } = require("./checksumManager");
 
+const db = admin.firestore();
+
+// Firestore batches are limited to 500 writes
+const BATCH_LIMIT = 500;
+
+/**
+ * Bump updatedAt on every report by a user
+ * Reports carry the author's name and avatar version, so delta sync has
+ * to resend them
+ * @param {string} userId - The user ID
+ * @return {Promise<void>}
+ */
+async function touchReportsByUser(userId) {
+  const userRef = db.collection("users").doc(userId);
+  const snapshot = await db.collection("reports")
+      .where("user", "==", userRef)
+      .get();
+
+  for (let i = 0; i < snapshot.docs.length; i += BATCH_LIMIT) {
+    const batch = db.batch();
+    snapshot.docs.slice(i, i + BATCH_LIMIT).forEach((doc) => {
+      batch.update(doc.ref, {
+        updatedAt: admin.firestore.FieldValue.serverTimestamp(),
+      });
+    });
+    await batch.commit();
+  }
+  logger.info(`Touched ${snapshot.size} reports for user ${userId}`);
+}
+
 /**
  * Update reports checksum when a report is created
  */
 const onReportCreated = onDocumentCreated(
     "reports/{reportId}",
-    async () => {
-      await updateReportsChecksum();
+    async (event) => {
+      await updateReportsChecksum(event.params.reportId);
     },
 );
 
 /**
- * Update reports checksum when a report is modified
+ * Update reports checksum when a report is modified or deleted
  */
 const onReportWritten = onDocumentWritten(
     "reports/{reportId}",
-    async () => {
-      await updateReportsChecksum();
+    async (event) => {
+      await updateReportsChecksum(event.params.reportId);
     },
 );
 
@@ -62,14 +94,54 @@ const onCommentWritten = onDocumentWritten(
 /**
  * Update user profile checksum when user data changes
  * Also updates global usersVersion to invalidate caches that reference users
+ * and re-stamps the user's reports on a name or avatar change for delta sync
  */
 const onUserWritten = onDocumentWritten(
     "users/{userId}",
     async (event) => {
       await updateUsersVersion();
+
+      const before = event.data.before.data();
+      const after = event.data.after.data();
+      if (before && after && (before.name !== after.name ||
+          before.avatarVersion !== after.avatarVersion)) {
+        try {
+          await touchReportsByUser(event.params.userId);
+        } catch (error) {
+          logger.error("Error touching reports after name change:", error);
+        }
+      }
     },
 );
 
+/**
+ * Record the Storage generation of an uploaded image on its owning document
+ * Clients cache images by path + generation, so a re-upload changes the key
+ */
+const onImageFinalized = onObjectFinalized(async (event) => {
+  const match = /^(report_photos|profile_pictures)\/([^/]+)\.jpg$/
+      .exec(event.data.name || "");
+  if (!match) return;
+
+  const [, folder, id] = match;
+  const version = String(event.data.generation);
+  try {
+    if (folder === "report_photos") {
+      await db.collection("reports").doc(id).update({
+        photoVersion: version,
+        updatedAt: admin.firestore.FieldValue.serverTimestamp(),
+      });
+    } else {
+      await db.collection("users").doc(id).update({avatarVersion: version});
+    }
+    logger.info(`Recorded image version ${version} for ${event.data.name}`);
+  } catch (error) {
+    // Owning document may already be deleted
+    logger.warn(`Could not record image version for ${event.data.name}`,
+        error);
+  }
+});
+
 /**
  * Trigger to clean up user data when user document is deleted
  */
@@ -91,4 +163,5 @@ module.exports = {
   onCommentWritten,
   onUserWritten,
   onUserDeleted,
+  onImageFinalized,
 };
@@ -72,6 +72,51 @@ const getIsAdmin = onCall(async (request) => {
   }
 });
 
+/**
+ * Maximum user IDs accepted per getUsersMeta call
+ * Clients chunk larger sets so a single payload stays small
+ */
+const USERS_META_MAX_IDS = 100;
+
+/**
+ * Retrieve admin status, name and avatar version for a set of users
+ * Replaces one getIsAdmin call per author with a single batched read
+ */
+const getUsersMeta = onCall(async (request) => {
+  try {
+    const {userIds} = request.data;
+    if (!Array.isArray(userIds)) {
+      throw new Error("User IDs are required");
+    }
+    if (userIds.length > USERS_META_MAX_IDS) {
+      throw new Error(`At most ${USERS_META_MAX_IDS} user IDs per call`);
+    }
+
+    const uniqueIds = [...new Set(userIds.filter(
+        (id) => typeof id === "string" && id.length > 0))];
+    const users = {};
+    if (uniqueIds.length === 0) {
+      return {users};
+    }
+
+    const refs = uniqueIds.map((id) => db.collection("users").doc(id));
+    const userDocs = await db.getAll(...refs);
+    for (const userDoc of userDocs) {
+      const userData = userDoc.exists ? userDoc.data() : {};
+      users[userDoc.id] = {
+        isAdmin: userData.isAdmin === true,
+        name: userData.name || null,
+        avatarVersion: userData.avatarVersion || "",
+      };
+    }
+
+    return {users};
+  } catch (error) {
+    logger.error("Error fetching users meta:", error);
+    throw new Error(`Failed to fetch users meta: ${error.message}`);
+  }
+});
+
 /**
  * Update user name in both Auth profile and Firestore
  */
@@ -167,6 +212,7 @@ module.exports = {
   getUserName,
   getUserPhone,
   getIsAdmin,
+  getUsersMeta,
   updateUserName,
   updateUserPhone,
   deleteAccount,
@@ -4,32 +4,174 @@ const logger = require("firebase-functions/logger");
 
 const db = admin.firestore();
 
+// Vote sync re-reads this much history before the client's sync token so
+// votes committed with a slightly older server timestamp are not skipped
+const SYNC_OVERLAP_MS = 5000;
+
+// Firestore limit on writes per batch
+const MAX_BATCH_WRITES = 500;
+
 /**
- * Get all report votes for a specific user
- * Returns a map of reportId -> voteType
+ * Reference to a user's vote log entry for one report or comment
+ * The log holds the user's current vote per target with the time it changed
+ * @param {string} userId - Voting user's ID
+ * @param {string} kind - "report" or "comment"
+ * @param {string} targetId - Report or comment ID
+ * @return {FirebaseFirestore.DocumentReference} - Log entry reference
  */
-const getAllReportVotesForUser = onCall(async (request) => {
+function voteLogRef(userId, kind, targetId) {
+  return db.collection("users").doc(userId)
+      .collection("voteLog").doc(`${kind}_${targetId}`);
+}
+
+/**
+ * Record a vote change in the user's vote log, inside the vote's transaction
+ * @param {FirebaseFirestore.Transaction} transaction - Vote transaction
+ * @param {string} userId - Voting user's ID
+ * @param {string} kind - "report" or "comment"
+ * @param {string} targetId - Report or comment ID
+ * @param {number} vote - Resulting vote, 0 when removed
+ */
+function logVote(transaction, userId, kind, targetId, vote) {
+  transaction.set(voteLogRef(userId, kind, targetId), {
+    kind,
+    targetId,
+    vote,
+    updatedAt: admin.firestore.FieldValue.serverTimestamp(),
+  });
+}
+
+/**
+ * Read a user's vote on every document of a collection
+ * @param {string} collection - "reports" or "comments"
+ * @param {string} userId - Voting user's ID
+ * @return {Promise<Object>} - Map of document ID -> vote, 0 when not voted
+ */
+async function collectVotes(collection, userId) {
+  const allDocs = await db.collection(collection).get();
+  const votesMap = {};
+
+  for (const doc of allDocs.docs) {
+    const voteDoc = await db.collection(collection).doc(doc.id)
+        .collection("votes").doc(userId).get();
+    votesMap[doc.id] = voteDoc.exists ? voteDoc.data().vote : 0;
+  }
+  return votesMap;
+}
+
+/**
+ * Fill the vote log from the vote subcollections, once per user
+ * Covers votes cast before the log existed
+ * @param {string} userId - Voting user's ID
+ */
+async function backfillVoteLog(userId) {
+  const userRef = db.collection("users").doc(userId);
+  const userDoc = await userRef.get();
+  if (userDoc.exists && userDoc.data().voteLogBackfilled) {
+    return;
+  }
+
+  const [reportVotes, commentVotes] = await Promise.all([
+    collectVotes("reports", userId),
+    collectVotes("comments", userId),
+  ]);
+
+  const entries = [];
+  for (const [targetId, vote] of Object.entries(reportVotes)) {
+    if (vote !== 0) entries.push({kind: "report", targetId, vote});
+  }
+  for (const [targetId, vote] of Object.entries(commentVotes)) {
+    if (vote !== 0) entries.push({kind: "comment", targetId, vote});
+  }
+
+  // Every vote change since the scan has logged an entry of its own, which
+  // is newer than the scanned vote, so only missing entries are created
+  let created = 0;
+  for (let start = 0; start < entries.length; start += MAX_BATCH_WRITES) {
+    const results = await Promise.all(entries
+        .slice(start, start + MAX_BATCH_WRITES)
+        .map((entry) => voteLogRef(userId, entry.kind, entry.targetId)
+            .create({
+              kind: entry.kind,
+              targetId: entry.targetId,
+              vote: entry.vote,
+              updatedAt: admin.firestore.FieldValue.serverTimestamp(),
+            })
+            .then(() => true)
+            .catch((error) => {
+              // 6 = ALREADY_EXISTS
+              if (error.code === 6) return false;
+              throw error;
+            })));
+    created += results.filter(Boolean).length;
+  }
+
+  await userRef.set({voteLogBackfilled: true}, {merge: true});
+  logger.info(`Backfilled ${created} of ${entries.length} vote log entries ` +
+      `for ${userId}`);
+}
+
+/**
+ * Get a user's votes that changed since a sync token
+ * A token of 0 returns every current vote
+ * Returns {reportVotes, commentVotes, syncToken}, removed votes come back as 0
+ */
+const getVotesSince = onCall(async (request) => {
   try {
     const {userId} = request.data;
+    const since = Number(request.data.since) || 0;
 
     if (!userId) {
       throw new Error("User ID is required");
     }
 
-    const allReports = await db.collection("reports").get();
-    const votesMap = {};
+    if (since === 0) {
+      await backfillVoteLog(userId);
+    }
 
-    for (const reportDoc of allReports.docs) {
-      const reportRef = db.collection("reports").doc(reportDoc.id);
-      const voteDoc = await reportRef.collection("votes").doc(userId).get();
+    const from = admin.firestore.Timestamp.fromMillis(
+        Math.max(since - SYNC_OVERLAP_MS, 0));
+    const snapshot = await db.collection("users").doc(userId)
+        .collection("voteLog").where("updatedAt", ">", from).get();
 
-      if (voteDoc.exists) {
-        votesMap[reportDoc.id] = voteDoc.data().vote;
-      } else {
-        votesMap[reportDoc.id] = 0;
+    const reportVotes = {};
+    const commentVotes = {};
+    let syncToken = since;
+    for (const doc of snapshot.docs) {
+      const {kind, targetId, vote, updatedAt} = doc.data();
+      if (kind === "report") {
+        reportVotes[targetId] = vote;
+      } else if (kind === "comment") {
+        commentVotes[targetId] = vote;
+      }
+      if (updatedAt) {
+        syncToken = Math.max(syncToken, updatedAt.toMillis());
       }
     }
 
+    logger.info(`Vote delta since ${since} for ${userId}: ${
+      snapshot.size} changed`);
+    return {reportVotes, commentVotes, syncToken};
+  } catch (error) {
+    logger.error("Error fetching vote delta:", error);
+    throw new Error(`Failed to fetch votes: ${error.message}`);
+  }
+});
+
+/**
+ * Get all report votes for a specific user
+ * Returns a map of reportId -> voteType
+ */
+const getAllReportVotesForUser = onCall(async (request) => {
+  try {
+    const {userId} = request.data;
+
+    if (!userId) {
+      throw new Error("User ID is required");
+    }
+
+    const votesMap = await collectVotes("reports", userId);
+
     logger.info(`Fetched all report votes for user ${userId}: ${
       Object.keys(votesMap).length} reports`);
     return {votes: votesMap};
@@ -51,19 +193,7 @@ const getAllCommentVotesForUser = onCall(async (request) => {
       throw new Error("User ID is required");
     }
 
-    const allComments = await db.collection("comments").get();
-    const votesMap = {};
-
-    for (const commentDoc of allComments.docs) {
-      const commentRef = db.collection("comments").doc(commentDoc.id);
-      const voteDoc = await commentRef.collection("votes").doc(userId).get();
-
-      if (voteDoc.exists) {
-        votesMap[commentDoc.id] = voteDoc.data().vote;
-      } else {
-        votesMap[commentDoc.id] = 0;
-      }
-    }
+    const votesMap = await collectVotes("comments", userId);
 
     logger.info(`Fetched all comment votes for user ${userId}: ${
       Object.keys(votesMap).length} comments`);
@@ -75,6 +205,8 @@ const getAllCommentVotesForUser = onCall(async (request) => {
 });
 
 module.exports = {
+  logVote,
+  getVotesSince,
   getAllReportVotesForUser,
   getAllCommentVotesForUser,
 };